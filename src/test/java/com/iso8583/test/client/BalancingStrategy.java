@@ -0,0 +1,98 @@
+package com.iso8583.test.client;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Elige a qué simulador va cada request (client.load-balancer.strategy)
+ *
+ * - round-robin
+ * - least-outstanding: el de menos requests en vuelo
+ * - p2c-ewma: dos al azar, gana el de menor EWMA de latencia × (en vuelo + 1)
+ */
+public interface BalancingStrategy {
+
+    /**
+     * @param candidates nodos no expulsados (nunca vacía)
+     */
+    SimulatorNode choose(List<SimulatorNode> candidates);
+
+    static BalancingStrategy of(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "round-robin":
+                return new RoundRobin();
+            case "least-outstanding":
+                return new LeastOutstanding();
+            case "p2c-ewma":
+                return new PowerOfTwoChoices();
+            default:
+                throw new IllegalArgumentException("Estrategia de balanceo desconocida: " + name
+                        + " (round-robin, least-outstanding, p2c-ewma)");
+        }
+    }
+
+    class RoundRobin implements BalancingStrategy {
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Override
+        public SimulatorNode choose(List<SimulatorNode> candidates) {
+            return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+        }
+
+        @Override
+        public String toString() {
+            return "round-robin";
+        }
+    }
+
+    class LeastOutstanding implements BalancingStrategy {
+        @Override
+        public SimulatorNode choose(List<SimulatorNode> candidates) {
+            // Arranca en una posición al azar para repartir los empates
+            int size = candidates.size();
+            int start = ThreadLocalRandom.current().nextInt(size);
+            SimulatorNode best = null;
+            for (int i = 0; i < size; i++) {
+                SimulatorNode node = candidates.get((start + i) % size);
+                if (best == null || node.getOutstanding() < best.getOutstanding()) {
+                    best = node;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public String toString() {
+            return "least-outstanding";
+        }
+    }
+
+    class PowerOfTwoChoices implements BalancingStrategy {
+        @Override
+        public SimulatorNode choose(List<SimulatorNode> candidates) {
+            int size = candidates.size();
+            if (size == 1) {
+                return candidates.get(0);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            SimulatorNode a = candidates.get(first);
+            SimulatorNode b = candidates.get(second);
+            return cost(a) <= cost(b) ? a : b;
+        }
+
+        private static double cost(SimulatorNode node) {
+            return node.getEwmaMillis() * (node.getOutstanding() + 1);
+        }
+
+        @Override
+        public String toString() {
+            return "p2c-ewma";
+        }
+    }
+}
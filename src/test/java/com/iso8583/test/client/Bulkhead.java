@@ -0,0 +1,111 @@
+package com.iso8583.test.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bulkhead sin locks: limita las requests en vuelo contra un endpoint
+ *
+ * El cupo es un AtomicInteger con CAS; si está lleno se reintenta con
+ * back-off corto (park) hasta {@code maxWait}, sin colas ni monitores.
+ */
+public class Bulkhead {
+
+    private static final long MIN_BACKOFF_NANOS = 50_000L;      // 50µs
+    private static final long MAX_BACKOFF_NANOS = 5_000_000L;   // 5ms
+
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    public Bulkhead(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight debe ser mayor a 0: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Ocupa un lugar esperando como máximo {@code maxWaitNanos}
+     *
+     * @return false si no se liberó un lugar a tiempo
+     */
+    public boolean tryEnter(long maxWaitNanos) {
+        if (tryIncrement()) {
+            admitted.increment();
+            return true;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + maxWaitNanos;
+        long backoff = MIN_BACKOFF_NANOS;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(Math.min(backoff, Math.max(1, deadline - System.nanoTime())));
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+            if (tryIncrement()) {
+                admitted.increment();
+                waited.increment();
+                totalWaitNanos.add(System.nanoTime() - start);
+                return true;
+            }
+        }
+
+        rejected.increment();
+        return false;
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    private boolean tryIncrement() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    /**
+     * Requests que entraron después de esperar un lugar
+     */
+    public long getWaited() {
+        return waited.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public double getMeanWaitMillis() {
+        long count = waited.sum();
+        return count == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / count;
+    }
+}
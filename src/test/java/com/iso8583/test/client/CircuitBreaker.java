@@ -0,0 +1,308 @@
+package com.iso8583.test.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker de un endpoint
+ *
+ * - CLOSED: las llamadas pasan; el resultado de las últimas {@code windowSize}
+ *   va a una ventana circular. Con al menos {@code minimumCalls} registradas,
+ *   si el % de fallos o de llamadas lentas supera su umbral → OPEN.
+ * - OPEN: falla rápido con {@link CircuitOpenException} durante {@code openNanos}.
+ * - HALF_OPEN: deja pasar {@code halfOpenProbes} transacciones de prueba;
+ *   si todas salen bien → CLOSED, con la primera que falle → OPEN otra vez.
+ *
+ * Las transiciones y la ventana se protegen con el monitor del breaker; la
+ * llamada en sí se hace fuera del lock.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    // Ventana circular: por cada llamada, si falló y si fue lenta
+    private final boolean[] failedWindow;
+    private final boolean[] slowWindow;
+    private int windowIndex;
+    private int windowCount;
+    private int failedInWindow;
+    private int slowInWindow;
+
+    private volatile State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timesOpened = new LongAdder();
+    private final LongAdder totalOpenNanos = new LongAdder();
+
+    private CircuitBreaker(Builder builder) {
+        this.name = builder.name;
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.windowSize);
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallNanos = builder.slowCallNanos;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.openNanos = builder.openNanos;
+        this.halfOpenProbes = builder.halfOpenProbes;
+        this.failedWindow = new boolean[windowSize];
+        this.slowWindow = new boolean[windowSize];
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Ejecuta la llamada si el circuito lo permite
+     *
+     * @param isFailure resultado que cuenta como fallo aunque no haya lanzado excepción (ej. HTTP 5xx)
+     * @throws CircuitOpenException si el circuito está abierto o sin lugar para otra prueba
+     */
+    public <T> T execute(Supplier<T> call, Predicate<T> isFailure) {
+        boolean probe = acquirePermission();
+
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            onResult(probe, true, System.nanoTime() - start);
+            throw e;
+        }
+        onResult(probe, isFailure.test(result), System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * @return true si la llamada es una transacción de prueba en HALF_OPEN
+     */
+    private synchronized boolean acquirePermission() {
+        if (state == State.OPEN) {
+            long openFor = System.nanoTime() - openedAtNanos;
+            if (openFor < openNanos) {
+                rejected.increment();
+                throw new CircuitOpenException(name, TimeUnit.NANOSECONDS.toMillis(openNanos - openFor));
+            }
+            totalOpenNanos.add(openFor);
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+            logger.info("🟡 Circuito {} HALF_OPEN - enviando {} transacciones de prueba", name, halfOpenProbes);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                rejected.increment();
+                throw new CircuitOpenException(name, 0);
+            }
+            probesStarted++;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void onResult(boolean probe, boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+        calls.increment();
+        if (failed) {
+            failures.increment();
+        }
+        if (slow) {
+            slowCalls.increment();
+        }
+
+        if (probe) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            if (failed || slow) {
+                open(String.format("la transacción de prueba %s", failed ? "falló" : "fue lenta"));
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                resetWindow();
+                state = State.CLOSED;
+                logger.info("🟢 Circuito {} CLOSED - {} pruebas exitosas", name, probesSucceeded);
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            // Llamada que empezó antes de abrir el circuito
+            return;
+        }
+
+        record(failed, slow);
+        if (windowCount < minimumCalls) {
+            return;
+        }
+        double failureRate = failedInWindow * 100.0 / windowCount;
+        double slowRate = slowInWindow * 100.0 / windowCount;
+        if (failureRate >= failureRateThreshold) {
+            open(String.format("%.0f%% de fallos en las últimas %d llamadas", failureRate, windowCount));
+        } else if (slowRate >= slowCallRateThreshold) {
+            open(String.format("%.0f%% de llamadas lentas (>= %d ms) en las últimas %d",
+                    slowRate, TimeUnit.NANOSECONDS.toMillis(slowCallNanos), windowCount));
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (windowCount == windowSize) {
+            if (failedWindow[windowIndex]) {
+                failedInWindow--;
+            }
+            if (slowWindow[windowIndex]) {
+                slowInWindow--;
+            }
+        } else {
+            windowCount++;
+        }
+        failedWindow[windowIndex] = failed;
+        slowWindow[windowIndex] = slow;
+        if (failed) {
+            failedInWindow++;
+        }
+        if (slow) {
+            slowInWindow++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        failedInWindow = 0;
+        slowInWindow = 0;
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        timesOpened.increment();
+        resetWindow();
+        logger.warn("🔴 Circuito {} OPEN por {} ms - {}", name, TimeUnit.NANOSECONDS.toMillis(openNanos), reason);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getSlowCalls() {
+        return slowCalls.sum();
+    }
+
+    /**
+     * Llamadas que fallaron rápido sin salir del cliente
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getTimesOpened() {
+        return timesOpened.sum();
+    }
+
+    /**
+     * Tiempo total en OPEN, incluido el periodo abierto en curso
+     */
+    public synchronized long getTotalOpenMillis() {
+        long total = totalOpenNanos.sum();
+        if (state == State.OPEN) {
+            total += System.nanoTime() - openedAtNanos;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(total);
+    }
+
+    // ============================================================================
+    // BUILDER
+    // ============================================================================
+
+    public static class Builder {
+        private final String name;
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 50.0;
+        private long slowCallNanos = TimeUnit.SECONDS.toNanos(2);
+        private double slowCallRateThreshold = 80.0;
+        private long openNanos = TimeUnit.SECONDS.toNanos(5);
+        private int halfOpenProbes = 5;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder windowSize(int windowSize) {
+            this.windowSize = Math.max(1, windowSize);
+            return this;
+        }
+
+        public Builder minimumCalls(int minimumCalls) {
+            this.minimumCalls = Math.max(1, minimumCalls);
+            return this;
+        }
+
+        /**
+         * @param percent % de fallos (0-100) que abre el circuito
+         */
+        public Builder failureRateThreshold(double percent) {
+            this.failureRateThreshold = percent;
+            return this;
+        }
+
+        public Builder slowCallThresholdMillis(long millis) {
+            this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+            return this;
+        }
+
+        /**
+         * @param percent % de llamadas lentas (0-100) que abre el circuito
+         */
+        public Builder slowCallRateThreshold(double percent) {
+            this.slowCallRateThreshold = percent;
+            return this;
+        }
+
+        public Builder openMillis(long millis) {
+            this.openNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+            return this;
+        }
+
+        public Builder halfOpenProbes(int probes) {
+            this.halfOpenProbes = Math.max(1, probes);
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+}
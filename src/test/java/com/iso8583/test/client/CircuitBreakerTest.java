@@ -0,0 +1,120 @@
+package com.iso8583.test.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Transiciones CLOSED → OPEN → HALF_OPEN → CLOSED/OPEN del circuit breaker
+ */
+class CircuitBreakerTest {
+
+    private static CircuitBreaker.Builder breaker() {
+        return CircuitBreaker.builder("test")
+                .windowSize(10)
+                .minimumCalls(4)
+                .failureRateThreshold(50)
+                .slowCallThresholdMillis(10_000)
+                .openMillis(50)
+                .halfOpenProbes(2);
+    }
+
+    private static void call(CircuitBreaker breaker, boolean fail) {
+        breaker.execute(() -> fail ? 500 : 200, status -> status >= 500);
+    }
+
+    private static void awaitHalfOpenWindow() {
+        LockSupport.parkNanos(80_000_000L);
+    }
+
+    @Test
+    void noAbreAntesDelMinimoDeLlamadas() {
+        CircuitBreaker breaker = breaker().build();
+
+        for (int i = 0; i < 3; i++) {
+            call(breaker, true);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void abrePorTasaDeFallosYFallaRapido() {
+        CircuitBreaker breaker = breaker().build();
+
+        call(breaker, false);
+        call(breaker, false);
+        call(breaker, true);
+        call(breaker, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> call(breaker, false))
+                .isInstanceOf(CircuitOpenException.class)
+                .satisfies(e -> assertThat(((CircuitOpenException) e).getEndpoint()).isEqualTo("test"));
+        assertThat(breaker.getRejected()).isEqualTo(1);
+        assertThat(breaker.getTimesOpened()).isEqualTo(1);
+    }
+
+    @Test
+    void lasExcepcionesCuentanComoFallo() {
+        CircuitBreaker breaker = breaker().build();
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> {
+                throw new IllegalStateException("sin conexión");
+            }, result -> false)).isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getFailures()).isEqualTo(4);
+    }
+
+    @Test
+    void cierraSiLasPruebasSalenBien() {
+        CircuitBreaker breaker = breaker().build();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+        awaitHalfOpenWindow();
+
+        call(breaker, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        call(breaker, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void vuelveAAbrirSiUnaPruebaFalla() {
+        CircuitBreaker breaker = breaker().build();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+        awaitHalfOpenWindow();
+
+        call(breaker, true);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getTimesOpened()).isEqualTo(2);
+    }
+
+    @Test
+    void enHalfOpenLimitaLasPruebasConcurrentes() {
+        CircuitBreaker breaker = breaker().halfOpenProbes(1).build();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+        awaitHalfOpenWindow();
+
+        // La prueba en curso ocupa el único lugar: una segunda llamada dentro de ella se rechaza
+        breaker.execute(() -> {
+            assertThatThrownBy(() -> call(breaker, false)).isInstanceOf(CircuitOpenException.class);
+            return 200;
+        }, status -> false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
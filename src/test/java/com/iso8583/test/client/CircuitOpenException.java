@@ -0,0 +1,28 @@
+package com.iso8583.test.client;
+
+/**
+ * La request no se envió porque el circuit breaker del endpoint está abierto
+ * (o en HALF_OPEN con todas las transacciones de prueba ya en curso)
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String endpoint;
+    private final long retryInMillis;
+
+    public CircuitOpenException(String endpoint, long retryInMillis) {
+        // Sin stack trace: con el circuito abierto se lanza a la tasa de la carga
+        super("Circuito abierto para " + endpoint + " - reintento en " + retryInMillis + " ms", null, false, false);
+        this.endpoint = endpoint;
+        this.retryInMillis = retryInMillis;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRetryInMillis() {
+        return retryInMillis;
+    }
+}
@@ -0,0 +1,21 @@
+package com.iso8583.test.client;
+
+/**
+ * La request no se envió porque el limitador o el bulkhead del cliente
+ * no dieron paso dentro de la espera máxima configurada
+ */
+public class ClientThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String endpoint;
+
+    public ClientThrottledException(String endpoint, String reason) {
+        super("Request a " + endpoint + " limitada por el cliente: " + reason);
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,93 @@
+package com.iso8583.test.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Presupuesto de tiempo de una transacción (simulator.timeout)
+ *
+ * Se crea al empezar {@code sendTransaction} y viaja en el hilo actual por
+ * validación, verificación de conexión, envío y parseo: {@link DeadlineFilter}
+ * fija los timeouts de socket con lo que queda y cada fase llama a
+ * {@link #check(String)} antes de empezar.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long budgetMillis;
+    private final long expiresAtNanos;
+
+    private Deadline(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+        this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    public static Deadline after(long budgetMillis) {
+        return new Deadline(budgetMillis);
+    }
+
+    /**
+     * Deadline de la transacción que corre en este hilo (null si no hay)
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Envuelve la llamada para que corra con el deadline actual en otro hilo
+     * (ej. el duplicado de {@link HedgingPolicy})
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> call) {
+        Deadline deadline = current();
+        return deadline == null ? call : () -> deadline.run(call);
+    }
+
+    /**
+     * Ejecuta la llamada con este deadline como actual y restaura el anterior
+     */
+    public <T> T run(Supplier<T> call) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @throws DeadlineExceededException si el presupuesto se agotó antes de {@code phase}
+     */
+    public void check(String phase) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(budgetMillis, phase);
+        }
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * Milisegundos restantes (negativo si ya venció)
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime());
+    }
+
+    /**
+     * Nanosegundos restantes (negativo si ya venció)
+     */
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+}
@@ -0,0 +1,27 @@
+package com.iso8583.test.client;
+
+/**
+ * El presupuesto de tiempo de la transacción se agotó antes de una fase
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long budgetMillis;
+    private final String phase;
+
+    public DeadlineExceededException(long budgetMillis, String phase) {
+        // Sin stack trace: con el simulador colgado se lanza a la tasa de la carga
+        super("Deadline de " + budgetMillis + " ms vencido antes de: " + phase, null, false, false);
+        this.budgetMillis = budgetMillis;
+        this.phase = phase;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+}
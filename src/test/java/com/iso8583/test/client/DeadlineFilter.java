@@ -0,0 +1,45 @@
+package com.iso8583.test.client;
+
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Fija connect/read timeout de cada request HTTP
+ *
+ * - Dentro de una transacción: lo que queda de su {@link Deadline}
+ *   (falla sin enviar si ya venció).
+ * - Fuera de una transacción (connect, status, keep-alive...): el timeout
+ *   por defecto, para que un simulador colgado no bloquee el hilo para siempre.
+ */
+public class DeadlineFilter implements Filter {
+
+    private final long defaultTimeoutMillis;
+
+    public DeadlineFilter(long defaultTimeoutMillis) {
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        long timeoutMillis = defaultTimeoutMillis;
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            deadline.check(requestSpec.getMethod() + " " + requestSpec.getURI());
+            timeoutMillis = Math.min(defaultTimeoutMillis, deadline.remainingMillis());
+        }
+
+        int timeout = (int) Math.max(1, Math.min(Integer.MAX_VALUE, timeoutMillis));
+        RestAssuredConfig config = requestSpec.getConfig();
+        requestSpec.config(config.httpClient(config.getHttpClientConfig()
+                .setParam("http.connection.timeout", timeout)
+                .setParam("http.socket.timeout", timeout)));
+
+        return context.next(requestSpec, responseSpec);
+    }
+}
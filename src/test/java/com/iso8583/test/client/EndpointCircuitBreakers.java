@@ -0,0 +1,92 @@
+package com.iso8583.test.client;
+
+import com.iso8583.test.config.ConfigurationManager;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Un {@link CircuitBreaker} por endpoint de /api/v1/transactions/*
+ *
+ * Con el enlace al autorizador caído, las llamadas fallan rápido con
+ * {@link CircuitOpenException} en vez de esperar cada una su error.
+ * Configuración (umbrales en %):
+ *
+ *   client.circuit-breaker.enabled=true
+ *   client.circuit-breaker.window-size=50
+ *   client.circuit-breaker.minimum-calls=20
+ *   client.circuit-breaker.failure-rate-threshold=50
+ *   client.circuit-breaker.slow-call-threshold-millis=2000
+ *   client.circuit-breaker.slow-call-rate-threshold=80
+ *   client.circuit-breaker.open-millis=5000
+ *   client.circuit-breaker.half-open-probes=5
+ */
+public class EndpointCircuitBreakers {
+
+    private static final String PREFIX = "client.circuit-breaker.";
+
+    private final ConfigurationManager config;
+    private final boolean enabled;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public EndpointCircuitBreakers(ConfigurationManager config) {
+        this.config = config;
+        this.enabled = config.getBooleanProperty(PREFIX + "enabled", false);
+    }
+
+    /**
+     * Ejecuta la llamada a través del circuit breaker del endpoint
+     *
+     * @param endpoint último segmento del path, ej. "purchase"
+     * @param isFailure resultado que cuenta como fallo (ej. HTTP 5xx)
+     * @throws CircuitOpenException si el circuito del endpoint está abierto
+     */
+    public <T> T execute(String endpoint, Supplier<T> call, Predicate<T> isFailure) {
+        if (!enabled) {
+            return call.get();
+        }
+        return breakers.computeIfAbsent(endpoint, this::createBreaker).execute(call, isFailure);
+    }
+
+    private CircuitBreaker createBreaker(String endpoint) {
+        return CircuitBreaker.builder(endpoint)
+                .windowSize(config.getIntProperty(PREFIX + "window-size", 50))
+                .minimumCalls(config.getIntProperty(PREFIX + "minimum-calls", 20))
+                .failureRateThreshold(config.getDoubleProperty(PREFIX + "failure-rate-threshold", 50.0))
+                .slowCallThresholdMillis(config.getLongProperty(PREFIX + "slow-call-threshold-millis", 2000))
+                .slowCallRateThreshold(config.getDoubleProperty(PREFIX + "slow-call-rate-threshold", 80.0))
+                .openMillis(config.getLongProperty(PREFIX + "open-millis", 5000))
+                .halfOpenProbes(config.getIntProperty(PREFIX + "half-open-probes", 5))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CircuitBreaker getBreaker(String endpoint) {
+        return breakers.get(endpoint);
+    }
+
+    /**
+     * Estado y contadores por endpoint
+     */
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("🔌 CIRCUIT BREAKERS\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        if (!enabled) {
+            summary.append("Disabled (client.circuit-breaker.enabled=false)\n");
+            return summary.toString();
+        }
+        new TreeMap<>(breakers).forEach((endpoint, breaker) ->
+                summary.append(String.format("%-16s %-9s | calls %d | failed %d | slow %d | opened %dx (%d ms) | fast-failed %d\n",
+                        endpoint, breaker.getState(), breaker.getCalls(), breaker.getFailures(),
+                        breaker.getSlowCalls(), breaker.getTimesOpened(), breaker.getTotalOpenMillis(),
+                        breaker.getRejected())));
+        return summary.toString();
+    }
+}
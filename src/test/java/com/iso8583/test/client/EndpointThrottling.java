@@ -0,0 +1,160 @@
+package com.iso8583.test.client;
+
+import com.iso8583.test.config.ConfigurationManager;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Token bucket + bulkhead por endpoint de /api/v1/transactions/*
+ *
+ * Evita que una corrida paralela desbocada inunde el autorizador REAL
+ * compartido. La espera por un permiso es la menor entre max-wait-millis y lo
+ * que le queda al {@link Deadline} de la transacción: si el deadline es el
+ * que corta, falla enseguida con {@link DeadlineExceededException} en vez de
+ * esperar un permiso que ya no le sirve. Configuración (tps/max-in-flight = 0 → sin límite):
+ *
+ *   client.throttling.enabled=true
+ *   client.throttling.max-wait-millis=5000
+ *   client.rate-limit.default.tps=50        client.rate-limit.purchase.tps=20
+ *   client.rate-limit.default.burst=10
+ *   client.bulkhead.default.max-in-flight=20 client.bulkhead.purchase.max-in-flight=5
+ */
+public class EndpointThrottling {
+
+    private final ConfigurationManager config;
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public EndpointThrottling(ConfigurationManager config) {
+        this.config = config;
+        this.enabled = config.getBooleanProperty("client.throttling.enabled", false);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(
+                config.getLongProperty("client.throttling.max-wait-millis", 5000));
+    }
+
+    /**
+     * Ejecuta la llamada respetando el límite de tasa y de concurrencia del endpoint
+     *
+     * @param endpoint último segmento del path, ej. "purchase"
+     * @throws ClientThrottledException si no hubo paso dentro de la espera máxima
+     * @throws DeadlineExceededException si el deadline de la transacción vence antes que el permiso
+     */
+    public <T> T execute(String endpoint, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        Guard guard = guards.computeIfAbsent(endpoint, this::createGuard);
+
+        Deadline deadline = Deadline.current();
+        if (guard.limiter != null) {
+            String limit = "rate limit de " + guard.limiter.getPermitsPerSecond() + " TPS";
+            long waitNanos = waitNanos(deadline, endpoint, limit);
+            if (!guard.limiter.acquire(waitNanos)) {
+                throw rejection(endpoint, limit, deadline, waitNanos);
+            }
+        }
+        if (guard.bulkhead == null) {
+            return call.get();
+        }
+        String limit = "bulkhead de " + guard.bulkhead.getMaxInFlight() + " en vuelo";
+        long waitNanos = waitNanos(deadline, endpoint, limit);
+        if (!guard.bulkhead.tryEnter(waitNanos)) {
+            throw rejection(endpoint, limit, deadline, waitNanos);
+        }
+        try {
+            return call.get();
+        } finally {
+            guard.bulkhead.exit();
+        }
+    }
+
+    /**
+     * Espera máxima por el permiso: max-wait-millis, o lo que queda del deadline si es menos
+     */
+    private long waitNanos(Deadline deadline, String endpoint, String limit) {
+        if (deadline == null) {
+            return maxWaitNanos;
+        }
+        deadline.check(limit + " de " + endpoint);
+        return Math.min(maxWaitNanos, deadline.remainingNanos());
+    }
+
+    private RuntimeException rejection(String endpoint, String limit, Deadline deadline, long waitNanos) {
+        if (deadline != null && waitNanos < maxWaitNanos) {
+            return new DeadlineExceededException(deadline.getBudgetMillis(), limit + " de " + endpoint);
+        }
+        return new ClientThrottledException(endpoint, limit);
+    }
+
+    private Guard createGuard(String endpoint) {
+        double tps = config.getDoubleProperty("client.rate-limit." + endpoint + ".tps",
+                config.getDoubleProperty("client.rate-limit.default.tps", 0));
+        int burst = config.getIntProperty("client.rate-limit." + endpoint + ".burst",
+                config.getIntProperty("client.rate-limit.default.burst", 10));
+        int maxInFlight = config.getIntProperty("client.bulkhead." + endpoint + ".max-in-flight",
+                config.getIntProperty("client.bulkhead.default.max-in-flight", 0));
+
+        return new Guard(
+                tps > 0 ? new TokenBucketRateLimiter(tps, burst) : null,
+                maxInFlight > 0 ? new Bulkhead(maxInFlight) : null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TokenBucketRateLimiter getLimiter(String endpoint) {
+        Guard guard = guards.get(endpoint);
+        return guard != null ? guard.limiter : null;
+    }
+
+    public Bulkhead getBulkhead(String endpoint) {
+        Guard guard = guards.get(endpoint);
+        return guard != null ? guard.bulkhead : null;
+    }
+
+    /**
+     * Métricas por endpoint: permisos, esperas por throttling y rechazos
+     */
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("🚦 CLIENT THROTTLING\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        if (!enabled) {
+            summary.append("Disabled (client.throttling.enabled=false)\n");
+            return summary.toString();
+        }
+        new TreeMap<>(guards).forEach((endpoint, guard) -> {
+            summary.append(String.format("%s\n", endpoint));
+            if (guard.limiter != null) {
+                TokenBucketRateLimiter limiter = guard.limiter;
+                summary.append(String.format("  rate %6.1f TPS | acquired %d | throttled %d (mean %.1f ms, max %d ms) | rejected %d\n",
+                        limiter.getPermitsPerSecond(), limiter.getAcquired(), limiter.getThrottled(),
+                        limiter.getMeanWaitMillis(), limiter.getMaxWaitMillis(), limiter.getRejected()));
+            }
+            if (guard.bulkhead != null) {
+                Bulkhead bulkhead = guard.bulkhead;
+                summary.append(String.format("  bulkhead %d | peak %d | waited %d (mean %.1f ms) | rejected %d\n",
+                        bulkhead.getMaxInFlight(), bulkhead.getPeakInFlight(), bulkhead.getWaited(),
+                        bulkhead.getMeanWaitMillis(), bulkhead.getRejected()));
+            }
+        });
+        return summary.toString();
+    }
+
+    private static final class Guard {
+        private final TokenBucketRateLimiter limiter;
+        private final Bulkhead bulkhead;
+
+        private Guard(TokenBucketRateLimiter limiter, Bulkhead bulkhead) {
+            this.limiter = limiter;
+            this.bulkhead = bulkhead;
+        }
+    }
+}
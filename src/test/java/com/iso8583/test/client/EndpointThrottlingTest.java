@@ -0,0 +1,78 @@
+package com.iso8583.test.client;
+
+import com.iso8583.test.config.ConfigurationManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Throttling por endpoint: la espera por un permiso no pasa del deadline de la transacción
+ */
+class EndpointThrottlingTest {
+
+    private static EndpointThrottling throttling(double tps, int maxInFlight) {
+        Properties overrides = new Properties();
+        overrides.setProperty("client.throttling.enabled", "true");
+        overrides.setProperty("client.throttling.max-wait-millis", "5000");
+        overrides.setProperty("client.rate-limit.default.tps", String.valueOf(tps));
+        overrides.setProperty("client.rate-limit.default.burst", "1");
+        overrides.setProperty("client.bulkhead.default.max-in-flight", String.valueOf(maxInFlight));
+        return new EndpointThrottling(new ConfigurationManager(overrides));
+    }
+
+    @Test
+    void elRateLimitFallaEnseguidaSiElDeadlineEsMasCorto() {
+        EndpointThrottling throttling = throttling(0.5, 0);
+        assertThat(throttling.execute("purchase", () -> "primero")).isEqualTo("primero");
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> Deadline.after(100).run(() -> throttling.execute("purchase", () -> "segundo")))
+                .isInstanceOf(DeadlineExceededException.class)
+                .hasMessageContaining("rate limit");
+
+        assertThat((System.nanoTime() - start) / 1_000_000).as("no espera los 2 s del permiso").isLessThan(1_000);
+    }
+
+    @Test
+    void elBulkheadNoEsperaMasQueElDeadline() throws Exception {
+        EndpointThrottling throttling = throttling(0, 1);
+        Thread holder = Thread.ofVirtual().start(() -> throttling.execute("purchase", () -> {
+            sleep(2_000);
+            return null;
+        }));
+        sleep(100);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> Deadline.after(200).run(() -> throttling.execute("purchase", () -> "segundo")))
+                .isInstanceOf(DeadlineExceededException.class)
+                .hasMessageContaining("bulkhead");
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1_500);
+        holder.interrupt();
+    }
+
+    @Test
+    void sinDeadlineElRechazoEsDeThrottling() {
+        Properties overrides = new Properties();
+        overrides.setProperty("client.throttling.enabled", "true");
+        overrides.setProperty("client.throttling.max-wait-millis", "0");
+        overrides.setProperty("client.rate-limit.default.tps", "1");
+        overrides.setProperty("client.rate-limit.default.burst", "1");
+        EndpointThrottling throttling = new EndpointThrottling(new ConfigurationManager(overrides));
+        throttling.execute("purchase", () -> "primero");
+
+        assertThatThrownBy(() -> throttling.execute("purchase", () -> "segundo"))
+                .isInstanceOf(ClientThrottledException.class);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
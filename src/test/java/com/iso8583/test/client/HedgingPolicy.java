@@ -0,0 +1,242 @@
+package com.iso8583.test.client;
+
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.performance.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedging de llamadas idempotentes (BALANCE_INQUIRY, processing code 30xxxx)
+ *
+ * Si la llamada original no respondió dentro del percentil configurado
+ * (p95 de las últimas {@code window-samples} llamadas originales) se envía
+ * un duplicado y se toma la primera respuesta exitosa. La otra se descarta.
+ *
+ * Los duplicados se limitan a {@code max-percent} del tráfico y se reportan
+ * aparte: latencia vista por el llamador vs. latencia de la llamada original.
+ *
+ *   client.hedging.enabled=true
+ *   client.hedging.percentile=95
+ *   client.hedging.max-percent=5
+ *   client.hedging.window-samples=200
+ */
+public class HedgingPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingPolicy.class);
+
+    private final String name;
+    private final boolean enabled;
+    private final double percentile;
+    private final double maxPercent;
+    private final int windowSamples;
+
+    // Las llamadas corren en virtual threads: el llamador solo espera el primer resultado
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Ventana de latencias originales; al llenarse fija el umbral y se reinicia
+    private final Object windowLock = new Object();
+    private LatencyHistogram window = new LatencyHistogram();
+    private volatile long hedgeDelayNanos;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final AtomicLong thresholdUpdates = new AtomicLong();
+    private final LatencyHistogram primaryLatencies = new LatencyHistogram();
+    private final LatencyHistogram observedLatencies = new LatencyHistogram();
+    private final LatencyHistogram hedgedLatencies = new LatencyHistogram();
+
+    public HedgingPolicy(String name, ConfigurationManager config) {
+        this.name = name;
+        this.enabled = config.getBooleanProperty("client.hedging.enabled", false);
+        this.percentile = config.getDoubleProperty("client.hedging.percentile", 95.0);
+        this.maxPercent = config.getDoubleProperty("client.hedging.max-percent", 5.0);
+        this.windowSamples = Math.max(10, config.getIntProperty("client.hedging.window-samples", 200));
+    }
+
+    /**
+     * Ejecuta la llamada, duplicándola si tarda más que el percentil vigente
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        requests.increment();
+        long start = System.nanoTime();
+        long delayNanos = hedgeDelayNanos;
+
+        if (delayNanos <= 0) {
+            // Sin umbral todavía: llamada directa
+            try {
+                return call.get();
+            } finally {
+                long latency = System.nanoTime() - start;
+                recordPrimary(latency);
+                observedLatencies.recordNanos(latency);
+            }
+        }
+
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(call, executor);
+        primary.whenComplete((result, error) -> recordPrimary(System.nanoTime() - start));
+
+        try {
+            T result = primary.get(delayNanos, TimeUnit.NANOSECONDS);
+            observedLatencies.recordNanos(System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            // Más lenta que el percentil: candidata a hedge
+        } catch (ExecutionException e) {
+            observedLatencies.recordNanos(System.nanoTime() - start);
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando " + name, e);
+        }
+
+        if (!withinBudget()) {
+            budgetExhausted.increment();
+            return await(primary, start, false);
+        }
+
+        hedged.increment();
+        CompletableFuture<T> hedge = CompletableFuture.supplyAsync(call, executor);
+        return await(firstSuccessful(primary, hedge), start, true);
+    }
+
+    private boolean withinBudget() {
+        return (hedged.sum() + 1) * 100.0 <= requests.sum() * maxPercent;
+    }
+
+    private <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<T> first = new CompletableFuture<>();
+        primary.whenComplete((result, error) -> {
+            if (error == null) {
+                first.complete(result);
+            } else if (hedge.isCompletedExceptionally()) {
+                first.completeExceptionally(error);
+            }
+        });
+        hedge.whenComplete((result, error) -> {
+            if (error == null) {
+                if (first.complete(result)) {
+                    hedgeWins.increment();
+                }
+            } else if (primary.isCompletedExceptionally()) {
+                first.completeExceptionally(error);
+            }
+        });
+        return first;
+    }
+
+    private <T> T await(CompletableFuture<T> future, long start, boolean wasHedged) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        } finally {
+            long latency = System.nanoTime() - start;
+            observedLatencies.recordNanos(latency);
+            if (wasHedged) {
+                hedgedLatencies.recordNanos(latency);
+            }
+        }
+    }
+
+    private void recordPrimary(long latencyNanos) {
+        primaryLatencies.recordNanos(latencyNanos);
+        synchronized (windowLock) {
+            window.recordNanos(latencyNanos);
+            if (window.getCount() >= windowSamples) {
+                hedgeDelayNanos = TimeUnit.MICROSECONDS.toNanos(window.getValueAtPercentileMicros(percentile));
+                window = new LatencyHistogram();
+                if (thresholdUpdates.incrementAndGet() == 1) {
+                    logger.info("🪞 Hedging de {} activo - umbral p{}: {} ms", name,
+                            String.format("%.0f", percentile), TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos));
+                }
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getHedged() {
+        return hedged.sum();
+    }
+
+    /**
+     * Hedges cuya respuesta llegó antes que la original
+     */
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * Llamadas lentas que no se duplicaron por superar {@code max-percent}
+     */
+    public long getBudgetExhausted() {
+        return budgetExhausted.sum();
+    }
+
+    public long getHedgeDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos);
+    }
+
+    public LatencyHistogram getObservedLatencies() {
+        return observedLatencies;
+    }
+
+    public LatencyHistogram getPrimaryLatencies() {
+        return primaryLatencies;
+    }
+
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("🪞 HEDGED REQUESTS (").append(name).append(")\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        if (!enabled) {
+            summary.append("Disabled (client.hedging.enabled=false)\n");
+            return summary.toString();
+        }
+        long total = requests.sum();
+        summary.append(String.format("Requests:                %9d\n", total));
+        summary.append(String.format("Hedged / wins:           %9d / %d (%.2f%% of traffic, cap %.1f%%)\n",
+                hedged.sum(), hedgeWins.sum(), total == 0 ? 0.0 : hedged.sum() * 100.0 / total, maxPercent));
+        summary.append(String.format("Skipped (cap reached):   %9d\n", budgetExhausted.sum()));
+        summary.append(String.format("Current p%.0f threshold:  %9d ms\n", percentile, getHedgeDelayMillis()));
+        summary.append(String.format("Primary  P50 / P99:      %6d / %d ms\n",
+                primaryLatencies.getValueAtPercentileMillis(50), primaryLatencies.getValueAtPercentileMillis(99)));
+        summary.append(String.format("Observed P50 / P99:      %6d / %d ms\n",
+                observedLatencies.getValueAtPercentileMillis(50), observedLatencies.getValueAtPercentileMillis(99)));
+        summary.append(String.format("Hedged   P50 / P99:      %6d / %d ms\n",
+                hedgedLatencies.getValueAtPercentileMillis(50), hedgedLatencies.getValueAtPercentileMillis(99)));
+        return summary.toString();
+    }
+}
@@ -1,12 +1,23 @@
 package com.iso8583.test.client;
 
 import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.models.TransactionResponse;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 import static io.restassured.RestAssured.given;
 
 /**
@@ -14,15 +25,51 @@ import static io.restassured.RestAssured.given;
  * Encapsula todas las llamadas HTTP usando RestAssured
  * VERSIÓN SIN SPRING BOOT
  */
-public class ISO8583ApiClient {
+public class ISO8583ApiClient implements AutoCloseable {
+
+    // Tráfico de recuperación (0800, 0400, 0220/0420): sin rate limit ni circuit breaker
+    private static final Set<String> RECOVERY_ENDPOINTS = Set.of("echo", "reversal", "advice");
 
     private final ConfigurationManager configManager;
     private final RequestSpecification requestSpec;
     private final ResponseSpecification responseSpec;
+    private final RetryPolicy retryPolicy;
+    private final EndpointThrottling throttling;
+    private final EndpointCircuitBreakers circuitBreakers;
+    private final SimulatorLoadBalancer loadBalancer;
+    private final HedgingPolicy balanceInquiryHedging;
+    private final DeadlineFilter deadlineFilter;
+    private final RecordReplayFilter recordReplayFilter;
+    private final String batchPath;
+    private final String reversalPath;
+    private final String advicePath;
+    private final MicroBatcher<Object, TransactionResponse> processBatcher;
 
     public ISO8583ApiClient(ConfigurationManager configManager) {
         this.configManager = configManager;
 
+        // Reintentos de fallos de conexión con presupuesto global (connection.retry.*)
+        this.retryPolicy = new RetryPolicy(configManager);
+
+        // Rate limit + bulkhead por endpoint de transacciones (client.throttling.*)
+        this.throttling = new EndpointThrottling(configManager);
+
+        // Circuit breaker por endpoint de transacciones (client.circuit-breaker.*)
+        this.circuitBreakers = new EndpointCircuitBreakers(configManager);
+
+        // Transacciones repartidas entre simulator.base-urls (client.load-balancer.*)
+        this.loadBalancer = new SimulatorLoadBalancer(configManager);
+
+        // Hedging de consultas de saldo lentas (client.hedging.*)
+        this.balanceInquiryHedging = new HedgingPolicy("balance-inquiry", configManager);
+
+        // Timeouts de socket desde el deadline de la transacción (o simulator.timeout)
+        this.deadlineFilter = new DeadlineFilter(configManager.getTimeout());
+
+        // Grabación / replay de respuestas en disco (client.record-replay.*); va antes del
+        // deadline para que un replay no dependa de timeouts
+        this.recordReplayFilter = RecordReplayFilter.fromConfig(configManager);
+
         // Configurar RestAssured
         RestAssured.baseURI = configManager.getBaseUrl();
 
@@ -30,12 +77,25 @@ public class ISO8583ApiClient {
         this.requestSpec = given()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
+                .filter(recordReplayFilter)
+                .filter(deadlineFilter)
                 .log().ifValidationFails();
 
         // Response spec común (sin validaciones estrictas)
         this.responseSpec = RestAssured.expect()
                 .log().ifValidationFails();
 
+        // Micro-batching de /process (client.batching.*): null si está desactivado
+        this.batchPath = configManager.getProperty("client.batching.path", "/api/v1/transactions/process/batch");
+        this.reversalPath = configManager.getProperty("reversal.path", "/api/v1/transactions/reversal");
+        this.advicePath = configManager.getProperty("store-and-forward.path", "/api/v1/transactions/advice");
+        this.processBatcher = configManager.getBooleanProperty("client.batching.enabled", false)
+                ? new MicroBatcher<>("process",
+                        configManager.getIntProperty("client.batching.max-size", 32),
+                        TimeUnit.MICROSECONDS.toNanos(configManager.getLongProperty("client.batching.max-wait-micros", 2000)),
+                        this::sendProcessBatch)
+                : null;
+
         System.out.println("✅ ISO8583ApiClient inicializado - Base URL: " + configManager.getBaseUrl());
     }
 
@@ -111,6 +171,25 @@ public class ISO8583ApiClient {
                 .response();
     }
 
+    /**
+     * Echo de keep-alive (MTI 0800) de una terminal; sin log por llamada porque
+     * lo envían miles de terminales virtuales
+     * @param request body del echo (terminalId, stan, networkManagementCode)
+     * @return Response con el resultado del echo
+     */
+    public Response sendEcho(Object request) {
+        return execute("echo", baseUrl -> given()
+                .spec(requestSpec)
+                .baseUri(baseUrl)
+                .body(request)
+                .when()
+                .post("/api/v1/connection/test")
+                .then()
+                .spec(responseSpec)
+                .extract()
+                .response());
+    }
+
     /**
      * Limpia el buffer de respuestas pendientes
      * @return Response con el resultado de la limpieza
@@ -176,21 +255,18 @@ public class ISO8583ApiClient {
     public Response sendBalanceInquiry(Object request) {
         System.out.println("💰 POST /api/v1/transactions/balance-inquiry");
 
-        String baseUrl = "http://localhost:8081"; // Ajusta según tu contexto
-
         // Debug: verificar el request antes de enviar
         System.out.println("🔍 Request body: " + request.toString());
-        return given()
+        return hedgeIfIdempotent(request, () -> execute("balance-inquiry", baseUrl -> given()
+                .spec(requestSpec)
                 .baseUri(baseUrl)
-                .contentType(ContentType.JSON)
-                .accept(ContentType.JSON)
                 .body(request)
                 .when()
                 .post("/api/v1/transactions/balance-inquiry")
                 .then()
-                .statusCode(200) // Espera 200 OK
+                .spec(responseSpec)
                 .extract()
-                .response();
+                .response()));
     }
 
     /**
@@ -201,15 +277,16 @@ public class ISO8583ApiClient {
     public Response sendCashAdvance(Object request) {
         System.out.println("💵 POST /api/v1/transactions/cash-advance");
 
-        return given()
+        return execute("cash-advance", baseUrl -> given()
                 .spec(requestSpec)
+                .baseUri(baseUrl)
                 .body(request)
                 .when()
                 .post("/api/v1/transactions/cash-advance")
                 .then()
                 .spec(responseSpec)
                 .extract()
-                .response();
+                .response());
     }
 
     /**
@@ -220,15 +297,16 @@ public class ISO8583ApiClient {
     public Response sendPurchase(Object request) {
         System.out.println("🛒 POST /api/v1/transactions/purchase");
 
-        return given()
+        return execute("purchase", baseUrl -> given()
                 .spec(requestSpec)
+                .baseUri(baseUrl)
                 .body(request)
                 .when()
                 .post("/api/v1/transactions/purchase")
                 .then()
                 .spec(responseSpec)
                 .extract()
-                .response();
+                .response());
     }
 
     /**
@@ -239,15 +317,16 @@ public class ISO8583ApiClient {
     public Response sendTransfer(Object request) {
         System.out.println("💸 POST /api/v1/transactions/transfer");
 
-        return given()
+        return execute("transfer", baseUrl -> given()
                 .spec(requestSpec)
+                .baseUri(baseUrl)
                 .body(request)
                 .when()
                 .post("/api/v1/transactions/transfer")
                 .then()
                 .spec(responseSpec)
                 .extract()
-                .response();
+                .response());
     }
 
     /**
@@ -258,15 +337,16 @@ public class ISO8583ApiClient {
     public Response sendAuthorization(Object request) {
         System.out.println("✅ POST /api/v1/transactions/authorization");
 
-        return given()
+        return execute("authorization", baseUrl -> given()
                 .spec(requestSpec)
+                .baseUri(baseUrl)
                 .body(request)
                 .when()
                 .post("/api/v1/transactions/authorization")
                 .then()
                 .spec(responseSpec)
                 .extract()
-                .response();
+                .response());
     }
 
     /**
@@ -277,15 +357,16 @@ public class ISO8583ApiClient {
     public Response sendDeposit(Object request) {
         System.out.println("💰 POST /api/v1/transactions/deposit");
 
-        return given()
+        return execute("deposit", baseUrl -> given()
                 .spec(requestSpec)
+                .baseUri(baseUrl)
                 .body(request)
                 .when()
                 .post("/api/v1/transactions/deposit")
                 .then()
                 .spec(responseSpec)
                 .extract()
-                .response();
+                .response());
     }
 
     /**
@@ -296,18 +377,55 @@ public class ISO8583ApiClient {
     public Response sendCashback(Object request) {
         System.out.println("💵 POST /api/v1/transactions/cashback");
 
-        return given()
+        return execute("cashback", baseUrl -> given()
                 .spec(requestSpec)
+                .baseUri(baseUrl)
                 .body(request)
                 .when()
                 .post("/api/v1/transactions/cashback")
                 .then()
                 .spec(responseSpec)
                 .extract()
-                .response();
+                .response());
     }
 
 
+    /**
+     * Envía un reverso (0400) de una transacción que venció por timeout
+     * @param request body del original con mti=0400 y los datos del original
+     * @return Response con el resultado (39=00 reversado, 25 original no encontrado)
+     */
+    public Response sendReversal(Object request) {
+        return execute("reversal", baseUrl -> given()
+                .spec(requestSpec)
+                .baseUri(baseUrl)
+                .body(request)
+                .when()
+                .post(reversalPath)
+                .then()
+                .spec(responseSpec)
+                .extract()
+                .response());
+    }
+
+    /**
+     * Envía un advice (0220 / 0420, o su repetición 0221 / 0421)
+     * @param request body del advice con su mti
+     * @return Response con el acuse (0230 / 0430)
+     */
+    public Response sendAdvice(Object request) {
+        return execute("advice", baseUrl -> given()
+                .spec(requestSpec)
+                .baseUri(baseUrl)
+                .body(request)
+                .when()
+                .post(advicePath)
+                .then()
+                .spec(responseSpec)
+                .extract()
+                .response());
+    }
+
     /**
      * Envía una transacción genérica al endpoint /process
      * @param request Request de la transacción
@@ -316,15 +434,96 @@ public class ISO8583ApiClient {
     public Response sendTransaction(Object request) {
         System.out.println("📤 POST /api/v1/transactions/process");
 
-        return given()
+        return execute("process", baseUrl -> given()
                 .spec(requestSpec)
+                .baseUri(baseUrl)
                 .body(request)
                 .when()
                 .post("/api/v1/transactions/process")
                 .then()
                 .spec(responseSpec)
                 .extract()
-                .response();
+                .response());
+    }
+
+    /**
+     * Envía una transacción genérica a /process agrupada con las concurrentes
+     * en un solo POST batch (client.batching.enabled=true)
+     *
+     * @param request body de /process (incluye transactionType)
+     * @param timeoutMillis espera máxima por la respuesta del batch
+     * @throws DeadlineExceededException si el batch no volvió a tiempo
+     */
+    public TransactionResponse sendTransactionBatched(Object request, long timeoutMillis) {
+        if (processBatcher == null) {
+            throw new IllegalStateException("Batching desactivado (client.batching.enabled=false)");
+        }
+        try {
+            return processBatcher.submit(request).get(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(timeoutMillis, "respuesta del batch /process");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el batch /process", e);
+        }
+    }
+
+    private List<TransactionResponse> sendProcessBatch(List<Object> requests) {
+        System.out.println("📦 POST " + batchPath + " (" + requests.size() + " transacciones)");
+
+        Response response = execute("process-batch", baseUrl -> given()
+                .spec(requestSpec)
+                .baseUri(baseUrl)
+                .body(requests)
+                .when()
+                .post(batchPath)
+                .then()
+                .spec(responseSpec)
+                .extract()
+                .response());
+
+        if (response.getStatusCode() != 200) {
+            throw new IllegalStateException("Batch " + batchPath + " respondió HTTP " + response.getStatusCode());
+        }
+        return Arrays.asList(response.as(TransactionResponse[].class));
+    }
+
+    /**
+     * Envía a través del limitador del endpoint, de su circuit breaker y del
+     * balanceador: un HTTP 5xx o una excepción cuentan como fallo del endpoint
+     * y del simulador elegido. Cada reintento de conexión vuelve a pasar por
+     * los tres (y puede ir a otro simulador).
+     *
+     * Echos, reversos y advices ({@link #RECOVERY_ENDPOINTS}) no pasan por
+     * limitador ni circuit breaker: son justamente lo que limpia una sobrecarga
+     * y no pueden quedar sin paso por ella.
+     */
+    private Response execute(String endpoint, Function<String, Response> call) {
+        if (RECOVERY_ENDPOINTS.contains(endpoint)) {
+            return retryPolicy.execute(() -> loadBalancer.execute(call, ISO8583ApiClient::isServerError));
+        }
+        return retryPolicy.execute(() -> throttling.execute(endpoint, () ->
+                circuitBreakers.execute(endpoint, () -> loadBalancer.execute(call, ISO8583ApiClient::isServerError),
+                        ISO8583ApiClient::isServerError)));
+    }
+
+    private static boolean isServerError(Response response) {
+        return response.getStatusCode() >= 500;
+    }
+
+    /**
+     * Solo se duplican consultas sin efectos: processing code 30xxxx (o sin processing code)
+     */
+    private Response hedgeIfIdempotent(Object request, Supplier<Response> call) {
+        if (request instanceof Map<?, ?> body) {
+            Object processingCode = body.get("processingCode");
+            if (processingCode != null && !processingCode.toString().startsWith("30")) {
+                return call.get();
+            }
+        }
+        return balanceInquiryHedging.execute(Deadline.propagate(call));
     }
 
     // ============================================================================
@@ -345,6 +544,76 @@ public class ISO8583ApiClient {
         }
     }
 
+    /**
+     * Envía los /process que quedaron en el batcher y lo detiene (sin batching no hace nada)
+     */
+    @Override
+    public void close() {
+        if (processBatcher != null) {
+            processBatcher.close();
+        }
+    }
+
+    public boolean isBatchingEnabled() {
+        return processBatcher != null;
+    }
+
+    /**
+     * Métricas de micro-batching de /process (null si está desactivado)
+     */
+    public MicroBatcher<Object, TransactionResponse> getProcessBatcher() {
+        return processBatcher;
+    }
+
+    /**
+     * Nodos del simulador y su estado de balanceo
+     */
+    public SimulatorLoadBalancer getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    /**
+     * Métricas de reintentos y del presupuesto de reintentos
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Métricas del limitador y bulkhead por endpoint
+     */
+    public EndpointThrottling getThrottling() {
+        return throttling;
+    }
+
+    /**
+     * Estado de los circuit breakers por endpoint
+     */
+    public EndpointCircuitBreakers getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * Métricas de hedging de BALANCE_INQUIRY
+     */
+    public HedgingPolicy getBalanceInquiryHedging() {
+        return balanceInquiryHedging;
+    }
+
+    /**
+     * Modo de grabación / replay de respuestas (client.record-replay.*)
+     */
+    public RecordReplayFilter getRecordReplay() {
+        return recordReplayFilter;
+    }
+
+    /**
+     * Presupuesto por transacción (simulator.timeout)
+     */
+    public long getTimeoutMillis() {
+        return configManager.getTimeout();
+    }
+
     /**
      * Obtiene la URL base configurada
      * @return URL base del simulador
@@ -0,0 +1,205 @@
+package com.iso8583.test.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Agrupa requests concurrentes en una sola llamada batch
+ *
+ * Un virtual thread colector toma el primer pendiente y sigue juntando hasta
+ * {@code maxSize} elementos o hasta que pasen {@code maxWait} desde el
+ * primero; el batch se envía en otro virtual thread (puede haber varios en
+ * vuelo) y cada resultado completa el future de su llamador, en el mismo
+ * orden en que se envió.
+ *
+ * {@link #close()} envía lo que quedó pendiente, detiene el colector y
+ * espera los batches en vuelo: ningún llamador se queda sin respuesta.
+ */
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final String name;
+    private final int maxSize;
+    private final long maxWaitNanos;
+    private final Function<List<I>, List<O>> batchCall;
+
+    private final BlockingQueue<Pending<I, O>> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService dispatchers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread collector;
+    private volatile boolean closed;
+
+    private final LongAdder items = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fullBatches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    public MicroBatcher(String name, int maxSize, long maxWaitNanos, Function<List<I>, List<O>> batchCall) {
+        this.name = name;
+        this.maxSize = Math.max(1, maxSize);
+        this.maxWaitNanos = Math.max(0, maxWaitNanos);
+        this.batchCall = batchCall;
+        this.collector = Thread.ofVirtual().name("micro-batcher-" + name).start(this::collect);
+    }
+
+    /**
+     * Encola el elemento; el future se completa cuando vuelve su batch
+     * (o con IllegalStateException si el batcher ya está cerrado)
+     */
+    public CompletableFuture<O> submit(I item) {
+        Pending<I, O> pending = new Pending<>(item);
+        if (closed) {
+            pending.future.completeExceptionally(new IllegalStateException("Batcher " + name + " cerrado"));
+            return pending.future;
+        }
+        queue.add(pending);
+        // Carrera con close(): si ya vació la cola, este no lo va a enviar nadie
+        if (closed && queue.remove(pending)) {
+            pending.future.completeExceptionally(new IllegalStateException("Batcher " + name + " cerrado"));
+        }
+        return pending.future;
+    }
+
+    private void collect() {
+        List<Pending<I, O>> batch = new ArrayList<>(maxSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxSize) {
+                    queue.drainTo(batch, maxSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending<I, O> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close(): el batch a medio juntar sale igual
+                if (!batch.isEmpty()) {
+                    List<Pending<I, O>> toSend = batch;
+                    dispatchers.execute(() -> dispatch(toSend));
+                }
+                return;
+            }
+
+            List<Pending<I, O>> toSend = batch;
+            batch = new ArrayList<>(maxSize);
+            dispatchers.execute(() -> dispatch(toSend));
+        }
+    }
+
+    private void dispatch(List<Pending<I, O>> batch) {
+        int size = batch.size();
+        items.add(size);
+        batches.increment();
+        if (size >= maxSize) {
+            fullBatches.increment();
+        }
+        largestBatch.accumulateAndGet(size, Math::max);
+
+        List<I> requests = new ArrayList<>(size);
+        for (Pending<I, O> pending : batch) {
+            requests.add(pending.item);
+        }
+        try {
+            List<O> results = batchCall.apply(requests);
+            if (results == null || results.size() != size) {
+                throw new IllegalStateException(String.format("Batch %s: se enviaron %d y volvieron %d",
+                        name, size, results == null ? 0 : results.size()));
+            }
+            for (int i = 0; i < size; i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            logger.warn("📦 Batch {} de {} elementos falló: {}", name, size, e.getMessage());
+            for (Pending<I, O> pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Envía los pendientes, detiene el colector y espera a que vuelvan todos los batches
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        collector.interrupt();
+        try {
+            collector.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending<I, O>> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += maxSize) {
+            List<Pending<I, O>> toSend = new ArrayList<>(rest.subList(from, Math.min(rest.size(), from + maxSize)));
+            dispatchers.execute(() -> dispatch(toSend));
+        }
+        // close() del executor espera los batches en vuelo
+        dispatchers.close();
+        logger.info("📦 Batcher {} cerrado ({} batches enviados)", name, batches.sum());
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public long getItems() {
+        return items.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public double getMeanBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : (double) items.sum() / count;
+    }
+
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("📦 MICRO-BATCHING (").append(name).append(")\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Window:                  %d items / %d µs\n",
+                maxSize, TimeUnit.NANOSECONDS.toMicros(maxWaitNanos)));
+        summary.append(String.format("Items / batches:         %9d / %d (mean %.1f, largest %d)\n",
+                items.sum(), batches.sum(), getMeanBatchSize(), largestBatch.get()));
+        summary.append(String.format("Closed by size / time:   %9d / %d\n",
+                fullBatches.sum(), batches.sum() - fullBatches.sum()));
+        summary.append(String.format("Failed batches:          %9d\n", failedBatches.sum()));
+        return summary.toString();
+    }
+
+    private static final class Pending<I, O> {
+        private final I item;
+        private final CompletableFuture<O> future = new CompletableFuture<>();
+
+        private Pending(I item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.iso8583.test.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Micro-batcher: agrupa por tamaño y al cerrar envía el batch pendiente y detiene el colector
+ */
+class MicroBatcherTest {
+
+    private static List<String> echo(List<Integer> items) {
+        List<String> results = new ArrayList<>(items.size());
+        items.forEach(item -> results.add("r" + item));
+        return results;
+    }
+
+    @Test
+    void agrupaHastaElTamanoMaximo() throws Exception {
+        try (MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", 4, TimeUnit.SECONDS.toNanos(10),
+                MicroBatcherTest::echo)) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(batcher.submit(i));
+            }
+
+            assertThat(futures.get(3).get(5, TimeUnit.SECONDS)).isEqualTo("r3");
+            assertThat(batcher.getBatches()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void alCerrarEnviaElBatchAMedioJuntar() throws Exception {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", 100, TimeUnit.SECONDS.toNanos(60),
+                MicroBatcherTest::echo);
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+        Thread.sleep(50);
+        assertThat(first).isNotDone();
+
+        batcher.close();
+
+        assertThat(first).isCompletedWithValue("r1");
+        assertThat(second).isCompletedWithValue("r2");
+        assertThat(batcher.getItems()).isEqualTo(2);
+        assertThat(batcher.isClosed()).isTrue();
+    }
+
+    @Test
+    void despuesDeCerrarRechazaSinColgarAlLlamador() {
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", 10, 0, MicroBatcherTest::echo);
+        batcher.close();
+
+        CompletableFuture<String> late = batcher.submit(1);
+
+        assertThat(late).isCompletedExceptionally();
+        assertThatThrownBy(late::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
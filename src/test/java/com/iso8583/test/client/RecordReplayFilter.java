@@ -0,0 +1,161 @@
+package com.iso8583.test.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.iso8583.test.config.ConfigurationManager;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Modo proxy de grabación / reproducción de respuestas del simulador
+ *
+ * - {@code record}: cada request va al simulador y la respuesta (salvo 5xx)
+ *   se guarda en el {@link ResponseStore}
+ * - {@code replay}: la respuesta sale del store sin tocar la red; si no hay
+ *   grabación falla (on-miss=fail) o va al simulador (on-miss=passthrough)
+ * - {@code off}: no hace nada
+ *
+ * La clave es método + path + body JSON normalizado: claves ordenadas y sin
+ * los campos que cambian en cada corrida (STAN, RRN, fechas/horas...).
+ *
+ *   client.record-replay.mode=off
+ *   client.record-replay.dir=target/record-replay
+ *   client.record-replay.ignore-fields=stan,retrievalReferenceNumber,...
+ *   client.record-replay.on-miss=fail
+ */
+public class RecordReplayFilter implements Filter {
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    private static final Gson gson = new Gson();
+
+    private static final String DEFAULT_IGNORED_FIELDS = "stan,retrievalReferenceNumber,transmissionDateTime,"
+            + "localTransactionTime,localTransactionDate,timestamp,transactionId";
+
+    private final Mode mode;
+    private final ResponseStore store;
+    private final Set<String> ignoredFields;
+    private final boolean passthroughOnMiss;
+
+    public RecordReplayFilter(Mode mode, ResponseStore store, Set<String> ignoredFields, boolean passthroughOnMiss) {
+        this.mode = mode;
+        this.store = store;
+        this.ignoredFields = ignoredFields;
+        this.passthroughOnMiss = passthroughOnMiss;
+    }
+
+    public static RecordReplayFilter fromConfig(ConfigurationManager config) {
+        Mode mode = Mode.valueOf(config.getProperty("client.record-replay.mode", "off").trim().toUpperCase(Locale.ROOT));
+        if (mode == Mode.OFF) {
+            return new RecordReplayFilter(Mode.OFF, null, Set.of(), false);
+        }
+        Set<String> ignored = Arrays.stream(config.getProperty("client.record-replay.ignore-fields", DEFAULT_IGNORED_FIELDS)
+                        .split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        return new RecordReplayFilter(mode,
+                ResponseStore.open(Path.of(config.getProperty("client.record-replay.dir", "target/record-replay"))),
+                ignored,
+                "passthrough".equalsIgnoreCase(config.getProperty("client.record-replay.on-miss", "fail").trim()));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        if (mode == Mode.OFF) {
+            return context.next(requestSpec, responseSpec);
+        }
+
+        String key = keyOf(requestSpec);
+        if (mode == Mode.REPLAY) {
+            ResponseStore.StoredResponse stored = store.find(key);
+            if (stored != null) {
+                return new ResponseBuilder()
+                        .setStatusCode(stored.getStatusCode())
+                        .setStatusLine("HTTP/1.1 " + stored.getStatusCode())
+                        .setContentType(stored.getContentType())
+                        .setBody(stored.getBody())
+                        .build();
+            }
+            if (!passthroughOnMiss) {
+                throw new IllegalStateException("Replay: no hay respuesta grabada para " + key);
+            }
+        }
+
+        Response response = context.next(requestSpec, responseSpec);
+        if (mode == Mode.RECORD && response.getStatusCode() < 500) {
+            store.save(key, response.getStatusCode(), response.getContentType(), response.asString());
+        }
+        return response;
+    }
+
+    /**
+     * Método + path + body normalizado (sin host: la misma grabación sirve para cualquier simulator.base-url)
+     */
+    String keyOf(FilterableRequestSpecification requestSpec) {
+        Object body = requestSpec.getBody();
+        String text = body == null ? "" : body instanceof String string ? string : gson.toJson(body);
+        return requestSpec.getMethod() + " " + requestSpec.getDerivedPath() + " " + normalize(text);
+    }
+
+    private String normalize(String body) {
+        if (body.isBlank()) {
+            return "";
+        }
+        try {
+            return gson.toJson(canonical(JsonParser.parseString(body)));
+        } catch (JsonSyntaxException e) {
+            return body.trim();
+        }
+    }
+
+    private Object canonical(JsonElement element) {
+        if (element.isJsonObject()) {
+            TreeMap<String, Object> sorted = new TreeMap<>();
+            JsonObject object = element.getAsJsonObject();
+            for (String field : object.keySet()) {
+                if (!ignoredFields.contains(field)) {
+                    sorted.put(field, canonical(object.get(field)));
+                }
+            }
+            return sorted;
+        }
+        if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            Object[] items = new Object[array.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = canonical(array.get(i));
+            }
+            return items;
+        }
+        return element;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Store compartido, o null en modo off
+     */
+    public ResponseStore getStore() {
+        return store;
+    }
+}
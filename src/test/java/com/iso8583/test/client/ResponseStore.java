@@ -0,0 +1,231 @@
+package com.iso8583.test.client;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Almacén en disco de pares request → response para {@link RecordReplayFilter}
+ *
+ * Dos archivos append-only en el directorio:
+ *
+ *   responses.dat   un JSON por línea: clave, status, content-type y body
+ *   responses.idx   "sha256(clave) offset largo" por línea
+ *
+ * Al abrir se carga solo el índice; cada replay es una lectura posicional
+ * del registro (y queda en memoria para los siguientes). Si una clave se
+ * graba más de una vez gana la última. Una línea de índice cortada por un
+ * corte abrupto se ignora.
+ *
+ * Una instancia por directorio en la JVM ({@link #open(Path)}), compartida
+ * por el cliente de transacciones y el de conexión.
+ */
+public class ResponseStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseStore.class);
+
+    private static final Gson gson = new Gson();
+    private static final Map<Path, ResponseStore> OPEN_STORES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final FileChannel data;
+    private final FileChannel index;
+    private final Map<String, Location> locations = new ConcurrentHashMap<>();
+    private final Map<String, StoredResponse> cache = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private ResponseStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        Path indexFile = directory.resolve("responses.idx");
+        this.data = FileChannel.open(directory.resolve("responses.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.index = FileChannel.open(indexFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        loadIndex(indexFile);
+    }
+
+    public static ResponseStore open(Path directory) {
+        return OPEN_STORES.computeIfAbsent(directory.toAbsolutePath().normalize(), dir -> {
+            try {
+                return new ResponseStore(dir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo abrir el almacén de respuestas " + dir, e);
+            }
+        });
+    }
+
+    private void loadIndex(Path indexFile) throws IOException {
+        long dataSize = data.size();
+        List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            if (parts.length != 3) {
+                continue;
+            }
+            try {
+                long offset = Long.parseLong(parts[1]);
+                int length = Integer.parseInt(parts[2]);
+                if (offset + length <= dataSize) {
+                    locations.put(parts[0], new Location(offset, length));
+                }
+            } catch (NumberFormatException ignored) {
+                // Línea de índice incompleta
+            }
+        }
+        logger.info("📼 Almacén de respuestas {}: {} claves", directory, locations.size());
+    }
+
+    // ============================================================================
+    // LECTURA / ESCRITURA
+    // ============================================================================
+
+    /**
+     * Respuesta grabada para la clave, o null si no hay
+     */
+    public StoredResponse find(String key) {
+        String hash = hash(key);
+        StoredResponse cached = cache.get(hash);
+        if (cached == null) {
+            Location location = locations.get(hash);
+            if (location == null) {
+                misses.increment();
+                return null;
+            }
+            cached = read(location);
+            cache.put(hash, cached);
+        }
+        hits.increment();
+        return cached;
+    }
+
+    private StoredResponse read(Location location) {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        try {
+            long position = location.offset;
+            while (buffer.hasRemaining()) {
+                int read = data.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("registro truncado en " + location.offset);
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo el almacén de respuestas " + directory, e);
+        }
+        return gson.fromJson(new String(buffer.array(), StandardCharsets.UTF_8), StoredResponse.class);
+    }
+
+    public void save(String key, int statusCode, String contentType, String body) {
+        StoredResponse response = new StoredResponse(key, statusCode, contentType, body);
+        byte[] record = (gson.toJson(response) + "\n").getBytes(StandardCharsets.UTF_8);
+        String hash = hash(key);
+        writeLock.lock();
+        try {
+            long offset = data.size();
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += data.write(buffer, position);
+            }
+            // Índice después del dato: si se corta acá el registro queda huérfano, no corrupto
+            index.write(ByteBuffer.wrap((hash + " " + offset + " " + (record.length - 1) + "\n")
+                    .getBytes(StandardCharsets.UTF_8)));
+            locations.put(hash, new Location(offset, record.length - 1));
+            cache.put(hash, response);
+            recorded.increment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error grabando en el almacén de respuestas " + directory, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static String hash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("📼 RECORD / REPLAY STORE\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Directory:               %s\n", directory));
+        summary.append(String.format("Stored keys:             %9d\n", locations.size()));
+        summary.append(String.format("Recorded (this run):     %9d\n", recorded.sum()));
+        summary.append(String.format("Replay hits / misses:    %9d / %d\n", hits.sum(), misses.sum()));
+        return summary.toString();
+    }
+
+    private static final class Location {
+        private final long offset;
+        private final int length;
+
+        private Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Respuesta grabada (se serializa tal cual en responses.dat)
+     */
+    public static class StoredResponse {
+        private final String key;
+        private final int statusCode;
+        private final String contentType;
+        private final String body;
+
+        public StoredResponse(String key, int statusCode, String contentType, String body) {
+            this.key = key;
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.iso8583.test.client;
+
+import com.iso8583.test.config.ConfigurationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.PortUnreachableException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Reintentos de fallos de transporte con presupuesto global
+ *
+ * - Solo se reintenta lo que nunca llegó al simulador (conexión rechazada,
+ *   sin ruta): un decline ISO, un HTTP de error o un timeout no se reintentan
+ *   porque la transacción pudo haberse procesado.
+ * - Espera con "decorrelated jitter": random(delay, anterior * 3), acotado a
+ *   {@code max-delay} y al {@link Deadline} de la transacción.
+ * - Presupuesto: cada llamada original deposita {@code budget-percent}% de un
+ *   reintento y cada reintento consume uno entero (saldo máximo
+ *   {@code budget-min-retries}). En una caída los reintentos no pasan del
+ *   ~10% de carga extra y no se convierten en una tormenta.
+ *
+ *   connection.retry.max-attempts=3     (intentos totales, incluido el primero)
+ *   connection.retry.delay=1000
+ *   connection.retry.max-delay=10000
+ *   connection.retry.budget-percent=10
+ *   connection.retry.budget-min-retries=10
+ */
+public class RetryPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+    // Saldo en milésimas de reintento para depositar fracciones sin locks
+    private static final long RETRY_COST = 1000;
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long depositPerCall;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhaustedAttempts = new LongAdder();
+    private final LongAdder exhaustedBudget = new LongAdder();
+
+    public RetryPolicy(ConfigurationManager config) {
+        this.maxAttempts = Math.max(1, config.getIntProperty("connection.retry.max-attempts", 3));
+        this.baseDelayMillis = Math.max(1, config.getLongProperty("connection.retry.delay", 1000));
+        this.maxDelayMillis = Math.max(baseDelayMillis, config.getLongProperty("connection.retry.max-delay", 10_000));
+        this.depositPerCall = Math.round(config.getDoubleProperty("connection.retry.budget-percent", 10.0) * RETRY_COST / 100);
+        this.maxBalance = Math.max(1, config.getIntProperty("connection.retry.budget-min-retries", 10)) * RETRY_COST;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        calls.increment();
+        deposit();
+
+        long previousDelay = baseDelayMillis;
+        for (int attempt = 1; ; attempt++) {
+            RuntimeException failure;
+            try {
+                T result = call.get();
+                if (attempt > 1) {
+                    recovered.increment();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                if (!isConnectionFailure(e)) {
+                    throw e;
+                }
+                failure = e;
+            }
+
+            if (attempt >= maxAttempts) {
+                exhaustedAttempts.increment();
+                throw failure;
+            }
+            if (!withdraw()) {
+                exhaustedBudget.increment();
+                logger.debug("🔁 Presupuesto de reintentos agotado - sin reintento");
+                throw failure;
+            }
+
+            long delay = Math.min(maxDelayMillis,
+                    ThreadLocalRandom.current().nextLong(baseDelayMillis, Math.max(baseDelayMillis, previousDelay * 3) + 1));
+            Deadline deadline = Deadline.current();
+            if (deadline != null && deadline.remainingMillis() <= delay) {
+                // Devolver el reintento no usado
+                balance.addAndGet(RETRY_COST);
+                throw failure;
+            }
+            previousDelay = delay;
+
+            retries.increment();
+            logger.info("🔁 Reintento {}/{} en {} ms: {}", attempt + 1, maxAttempts, delay, failure.getMessage());
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+        }
+    }
+
+    private void deposit() {
+        balance.accumulateAndGet(depositPerCall, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < RETRY_COST) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - RETRY_COST)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Fallo de conexión: la request no llegó a salir (se puede reintentar o reconectar)
+     */
+    public static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException
+                    || cause instanceof PortUnreachableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Llamadas que fallaron y luego salieron bien en un reintento
+     */
+    public long getRecovered() {
+        return recovered.sum();
+    }
+
+    public long getExhaustedBudget() {
+        return exhaustedBudget.sum();
+    }
+
+    public String toSummary() {
+        long total = calls.sum();
+        StringBuilder summary = new StringBuilder();
+        summary.append("🔁 RETRIES\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Calls / retries:         %9d / %d (%.2f%% extra load)\n",
+                total, retries.sum(), total == 0 ? 0.0 : retries.sum() * 100.0 / total));
+        summary.append(String.format("Recovered by retry:      %9d\n", recovered.sum()));
+        summary.append(String.format("Gave up (max attempts):  %9d\n", exhaustedAttempts.sum()));
+        summary.append(String.format("Gave up (budget):        %9d\n", exhaustedBudget.sum()));
+        summary.append(String.format("Policy:                  %d attempts, %d-%d ms jitter, %.1f%% budget\n",
+                maxAttempts, baseDelayMillis, maxDelayMillis, depositPerCall * 100.0 / RETRY_COST));
+        return summary.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.iso8583.test.client;
+
+import com.iso8583.test.config.ConfigurationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Reparte las transacciones entre varias instancias del simulador
+ *
+ *   simulator.base-urls=http://sim1:8081,http://sim2:8081   (vacío → simulator.base-url)
+ *   client.load-balancer.strategy=round-robin | least-outstanding | p2c-ewma
+ *
+ * Expulsión pasiva: un nodo con {@code consecutive-failures} fallos seguidos
+ * (excepción o HTTP 5xx) sale de la rotación por {@code ejection-millis} ×
+ * número de expulsiones (máx. 5×). Nunca se expulsa más de
+ * {@code max-ejection-percent} de los nodos; si no queda ninguno sano se
+ * usan todos.
+ */
+public class SimulatorLoadBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatorLoadBalancer.class);
+
+    private static final int MAX_EJECTION_MULTIPLIER = 5;
+
+    private final List<SimulatorNode> nodes;
+    private final BalancingStrategy strategy;
+    private final int consecutiveFailures;
+    private final long ejectionNanos;
+    private final int maxEjected;
+
+    public SimulatorLoadBalancer(ConfigurationManager config) {
+        List<SimulatorNode> configured = new ArrayList<>();
+        for (String url : config.getBaseUrls()) {
+            configured.add(new SimulatorNode(url));
+        }
+        this.nodes = Collections.unmodifiableList(configured);
+        this.strategy = BalancingStrategy.of(config.getProperty("client.load-balancer.strategy", "round-robin"));
+        this.consecutiveFailures = Math.max(1, config.getIntProperty("client.load-balancer.ejection.consecutive-failures", 5));
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(
+                config.getLongProperty("client.load-balancer.ejection.millis", 10_000));
+        this.maxEjected = nodes.size() * config.getIntProperty("client.load-balancer.ejection.max-percent", 50) / 100;
+
+        if (nodes.size() > 1) {
+            logger.info("⚖️ Balanceo {} entre {} simuladores: {}", strategy, nodes.size(),
+                    nodes.stream().map(SimulatorNode::getBaseUrl).toList());
+        }
+    }
+
+    /**
+     * Ejecuta la llamada contra el nodo elegido
+     *
+     * @param call recibe la URL base del nodo
+     * @param isFailure resultado que cuenta como fallo del nodo (ej. HTTP 5xx)
+     */
+    public <T> T execute(Function<String, T> call, Predicate<T> isFailure) {
+        SimulatorNode node = choose();
+        node.onStart();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.apply(node.getBaseUrl());
+            failed = isFailure.test(result);
+            return result;
+        } finally {
+            int failuresInARow = node.onComplete(failed, System.nanoTime() - start);
+            if (failuresInARow >= consecutiveFailures) {
+                tryEject(node, failuresInARow);
+            }
+        }
+    }
+
+    private SimulatorNode choose() {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        long now = System.nanoTime();
+        List<SimulatorNode> healthy = new ArrayList<>(nodes.size());
+        for (SimulatorNode node : nodes) {
+            if (!node.isEjected(now)) {
+                healthy.add(node);
+            }
+        }
+        return strategy.choose(healthy.isEmpty() ? nodes : healthy);
+    }
+
+    private synchronized void tryEject(SimulatorNode node, int failuresInARow) {
+        long now = System.nanoTime();
+        if (node.isEjected(now)) {
+            return;
+        }
+        long ejected = nodes.stream().filter(n -> n.isEjected(now)).count();
+        if (ejected >= maxEjected) {
+            logger.debug("⚖️ {} sin expulsar: ya hay {} de {} nodos fuera", node.getBaseUrl(), ejected, nodes.size());
+            return;
+        }
+        long duration = ejectionNanos * Math.min(MAX_EJECTION_MULTIPLIER, node.getEjections() + 1);
+        node.eject(now + duration);
+        logger.warn("⛔ Simulador {} expulsado por {} ms tras {} fallos consecutivos",
+                node.getBaseUrl(), TimeUnit.NANOSECONDS.toMillis(duration), failuresInARow);
+    }
+
+    public List<SimulatorNode> getNodes() {
+        return nodes;
+    }
+
+    public BalancingStrategy getStrategy() {
+        return strategy;
+    }
+
+    public String toSummary() {
+        long now = System.nanoTime();
+        StringBuilder summary = new StringBuilder();
+        summary.append("⚖️ SIMULATOR LOAD BALANCING (").append(strategy).append(")\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        for (SimulatorNode node : nodes) {
+            summary.append(String.format("%-28s %s | requests %d | failed %d | EWMA %.1f ms | ejected %dx\n",
+                    node.getBaseUrl(), node.isEjected(now) ? "EJECTED" : "UP     ", node.getRequests(),
+                    node.getFailures(), node.getEwmaMillis(), node.getEjections()));
+        }
+        return summary.toString();
+    }
+}
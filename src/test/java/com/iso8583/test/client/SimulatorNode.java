@@ -0,0 +1,102 @@
+package com.iso8583.test.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Una instancia del simulador detrás de {@link SimulatorLoadBalancer}
+ *
+ * Lleva lo que necesitan las estrategias (requests en vuelo, EWMA de
+ * latencia) y el estado de la expulsión pasiva por fallos consecutivos.
+ * Todo sin locks: contadores atómicos y el EWMA como bits de un double en CAS.
+ */
+public class SimulatorNode {
+
+    // Peso de la última muestra en el EWMA
+    private static final double EWMA_ALPHA = 0.2;
+
+    // Un fallo cuenta como una latencia de al menos 1s: un nodo que falla
+    // rápido no debe parecer el más rápido para p2c-ewma
+    private static final long FAILURE_PENALTY_MICROS = 1_000_000L;
+
+    private final String baseUrl;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong ewmaMicrosBits = new AtomicLong(Double.doubleToLongBits(0.0));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger ejections = new AtomicInteger();
+    private volatile long ejectedUntilNanos;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public SimulatorNode(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    void onStart() {
+        outstanding.incrementAndGet();
+        requests.increment();
+    }
+
+    /**
+     * @return fallos consecutivos después de registrar este resultado
+     */
+    int onComplete(boolean failed, long latencyNanos) {
+        outstanding.decrementAndGet();
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        updateEwma(failed ? Math.max(latencyMicros, FAILURE_PENALTY_MICROS) : latencyMicros);
+        if (failed) {
+            failures.increment();
+            return consecutiveFailures.incrementAndGet();
+        }
+        consecutiveFailures.set(0);
+        return 0;
+    }
+
+    private void updateEwma(long sampleMicros) {
+        while (true) {
+            long bits = ewmaMicrosBits.get();
+            double current = Double.longBitsToDouble(bits);
+            double next = current == 0.0 ? sampleMicros : current + EWMA_ALPHA * (sampleMicros - current);
+            if (ewmaMicrosBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    void eject(long untilNanos) {
+        ejections.incrementAndGet();
+        consecutiveFailures.set(0);
+        ejectedUntilNanos = untilNanos;
+    }
+
+    public boolean isEjected(long nowNanos) {
+        return nowNanos - ejectedUntilNanos < 0;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public double getEwmaMillis() {
+        return Double.longBitsToDouble(ewmaMicrosBits.get()) / 1000.0;
+    }
+
+    public int getEjections() {
+        return ejections.get();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,112 @@
+package com.iso8583.test.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket sin locks (variante GCRA: un solo AtomicLong con el
+ * "instante teórico de llegada" del siguiente permiso).
+ *
+ * - {@code permitsPerSecond}: tasa sostenida
+ * - {@code burst}: permisos que se pueden consumir de golpe tras un periodo ocioso
+ *
+ * Cada llamada reserva su turno con un CAS y luego espera (park) fuera de
+ * cualquier lock; si la espera superaría {@code maxWait} no reserva nada y
+ * retorna false.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerSecond;
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("La tasa debe ser mayor a 0: " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = intervalNanos * Math.max(0, burst - 1);
+    }
+
+    /**
+     * Obtiene un permiso esperando como máximo {@code maxWaitNanos}
+     *
+     * @return false si no había permiso dentro de la espera máxima
+     */
+    public boolean acquire(long maxWaitNanos) {
+        long now;
+        long waitNanos;
+        while (true) {
+            now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long newTat = Math.max(tat, now) + intervalNanos;
+            long allowedAt = newTat - intervalNanos - burstToleranceNanos;
+            waitNanos = Math.max(0, allowedAt - now);
+            if (waitNanos > maxWaitNanos) {
+                rejected.increment();
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                break;
+            }
+        }
+
+        acquired.increment();
+        if (waitNanos > 0) {
+            throttled.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos(waitNanos);
+            long deadline = now + waitNanos;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+        return true;
+    }
+
+    private void maxWaitNanos(long waitNanos) {
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    /**
+     * Permisos que tuvieron que esperar su turno
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    /**
+     * Llamadas rechazadas por superar la espera máxima
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public double getMeanWaitMillis() {
+        long count = throttled.sum();
+        return count == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+}
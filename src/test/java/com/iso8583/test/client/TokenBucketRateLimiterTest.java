@@ -0,0 +1,80 @@
+package com.iso8583.test.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Token bucket GCRA: ráfaga inicial, rechazo por espera máxima y tasa sostenida
+ */
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void laRafagaPasaSinEsperarYLuegoRechaza() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.acquire(0)).as("permiso %d de la ráfaga", i).isTrue();
+        }
+        assertThat(limiter.acquire(0)).isFalse();
+
+        assertThat(limiter.getAcquired()).isEqualTo(5);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+        assertThat(limiter.getThrottled()).isZero();
+    }
+
+    @Test
+    void unRechazoNoConsumePermiso() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20, 1);
+        assertThat(limiter.acquire(0)).isTrue();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.acquire(0)).isFalse();
+        }
+        // Si los rechazos reservaran turno, la espera pasaría de ~50ms a segundos
+        long start = System.nanoTime();
+        assertThat(limiter.acquire(TimeUnit.SECONDS.toNanos(1))).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+    }
+
+    @Test
+    void esperaSuTurnoDentroDelMaximo() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 1);
+        assertThat(limiter.acquire(0)).isTrue();
+
+        long start = System.nanoTime();
+        assertThat(limiter.acquire(TimeUnit.SECONDS.toNanos(1))).isTrue();
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(waitedMillis).isBetween(80L, 500L);
+        assertThat(limiter.getThrottled()).isEqualTo(1);
+        assertThat(limiter.getMaxWaitMillis()).isBetween(80L, 100L);
+    }
+
+    @Test
+    void sostieneLaTasaConVariosHilos() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(200, 1);
+        AtomicInteger granted = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 100; i++) {
+                executor.execute(() -> {
+                    if (limiter.acquire(TimeUnit.SECONDS.toNanos(5))) {
+                        granted.incrementAndGet();
+                    }
+                });
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(granted.get()).isEqualTo(100);
+        // 100 permisos a 200/s: el último no puede salir antes de ~495ms
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(450);
+    }
+}
@@ -2,6 +2,9 @@ package com.iso8583.test.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -22,25 +25,42 @@ public class ConfigurationManager {
     private static final String DEFAULT_ACCOUNT = "1310672399";
     private static final String DEFAULT_AMOUNT = "10000";
     private static final String DEFAULT_CURRENCY_CODE = "068";
+    private static final String DEFAULT_MAX_RESPONSE_TIME = "5000";
+    private static final String DEFAULT_CONCURRENT_USERS = "5";
+    private static final String DEFAULT_PERFORMANCE_DURATION = "60";
+    private static final String DEFAULT_RAMP_UP = "10";
 
     /**
      * Constructor PÚBLICO - Permite que PicoContainer lo instancie
      */
     public ConfigurationManager() {
+        this(new Properties());
+    }
+
+    /**
+     * Constructor con overrides (CLI): los valores recibidos tienen prioridad
+     * sobre los archivos de configuración
+     */
+    public ConfigurationManager(Properties overrides) {
         properties = new Properties();
-        loadProperties();
+        // test-config primero: application-test tiene prioridad en claves repetidas
+        loadProperties("test-config.properties");
+        loadProperties("application-test.properties");
+        for (Map.Entry<Object, Object> entry : overrides.entrySet()) {
+            properties.setProperty(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+        }
         System.out.println("✅ ConfigurationManager inicializado");
     }
 
-    private void loadProperties() {
+    private void loadProperties(String resourceName) {
         try (InputStream input = getClass().getClassLoader()
-                .getResourceAsStream("application-test.properties")) {
+                .getResourceAsStream(resourceName)) {
 
             if (input != null) {
                 properties.load(input);
-                System.out.println("✅ Configuración cargada desde application-test.properties");
+                System.out.println("✅ Configuración cargada desde " + resourceName);
             } else {
-                System.out.println("⚠️ application-test.properties no encontrado, usando valores por defecto");
+                System.out.println("⚠️ " + resourceName + " no encontrado, usando valores por defecto");
             }
         } catch (IOException e) {
             System.err.println("⚠️ Error cargando properties: " + e.getMessage());
@@ -53,6 +73,19 @@ public class ConfigurationManager {
         return properties.getProperty("simulator.base-url", DEFAULT_BASE_URL);
     }
 
+    /**
+     * Instancias del simulador para balanceo (simulator.base-urls, separadas por coma);
+     * sin esa clave, solo simulator.base-url
+     */
+    public List<String> getBaseUrls() {
+        String configured = properties.getProperty("simulator.base-urls", "");
+        List<String> urls = Arrays.stream(configured.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        return urls.isEmpty() ? List.of(getBaseUrl()) : urls;
+    }
+
     public int getTimeout() {
         return Integer.parseInt(properties.getProperty("simulator.timeout", DEFAULT_TIMEOUT));
     }
@@ -85,6 +118,57 @@ public class ConfigurationManager {
         return properties.getProperty("test.data.currency-code", DEFAULT_CURRENCY_CODE);
     }
 
+    // ============================================================================
+    // CONFIGURACIÓN DE PERFORMANCE
+    // ============================================================================
+
+    /**
+     * SLA de tiempo de respuesta (ms) usado por los modos de carga
+     */
+    public long getMaxResponseTime() {
+        return getLongProperty("test.max.response.time", Long.parseLong(DEFAULT_MAX_RESPONSE_TIME));
+    }
+
+    public int getConcurrentUsers() {
+        return getIntProperty("performance.test.concurrent.users", Integer.parseInt(DEFAULT_CONCURRENT_USERS));
+    }
+
+    public int getPerformanceDurationSeconds() {
+        return getIntProperty("performance.test.duration.seconds", Integer.parseInt(DEFAULT_PERFORMANCE_DURATION));
+    }
+
+    public int getRampUpSeconds() {
+        return getIntProperty("performance.test.ramp.up.seconds", Integer.parseInt(DEFAULT_RAMP_UP));
+    }
+
+    // ============================================================================
+    // ACCESO GENÉRICO
+    // ============================================================================
+
+    public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    public int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    public long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+
+    public double getDoubleProperty(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+
+    public boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
     public String getTransactionEndpoint() {
         return getBaseUrl() + "/api/v1/transaction";
     }
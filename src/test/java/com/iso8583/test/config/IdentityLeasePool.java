@@ -0,0 +1,474 @@
+package com.iso8583.test.config;
+
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.performance.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pool de identidades de prueba (tarjeta + cuenta origen + cuenta destino) con lease exclusivo
+ *
+ * Los features comparten unas pocas tarjetas y cuentas; dos escenarios (o
+ * dos transacciones de carga) en paralelo sobre la misma cuenta se pisan saldos y
+ * límites de velocidad. Cada escenario / transacción en vuelo toma un lease y, mientras
+ * lo tenga, nadie más usa esa tarjeta ni esas cuentas.
+ *
+ * - Se presta la tupla completa, tal como el autorizador vincula tarjeta y
+ *   cuentas: un escenario nunca termina con la tarjeta de una identidad y la
+ *   cuenta de otra. Por eso todas las identidades tienen la misma forma
+ *   (todas con cuenta, todas con destino, o ninguna) y ninguna cuenta se
+ *   repite en el pool, ni como origen ni como destino: un origen sustituido
+ *   no puede coincidir con un destino (transferencia a sí misma).
+ *
+ * - Anillo sin locks: cada identidad es una celda de un
+ *   AtomicReferenceArray; tomarla es un CAS null → lease y devolverla un
+ *   CAS lease → null. Un cursor compartido reparte el punto de partida.
+ * - Sin identidades libres se espera con backoff hasta el timeout.
+ * - Un lease que no se devolvió en {@code leaseTtl} (escenario colgado) se
+ *   recupera; devolverlo después no libera al nuevo dueño.
+ *
+ *   test.data.identities.enabled=false
+ *   test.data.identities=4532015112830366:10012345678:10019876543,4218281008687192:1310672398:1310672399
+ *   test.data.identities.lease-timeout-millis=30000
+ *   test.data.identities.lease-ttl-seconds=600
+ */
+public class IdentityLeasePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdentityLeasePool.class);
+
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Identity[] identities;
+    private final AtomicReferenceArray<Lease> slots;
+    private final Set<String> pooledPans = new HashSet<>();
+    private final Set<String> pooledAccounts = new HashSet<>();
+    private final Duration leaseTimeout;
+    private final long leaseTtlNanos;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder returns = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder staleReturns = new LongAdder();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final LongAccumulator maxLeased = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray leaseCounts;
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    private final LatencyHistogram holdHistogram = new LatencyHistogram();
+
+    public IdentityLeasePool(List<Identity> identities, Duration leaseTimeout, Duration leaseTtl) {
+        if (identities.isEmpty()) {
+            throw new IllegalArgumentException("El pool necesita al menos una identidad");
+        }
+        this.identities = identities.toArray(new Identity[0]);
+        this.slots = new AtomicReferenceArray<>(this.identities.length);
+        this.leaseCounts = new AtomicLongArray(this.identities.length);
+        this.leaseTimeout = leaseTimeout;
+        this.leaseTtlNanos = leaseTtl.isZero() ? Long.MAX_VALUE : leaseTtl.toNanos();
+        Identity first = this.identities[0];
+        for (Identity identity : this.identities) {
+            if (!pooledPans.add(identity.pan)) {
+                throw new IllegalArgumentException("PAN repetido en el pool: " + identity.getMaskedPan());
+            }
+            if ((identity.account == null) != (first.account == null)
+                    || (identity.targetAccount == null) != (first.targetAccount == null)) {
+                throw new IllegalArgumentException("Todas las identidades del pool tienen que tener la misma forma "
+                        + "(pan[:cuenta[:destino]]): " + identity.getMaskedPan());
+            }
+            for (String account : new String[]{identity.account, identity.targetAccount}) {
+                if (account != null && !pooledAccounts.add(account)) {
+                    throw new IllegalArgumentException("Cuenta repetida en el pool: " + account);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pool de test.data.identities si test.data.identities.enabled=true; null si no
+     */
+    public static IdentityLeasePool fromConfig(ConfigurationManager config) {
+        if (!config.getBooleanProperty("test.data.identities.enabled", false)) {
+            return null;
+        }
+        IdentityLeasePool pool = new IdentityLeasePool(
+                parse(config.getProperty("test.data.identities", config.getValidPan()), config.getValidTrack2()),
+                Duration.ofMillis(config.getLongProperty("test.data.identities.lease-timeout-millis", 30_000)),
+                Duration.ofSeconds(config.getLongProperty("test.data.identities.lease-ttl-seconds", 600)));
+        logger.info("🔐 Pool de identidades: {} tarjetas/cuentas", pool.size());
+        return pool;
+    }
+
+    /**
+     * Lista "pan[:cuenta[:destino]],..."; el track 2 es el PAN + lo que sigue al separador del track 2 base
+     */
+    static List<Identity> parse(String spec, String baseTrack2) {
+        int separator = baseTrack2 == null ? -1 : baseTrack2.indexOf('D');
+        String track2Suffix = separator >= 0 ? baseTrack2.substring(separator) : "";
+        List<Identity> identities = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split(":", -1);
+            String pan = parts[0].trim();
+            if (parts.length > 3 || pan.isEmpty() || !pan.chars().allMatch(Character::isDigit)) {
+                throw new IllegalArgumentException("Identidad inválida en test.data.identities: " + trimmed);
+            }
+            identities.add(new Identity(pan, pan + track2Suffix, part(parts, 1), part(parts, 2)));
+        }
+        return identities;
+    }
+
+    private static String part(String[] parts, int index) {
+        return parts.length > index && !parts[index].isBlank() ? parts[index].trim() : null;
+    }
+
+    // ============================================================================
+    // LEASE / RETURN
+    // ============================================================================
+
+    /**
+     * Toma una identidad libre, esperando hasta el timeout de configuración
+     *
+     * @throws IllegalStateException si no se liberó ninguna a tiempo
+     */
+    public Lease lease() {
+        return lease(leaseTimeout);
+    }
+
+    public Lease lease(Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long backoff = MIN_BACKOFF_NANOS;
+        while (true) {
+            Lease lease = tryLease(start);
+            if (lease != null) {
+                return lease;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                timeouts.increment();
+                throw new IllegalStateException(String.format(
+                        "Sin identidades libres tras %d ms (%d de %d en uso)",
+                        timeout.toMillis(), leased.get(), identities.length));
+            }
+            LockSupport.parkNanos(Math.min(backoff, remaining));
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrumpido esperando una identidad libre");
+            }
+        }
+    }
+
+    /**
+     * Toma una identidad libre sin esperar, o null si están todas en uso
+     */
+    public Lease tryLease() {
+        return tryLease(System.nanoTime());
+    }
+
+    private Lease tryLease(long requestedAtNanos) {
+        Lease lease = scan(requestedAtNanos);
+        if (lease == null && reclaimExpired() > 0) {
+            lease = scan(requestedAtNanos);
+        }
+        return lease;
+    }
+
+    private Lease scan(long requestedAtNanos) {
+        int n = identities.length;
+        int start = cursor.getAndIncrement();
+        for (int i = 0; i < n; i++) {
+            int index = Math.floorMod(start + i, n);
+            if (slots.get(index) != null) {
+                continue;
+            }
+            long now = System.nanoTime();
+            Lease lease = new Lease(this, index, identities[index], now, now - requestedAtNanos);
+            if (slots.compareAndSet(index, null, lease)) {
+                leases.increment();
+                leaseCounts.incrementAndGet(index);
+                maxLeased.accumulate(leased.incrementAndGet());
+                waitHistogram.recordNanos(lease.waitNanos);
+                return lease;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recupera los leases con más de leaseTtl
+     *
+     * @return cuántos se recuperaron
+     */
+    private int reclaimExpired() {
+        if (leaseTtlNanos == Long.MAX_VALUE) {
+            return 0;
+        }
+        int reclaimed = 0;
+        long now = System.nanoTime();
+        for (int i = 0; i < identities.length; i++) {
+            Lease lease = slots.get(i);
+            if (lease == null || now - lease.leasedAtNanos <= leaseTtlNanos) {
+                continue;
+            }
+            // El contador baja antes de liberar la celda: nunca marca más leases que identidades
+            leased.decrementAndGet();
+            if (!slots.compareAndSet(i, lease, null)) {
+                leased.incrementAndGet();
+            } else {
+                lease.expired = true;
+                expired.increment();
+                reclaimed++;
+                logger.warn("⏰ Lease de {} vencido tras {}s - se recupera",
+                        lease.identity.getMaskedPan(), TimeUnit.NANOSECONDS.toSeconds(now - lease.leasedAtNanos));
+            }
+        }
+        return reclaimed;
+    }
+
+    private void release(Lease lease) {
+        if (!lease.returned.compareAndSet(false, true)) {
+            return;
+        }
+        long heldNanos = System.nanoTime() - lease.leasedAtNanos;
+        leased.decrementAndGet();
+        if (slots.compareAndSet(lease.index, lease, null)) {
+            returns.increment();
+            holdHistogram.recordNanos(heldNanos);
+        } else {
+            // Ya lo recuperó reclaimExpired (que ya lo descontó): la identidad puede tener otro dueño
+            leased.incrementAndGet();
+            staleReturns.increment();
+        }
+    }
+
+    /**
+     * true si el PAN o la cuenta es una de las identidades del pool
+     */
+    public boolean isPooledPan(String pan) {
+        return pan != null && pooledPans.contains(pan);
+    }
+
+    public boolean isPooledAccount(String account) {
+        return account != null && pooledAccounts.contains(account);
+    }
+
+    // ============================================================================
+    // IDENTIDAD Y LEASE
+    // ============================================================================
+
+    public static final class Identity {
+        private final String pan;
+        private final String track2;
+        private final String account;
+        private final String targetAccount;
+
+        public Identity(String pan, String track2, String account, String targetAccount) {
+            this.pan = pan;
+            this.track2 = track2;
+            this.account = account;
+            this.targetAccount = targetAccount;
+        }
+
+        public String getPan() {
+            return pan;
+        }
+
+        public String getTrack2() {
+            return track2;
+        }
+
+        /**
+         * Cuenta asociada a la tarjeta, o null si la identidad es solo tarjeta
+         */
+        public String getAccount() {
+            return account;
+        }
+
+        /**
+         * Cuenta destino vinculada (transferencias), o null
+         */
+        public String getTargetAccount() {
+            return targetAccount;
+        }
+
+        public String getMaskedPan() {
+            return pan.length() > 10 ? pan.substring(0, 6) + "******" + pan.substring(pan.length() - 4) : "****";
+        }
+    }
+
+    /**
+     * Identidad tomada en exclusiva hasta {@link #close()}
+     */
+    public static final class Lease implements AutoCloseable {
+        private final IdentityLeasePool pool;
+        private final int index;
+        private final Identity identity;
+        private final long leasedAtNanos;
+        private final long waitNanos;
+        private final AtomicBoolean returned = new AtomicBoolean();
+        private volatile boolean expired;
+
+        private Lease(IdentityLeasePool pool, int index, Identity identity, long leasedAtNanos, long waitNanos) {
+            this.pool = pool;
+            this.index = index;
+            this.identity = identity;
+            this.leasedAtNanos = leasedAtNanos;
+            this.waitNanos = waitNanos;
+        }
+
+        public Identity getIdentity() {
+            return identity;
+        }
+
+        /**
+         * Cambia un PAN compartido del pool por el de este lease; cualquier otro queda igual
+         */
+        public String substitutePan(String pan) {
+            return pool.isPooledPan(pan) ? identity.pan : pan;
+        }
+
+        /**
+         * Cambia el PAN de un track 2 compartido, conservando vencimiento y service code
+         */
+        public String substituteTrack2(String track2) {
+            if (track2 == null) {
+                return null;
+            }
+            int separator = track2.indexOf('D') >= 0 ? track2.indexOf('D') : track2.indexOf('=');
+            if (separator < 0 || !pool.isPooledPan(track2.substring(0, separator))) {
+                return track2;
+            }
+            return identity.pan + track2.substring(separator);
+        }
+
+        /**
+         * Cambia una cuenta origen del pool por la de este lease
+         */
+        public String substituteAccount(String account) {
+            return identity.account != null && pool.isPooledAccount(account) ? identity.account : account;
+        }
+
+        /**
+         * Cambia una cuenta destino del pool por el destino de este lease
+         */
+        public String substituteTargetAccount(String targetAccount) {
+            return identity.targetAccount != null && pool.isPooledAccount(targetAccount)
+                    ? identity.targetAccount : targetAccount;
+        }
+
+        /**
+         * Pone la tarjeta del lease en el request (y sus cuentas, si el request las lleva)
+         */
+        public TransactionRequest applyTo(TransactionRequest request) {
+            request.setPan(identity.pan);
+            if (request.getTrack2() != null) {
+                int separator = request.getTrack2().indexOf('D');
+                request.setTrack2(separator >= 0 ? identity.pan + request.getTrack2().substring(separator) : identity.track2);
+            }
+            if (request.getAccount() != null && identity.account != null) {
+                request.setAccount(identity.account);
+            }
+            if (request.getTargetAccount() != null && identity.targetAccount != null) {
+                request.setTargetAccount(identity.targetAccount);
+            }
+            return request;
+        }
+
+        public long getWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        }
+
+        public long getHeldMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - leasedAtNanos);
+        }
+
+        /**
+         * true si el pool lo recuperó por exceder el TTL
+         */
+        public boolean isExpired() {
+            return expired;
+        }
+
+        @Override
+        public void close() {
+            pool.release(this);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s / %s -> %s (espera %d ms, tomado hace %d ms%s)",
+                    identity.getMaskedPan(), identity.account, identity.targetAccount, getWaitMillis(), getHeldMillis(),
+                    expired ? ", VENCIDO" : "");
+        }
+    }
+
+    // ============================================================================
+    // MÉTRICAS
+    // ============================================================================
+
+    public int size() {
+        return identities.length;
+    }
+
+    public int getLeased() {
+        return leased.get();
+    }
+
+    public long getLeases() {
+        return leases.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("🔐 IDENTITY LEASE POOL\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Identities (in use/max): %9d (%d / %d)\n",
+                identities.length, getLeased(), maxLeased.get()));
+        summary.append(String.format("Leases / returns:        %9d / %d\n", getLeases(), returns.sum()));
+        summary.append(String.format("Timeouts / expired:      %9d / %d\n", getTimeouts(), getExpired()));
+        if (staleReturns.sum() > 0) {
+            summary.append(String.format("Stale returns:           %9d\n", staleReturns.sum()));
+        }
+        summary.append(String.format("Wait P50 / P99 / Max:    %6d / %d / %d ms\n",
+                waitHistogram.getValueAtPercentileMillis(50),
+                waitHistogram.getValueAtPercentileMillis(99),
+                TimeUnit.MICROSECONDS.toMillis(waitHistogram.getMaxMicros())));
+        summary.append(String.format("Hold P50 / P99 / Max:    %6d / %d / %d ms\n",
+                holdHistogram.getValueAtPercentileMillis(50),
+                holdHistogram.getValueAtPercentileMillis(99),
+                TimeUnit.MICROSECONDS.toMillis(holdHistogram.getMaxMicros())));
+        for (int i = 0; i < identities.length && i < 10; i++) {
+            summary.append(String.format("  %s  %-12s %-12s leases %d\n", identities[i].getMaskedPan(),
+                    identities[i].account == null ? "-" : identities[i].account,
+                    identities[i].targetAccount == null ? "-" : identities[i].targetAccount, leaseCounts.get(i)));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.iso8583.test.config;
+
+import com.iso8583.test.models.TransactionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pool de identidades: tuplas tarjeta/origen/destino completas, validación del pool y sustitución
+ */
+class IdentityLeasePoolTest {
+
+    private static final String TRACK2 = "4532015112830366D2709101123456789";
+
+    private static IdentityLeasePool pool(String spec) {
+        return new IdentityLeasePool(IdentityLeasePool.parse(spec, TRACK2), Duration.ofMillis(100), Duration.ZERO);
+    }
+
+    @Test
+    void parseaTarjetaCuentaYDestino() {
+        IdentityLeasePool.Identity identity =
+                IdentityLeasePool.parse("4218281008687192:1310672398:1310672399", TRACK2).get(0);
+
+        assertThat(identity.getPan()).isEqualTo("4218281008687192");
+        assertThat(identity.getTrack2()).isEqualTo("4218281008687192D2709101123456789");
+        assertThat(identity.getAccount()).isEqualTo("1310672398");
+        assertThat(identity.getTargetAccount()).isEqualTo("1310672399");
+    }
+
+    @Test
+    void rechazaCuentasRepetidasEntreOrigenYDestino() {
+        assertThatThrownBy(() -> pool("4532015112830366:10012345678:1310672399,4218281008687192:1310672399:1310672398"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("1310672399");
+    }
+
+    @Test
+    void rechazaIdentidadesDeDistintaForma() {
+        assertThatThrownBy(() -> pool("4532015112830366:10012345678:10019876543,4218281008687192:1310672398"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pool("4532015112830366:1:2:3"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void laTransferenciaUsaLaTuplaCompletaDelLease() {
+        IdentityLeasePool pool = pool("4532015112830366:10012345678:10019876543,4218281008687192:1310672398:1310672399");
+
+        try (IdentityLeasePool.Lease lease = pool.tryLease()) {
+            IdentityLeasePool.Identity identity = lease.getIdentity();
+
+            // Sea cual sea la identidad prestada, origen y destino salen de la misma tupla
+            assertThat(lease.substitutePan("4218281008687192")).isEqualTo(identity.getPan());
+            assertThat(lease.substituteAccount("1310672398")).isEqualTo(identity.getAccount());
+            assertThat(lease.substituteTargetAccount("1310672399")).isEqualTo(identity.getTargetAccount())
+                    .isNotEqualTo(identity.getAccount());
+            assertThat(lease.substituteTargetAccount("99999999")).as("fuera del pool").isEqualTo("99999999");
+        }
+    }
+
+    @Test
+    void applyToCambiaTarjetaTrack2YCuentas() {
+        IdentityLeasePool pool = pool("4218281008687192:1310672398:1310672399");
+        TransactionRequest request = new TransactionRequest();
+        request.setPan("4532015112830366");
+        request.setTrack2(TRACK2);
+        request.setAccount("10012345678");
+        request.setTargetAccount("10019876543");
+
+        try (IdentityLeasePool.Lease lease = pool.tryLease()) {
+            lease.applyTo(request);
+        }
+
+        assertThat(request.getPan()).isEqualTo("4218281008687192");
+        assertThat(request.getTrack2()).isEqualTo("4218281008687192D2709101123456789");
+        assertThat(request.getAccount()).isEqualTo("1310672398");
+        assertThat(request.getTargetAccount()).isEqualTo("1310672399");
+    }
+}
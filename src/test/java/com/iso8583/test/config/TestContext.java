@@ -43,6 +43,9 @@ public class TestContext {
     // Estado de respuesta REST (RestAssured Response)
     private Response lastResponse;
 
+    // Tarjeta + cuenta exclusivas del escenario (null sin pool de identidades)
+    private IdentityLeasePool.Lease identityLease;
+
 
     // Constructor
     public TestContext(TransactionService transactionService,
@@ -164,6 +167,14 @@ public class TestContext {
         logger.debug("🔌 ConnectionInitialized: {}", connectionInitialized);
     }
 
+    public IdentityLeasePool.Lease getIdentityLease() {
+        return identityLease;
+    }
+
+    public void setIdentityLease(IdentityLeasePool.Lease identityLease) {
+        this.identityLease = identityLease;
+    }
+
     public Response getLastResponse() {
         return lastResponse;
     }
@@ -1,9 +1,17 @@
 package com.iso8583.test.config;
 
 import com.iso8583.test.client.ISO8583ApiClient;
+import com.iso8583.test.mock.MockAuthorizerServer;
+import com.iso8583.test.performance.DuplicateDetector;
+import com.iso8583.test.performance.TrafficCapture;
 import com.iso8583.test.services.ConnectionService;
+import com.iso8583.test.services.ReversalManager;
+import com.iso8583.test.services.StoreAndForwardQueue;
 import com.iso8583.test.services.TransactionService;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Factory para crear TestContext - VERSIÓN SINGLETON
  * Se crea una sola instancia por JVM y se reutiliza
@@ -12,15 +20,20 @@ public class TestContextFactory {
 
     private static TestContextFactory instance;
     private final TestContext testContext;
+    private final ConfigurationManager configManager;
+    private final ISO8583ApiClient apiClient;
+    private final TrafficCapture trafficCapture;
+    private final MockAuthorizerServer mockAuthorizer;
+    private final IdentityLeasePool identityPool;
 
     private TestContextFactory() {
         System.out.println("🏭 TestContextFactory - Inicializando servicios SINGLETON...");
 
         // Crear ConfigurationManager
-        ConfigurationManager configManager = new ConfigurationManager();
+        this.configManager = new ConfigurationManager();
 
         // Crear API Client
-        ISO8583ApiClient apiClient = new ISO8583ApiClient(configManager);
+        this.apiClient = new ISO8583ApiClient(configManager);
 
         // Crear Connection Service
         ConnectionService connectionService = new ConnectionService(configManager);
@@ -34,6 +47,30 @@ public class TestContextFactory {
         // Vincular TestContext a TransactionService DESPUÉS
         transactionService.setTestContext(this.testContext);
 
+        // Captura de tráfico opcional (performance.capture.file)
+        this.trafficCapture = createTrafficCapture(configManager);
+        transactionService.setTrafficCapture(trafficCapture);
+
+        // STAN/RRN repetidos detectados a medida que llegan las respuestas (performance.duplicates.enabled)
+        transactionService.setDuplicateDetector(DuplicateDetector.fromConfig(configManager));
+
+        // Reversos 0400 automáticos de timeouts financieros (reversal.enabled)
+        ReversalManager reversals = ReversalManager.fromConfig(configManager, apiClient);
+        transactionService.setReversalManager(reversals);
+
+        // Advices 0220/0420 persistidos hasta que el canal los acepte (store-and-forward.enabled)
+        StoreAndForwardQueue storeAndForward = StoreAndForwardQueue.fromConfig(configManager, apiClient, connectionService);
+        transactionService.setStoreAndForward(storeAndForward);
+        if (reversals != null) {
+            reversals.setStoreAndForward(storeAndForward);
+        }
+
+        // Tarjeta + cuenta exclusivas por escenario (test.data.identities.enabled)
+        this.identityPool = IdentityLeasePool.fromConfig(configManager);
+
+        // Autorizador ISO8583 en proceso para el canal nativo (mock.authorizer.enabled)
+        this.mockAuthorizer = createMockAuthorizer(configManager);
+
         System.out.println("✅ TestContextFactory - Todos los servicios listos (SINGLETON)");
     }
 
@@ -48,6 +85,60 @@ public class TestContextFactory {
         return testContext;
     }
 
+    public ConfigurationManager getConfigurationManager() {
+        return configManager;
+    }
+
+    public ISO8583ApiClient getApiClient() {
+        return apiClient;
+    }
+
+    /**
+     * Captura de tráfico activa, o null si no se configuró
+     */
+    public TrafficCapture getTrafficCapture() {
+        return trafficCapture;
+    }
+
+    /**
+     * Autorizador mock del canal nativo, o null si no está habilitado
+     */
+    public MockAuthorizerServer getMockAuthorizer() {
+        return mockAuthorizer;
+    }
+
+    /**
+     * Pool de identidades de prueba, o null si no está habilitado
+     */
+    public IdentityLeasePool getIdentityPool() {
+        return identityPool;
+    }
+
+    private static MockAuthorizerServer createMockAuthorizer(ConfigurationManager configManager) {
+        if (!configManager.getBooleanProperty("mock.authorizer.enabled", false)) {
+            return null;
+        }
+        try {
+            return MockAuthorizerServer.fromConfig(configManager);
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo levantar el autorizador mock: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static TrafficCapture createTrafficCapture(ConfigurationManager configManager) {
+        String file = configManager.getProperty("performance.capture.file", "");
+        if (file.isBlank()) {
+            return null;
+        }
+        try {
+            return new TrafficCapture(Path.of(file));
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo abrir la captura de tráfico " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Reset del contexto para nuevo escenario
      */
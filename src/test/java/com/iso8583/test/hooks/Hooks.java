@@ -1,7 +1,14 @@
 package com.iso8583.test.hooks;
 
+import com.iso8583.test.client.RecordReplayFilter;
+import com.iso8583.test.config.IdentityLeasePool;
 import com.iso8583.test.config.TestContext;
 import com.iso8583.test.config.TestContextFactory;
+import com.iso8583.test.mock.MockAuthorizerServer;
+import com.iso8583.test.performance.DuplicateDetector;
+import com.iso8583.test.performance.TrafficCapture;
+import com.iso8583.test.services.ReversalManager;
+import com.iso8583.test.services.StoreAndForwardQueue;
 import com.iso8583.test.utils.ScreenshotHelper;
 import com.iso8583.test.utils.TestCoverageReporter;
 import io.cucumber.java.*;
@@ -9,6 +16,8 @@ import io.qameta.allure.Allure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 /**
  * Hooks de Cucumber mejorados con reportes avanzados
  */
@@ -41,6 +50,14 @@ public class Hooks {
 
         testContext.reset();
 
+        // Tarjeta + cuenta exclusivas: los PAN/cuentas compartidos del feature se cambian por estas
+        IdentityLeasePool identityPool = TestContextFactory.getInstance().getIdentityPool();
+        if (identityPool != null) {
+            IdentityLeasePool.Lease lease = identityPool.lease();
+            testContext.setIdentityLease(lease);
+            logger.info("🔐 Identidad del escenario: {}", lease);
+        }
+
         // Allure metadata
         Allure.epic("ISO8583 Test Automation");
         Allure.feature(getFeatureName(scenario));
@@ -94,6 +111,13 @@ public class Hooks {
 
         } catch (Exception e) {
             logger.error("❌ Error en afterScenario: {}", e.getMessage(), e);
+        } finally {
+            IdentityLeasePool.Lease lease = testContext.getIdentityLease();
+            if (lease != null) {
+                Allure.addAttachment("🔐 Identity Lease", "text/plain", lease.toString(), ".txt");
+                lease.close();
+                testContext.setIdentityLease(null);
+            }
         }
 
         logger.info("─".repeat(60) + "\n");
@@ -138,6 +162,59 @@ public class Hooks {
             }
         }
 
+        TrafficCapture capture = TestContextFactory.getInstance().getTrafficCapture();
+        if (capture != null) {
+            try {
+                capture.close();
+            } catch (IOException e) {
+                logger.warn("⚠️ Error cerrando la captura de tráfico: {}", e.getMessage());
+            }
+        }
+
+        ReversalManager reversals = TestContextFactory.getInstance().getTestContext()
+                .getTransactionService().getReversalManager();
+        if (reversals != null) {
+            reversals.close();
+            logger.info("\n{}", reversals.toSummary());
+        }
+
+        DuplicateDetector duplicates = TestContextFactory.getInstance().getTestContext()
+                .getTransactionService().getDuplicateDetector();
+        if (duplicates != null) {
+            logger.info("\n{}", duplicates.toSummary());
+        }
+
+        // Después de los reversos: los que agotaron intentos pueden haber pasado a 0420
+        StoreAndForwardQueue storeAndForward = TestContextFactory.getInstance().getTestContext()
+                .getTransactionService().getStoreAndForward();
+        if (storeAndForward != null) {
+            storeAndForward.close();
+            logger.info("\n{}", storeAndForward.toSummary());
+        }
+
+        // Los /process que quedaron en el micro-batcher salen antes de terminar la JVM
+        TestContextFactory.getInstance().getApiClient().close();
+
+        RecordReplayFilter recordReplay = TestContextFactory.getInstance().getApiClient().getRecordReplay();
+        if (recordReplay.getStore() != null) {
+            logger.info("📼 Modo {}\n{}", recordReplay.getMode(), recordReplay.getStore().toSummary());
+        }
+
+        IdentityLeasePool identityPool = TestContextFactory.getInstance().getIdentityPool();
+        if (identityPool != null) {
+            logger.info("\n{}", identityPool.toSummary());
+        }
+
+        MockAuthorizerServer mockAuthorizer = TestContextFactory.getInstance().getMockAuthorizer();
+        if (mockAuthorizer != null) {
+            try {
+                logger.info("\n{}", mockAuthorizer.toSummary());
+                mockAuthorizer.close();
+            } catch (IOException e) {
+                logger.warn("⚠️ Error cerrando el autorizador mock: {}", e.getMessage());
+            }
+        }
+
         logger.info("═".repeat(60));
         logger.info("✅ Suite de tests completada");
         logger.info("═".repeat(60));
@@ -0,0 +1,225 @@
+package com.iso8583.test.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Codec ISO8583 (1987, ASCII) para el canal nativo del autorizador mock
+ *
+ * - MTI: 4 dígitos ASCII
+ * - Bitmap primario (y secundario si hay campos 65-128): binario, 8 bytes c/u
+ * - Campos: fijos (numéricos con ceros a la izquierda, alfanuméricos con
+ *   espacios a la derecha), LLVAR / LLLVAR con longitud ASCII, o binarios
+ *
+ * El framing (cabecera de longitud) lo resuelve quien lee del socket.
+ */
+public final class IsoCodec {
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    private enum Format { NUMERIC, ALPHA, LLVAR, LLLVAR, BINARY }
+
+    private static final Format[] FORMATS = new Format[129];
+    private static final int[] LENGTHS = new int[129];
+
+    static {
+        define(2, Format.LLVAR, 19);      // PAN
+        define(3, Format.NUMERIC, 6);     // Processing code
+        define(4, Format.NUMERIC, 12);    // Amount
+        define(5, Format.NUMERIC, 12);
+        define(6, Format.NUMERIC, 12);    // Billing amount
+        define(7, Format.NUMERIC, 10);    // Transmission date/time
+        define(10, Format.NUMERIC, 8);
+        define(11, Format.NUMERIC, 6);    // STAN
+        define(12, Format.NUMERIC, 6);    // Local time
+        define(13, Format.NUMERIC, 4);    // Local date
+        define(14, Format.NUMERIC, 4);    // Expiration
+        define(15, Format.NUMERIC, 4);    // Settlement date
+        define(17, Format.NUMERIC, 4);    // Capture date
+        define(18, Format.NUMERIC, 4);    // MCC
+        define(19, Format.NUMERIC, 3);    // Acquiring country
+        define(22, Format.NUMERIC, 3);    // POS entry mode
+        define(23, Format.NUMERIC, 3);
+        define(25, Format.NUMERIC, 2);    // POS condition code
+        define(26, Format.NUMERIC, 2);
+        define(28, Format.ALPHA, 9);
+        define(32, Format.LLVAR, 11);     // Acquiring institution
+        define(33, Format.LLVAR, 11);
+        define(35, Format.LLVAR, 37);     // Track 2
+        define(37, Format.ALPHA, 12);     // RRN
+        define(38, Format.ALPHA, 6);      // Approval code
+        define(39, Format.ALPHA, 2);      // Response code
+        define(41, Format.ALPHA, 8);      // Terminal ID
+        define(42, Format.ALPHA, 15);     // Card acceptor ID
+        define(43, Format.ALPHA, 40);     // Card acceptor name/location
+        define(44, Format.LLVAR, 25);
+        define(48, Format.LLLVAR, 999);
+        define(49, Format.NUMERIC, 3);    // Currency
+        define(50, Format.NUMERIC, 3);
+        define(51, Format.NUMERIC, 3);    // Billing currency
+        define(52, Format.BINARY, 8);     // PIN block
+        define(54, Format.LLLVAR, 120);   // Balances
+        define(55, Format.LLLVAR, 999);   // EMV
+        define(60, Format.LLLVAR, 999);
+        define(61, Format.LLLVAR, 999);
+        define(62, Format.LLLVAR, 999);
+        define(63, Format.LLLVAR, 999);
+        define(64, Format.BINARY, 8);     // MAC
+        define(70, Format.NUMERIC, 3);    // Network management code
+        define(90, Format.NUMERIC, 42);   // Original data elements
+        define(95, Format.ALPHA, 42);     // Replacement amounts
+        define(100, Format.LLVAR, 11);
+        define(102, Format.LLVAR, 28);    // Account 1
+        define(103, Format.LLVAR, 28);    // Account 2
+        define(120, Format.LLLVAR, 999);
+        define(126, Format.LLLVAR, 999);
+        define(128, Format.BINARY, 8);    // MAC
+    }
+
+    private IsoCodec() {
+    }
+
+    private static void define(int field, Format format, int length) {
+        FORMATS[field] = format;
+        LENGTHS[field] = length;
+    }
+
+    /**
+     * Codifica MTI + bitmap(s) + campos (sin cabecera de longitud)
+     */
+    public static byte[] encode(IsoMessage message) {
+        Map<Integer, String> fields = message.getFields();
+        byte[] bitmap = new byte[16];
+        boolean secondary = false;
+        for (int field : fields.keySet()) {
+            bitmap[(field - 1) / 8] |= (byte) (0x80 >>> ((field - 1) % 8));
+            secondary |= field > 64;
+        }
+        if (secondary) {
+            bitmap[0] |= (byte) 0x80;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.writeBytes(ascii(message.getMti()));
+        out.write(bitmap, 0, secondary ? 16 : 8);
+        fields.forEach((field, value) -> out.writeBytes(encodeField(field, value)));
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeField(int field, String value) {
+        Format format = FORMATS[field];
+        if (format == null) {
+            throw new IllegalArgumentException("Campo " + field + " no definido en el codec");
+        }
+        int length = LENGTHS[field];
+        switch (format) {
+            case NUMERIC:
+                return ascii(pad(value, length, '0', true, field));
+            case ALPHA:
+                return ascii(pad(value, length, ' ', false, field));
+            case LLVAR:
+            case LLLVAR:
+                if (value.length() > length) {
+                    throw new IllegalArgumentException("Campo " + field + " excede " + length + " caracteres");
+                }
+                int digits = format == Format.LLVAR ? 2 : 3;
+                return ascii(pad(Integer.toString(value.length()), digits, '0', true, field) + value);
+            case BINARY:
+                byte[] bytes = HEX.parseHex(value);
+                if (bytes.length != length) {
+                    throw new IllegalArgumentException("Campo " + field + " debe tener " + length + " bytes");
+                }
+                return bytes;
+            default:
+                throw new IllegalStateException("Formato no soportado: " + format);
+        }
+    }
+
+    /**
+     * Decodifica un mensaje completo (sin cabecera de longitud)
+     *
+     * @throws IllegalArgumentException si el mensaje está truncado o trae un campo desconocido
+     */
+    public static IsoMessage decode(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        int position = offset;
+        if (position + 12 > end) {
+            throw invalid("mensaje más corto que MTI + bitmap");
+        }
+
+        IsoMessage message = new IsoMessage(new String(buffer, position, 4, StandardCharsets.ISO_8859_1));
+        position += 4;
+
+        boolean secondary = (buffer[position] & 0x80) != 0;
+        int bitmapLength = secondary ? 16 : 8;
+        if (position + bitmapLength > end) {
+            throw invalid("bitmap secundario truncado");
+        }
+        int bitmapStart = position;
+        position += bitmapLength;
+
+        for (int field = 2; field <= bitmapLength * 8; field++) {
+            if ((buffer[bitmapStart + (field - 1) / 8] & (0x80 >>> ((field - 1) % 8))) == 0) {
+                continue;
+            }
+            Format format = FORMATS[field];
+            if (format == null) {
+                throw new IllegalArgumentException("Campo " + field + " no definido en el codec");
+            }
+            int fieldLength = LENGTHS[field];
+            if (format == Format.LLVAR || format == Format.LLLVAR) {
+                int digits = format == Format.LLVAR ? 2 : 3;
+                if (position + digits > end) {
+                    throw invalid("longitud del campo " + field + " truncada");
+                }
+                fieldLength = parseLength(buffer, position, digits, field);
+                if (fieldLength > LENGTHS[field]) {
+                    throw invalid("campo " + field + " excede " + LENGTHS[field]);
+                }
+                position += digits;
+            }
+            if (position + fieldLength > end) {
+                throw invalid("campo " + field + " truncado");
+            }
+            String value = format == Format.BINARY
+                    ? HEX.formatHex(buffer, position, position + fieldLength)
+                    : new String(buffer, position, fieldLength, StandardCharsets.ISO_8859_1);
+            message.set(field, value);
+            position += fieldLength;
+        }
+        return message;
+    }
+
+    private static int parseLength(byte[] buffer, int position, int digits, int field) {
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            int digit = buffer[position + i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Longitud no numérica en el campo " + field);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static String pad(String value, int length, char padding, boolean left, int field) {
+        if (value.length() > length) {
+            throw new IllegalArgumentException("Campo " + field + " excede " + length + " caracteres");
+        }
+        if (value.length() == length) {
+            return value;
+        }
+        String fill = String.valueOf(padding).repeat(length - value.length());
+        return left ? fill + value : value + fill;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static IllegalArgumentException invalid(String problem) {
+        return new IllegalArgumentException("Mensaje ISO8583 inválido: " + problem);
+    }
+}
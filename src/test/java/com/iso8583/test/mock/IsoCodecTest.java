@@ -0,0 +1,111 @@
+package com.iso8583.test.mock;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Codec ISO8583 ASCII: bitmaps, padding de fijos, LLVAR/LLLVAR, binarios y mensajes truncados
+ */
+class IsoCodecTest {
+
+    private static IsoMessage purchase() {
+        return new IsoMessage("0200")
+                .set(2, "4532015112830366")
+                .set(3, "000000")
+                .set(4, "10000")
+                .set(11, "123")
+                .set(35, "4532015112830366D2709101123456789")
+                .set(41, "ATM001")
+                .set(49, "068")
+                .set(52, "0123456789ABCDEF");
+    }
+
+    @Test
+    void codificaMtiBitmapYCampos() {
+        byte[] encoded = IsoCodec.encode(purchase());
+
+        assertThat(new String(encoded, 0, 4, StandardCharsets.ISO_8859_1)).isEqualTo("0200");
+        // Campos 2, 3, 4 / 11 / 35 / 41 / 49 / 52: sin bitmap secundario
+        assertThat(Arrays.copyOfRange(encoded, 4, 12)).containsExactly(
+                0x70, 0x20, 0x00, 0x00, 0x20, 0x80, 0x90, 0x00);
+        assertThat(new String(encoded, 12, 18, StandardCharsets.ISO_8859_1)).isEqualTo("164532015112830366");
+    }
+
+    @Test
+    void idaYVueltaRellenaLosCamposFijos() {
+        byte[] encoded = IsoCodec.encode(purchase());
+
+        IsoMessage decoded = IsoCodec.decode(encoded, 0, encoded.length);
+
+        assertThat(decoded.getMti()).isEqualTo("0200");
+        assertThat(decoded.get(2)).isEqualTo("4532015112830366");
+        assertThat(decoded.get(4)).isEqualTo("000000010000");
+        assertThat(decoded.get(11)).isEqualTo("000123");
+        assertThat(decoded.get(35)).isEqualTo("4532015112830366D2709101123456789");
+        assertThat(decoded.get(41)).isEqualTo("ATM001  ");
+        assertThat(decoded.get(52)).isEqualTo("0123456789ABCDEF");
+        assertThat(decoded.getFields()).hasSize(8);
+    }
+
+    @Test
+    void usaBitmapSecundarioConCamposMayoresA64() {
+        IsoMessage reversal = new IsoMessage("0420")
+                .set(11, "000124")
+                .set(90, "0200000123" + "0000000000" + "0".repeat(22))
+                .set(102, "1310672399");
+
+        byte[] encoded = IsoCodec.encode(reversal);
+
+        assertThat(encoded[4] & 0x80).as("bit 1 = bitmap secundario").isNotZero();
+        IsoMessage decoded = IsoCodec.decode(encoded, 0, encoded.length);
+        assertThat(decoded.get(90)).isEqualTo(reversal.get(90));
+        assertThat(decoded.get(102)).isEqualTo("1310672399");
+    }
+
+    @Test
+    void decodificaDesdeUnOffset() {
+        byte[] encoded = IsoCodec.encode(purchase());
+        byte[] framed = new byte[encoded.length + 2];
+        framed[0] = (byte) (encoded.length >>> 8);
+        framed[1] = (byte) encoded.length;
+        System.arraycopy(encoded, 0, framed, 2, encoded.length);
+
+        assertThat(IsoCodec.decode(framed, 2, encoded.length).get(2)).isEqualTo("4532015112830366");
+    }
+
+    @Test
+    void rechazaValoresQueNoEntran() {
+        assertThatThrownBy(() -> IsoCodec.encode(new IsoMessage("0200").set(11, "1234567")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IsoCodec.encode(new IsoMessage("0200").set(2, "4".repeat(20))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IsoCodec.encode(new IsoMessage("0200").set(52, "0123")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IsoCodec.encode(new IsoMessage("0200").set(8, "1")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rechazaMensajesTruncados() {
+        byte[] encoded = IsoCodec.encode(purchase());
+
+        for (int length : new int[]{3, 11, 14, encoded.length - 1}) {
+            assertThatThrownBy(() -> IsoCodec.decode(encoded, 0, length))
+                    .as("largo %d", length)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void mtiDeRespuesta() {
+        assertThat(new IsoMessage("0100").getResponseMti()).isEqualTo("0110");
+        assertThat(new IsoMessage("0200").getResponseMti()).isEqualTo("0210");
+        assertThat(new IsoMessage("0421").getResponseMti()).isEqualTo("0430");
+        assertThat(new IsoMessage("0800").getResponseMti()).isEqualTo("0810");
+    }
+}
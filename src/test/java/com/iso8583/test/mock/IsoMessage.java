@@ -0,0 +1,74 @@
+package com.iso8583.test.mock;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mensaje ISO8583: MTI + campos por número (2-128), todos como texto
+ *
+ * Los campos binarios (52, 64, 128) se guardan en hexadecimal.
+ */
+public class IsoMessage {
+
+    private String mti;
+    private final TreeMap<Integer, String> fields = new TreeMap<>();
+
+    public IsoMessage(String mti) {
+        this.mti = mti;
+    }
+
+    public String getMti() {
+        return mti;
+    }
+
+    public void setMti(String mti) {
+        this.mti = mti;
+    }
+
+    public String get(int field) {
+        return fields.get(field);
+    }
+
+    public boolean has(int field) {
+        return fields.containsKey(field);
+    }
+
+    public IsoMessage set(int field, String value) {
+        if (field < 2 || field > 128) {
+            throw new IllegalArgumentException("Campo ISO8583 fuera de rango: " + field);
+        }
+        if (value == null) {
+            fields.remove(field);
+        } else {
+            fields.put(field, value);
+        }
+        return this;
+    }
+
+    public Map<Integer, String> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /**
+     * MTI de respuesta: 0100 → 0110, 0200 → 0210, 0401 → 0410, 0800 → 0810
+     */
+    public String getResponseMti() {
+        if (mti == null || mti.length() != 4) {
+            throw new IllegalArgumentException("MTI inválido: " + mti);
+        }
+        return mti.substring(0, 2) + (char) (mti.charAt(2) | 1) + "0";
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(mti);
+        fields.forEach((field, value) -> {
+            String shown = field == 2 && value.length() > 10
+                    ? value.substring(0, 6) + "******" + value.substring(value.length() - 4)
+                    : field == 35 || field == 52 ? "****" : value;
+            text.append(" [").append(field).append('=').append(shown).append(']');
+        });
+        return text.toString();
+    }
+}
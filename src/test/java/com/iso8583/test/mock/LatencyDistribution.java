@@ -0,0 +1,184 @@
+package com.iso8583.test.mock;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribución de latencia de respuesta (autorizador mock y fallas del simulador embebido)
+ *
+ * Formatos soportados (unidades us, ms o s):
+ *
+ *   none
+ *   fixed:5ms
+ *   uniform:2ms-10ms
+ *   exponential:5ms        (media)
+ *   pareto:5ms:1.5[:2s]    (mínimo, forma alfa y tope opcional; cola pesada)
+ */
+public abstract class LatencyDistribution {
+
+    public static final LatencyDistribution NONE = new Fixed(0);
+
+    /**
+     * Próxima latencia en nanosegundos (el random debe ser del hilo que llama)
+     */
+    public abstract long nextNanos(RandomGenerator random);
+
+    public abstract String describe();
+
+    public static LatencyDistribution parse(String spec) {
+        String value = spec == null ? "" : spec.trim().toLowerCase(Locale.ROOT);
+        if (value.isEmpty() || value.equals("none") || value.equals("0")) {
+            return NONE;
+        }
+        int colon = value.indexOf(':');
+        if (colon < 0) {
+            return new Fixed(parseDuration(value));
+        }
+        String kind = value.substring(0, colon);
+        String args = value.substring(colon + 1);
+        switch (kind) {
+            case "fixed":
+                return new Fixed(parseDuration(args));
+            case "uniform":
+                int dash = args.indexOf('-');
+                if (dash < 0) {
+                    throw new IllegalArgumentException("uniform espera min-max: " + spec);
+                }
+                return new Uniform(parseDuration(args.substring(0, dash)), parseDuration(args.substring(dash + 1)));
+            case "exponential":
+                return new Exponential(parseDuration(args));
+            case "pareto":
+                String[] parts = args.split(":");
+                if (parts.length < 2) {
+                    throw new IllegalArgumentException("pareto espera mínimo:alfa[:tope]: " + spec);
+                }
+                double shape;
+                try {
+                    shape = Double.parseDouble(parts[1]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("pareto: alfa inválido: " + parts[1]);
+                }
+                return new Pareto(parseDuration(parts[0]), shape,
+                        parts.length > 2 ? parseDuration(parts[2]) : Long.MAX_VALUE);
+            default:
+                throw new IllegalArgumentException("Distribución de latencia desconocida: " + spec);
+        }
+    }
+
+    public static long parseDuration(String text) {
+        String value = text.trim();
+        try {
+            if (value.endsWith("us")) {
+                return TimeUnit.MICROSECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 2)));
+            }
+            if (value.endsWith("ms")) {
+                return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 2)));
+            }
+            if (value.endsWith("s")) {
+                return TimeUnit.SECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 1)));
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Duración inválida: " + text);
+        }
+    }
+
+    static String format(long nanos) {
+        if (nanos % 1_000_000 == 0) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos) + "ms";
+        }
+        return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+    }
+
+    // ============================================================================
+    // DISTRIBUCIONES
+    // ============================================================================
+
+    private static final class Fixed extends LatencyDistribution {
+        private final long nanos;
+
+        private Fixed(long nanos) {
+            this.nanos = nanos;
+        }
+
+        @Override
+        public long nextNanos(RandomGenerator random) {
+            return nanos;
+        }
+
+        @Override
+        public String describe() {
+            return nanos == 0 ? "none" : "fixed:" + format(nanos);
+        }
+    }
+
+    private static final class Uniform extends LatencyDistribution {
+        private final long minNanos;
+        private final long maxNanos;
+
+        private Uniform(long minNanos, long maxNanos) {
+            if (maxNanos < minNanos) {
+                throw new IllegalArgumentException("uniform: el máximo es menor que el mínimo");
+            }
+            this.minNanos = minNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        @Override
+        public long nextNanos(RandomGenerator random) {
+            return minNanos == maxNanos ? minNanos : random.nextLong(minNanos, maxNanos + 1);
+        }
+
+        @Override
+        public String describe() {
+            return "uniform:" + format(minNanos) + "-" + format(maxNanos);
+        }
+    }
+
+    private static final class Exponential extends LatencyDistribution {
+        private final long meanNanos;
+
+        private Exponential(long meanNanos) {
+            this.meanNanos = meanNanos;
+        }
+
+        @Override
+        public long nextNanos(RandomGenerator random) {
+            return (long) (-Math.log(1.0 - random.nextDouble()) * meanNanos);
+        }
+
+        @Override
+        public String describe() {
+            return "exponential:" + format(meanNanos);
+        }
+    }
+
+    private static final class Pareto extends LatencyDistribution {
+        private final long scaleNanos;
+        private final double shape;
+        private final long capNanos;
+
+        private Pareto(long scaleNanos, double shape, long capNanos) {
+            if (shape <= 0) {
+                throw new IllegalArgumentException("pareto: alfa debe ser mayor a 0");
+            }
+            this.scaleNanos = scaleNanos;
+            this.shape = shape;
+            this.capNanos = capNanos;
+        }
+
+        @Override
+        public long nextNanos(RandomGenerator random) {
+            // Inversa de la CDF: xm / U^(1/alfa)
+            double sample = scaleNanos / Math.pow(1.0 - random.nextDouble(), 1.0 / shape);
+            return sample >= capNanos ? capNanos : (long) sample;
+        }
+
+        @Override
+        public String describe() {
+            return "pareto:" + format(scaleNanos) + ":" + shape
+                    + (capNanos == Long.MAX_VALUE ? "" : ":" + format(capNanos));
+        }
+    }
+}
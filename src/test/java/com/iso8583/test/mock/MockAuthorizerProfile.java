@@ -0,0 +1,112 @@
+package com.iso8583.test.mock;
+
+import com.iso8583.test.config.ConfigurationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Comportamiento del autorizador mock: qué contesta, cuánto tarda y
+ * cuántos requests descarta sin responder
+ *
+ *   mock.authorizer.response-codes=00:90,51:5,55:3,91:2
+ *   mock.authorizer.latency=exponential:2ms
+ *   mock.authorizer.drop-percent=0.5
+ *
+ * Los códigos ponderados aplican a 0100/0200; reversos (04xx) y
+ * gestión de red (08xx) siempre se aprueban.
+ */
+public class MockAuthorizerProfile {
+
+    private final String[] codes;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final LatencyDistribution latency;
+    private final double dropPercent;
+
+    public MockAuthorizerProfile(String responseCodes, LatencyDistribution latency, double dropPercent) {
+        Map<String, Integer> weights = parseWeights(responseCodes);
+        this.codes = weights.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[codes.length];
+        int sum = 0;
+        for (int i = 0; i < codes.length; i++) {
+            sum += weights.get(codes[i]);
+            cumulativeWeights[i] = sum;
+        }
+        this.totalWeight = sum;
+        this.latency = latency;
+        this.dropPercent = Math.max(0.0, Math.min(100.0, dropPercent));
+    }
+
+    public static MockAuthorizerProfile fromConfig(ConfigurationManager config) {
+        return new MockAuthorizerProfile(
+                config.getProperty("mock.authorizer.response-codes", "00:100"),
+                LatencyDistribution.parse(config.getProperty("mock.authorizer.latency", "none")),
+                config.getDoubleProperty("mock.authorizer.drop-percent", 0.0));
+    }
+
+    private static Map<String, Integer> parseWeights(String spec) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String item = entry.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            String[] parts = item.split(":");
+            String code = parts[0].trim();
+            if (code.length() != 2) {
+                throw new IllegalArgumentException("Código de respuesta inválido: " + code);
+            }
+            int weight;
+            try {
+                weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Peso inválido para " + code + ": " + parts[1]);
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Peso negativo para " + code);
+            }
+            weights.merge(code, weight, Integer::sum);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("mock.authorizer.response-codes no tiene pesos: " + spec);
+        }
+        return weights;
+    }
+
+    /**
+     * Código de respuesta (campo 39) para un request con este MTI
+     */
+    public String responseCodeFor(String mti, SplittableRandom random) {
+        char messageClass = mti.charAt(1);
+        if (messageClass != '1' && messageClass != '2') {
+            return "00";
+        }
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return codes[i];
+            }
+        }
+        return codes[codes.length - 1];
+    }
+
+    public boolean shouldDrop(SplittableRandom random) {
+        return dropPercent > 0 && random.nextDouble() * 100.0 < dropPercent;
+    }
+
+    public long nextLatencyNanos(SplittableRandom random) {
+        return latency.nextNanos(random);
+    }
+
+    public String describe() {
+        StringBuilder text = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < codes.length; i++) {
+            text.append(i == 0 ? "" : ",").append(codes[i]).append(':').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return String.format("codes %s, latency %s, drop %.2f%%", text, latency.describe(), dropPercent);
+    }
+}
@@ -0,0 +1,428 @@
+package com.iso8583.test.mock;
+
+import com.iso8583.test.config.ConfigurationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Autorizador ISO8583 en proceso para el canal nativo (TCP)
+ *
+ * Reemplaza al MessageSimulator externo cuando lo que se quiere medir es el
+ * lado cliente: un solo hilo con un {@link Selector} atiende todas las
+ * conexiones, decodifica los requests (cabecera de 2 bytes big-endian con la
+ * longitud + mensaje {@link IsoCodec}) y contesta 0110/0210/0410/0810 según el
+ * {@link MockAuthorizerProfile}.
+ *
+ * - Sin latencia configurada la respuesta se escribe en el mismo ciclo de
+ *   lectura; las respuestas de un mismo read se acumulan y salen en un solo write
+ * - Con latencia, las respuestas esperan en una cola por instante de salida y
+ *   el select se despierta para la próxima (resolución de ~1 ms)
+ * - Los drops se descartan sin respuesta: el cliente debe resolverlos por timeout
+ *
+ *   mock.authorizer.enabled=false
+ *   mock.authorizer.host=127.0.0.1
+ *   mock.authorizer.port=0
+ */
+public class MockAuthorizerServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockAuthorizerServer.class);
+
+    private static final int HEADER_BYTES = 2;
+    private static final int MAX_MESSAGE_BYTES = 0xFFFF;
+    private static final int INITIAL_OUTPUT_BYTES = 16 * 1024;
+
+    private final MockAuthorizerProfile profile;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread selectorThread;
+    private final PriorityQueue<DelayedResponse> delayed = new PriorityQueue<>();
+    private final List<Connection> pendingFlush = new ArrayList<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private volatile boolean running = true;
+
+    private long rrnSequence;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final LongAdder acceptedConnections = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final Map<String, LongAdder> responseCodes = new ConcurrentHashMap<>();
+
+    public MockAuthorizerServer(String host, int port, MockAuthorizerProfile profile) throws IOException {
+        this.profile = profile;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(host, port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.selectorThread = Thread.ofPlatform().name("mock-authorizer").daemon().unstarted(this::loop);
+    }
+
+    /**
+     * Crea y arranca el servidor con mock.authorizer.*
+     */
+    public static MockAuthorizerServer fromConfig(ConfigurationManager config) throws IOException {
+        return new MockAuthorizerServer(
+                config.getProperty("mock.authorizer.host", "127.0.0.1"),
+                config.getIntProperty("mock.authorizer.port", 0),
+                MockAuthorizerProfile.fromConfig(config)).start();
+    }
+
+    public MockAuthorizerServer start() {
+        selectorThread.start();
+        logger.info("🏦 Autorizador mock escuchando en {}:{} ({})",
+                getHost(), getPort(), profile.describe());
+        return this;
+    }
+
+    public String getHost() {
+        return ((InetSocketAddress) serverChannel.socket().getLocalSocketAddress()).getHostString();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("🏦 Autorizador mock detenido - {} requests, {} respuestas, {} descartados",
+                requests.sum(), responses.sum(), dropped.sum());
+    }
+
+    // ============================================================================
+    // LOOP DEL SELECTOR
+    // ============================================================================
+
+    private void loop() {
+        try {
+            while (running) {
+                long waitMillis = millisUntilNextResponse();
+                if (waitMillis < 0) {
+                    selector.select();
+                } else if (waitMillis == 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select(waitMillis);
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(connection);
+                        }
+                    }
+                }
+
+                releaseDueResponses();
+                for (Connection connection : pendingFlush) {
+                    flush(connection);
+                }
+                pendingFlush.clear();
+            }
+        } catch (IOException e) {
+            logger.error("❌ Autorizador mock: el selector falló: {}", e.getMessage(), e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * -1 si no hay respuestas demoradas; 0 si alguna ya debe salir
+     */
+    private long millisUntilNextResponse() {
+        DelayedResponse next = delayed.peek();
+        if (next == null) {
+            return -1;
+        }
+        long remainingNanos = next.dueNanos - System.nanoTime();
+        return remainingNanos <= 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            openConnections.incrementAndGet();
+            acceptedConnections.increment();
+        }
+    }
+
+    private void read(Connection connection) {
+        try {
+            int read;
+            while ((read = connection.channel.read(connection.input)) > 0) {
+                drainFrames(connection);
+            }
+            if (read < 0) {
+                disconnect(connection);
+            }
+        } catch (IOException e) {
+            disconnect(connection);
+        }
+    }
+
+    private void drainFrames(Connection connection) {
+        ByteBuffer input = connection.input;
+        input.flip();
+        while (input.remaining() >= HEADER_BYTES) {
+            int length = input.getShort(input.position()) & 0xFFFF;
+            if (input.remaining() < HEADER_BYTES + length) {
+                break;
+            }
+            int start = input.position() + HEADER_BYTES;
+            input.position(start + length);
+            handle(connection, input.array(), start, length);
+        }
+        input.compact();
+    }
+
+    private void handle(Connection connection, byte[] buffer, int offset, int length) {
+        requests.increment();
+        IsoMessage request;
+        try {
+            request = IsoCodec.decode(buffer, offset, length);
+        } catch (IllegalArgumentException e) {
+            malformed.increment();
+            logger.debug("⚠️ Autorizador mock: request descartado: {}", e.getMessage());
+            return;
+        }
+        if (profile.shouldDrop(random)) {
+            dropped.increment();
+            return;
+        }
+
+        byte[] response = IsoCodec.encode(buildResponse(request));
+        long latencyNanos = profile.nextLatencyNanos(random);
+        if (latencyNanos <= 0) {
+            enqueue(connection, response);
+        } else {
+            delayed.add(new DelayedResponse(System.nanoTime() + latencyNanos, connection, response));
+        }
+    }
+
+    private void releaseDueResponses() {
+        long now = System.nanoTime();
+        DelayedResponse next;
+        while ((next = delayed.peek()) != null && next.dueNanos - now <= 0) {
+            delayed.poll();
+            if (next.connection.channel.isOpen()) {
+                enqueue(next.connection, next.bytes);
+            }
+        }
+    }
+
+    // ============================================================================
+    // ESCRITURA
+    // ============================================================================
+
+    private void enqueue(Connection connection, byte[] message) {
+        ByteBuffer output = connection.ensureOutput(HEADER_BYTES + message.length);
+        output.putShort((short) message.length);
+        output.put(message);
+        responses.increment();
+        if (!connection.flushPending) {
+            connection.flushPending = true;
+            pendingFlush.add(connection);
+        }
+    }
+
+    private void flush(Connection connection) {
+        connection.flushPending = false;
+        if (!connection.channel.isOpen()) {
+            return;
+        }
+        ByteBuffer output = connection.output;
+        output.flip();
+        try {
+            connection.channel.write(output);
+        } catch (IOException e) {
+            output.clear();
+            disconnect(connection);
+            return;
+        }
+        boolean partial = output.hasRemaining();
+        output.compact();
+        connection.key.interestOps(partial
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ);
+    }
+
+    private void disconnect(Connection connection) {
+        if (connection.channel.isOpen()) {
+            openConnections.decrementAndGet();
+            connection.key.cancel();
+            try {
+                connection.channel.close();
+            } catch (IOException ignored) {
+                // La conexión ya estaba rota
+            }
+        }
+    }
+
+    private void shutdown() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection) {
+                disconnect(connection);
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            logger.warn("⚠️ Error cerrando el autorizador mock: {}", e.getMessage());
+        }
+    }
+
+    // ============================================================================
+    // RESPUESTAS
+    // ============================================================================
+
+    private IsoMessage buildResponse(IsoMessage request) {
+        IsoMessage response = new IsoMessage(request.getResponseMti());
+        request.getFields().forEach((field, value) -> {
+            // Datos sensibles y MAC no se devuelven
+            if (field != 35 && field != 52 && field != 55 && field != 64 && field != 128) {
+                response.set(field, value);
+            }
+        });
+
+        String responseCode = profile.responseCodeFor(request.getMti(), random);
+        response.set(39, responseCode);
+        responseCodes.computeIfAbsent(responseCode, code -> new LongAdder()).increment();
+
+        if (!response.has(37)) {
+            response.set(37, String.format("%012d", ++rrnSequence));
+        }
+        char messageClass = request.getMti().charAt(1);
+        boolean financial = messageClass == '1' || messageClass == '2';
+        if (financial && "00".equals(responseCode)) {
+            response.set(38, String.format("%06d", random.nextInt(1_000_000)));
+            String processingCode = request.get(3);
+            if (processingCode != null && processingCode.startsWith("30")) {
+                String currency = request.has(49) ? request.get(49) : "840";
+                response.set(54, "0002" + currency + "C" + String.format("%012d", random.nextLong(1_000_000_00L)));
+            }
+        }
+        return response;
+    }
+
+    // ============================================================================
+    // MÉTRICAS
+    // ============================================================================
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getResponses() {
+        return responses.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("🏦 MOCK AUTHORIZER (native channel)\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Address:                 %s:%d\n", getHost(), getPort()));
+        summary.append(String.format("Profile:                 %s\n", profile.describe()));
+        summary.append(String.format("Connections:             %9d open / %d accepted\n",
+                openConnections.get(), acceptedConnections.sum()));
+        summary.append(String.format("Requests / responses:    %9d / %d\n", requests.sum(), responses.sum()));
+        summary.append(String.format("Dropped / malformed:     %9d / %d\n", dropped.sum(), malformed.sum()));
+        new TreeMap<>(responseCodes).forEach((code, count) ->
+                summary.append(String.format("  39=%s                  %9d\n", code, count.sum())));
+        return summary.toString();
+    }
+
+    // ============================================================================
+    // ESTADO POR CONEXIÓN
+    // ============================================================================
+
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(HEADER_BYTES + MAX_MESSAGE_BYTES);
+        private ByteBuffer output = ByteBuffer.allocate(INITIAL_OUTPUT_BYTES);
+        private SelectionKey key;
+        private boolean flushPending;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private ByteBuffer ensureOutput(int bytes) {
+            if (output.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + bytes));
+                output.flip();
+                larger.put(output);
+                output = larger;
+            }
+            return output;
+        }
+    }
+
+    private static final class DelayedResponse implements Comparable<DelayedResponse> {
+        private final long dueNanos;
+        private final Connection connection;
+        private final byte[] bytes;
+
+        private DelayedResponse(long dueNanos, Connection connection, byte[] bytes) {
+            this.dueNanos = dueNanos;
+            this.connection = connection;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int compareTo(DelayedResponse other) {
+            return Long.compare(dueNanos, other.dueNanos);
+        }
+    }
+}
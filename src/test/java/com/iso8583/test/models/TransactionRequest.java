@@ -12,6 +12,9 @@ public class TransactionRequest {
     private String track2;
     private String amount;
     private String terminalId;
+    private String stan;            // Campo 11 - STAN de la terminal (null = lo asigna el simulador)
+    private String transmissionDateTime; // Campo 7 - MMddHHmmss UTC (null = lo asigna el simulador)
+    private String retrievalReferenceNumber; // Campo 37 - RRN (null = lo asigna el simulador)
     private String cardAcceptorId;
     private String cardAcceptorName;
     private String currencyCode;
@@ -41,6 +44,9 @@ public class TransactionRequest {
         this.track2 = builder.track2;
         this.amount = builder.amount;
         this.terminalId = builder.terminalId;
+        this.stan = builder.stan;
+        this.transmissionDateTime = builder.transmissionDateTime;
+        this.retrievalReferenceNumber = builder.retrievalReferenceNumber;
         this.cardAcceptorId = builder.cardAcceptorId;
         this.cardAcceptorName = builder.cardAcceptorName;
         this.currencyCode = builder.currencyCode;
@@ -103,6 +109,30 @@ public class TransactionRequest {
         this.terminalId = terminalId;
     }
 
+    public String getStan() {
+        return stan;
+    }
+
+    public void setStan(String stan) {
+        this.stan = stan;
+    }
+
+    public String getTransmissionDateTime() {
+        return transmissionDateTime;
+    }
+
+    public void setTransmissionDateTime(String transmissionDateTime) {
+        this.transmissionDateTime = transmissionDateTime;
+    }
+
+    public String getRetrievalReferenceNumber() {
+        return retrievalReferenceNumber;
+    }
+
+    public void setRetrievalReferenceNumber(String retrievalReferenceNumber) {
+        this.retrievalReferenceNumber = retrievalReferenceNumber;
+    }
+
     public String getCardAcceptorId() {
         return cardAcceptorId;
     }
@@ -300,6 +330,9 @@ public class TransactionRequest {
         private String track2;
         private String amount;
         private String terminalId;
+        private String stan;
+        private String transmissionDateTime;
+        private String retrievalReferenceNumber;
         private String cardAcceptorId;
         private String cardAcceptorName;
         private String currencyCode;
@@ -345,6 +378,21 @@ public class TransactionRequest {
             return this;
         }
 
+        public Builder stan(String stan) {
+            this.stan = stan;
+            return this;
+        }
+
+        public Builder transmissionDateTime(String transmissionDateTime) {
+            this.transmissionDateTime = transmissionDateTime;
+            return this;
+        }
+
+        public Builder retrievalReferenceNumber(String retrievalReferenceNumber) {
+            this.retrievalReferenceNumber = retrievalReferenceNumber;
+            return this;
+        }
+
         public Builder cardAcceptorId(String cardAcceptorId) {
             this.cardAcceptorId = cardAcceptorId;
             return this;
@@ -0,0 +1,155 @@
+package com.iso8583.test.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Controlador de concurrencia AIMD (Additive Increase / Multiplicative Decrease)
+ *
+ * Mantiene el límite de transacciones en vuelo:
+ * - Sube {@code additiveIncrease} por ventana mientras el p99 cumple el SLA
+ * - Multiplica por {@code decreaseFactor} ante un breach de latencia o timeouts
+ *
+ * También actúa como semáforo redimensionable: los workers piden permiso
+ * con {@link #acquire(long)} y lo devuelven con {@link #release()}.
+ */
+public class AdaptiveConcurrencyController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyController.class);
+
+    private final long slaMillis;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int additiveIncrease;
+    private final double decreaseFactor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private int limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyController(long slaMillis, int initialLimit, int minLimit, int maxLimit,
+                                         int additiveIncrease, double decreaseFactor) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Límites inválidos: min=" + minLimit + ", max=" + maxLimit);
+        }
+        if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("decreaseFactor debe estar entre 0 y 1: " + decreaseFactor);
+        }
+
+        this.slaMillis = slaMillis;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.additiveIncrease = Math.max(1, additiveIncrease);
+        this.decreaseFactor = decreaseFactor;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+
+        logger.info("✅ AdaptiveConcurrencyController - SLA p99: {}ms, límite inicial: {} [{}..{}]",
+                slaMillis, limit, minLimit, maxLimit);
+    }
+
+    // ============================================================================
+    // PERMISOS
+    // ============================================================================
+
+    /**
+     * Espera hasta que haya cupo bajo el límite actual
+     *
+     * @return true si obtuvo permiso, false si venció el tiempo de espera
+     */
+    public boolean acquire(long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        lock.lock();
+        try {
+            while (inFlight >= limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = permitReleased.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ============================================================================
+    // AJUSTE AIMD
+    // ============================================================================
+
+    /**
+     * Ajusta el límite con las métricas de la ventana que acaba de cerrar
+     *
+     * @param p99Millis p99 de la ventana
+     * @param timeouts  transacciones con {@code isTimeout()} en la ventana
+     * @return el nuevo límite
+     */
+    public int onWindow(long p99Millis, long timeouts) {
+        lock.lock();
+        try {
+            int previous = limit;
+
+            if (timeouts > 0 || p99Millis > slaMillis) {
+                limit = Math.max(minLimit, (int) Math.floor(limit * decreaseFactor));
+                logger.info("📉 AIMD decrease: {} → {} (p99: {}ms, timeouts: {})",
+                        previous, limit, p99Millis, timeouts);
+            } else {
+                limit = Math.min(maxLimit, limit + additiveIncrease);
+                if (limit != previous) {
+                    logger.debug("📈 AIMD increase: {} → {} (p99: {}ms)", previous, limit, p99Millis);
+                }
+            }
+
+            // Si el límite creció, despertar a los que esperan cupo
+            if (limit > previous) {
+                permitReleased.signalAll();
+            }
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isSlaBreach(long p99Millis, long timeouts) {
+        return timeouts > 0 || p99Millis > slaMillis;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSlaMillis() {
+        return slaMillis;
+    }
+}
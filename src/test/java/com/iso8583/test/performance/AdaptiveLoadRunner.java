@@ -0,0 +1,278 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.services.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Modo de carga adaptativo: el límite de transacciones en vuelo lo decide
+ * un {@link AdaptiveConcurrencyController} (AIMD) en lugar de
+ * {@code performance.test.concurrent.users}.
+ *
+ * El resultado es el TPS sostenible que el autorizador entrega sin violar
+ * el SLA de p99 ({@code test.max.response.time}).
+ */
+public class AdaptiveLoadRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveLoadRunner.class);
+
+    private static final long ACQUIRE_POLL_MILLIS = 100;
+
+    private final TransactionService transactionService;
+    private final Supplier<TransactionRequest> workload;
+    private final AdaptiveConcurrencyController controller;
+    private final Duration windowSize;
+
+    public AdaptiveLoadRunner(TransactionService transactionService,
+                              Supplier<TransactionRequest> workload,
+                              AdaptiveConcurrencyController controller,
+                              Duration windowSize) {
+        this.transactionService = transactionService;
+        this.workload = workload;
+        this.controller = controller;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Ejecuta la carga durante {@code duration} y devuelve el resumen por ventana
+     */
+    public AdaptiveLoadResult run(Duration duration) throws InterruptedException {
+        logger.info("🚀 Iniciando carga adaptativa - Duración: {}s, ventana: {}ms, SLA p99: {}ms",
+                duration.toSeconds(), windowSize.toMillis(), controller.getSlaMillis());
+
+        AtomicReference<LoadWindow> currentWindow = new AtomicReference<>(new LoadWindow());
+        List<WindowSample> samples = Collections.synchronizedList(new ArrayList<>());
+
+        ScheduledExecutorService windowScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "aimd-window");
+            t.setDaemon(true);
+            return t;
+        });
+        windowScheduler.scheduleAtFixedRate(
+                () -> samples.add(closeWindow(currentWindow, samples.size())),
+                windowSize.toMillis(), windowSize.toMillis(), TimeUnit.MILLISECONDS);
+
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (System.nanoTime() < deadline) {
+                if (!controller.acquire(ACQUIRE_POLL_MILLIS)) {
+                    continue;
+                }
+                workers.submit(() -> sendOne(currentWindow));
+            }
+            logger.info("⏳ Duración alcanzada - esperando transacciones en vuelo: {}", controller.getInFlight());
+        } finally {
+            windowScheduler.shutdownNow();
+        }
+
+        AdaptiveLoadResult result = new AdaptiveLoadResult(controller.getSlaMillis(), new ArrayList<>(samples));
+        logger.info("🏁 Carga adaptativa finalizada - TPS sostenible: {}, límite final: {}",
+                String.format("%.1f", result.getSustainableTps()), controller.getLimit());
+        return result;
+    }
+
+    private void sendOne(AtomicReference<LoadWindow> currentWindow) {
+        long start = System.nanoTime();
+        try {
+            TransactionResponse response = transactionService.sendTransaction(workload.get());
+            currentWindow.get().record(response, System.nanoTime() - start);
+        } catch (Exception e) {
+            logger.debug("❌ Error en transacción de carga: {}", e.getMessage());
+            currentWindow.get().recordFailure(System.nanoTime() - start);
+        } finally {
+            controller.release();
+        }
+    }
+
+    private WindowSample closeWindow(AtomicReference<LoadWindow> currentWindow, int index) {
+        int limitInEffect = controller.getLimit();
+        LoadWindow closed = currentWindow.getAndSet(new LoadWindow());
+        long now = System.nanoTime();
+
+        long p99 = closed.getHistogram().getValueAtPercentileMillis(99);
+        long timeouts = closed.getTimeouts();
+        boolean slaMet = !controller.isSlaBreach(p99, timeouts) && closed.getCompleted() > 0;
+        int newLimit = controller.onWindow(p99, timeouts);
+
+        WindowSample sample = new WindowSample(index, limitInEffect, newLimit,
+                closed.getThroughput(now),
+                closed.getHistogram().getValueAtPercentileMillis(50),
+                p99, closed.getCompleted(), closed.getErrors(), timeouts, slaMet);
+
+        logger.info("📊 Ventana {} - límite: {}, TPS: {}, p99: {}ms, timeouts: {} {}",
+                index, limitInEffect, String.format("%.1f", sample.getTps()), p99, timeouts, slaMet ? "✅" : "❌");
+        return sample;
+    }
+
+    // ============================================================================
+    // RESULTADOS
+    // ============================================================================
+
+    public static class WindowSample {
+        private final int index;
+        private final int limit;
+        private final int nextLimit;
+        private final double tps;
+        private final long p50Millis;
+        private final long p99Millis;
+        private final long completed;
+        private final long errors;
+        private final long timeouts;
+        private final boolean slaMet;
+
+        public WindowSample(int index, int limit, int nextLimit, double tps, long p50Millis, long p99Millis,
+                            long completed, long errors, long timeouts, boolean slaMet) {
+            this.index = index;
+            this.limit = limit;
+            this.nextLimit = nextLimit;
+            this.tps = tps;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.completed = completed;
+            this.errors = errors;
+            this.timeouts = timeouts;
+            this.slaMet = slaMet;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getNextLimit() {
+            return nextLimit;
+        }
+
+        public double getTps() {
+            return tps;
+        }
+
+        public long getP50Millis() {
+            return p50Millis;
+        }
+
+        public long getP99Millis() {
+            return p99Millis;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public boolean isSlaMet() {
+            return slaMet;
+        }
+    }
+
+    public static class AdaptiveLoadResult {
+        private final long slaMillis;
+        private final List<WindowSample> windows;
+
+        public AdaptiveLoadResult(long slaMillis, List<WindowSample> windows) {
+            this.slaMillis = slaMillis;
+            this.windows = windows;
+        }
+
+        public List<WindowSample> getWindows() {
+            return windows;
+        }
+
+        /**
+         * Mediana del TPS de las ventanas que cumplieron el SLA en la segunda
+         * mitad de la corrida (régimen estable). Si no hay ninguna, usa todas
+         * las ventanas que cumplieron.
+         */
+        public double getSustainableTps() {
+            List<Double> steady = compliantTps(windows.subList(windows.size() / 2, windows.size()));
+            if (steady.isEmpty()) {
+                steady = compliantTps(windows);
+            }
+            if (steady.isEmpty()) {
+                return 0.0;
+            }
+            Collections.sort(steady);
+            return steady.get(steady.size() / 2);
+        }
+
+        public double getPeakCompliantTps() {
+            return compliantTps(windows).stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
+        }
+
+        /**
+         * Mayor límite de concurrencia con el que una ventana cumplió el SLA
+         */
+        public int getSustainableLimit() {
+            return windows.stream()
+                    .filter(WindowSample::isSlaMet)
+                    .mapToInt(WindowSample::getLimit)
+                    .max()
+                    .orElse(0);
+        }
+
+        private static List<Double> compliantTps(List<WindowSample> samples) {
+            List<Double> tps = new ArrayList<>();
+            for (WindowSample sample : samples) {
+                if (sample.isSlaMet()) {
+                    tps.add(sample.getTps());
+                }
+            }
+            return tps;
+        }
+
+        public long getTotalCompleted() {
+            return windows.stream().mapToLong(WindowSample::getCompleted).sum();
+        }
+
+        public long getTotalTimeouts() {
+            return windows.stream().mapToLong(WindowSample::getTimeouts).sum();
+        }
+
+        public long getBreachCount() {
+            return windows.stream().filter(w -> !w.isSlaMet()).count();
+        }
+
+        public String toSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append("📈 ADAPTIVE LOAD (AIMD)\n");
+            summary.append("─────────────────────────────────────────────────────\n");
+            summary.append(String.format("SLA p99:                %6d ms\n", slaMillis));
+            summary.append(String.format("Sustainable TPS:        %9.1f\n", getSustainableTps()));
+            summary.append(String.format("Peak compliant TPS:     %9.1f\n", getPeakCompliantTps()));
+            summary.append(String.format("Max compliant limit:    %6d\n", getSustainableLimit()));
+            summary.append(String.format("Windows / breaches:     %6d / %d\n", windows.size(), getBreachCount()));
+            summary.append(String.format("Completed / timeouts:   %6d / %d\n", getTotalCompleted(), getTotalTimeouts()));
+            summary.append("\n#   limit     TPS   p50   p99  timeouts\n");
+            for (WindowSample w : windows) {
+                summary.append(String.format("%-3d %5d %7.1f %5d %5d %5d %s\n",
+                        w.getIndex(), w.getLimit(), w.getTps(), w.getP50Millis(), w.getP99Millis(),
+                        w.getTimeouts(), w.isSlaMet() ? "✅" : "❌"));
+            }
+            return summary.toString();
+        }
+    }
+}
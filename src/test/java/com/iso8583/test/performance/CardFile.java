@@ -0,0 +1,130 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.models.TransactionRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Archivo de tarjetas pre-generadas por {@link CardGenerator}, mapeado en memoria
+ *
+ * Registros de ancho fijo (track 2 + '\n'): la tarjeta {@code i} está en el
+ * byte i·ancho, así cualquier hilo la lee con un get absoluto sobre el mapeo,
+ * sin posición compartida ni locks. Cada worker recorre su propio rango de
+ * tarjetas (el de su {@link IdentityRange}): no compite con los demás ni
+ * por el cursor.
+ */
+public final class CardFile {
+
+    private final Path path;
+    private final MappedByteBuffer[] segments;
+    private final int recordLength;
+    private final int panLength;
+    private final long recordsPerSegment;
+    private final long size;
+
+    private CardFile(Path path, MappedByteBuffer[] segments, int recordLength, int panLength,
+                     long recordsPerSegment, long size) {
+        this.path = path;
+        this.segments = segments;
+        this.recordLength = recordLength;
+        this.panLength = panLength;
+        this.recordsPerSegment = recordsPerSegment;
+        this.size = size;
+    }
+
+    public static CardFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(bytes, 256));
+            channel.read(head, 0);
+            int recordLength = -1;
+            int panLength = -1;
+            for (int i = 0; i < head.position(); i++) {
+                byte b = head.get(i);
+                if (b == CardGenerator.TRACK2_SEPARATOR && panLength < 0) {
+                    panLength = i;
+                } else if (b == '\n') {
+                    recordLength = i + 1;
+                    break;
+                }
+            }
+            if (recordLength <= 0 || panLength <= 0 || bytes % recordLength != 0) {
+                throw new IOException("No es un archivo de tarjetas de ancho fijo: " + path);
+            }
+
+            long recordsPerSegment = Integer.MAX_VALUE / recordLength;
+            long size = bytes / recordLength;
+            int segmentCount = (int) ((size + recordsPerSegment - 1) / recordsPerSegment);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long first = s * recordsPerSegment;
+                long records = Math.min(recordsPerSegment, size - first);
+                // El mapeo sigue válido después de cerrar el canal
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, first * recordLength, records * recordLength);
+            }
+            return new CardFile(path, segments, recordLength, panLength, recordsPerSegment, size);
+        }
+    }
+
+    /**
+     * Copia el track 2 de la tarjeta {@code index} en {@code dst} (al menos {@link #getTrack2Length()} bytes)
+     */
+    public void read(long index, byte[] dst) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Tarjeta " + index + " fuera del archivo (" + size + ")");
+        }
+        MappedByteBuffer segment = segments[(int) (index / recordsPerSegment)];
+        segment.get((int) (index % recordsPerSegment * recordLength), dst, 0, recordLength - 1);
+    }
+
+    public String track2(long index) {
+        byte[] record = new byte[recordLength - 1];
+        read(index, record);
+        return new String(record, StandardCharsets.US_ASCII);
+    }
+
+    public String pan(long index) {
+        return track2(index).substring(0, panLength);
+    }
+
+    /**
+     * Envuelve un workload para que cada transacción use la siguiente tarjeta de
+     * [from, from + count), dando la vuelta al llegar al final
+     */
+    public Supplier<TransactionRequest> decorate(Supplier<TransactionRequest> workload, long from, long count) {
+        if (from < 0 || count <= 0 || from + count > size) {
+            throw new IllegalArgumentException(String.format(
+                    "Rango de tarjetas [%d..%d) fuera del archivo %s (%d tarjetas)", from, from + count, path, size));
+        }
+        AtomicLong next = new AtomicLong();
+        return () -> {
+            TransactionRequest request = workload.get();
+            String track2 = track2(from + Math.floorMod(next.getAndIncrement(), count));
+            request.setPan(track2.substring(0, panLength));
+            if (request.getTrack2() != null) {
+                request.setTrack2(track2);
+            }
+            return request;
+        };
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int getTrack2Length() {
+        return recordLength - 1;
+    }
+}
@@ -0,0 +1,86 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.models.TransactionRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Archivo de tarjetas: registros de ancho fijo, lectura por índice y tramo por worker
+ */
+class CardFileTest {
+
+    private static final CardGenerator GENERATOR = new CardGenerator("453201", 16, 8583, "2709", "101", 9);
+
+    @TempDir
+    Path dir;
+
+    private CardFile pregenerate(long count) throws IOException {
+        Path file = dir.resolve("cards.dat");
+        GENERATOR.pregenerate(file, count);
+        return CardFile.open(file);
+    }
+
+    @Test
+    void grabaUnTrack2DeAnchoFijoPorLinea() throws IOException {
+        CardFile cards = pregenerate(1_000);
+
+        List<String> lines = Files.readAllLines(cards.getPath(), StandardCharsets.US_ASCII);
+        assertThat(lines).hasSize(1_000).allMatch(line -> line.length() == GENERATOR.getTrack2Length());
+        assertThat(lines.get(0)).isEqualTo(GENERATOR.track2(0));
+        assertThat(Files.size(cards.getPath())).isEqualTo(1_000L * (GENERATOR.getTrack2Length() + 1));
+    }
+
+    @Test
+    void leePorIndiceLoMismoQueElGenerador() throws IOException {
+        CardFile cards = pregenerate(1_000);
+
+        assertThat(cards.size()).isEqualTo(1_000);
+        assertThat(cards.getTrack2Length()).isEqualTo(GENERATOR.getTrack2Length());
+        for (long i : new long[]{0, 1, 499, 999}) {
+            assertThat(cards.track2(i)).isEqualTo(GENERATOR.track2(i));
+            assertThat(cards.pan(i)).isEqualTo(GENERATOR.pan(i));
+            assertThat(CardGeneratorTest.luhnValid(cards.pan(i))).isTrue();
+        }
+        assertThatThrownBy(() -> cards.track2(1_000)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void decorateRecorreSuTramoYDaLaVuelta() throws IOException {
+        CardFile cards = pregenerate(100);
+        Supplier<TransactionRequest> workload = cards.decorate(() -> {
+            TransactionRequest request = new TransactionRequest();
+            request.setTrack2("4532015112830366D2709101123456789");
+            return request;
+        }, 10, 3);
+
+        List<String> pans = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            TransactionRequest request = workload.get();
+            assertThat(request.getTrack2()).startsWith(request.getPan() + "D");
+            pans.add(request.getPan());
+        }
+
+        assertThat(pans).containsExactly(cards.pan(10), cards.pan(11), cards.pan(12), cards.pan(10));
+        assertThatThrownBy(() -> cards.decorate(TransactionRequest::new, 98, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rechazaArchivosQueNoSonDeAnchoFijo() throws IOException {
+        Path file = dir.resolve("roto.dat");
+        Files.writeString(file, "4532015112830366D2709101123456789\n453201511283\n", StandardCharsets.US_ASCII);
+
+        assertThatThrownBy(() -> CardFile.open(file)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,307 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.config.ConfigurationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * Generador determinístico de tarjetas de prueba Luhn-válidas con su track 2
+ *
+ * La tarjeta {@code i} es siempre la misma para el mismo seed: BIN + número
+ * de cuenta + dígito verificador, y track 2 {@code PAN D AAMM servicio
+ * discrecional}. El número de cuenta es una permutación afín del índice
+ * (a·i + b mod 10^n, con a coprimo con 10), así hasta 10^n tarjetas son todas
+ * distintas sin llevar registro de las ya emitidas, y no salen correlativas.
+ *
+ * El dígito Luhn se calcula sobre el long de la cuenta más la suma del BIN
+ * precalculada: {@link #writeTrack2} escribe en un byte[] del llamador sin
+ * reservar memoria, para generar millones por segundo.
+ *
+ * {@link #pregenerate} graba N tracks 2 de ancho fijo (uno por línea) en un
+ * archivo mapeado; los workers lo leen con {@link CardFile} por índice.
+ *
+ *   performance.cards.bin=            (vacío = BIN de test.data.valid.pan)
+ *   performance.cards.pan-length=16
+ *   performance.cards.seed=8583
+ *   performance.cards.expiry=         (AAMM; vacío = la del track 2 de configuración)
+ *   performance.cards.service-code=101
+ *   performance.cards.discretionary-length=9
+ *   performance.cards.file=           (archivo que leen LoadRunnerCli e IdentityRange)
+ */
+public final class CardGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardGenerator.class);
+
+    static final byte TRACK2_SEPARATOR = 'D';
+    private static final int MAX_ACCOUNT_DIGITS = 12;
+    private static final long SPLIT = 1L << 20;
+    // Dígito Luhn duplicado: 2·d, restando 9 si pasa de 9
+    private static final int[] DOUBLED = {0, 2, 4, 6, 8, 1, 3, 5, 7, 9};
+
+    private final byte[] bin;
+    private final int panLength;
+    private final int accountDigits;
+    private final long accountSpace;
+    private final long multiplier;
+    private final long offset;
+    private final long seed;
+    private final int binLuhnSum;
+    private final byte[] expiry;
+    private final byte[] serviceCode;
+    private final int discretionaryLength;
+
+    public CardGenerator(String bin, int panLength, long seed, String expiry, String serviceCode,
+                         int discretionaryLength) {
+        requireDigits("BIN", bin);
+        requireDigits("vencimiento", expiry);
+        requireDigits("service code", serviceCode);
+        if (expiry.length() != 4 || serviceCode.length() != 3) {
+            throw new IllegalArgumentException("Vencimiento AAMM y service code de 3 dígitos: " + expiry + " / " + serviceCode);
+        }
+        this.accountDigits = panLength - bin.length() - 1;
+        if (accountDigits < 1 || accountDigits > MAX_ACCOUNT_DIGITS) {
+            throw new IllegalArgumentException(String.format(
+                    "PAN de %d dígitos con BIN %s deja %d dígitos de cuenta (1 a %d)",
+                    panLength, bin, accountDigits, MAX_ACCOUNT_DIGITS));
+        }
+        if (discretionaryLength < 0) {
+            throw new IllegalArgumentException("Largo discrecional inválido: " + discretionaryLength);
+        }
+        this.bin = bin.getBytes(StandardCharsets.US_ASCII);
+        this.panLength = panLength;
+        this.accountSpace = pow10(accountDigits);
+        this.seed = seed;
+        this.expiry = expiry.getBytes(StandardCharsets.US_ASCII);
+        this.serviceCode = serviceCode.getBytes(StandardCharsets.US_ASCII);
+        this.discretionaryLength = discretionaryLength;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        // Impar y no múltiplo de 5: coprimo con 10^n, la permutación es biyectiva
+        long a = random.nextLong(1, accountSpace) | 1;
+        while (a % 5 == 0) {
+            a = (a + 2) % accountSpace;
+        }
+        this.multiplier = a;
+        this.offset = random.nextLong(accountSpace);
+
+        // Posiciones contadas desde el dígito a la izquierda del verificador (1 = se duplica)
+        int sum = 0;
+        for (int i = 0; i < this.bin.length; i++) {
+            int position = accountDigits + this.bin.length - i;
+            int digit = this.bin[i] - '0';
+            sum += (position & 1) == 1 ? DOUBLED[digit] : digit;
+        }
+        this.binLuhnSum = sum;
+    }
+
+    /**
+     * Generador con performance.cards.*; BIN, largo, vencimiento y discrecional salen por defecto de la tarjeta de configuración
+     */
+    public static CardGenerator fromConfig(ConfigurationManager config) {
+        String basePan = config.getValidPan();
+        String baseTrack2 = config.getValidTrack2();
+        int separator = baseTrack2.indexOf((char) TRACK2_SEPARATOR);
+        String baseExpiry = separator >= 0 && baseTrack2.length() >= separator + 5
+                ? baseTrack2.substring(separator + 1, separator + 5) : "3012";
+        int baseDiscretionary = separator >= 0 ? Math.max(0, baseTrack2.length() - separator - 8) : 9;
+
+        String bin = config.getProperty("performance.cards.bin", "");
+        String expiry = config.getProperty("performance.cards.expiry", "");
+        return new CardGenerator(
+                bin.isBlank() ? basePan.substring(0, 6) : bin.trim(),
+                config.getIntProperty("performance.cards.pan-length", basePan.length()),
+                config.getLongProperty("performance.cards.seed", 8583),
+                expiry.isBlank() ? baseExpiry : expiry.trim(),
+                config.getProperty("performance.cards.service-code", "101"),
+                config.getIntProperty("performance.cards.discretionary-length", baseDiscretionary));
+    }
+
+    private static void requireDigits(String field, String value) {
+        if (value == null || value.isEmpty() || !value.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException(field + " debe ser numérico: " + value);
+        }
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    // ============================================================================
+    // GENERACIÓN
+    // ============================================================================
+
+    /**
+     * Cantidad de tarjetas distintas que admite el BIN (10^dígitos de cuenta)
+     */
+    public long capacity() {
+        return accountSpace;
+    }
+
+    public int getPanLength() {
+        return panLength;
+    }
+
+    /**
+     * Largo del track 2: PAN + separador + AAMM + servicio + discrecional
+     */
+    public int getTrack2Length() {
+        return panLength + 1 + expiry.length + serviceCode.length + discretionaryLength;
+    }
+
+    /**
+     * Número de cuenta (sin BIN ni verificador) de la tarjeta {@code index}
+     */
+    long accountNumber(long index) {
+        if (index < 0 || index >= accountSpace) {
+            throw new IllegalArgumentException("Índice de tarjeta fuera de rango: " + index + " (capacidad " + accountSpace + ")");
+        }
+        return (mulMod(multiplier, index, accountSpace) + offset) % accountSpace;
+    }
+
+    /**
+     * a·b mod m sin overflow para m < 2^40: a se parte en dos mitades de 20 bits
+     */
+    private static long mulMod(long a, long b, long m) {
+        long high = (a / SPLIT) * b % m;
+        long low = (a % SPLIT) * b % m;
+        return (high * SPLIT % m + low) % m;
+    }
+
+    /**
+     * Dígito verificador Luhn de BIN + cuenta, sin pasar por String
+     */
+    int checkDigit(long account) {
+        int sum = binLuhnSum;
+        long remaining = account;
+        for (int position = 1; position <= accountDigits; position++) {
+            int digit = (int) (remaining % 10);
+            remaining /= 10;
+            sum += (position & 1) == 1 ? DOUBLED[digit] : digit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Escribe el PAN de la tarjeta {@code index} en {@code dst} desde {@code at}
+     *
+     * @return posición siguiente al PAN
+     */
+    public int writePan(long index, byte[] dst, int at) {
+        long account = accountNumber(index);
+        System.arraycopy(bin, 0, dst, at, bin.length);
+        int end = at + panLength - 1;
+        long remaining = account;
+        for (int i = end - 1; i >= at + bin.length; i--) {
+            dst[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        dst[end] = (byte) ('0' + checkDigit(account));
+        return end + 1;
+    }
+
+    /**
+     * Escribe el track 2 completo ({@link #getTrack2Length()} bytes ASCII) sin reservar memoria
+     *
+     * @return posición siguiente al track 2
+     */
+    public int writeTrack2(long index, byte[] dst, int at) {
+        int position = writePan(index, dst, at);
+        dst[position++] = TRACK2_SEPARATOR;
+        System.arraycopy(expiry, 0, dst, position, expiry.length);
+        position += expiry.length;
+        System.arraycopy(serviceCode, 0, dst, position, serviceCode.length);
+        position += serviceCode.length;
+        // Discrecional (PVKI / PVV / CVV) pseudoaleatorio pero fijo por tarjeta y seed
+        long mixed = mix(seed ^ index * 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < discretionaryLength; i++) {
+            if (i % 18 == 0 && i > 0) {
+                mixed = mix(mixed);
+            }
+            dst[position++] = (byte) ('0' + Long.remainderUnsigned(mixed, 10));
+            mixed = Long.divideUnsigned(mixed, 10);
+        }
+        return position;
+    }
+
+    public String pan(long index) {
+        byte[] buffer = new byte[panLength];
+        writePan(index, buffer, 0);
+        return new String(buffer, StandardCharsets.US_ASCII);
+    }
+
+    public String track2(long index) {
+        byte[] buffer = new byte[getTrack2Length()];
+        writeTrack2(index, buffer, 0);
+        return new String(buffer, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Vencimiento AAMM de las tarjetas (el mismo del track 2)
+     */
+    public String getExpiry() {
+        return new String(expiry, StandardCharsets.US_ASCII);
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // ============================================================================
+    // PRE-GENERACIÓN
+    // ============================================================================
+
+    /**
+     * Graba las tarjetas [0, count) en {@code file}, un track 2 por línea de ancho fijo
+     *
+     * Se escribe sobre el archivo mapeado por tramos de registros enteros: un
+     * solo buffer de registro reutilizado, sin Strings por tarjeta.
+     */
+    public void pregenerate(Path file, long count) throws IOException {
+        if (count <= 0 || count > accountSpace) {
+            throw new IllegalArgumentException("Cantidad fuera de rango: " + count + " (capacidad " + accountSpace + ")");
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        int recordLength = getTrack2Length() + 1;
+        long recordsPerSegment = Integer.MAX_VALUE / recordLength;
+        byte[] record = new byte[recordLength];
+        record[recordLength - 1] = '\n';
+
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long first = 0; first < count; first += recordsPerSegment) {
+                long records = Math.min(recordsPerSegment, count - first);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                        first * recordLength, records * recordLength);
+                for (long i = 0; i < records; i++) {
+                    writeTrack2(first + i, record, 0);
+                    segment.put(record);
+                }
+                segment.force();
+            }
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        logger.info("💳 {} tarjetas generadas en {} ({} ms, {} tarjetas/s)",
+                count, file, millis, count * 1000 / millis);
+    }
+}
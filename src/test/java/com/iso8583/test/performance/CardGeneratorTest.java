@@ -0,0 +1,112 @@
+package com.iso8583.test.performance;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Generador de tarjetas: Luhn, determinismo por seed, permutación sin repetidos y formato del track 2
+ */
+class CardGeneratorTest {
+
+    private static CardGenerator generator(long seed) {
+        return new CardGenerator("453201", 16, seed, "2709", "101", 9);
+    }
+
+    static boolean luhnValid(String pan) {
+        int sum = 0;
+        for (int i = 0; i < pan.length(); i++) {
+            int digit = pan.charAt(pan.length() - 1 - i) - '0';
+            if (i % 2 == 1) {
+                digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+
+    @Test
+    void losPanSonLuhnValidosYConservanElBin() {
+        CardGenerator generator = generator(8583);
+
+        for (long i = 0; i < 10_000; i++) {
+            String pan = generator.pan(i);
+            assertThat(pan).hasSize(16).startsWith("453201");
+            assertThat(luhnValid(pan)).as("Luhn de %s", pan).isTrue();
+        }
+    }
+
+    @Test
+    void luhnValidoConLargoImparYBinLargo() {
+        CardGenerator generator = new CardGenerator("42182810", 19, 1, "3012", "201", 0);
+
+        for (long i = 0; i < 1_000; i++) {
+            assertThat(luhnValid(generator.pan(i))).isTrue();
+        }
+    }
+
+    @Test
+    void mismoSeedMismasTarjetasYOtroSeedOtras() {
+        CardGenerator first = generator(8583);
+        CardGenerator second = generator(8583);
+        CardGenerator other = generator(8584);
+
+        for (long i = 0; i < 100; i++) {
+            assertThat(second.track2(i)).isEqualTo(first.track2(i));
+        }
+        assertThat(other.pan(0)).isNotEqualTo(first.pan(0));
+    }
+
+    @Test
+    void laPermutacionNoRepiteEnTodoElEspacio() {
+        // BIN de 10 dígitos en un PAN de 16: 10^5 cuentas, todas recorridas
+        CardGenerator generator = new CardGenerator("4532015112", 16, 8583, "2709", "101", 9);
+        Set<String> pans = new HashSet<>();
+
+        for (long i = 0; i < generator.capacity(); i++) {
+            pans.add(generator.pan(i));
+        }
+
+        assertThat(generator.capacity()).isEqualTo(100_000);
+        assertThat(pans).hasSize(100_000);
+        assertThatThrownBy(() -> generator.pan(generator.capacity())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void track2ConPanSeparadorVencimientoServicioYDiscrecional() {
+        CardGenerator generator = generator(8583);
+
+        String track2 = generator.track2(42);
+
+        assertThat(track2).hasSize(generator.getTrack2Length()).hasSize(16 + 1 + 4 + 3 + 9);
+        assertThat(track2).startsWith(generator.pan(42) + "D2709101");
+        assertThat(track2.substring(24)).containsOnlyDigits();
+    }
+
+    @Test
+    void writeTrack2EscribeEnElBufferDesdeLaPosicion() {
+        CardGenerator generator = generator(8583);
+        byte[] buffer = new byte[2 + generator.getTrack2Length()];
+
+        int end = generator.writeTrack2(7, buffer, 2);
+
+        assertThat(end).isEqualTo(buffer.length);
+        assertThat(new String(buffer, 2, generator.getTrack2Length(), StandardCharsets.US_ASCII))
+                .isEqualTo(generator.track2(7));
+    }
+
+    @Test
+    void rechazaConfiguracionesInvalidas() {
+        assertThatThrownBy(() -> new CardGenerator("45320A", 16, 1, "2709", "101", 9))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CardGenerator("453201", 7, 1, "2709", "101", 9))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CardGenerator("453201", 16, 1, "27", "101", 9))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
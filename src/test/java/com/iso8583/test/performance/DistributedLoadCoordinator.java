@@ -0,0 +1,495 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.utils.TestCoverageReporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinador de carga distribuida en varios procesos/hosts
+ *
+ * Una sola JVM satura su propio stack HTTP antes que un simulador escalado.
+ * El coordinador abre un socket local, arranca {@code localWorkers} JVMs en
+ * este host (y espera {@code remoteWorkers} arrancados a mano en otros hosts),
+ * reparte el TPS total y los rangos de terminales/tarjetas, y al final suma
+ * los histogramas y contadores de todos los workers.
+ */
+public class DistributedLoadCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedLoadCoordinator.class);
+
+    private static final String WORKER_MAIN_CLASS = "com.iso8583.test.performance.LoadRunnerCli";
+
+    private final int localWorkers;
+    private final int remoteWorkers;
+    private final String workload;
+    private final double totalTps;
+    private final Duration duration;
+    private final int port;
+    private final int maxInFlightPerWorker;
+    private final IdentityRange identities;
+    private final Map<String, String> overrides;
+    private final Duration registrationTimeout;
+    private final Duration startDelay;
+    private final Duration resultGrace;
+    private final Path workerLogDir;
+
+    // Reader/writer por socket: se crean una vez y se reutilizan (el reader tiene buffer)
+    private final Map<Socket, BufferedReader> readers = Collections.synchronizedMap(new HashMap<>());
+    private final Map<Socket, BufferedWriter> writers = Collections.synchronizedMap(new HashMap<>());
+
+    private DistributedLoadCoordinator(Builder builder) {
+        this.localWorkers = builder.localWorkers;
+        this.remoteWorkers = builder.remoteWorkers;
+        this.workload = builder.workload;
+        this.totalTps = builder.totalTps;
+        this.duration = builder.duration;
+        this.port = builder.port;
+        this.maxInFlightPerWorker = builder.maxInFlightPerWorker;
+        this.identities = builder.identities;
+        this.overrides = builder.overrides;
+        this.registrationTimeout = builder.registrationTimeout;
+        this.startDelay = builder.startDelay;
+        this.resultGrace = builder.resultGrace;
+        this.workerLogDir = builder.workerLogDir;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public DistributedLoadResult run() throws IOException {
+        int expected = localWorkers + remoteWorkers;
+        List<Process> processes = new ArrayList<>();
+        List<Socket> sockets = new ArrayList<>();
+
+        try (ServerSocket server = new ServerSocket(port)) {
+            int boundPort = server.getLocalPort();
+            logger.info("🛰️ Coordinador escuchando en el puerto {} - esperando {} workers ({} locales, {} remotos)",
+                    boundPort, expected, localWorkers, remoteWorkers);
+            if (remoteWorkers > 0) {
+                logger.info("   En cada host remoto: LoadRunnerCli --worker <este-host>:{}", boundPort);
+            }
+
+            for (int i = 0; i < localWorkers; i++) {
+                processes.add(launchLocalWorker(i, boundPort));
+            }
+
+            List<DistributedMessages.Register> registrations = acceptWorkers(server, expected, sockets);
+            if (sockets.isEmpty()) {
+                throw new IllegalStateException("Ningún worker se registró en " + registrationTimeout.toSeconds() + "s");
+            }
+            if (sockets.size() < expected) {
+                logger.warn("⚠️ Solo se registraron {} de {} workers - se reparte la carga entre ellos",
+                        sockets.size(), expected);
+            }
+
+            sendAssignments(sockets);
+            List<DistributedMessages.WorkerReport> reports = collectReports(sockets);
+
+            DistributedLoadResult result = new DistributedLoadResult(workload, totalTps, duration,
+                    expected, registrations, reports);
+            logger.info("🏁 Carga distribuida finalizada - {} workers, {} transacciones, p99 {}ms",
+                    reports.size(), result.getCompleted(), result.getHistogram().getValueAtPercentileMillis(99));
+            return result;
+        } finally {
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+            for (Process process : processes) {
+                if (!waitFor(process)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    // ============================================================================
+    // FASES
+    // ============================================================================
+
+    private Process launchLocalWorker(int index, int boundPort) throws IOException {
+        String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = List.of(javaBin,
+                "-cp", System.getProperty("java.class.path"),
+                "-Dfile.encoding=UTF-8",
+                WORKER_MAIN_CLASS, "--worker", "127.0.0.1:" + boundPort);
+
+        Files.createDirectories(workerLogDir);
+        Path log = workerLogDir.resolve("worker-" + index + ".log");
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        logger.info("🚀 Worker local #{} arrancado (pid {}) - log: {}", index, process.pid(), log);
+        return process;
+    }
+
+    private List<DistributedMessages.Register> acceptWorkers(ServerSocket server, int expected, List<Socket> sockets)
+            throws IOException {
+        List<DistributedMessages.Register> registrations = new ArrayList<>();
+        long deadline = System.nanoTime() + registrationTimeout.toNanos();
+
+        while (sockets.size() < expected) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                break;
+            }
+            server.setSoTimeout((int) Math.min(Integer.MAX_VALUE, remainingMillis));
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketTimeoutException e) {
+                break;
+            }
+            try {
+                socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(1, remainingMillis)));
+                DistributedMessages.Register register = DistributedMessages.read(reader(socket),
+                        DistributedMessages.Register.class);
+                sockets.add(socket);
+                registrations.add(register);
+                logger.info("✅ Worker registrado: {} (pid {}) - {}/{}",
+                        register.getHost(), register.getPid(), sockets.size(), expected);
+            } catch (IOException e) {
+                logger.warn("⚠️ Registro inválido desde {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+                closeQuietly(socket);
+            }
+        }
+        return registrations;
+    }
+
+    private void sendAssignments(List<Socket> sockets) throws IOException {
+        int count = sockets.size();
+        List<IdentityRange> ranges = identities.split(count);
+        long startAt = System.currentTimeMillis() + startDelay.toMillis();
+
+        for (int i = 0; i < count; i++) {
+            DistributedMessages.Assignment assignment = new DistributedMessages.Assignment(
+                    i, count, workload, totalTps / count, duration.toMillis(), startAt,
+                    maxInFlightPerWorker, ranges.get(i), overrides);
+            DistributedMessages.write(writer(sockets.get(i)), assignment);
+        }
+        logger.info("📋 Asignaciones enviadas: {} TPS por worker, inicio en {}ms",
+                String.format("%.1f", totalTps / count), startDelay.toMillis());
+    }
+
+    private List<DistributedMessages.WorkerReport> collectReports(List<Socket> sockets) {
+        long waitMillis = startDelay.plus(duration).plus(resultGrace).toMillis();
+        List<DistributedMessages.WorkerReport> reports = new ArrayList<>();
+
+        try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<DistributedMessages.WorkerReport>> futures = new ArrayList<>();
+            for (Socket socket : sockets) {
+                futures.add(readers.submit(() -> {
+                    socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, waitMillis));
+                    return DistributedMessages.read(reader(socket), DistributedMessages.WorkerReport.class);
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    reports.add(futures.get(i).get());
+                } catch (Exception e) {
+                    logger.error("❌ Worker #{} no devolvió resultado: {}", i, e.getMessage());
+                }
+            }
+        }
+        return reports;
+    }
+
+    // ============================================================================
+    // UTILIDADES DE SOCKET / PROCESO
+    // ============================================================================
+
+    private BufferedReader reader(Socket socket) {
+        return readers.computeIfAbsent(socket, s -> {
+            try {
+                return new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private BufferedWriter writer(Socket socket) {
+        return writers.computeIfAbsent(socket, s -> {
+            try {
+                return new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private boolean waitFor(Process process) {
+        try {
+            return process.waitFor(resultGrace.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nada que hacer
+        }
+    }
+
+    // ============================================================================
+    // BUILDER
+    // ============================================================================
+
+    public static class Builder {
+        private int localWorkers = 2;
+        private int remoteWorkers = 0;
+        private String workload;
+        private double totalTps;
+        private Duration duration;
+        private int port = 0;
+        private int maxInFlightPerWorker = 500;
+        private IdentityRange identities = new IdentityRange(0, 1000, 0, 100_000);
+        private Map<String, String> overrides = new HashMap<>();
+        private Duration registrationTimeout = Duration.ofSeconds(60);
+        private Duration startDelay = Duration.ofSeconds(2);
+        private Duration resultGrace = Duration.ofSeconds(30);
+        private Path workerLogDir = Paths.get("target/distributed");
+
+        public Builder localWorkers(int localWorkers) {
+            this.localWorkers = localWorkers;
+            return this;
+        }
+
+        public Builder remoteWorkers(int remoteWorkers) {
+            this.remoteWorkers = remoteWorkers;
+            return this;
+        }
+
+        public Builder workload(String workload) {
+            this.workload = workload;
+            return this;
+        }
+
+        public Builder totalTps(double totalTps) {
+            this.totalTps = totalTps;
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder maxInFlightPerWorker(int maxInFlightPerWorker) {
+            this.maxInFlightPerWorker = maxInFlightPerWorker;
+            return this;
+        }
+
+        public Builder identities(IdentityRange identities) {
+            this.identities = identities;
+            return this;
+        }
+
+        /**
+         * Propiedades de configuración que se envían a todos los workers (p. ej. simulator.base-url)
+         */
+        public Builder overrides(Map<String, String> overrides) {
+            this.overrides = new HashMap<>(overrides);
+            return this;
+        }
+
+        public Builder registrationTimeout(Duration registrationTimeout) {
+            this.registrationTimeout = registrationTimeout;
+            return this;
+        }
+
+        public Builder startDelay(Duration startDelay) {
+            this.startDelay = startDelay;
+            return this;
+        }
+
+        public Builder resultGrace(Duration resultGrace) {
+            this.resultGrace = resultGrace;
+            return this;
+        }
+
+        public Builder workerLogDir(Path workerLogDir) {
+            this.workerLogDir = workerLogDir;
+            return this;
+        }
+
+        public DistributedLoadCoordinator build() {
+            if (workload == null || duration == null) {
+                throw new IllegalStateException("workload y duration son obligatorios");
+            }
+            if (totalTps <= 0) {
+                throw new IllegalArgumentException("totalTps debe ser mayor a 0: " + totalTps);
+            }
+            if (localWorkers < 0 || remoteWorkers < 0 || localWorkers + remoteWorkers == 0) {
+                throw new IllegalArgumentException("Se necesita al menos un worker");
+            }
+            return new DistributedLoadCoordinator(this);
+        }
+    }
+
+    // ============================================================================
+    // RESULTADO
+    // ============================================================================
+
+    public static class DistributedLoadResult {
+        private final String workload;
+        private final double targetTps;
+        private final Duration duration;
+        private final int expectedWorkers;
+        private final List<DistributedMessages.Register> registrations;
+        private final List<DistributedMessages.WorkerReport> reports;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Map<String, Long> responseCodes = new HashMap<>();
+        private final Map<String, Long> transactionTypes = new HashMap<>();
+        private long completed;
+        private long approved;
+        private long errors;
+        private long timeouts;
+        private long dropped;
+        private long maxElapsedMillis;
+
+        DistributedLoadResult(String workload, double targetTps, Duration duration, int expectedWorkers,
+                              List<DistributedMessages.Register> registrations,
+                              List<DistributedMessages.WorkerReport> reports) {
+            this.workload = workload;
+            this.targetTps = targetTps;
+            this.duration = duration;
+            this.expectedWorkers = expectedWorkers;
+            this.registrations = registrations;
+            this.reports = reports;
+
+            for (DistributedMessages.WorkerReport report : reports) {
+                histogram.add(report.getHistogram());
+                report.getResponseCodes().forEach((k, v) -> responseCodes.merge(k, v, Long::sum));
+                report.getTransactionTypes().forEach((k, v) -> transactionTypes.merge(k, v, Long::sum));
+                completed += report.getCompleted();
+                approved += report.getApproved();
+                errors += report.getErrors();
+                timeouts += report.getTimeouts();
+                dropped += report.getDropped();
+                maxElapsedMillis = Math.max(maxElapsedMillis, report.getElapsedMillis());
+            }
+        }
+
+        /**
+         * Publica el resultado combinado en el dashboard de cobertura
+         *
+         * Exitosas = aprobadas que sumaron los workers: un declinado no es un éxito
+         */
+        public void publishToCoverageReport(String featureName) {
+            TestCoverageReporter.recordAggregate(featureName, completed, approved,
+                    responseCodes, transactionTypes, histogram);
+        }
+
+        public int getExpectedWorkers() {
+            return expectedWorkers;
+        }
+
+        public int getReportedWorkers() {
+            return reports.size();
+        }
+
+        public List<DistributedMessages.WorkerReport> getReports() {
+            return reports;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        public Map<String, Long> getResponseCodes() {
+            return responseCodes;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getApproved() {
+            return approved;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public double getErrorRate() {
+            return completed == 0 ? 0.0 : (double) (errors + timeouts) / completed;
+        }
+
+        public double getThroughput() {
+            return maxElapsedMillis == 0 ? 0.0 : completed * 1000.0 / maxElapsedMillis;
+        }
+
+        public String toSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append("🛰️ DISTRIBUTED LOAD\n");
+            summary.append("─────────────────────────────────────────────────────\n");
+            summary.append(String.format("Workload:               %s\n", workload));
+            summary.append(String.format("Target rate / duration: %9.1f TPS / %ds\n", targetTps, duration.toSeconds()));
+            summary.append(String.format("Workers reported:       %9d of %d (registered %d)\n",
+                    reports.size(), expectedWorkers, registrations.size()));
+            summary.append(String.format("Completed:              %9d (%.1f TPS)\n", completed, getThroughput()));
+            summary.append(String.format("Approved:               %9d\n", approved));
+            summary.append(String.format("Errors / timeouts:      %9d / %d (%.2f%%)\n",
+                    errors, timeouts, getErrorRate() * 100));
+            summary.append(String.format("Dropped (max in-flight):%9d\n", dropped));
+            summary.append(String.format("P50 / P95 / P99 / Max:  %6d / %d / %d / %d ms\n",
+                    histogram.getValueAtPercentileMillis(50),
+                    histogram.getValueAtPercentileMillis(95),
+                    histogram.getValueAtPercentileMillis(99),
+                    TimeUnit.MICROSECONDS.toMillis(histogram.getMaxMicros())));
+            summary.append("\n📦 PER WORKER\n");
+            for (DistributedMessages.WorkerReport report : reports) {
+                LatencyHistogram workerHistogram = report.getHistogram();
+                summary.append(String.format("  #%d %-20s %8d tx | p99 %5d ms | errors %d | dropped %d\n",
+                        report.getWorkerIndex(), report.getHost(), report.getCompleted(),
+                        workerHistogram.getValueAtPercentileMillis(99),
+                        report.getErrors() + report.getTimeouts(), report.getDropped()));
+            }
+            return summary.toString();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.client.ISO8583ApiClient;
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.services.ConnectionService;
+import com.iso8583.test.services.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Worker de la carga distribuida: se registra con el coordinador, recibe su
+ * parte del TPS y su rango de terminales/tarjetas, ejecuta la carga en
+ * modelo abierto y devuelve contadores + histograma por el mismo socket.
+ *
+ * Se lanza con {@code LoadRunnerCli --worker <host>:<puerto>}, en el mismo
+ * host (el coordinador lo arranca solo) o en otros hosts.
+ */
+public class DistributedLoadWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedLoadWorker.class);
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    private final String coordinatorHost;
+    private final int coordinatorPort;
+    private final Properties localOverrides;
+
+    public DistributedLoadWorker(String coordinatorHost, int coordinatorPort, Properties localOverrides) {
+        this.coordinatorHost = coordinatorHost;
+        this.coordinatorPort = coordinatorPort;
+        this.localOverrides = localOverrides;
+    }
+
+    public void run() throws IOException, InterruptedException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(coordinatorHost, coordinatorPort), CONNECT_TIMEOUT_MILLIS);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter writer = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            String host = InetAddress.getLocalHost().getHostName();
+            DistributedMessages.write(writer, new DistributedMessages.Register(host, ProcessHandle.current().pid()));
+            logger.info("🛰️ Registrado con el coordinador {}:{}", coordinatorHost, coordinatorPort);
+
+            DistributedMessages.Assignment assignment = DistributedMessages.read(reader, DistributedMessages.Assignment.class);
+            logger.info("📋 Asignación #{}/{}: {} a {} TPS durante {}s - {}",
+                    assignment.getWorkerIndex() + 1, assignment.getWorkerCount(), assignment.getWorkload(),
+                    String.format("%.1f", assignment.getRateTps()), assignment.getDurationMillis() / 1000,
+                    assignment.getIdentities());
+
+            DistributedMessages.WorkerReport report = execute(assignment, host);
+            DistributedMessages.write(writer, report);
+            logger.info("📤 Resultado enviado - {} transacciones", report.getCompleted());
+        }
+    }
+
+    private DistributedMessages.WorkerReport execute(DistributedMessages.Assignment assignment, String host)
+            throws InterruptedException {
+        Properties overrides = new Properties();
+        overrides.putAll(assignment.getOverrides());
+        overrides.putAll(localOverrides);
+
+        ConfigurationManager config = new ConfigurationManager(overrides);
+        ISO8583ApiClient apiClient = new ISO8583ApiClient(config);
+        TransactionService transactionService = new TransactionService(apiClient);
+        transactionService.setLoadMode(true);
+
+        ConnectionService connectionService = new ConnectionService(config);
+        connectionService.ensureConnection();
+
+        Supplier<TransactionRequest> workload = assignment.getIdentities()
+                .decorate(Workloads.mix(config, assignment.getWorkload()), config);
+
+        Map<String, LongAdder> responseCodes = new ConcurrentHashMap<>();
+        Map<String, LongAdder> transactionTypes = new ConcurrentHashMap<>();
+        LoadWindow total = new LoadWindow();
+        OpenModelScheduler scheduler = new OpenModelScheduler(assignment.getMaxInFlight());
+
+        // Todos los workers arrancan en el mismo instante de reloj
+        long waitMillis = assignment.getStartAtEpochMillis() - System.currentTimeMillis();
+        if (waitMillis > 0) {
+            Thread.sleep(waitMillis);
+        }
+
+        long start = System.nanoTime();
+        // Al cerrar, los /process pendientes del micro-batcher salen antes del reporte
+        try (apiClient) {
+            scheduler.run(Duration.ofMillis(assignment.getDurationMillis()),
+                    OpenModelScheduler.RateProfile.constant(assignment.getRateTps()), () -> {
+                        TransactionRequest request = workload.get();
+                        long sendStart = System.nanoTime();
+                        TransactionResponse response = null;
+                        try {
+                            response = transactionService.sendTransaction(request);
+                        } catch (Exception e) {
+                            // se cuenta como error con clave EXCEPTION
+                        }
+                        total.record(response, System.nanoTime() - sendStart);
+                        responseCodes.computeIfAbsent(outcomeKey(response), k -> new LongAdder()).increment();
+                        transactionTypes.computeIfAbsent(request.getTransactionType().getCode(), k -> new LongAdder())
+                                .increment();
+                    });
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        return new DistributedMessages.WorkerReport(assignment.getWorkerIndex(), host, total,
+                scheduler.getDropped(), elapsedMillis, sum(responseCodes), sum(transactionTypes));
+    }
+
+    /**
+     * Código de respuesta, o el tipo de error si no hubo respuesta ISO
+     */
+    private static String outcomeKey(TransactionResponse response) {
+        if (response == null) {
+            return "EXCEPTION";
+        }
+        if (response.getResponseCode() != null) {
+            return response.getResponseCode();
+        }
+        return response.getErrorType() != null ? response.getErrorType() : "UNKNOWN";
+    }
+
+    private static Map<String, Long> sum(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new HashMap<>();
+        counters.forEach((key, adder) -> result.put(key, adder.sum()));
+        return result;
+    }
+}
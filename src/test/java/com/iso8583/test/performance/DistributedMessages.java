@@ -0,0 +1,218 @@
+package com.iso8583.test.performance;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Protocolo coordinador ↔ worker de la carga distribuida
+ *
+ * Un mensaje JSON por línea sobre un socket TCP:
+ *   worker → coordinador: {@link Register}
+ *   coordinador → worker: {@link Assignment}
+ *   worker → coordinador: {@link WorkerReport} al terminar
+ */
+public final class DistributedMessages {
+
+    private static final Gson gson = new Gson();
+
+    private DistributedMessages() {
+    }
+
+    static void write(BufferedWriter writer, Object message) throws IOException {
+        writer.write(gson.toJson(message));
+        writer.newLine();
+        writer.flush();
+    }
+
+    static <T> T read(BufferedReader reader, Class<T> type) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new EOFException("Conexión cerrada esperando " + type.getSimpleName());
+        }
+        return gson.fromJson(line, type);
+    }
+
+    // ============================================================================
+    // MENSAJES
+    // ============================================================================
+
+    public static class Register {
+        private String host;
+        private long pid;
+
+        public Register() {
+        }
+
+        public Register(String host, long pid) {
+            this.host = host;
+            this.pid = pid;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public long getPid() {
+            return pid;
+        }
+    }
+
+    /**
+     * Tarea asignada a un worker: su parte del TPS total y su rango de identidades
+     */
+    public static class Assignment {
+        private int workerIndex;
+        private int workerCount;
+        private String workload;
+        private double rateTps;
+        private long durationMillis;
+        private long startAtEpochMillis;
+        private int maxInFlight;
+        private int terminalStart;
+        private int terminalCount;
+        private long cardStart;
+        private long cardCount;
+        private Map<String, String> overrides = new HashMap<>();
+
+        public Assignment() {
+        }
+
+        Assignment(int workerIndex, int workerCount, String workload, double rateTps, long durationMillis,
+                   long startAtEpochMillis, int maxInFlight, IdentityRange identities,
+                   Map<String, String> overrides) {
+            this.workerIndex = workerIndex;
+            this.workerCount = workerCount;
+            this.workload = workload;
+            this.rateTps = rateTps;
+            this.durationMillis = durationMillis;
+            this.startAtEpochMillis = startAtEpochMillis;
+            this.maxInFlight = maxInFlight;
+            this.terminalStart = identities.getTerminalStart();
+            this.terminalCount = identities.getTerminalCount();
+            this.cardStart = identities.getCardStart();
+            this.cardCount = identities.getCardCount();
+            this.overrides = new HashMap<>(overrides);
+        }
+
+        public IdentityRange getIdentities() {
+            return new IdentityRange(terminalStart, terminalCount, cardStart, cardCount);
+        }
+
+        public int getWorkerIndex() {
+            return workerIndex;
+        }
+
+        public int getWorkerCount() {
+            return workerCount;
+        }
+
+        public String getWorkload() {
+            return workload;
+        }
+
+        public double getRateTps() {
+            return rateTps;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public long getStartAtEpochMillis() {
+            return startAtEpochMillis;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public Map<String, String> getOverrides() {
+            return overrides;
+        }
+    }
+
+    /**
+     * Resultado de un worker: contadores y histograma de latencias
+     */
+    public static class WorkerReport {
+        private int workerIndex;
+        private String host;
+        private long completed;
+        private long approved;
+        private long errors;
+        private long timeouts;
+        private long dropped;
+        private long elapsedMillis;
+        private Map<String, Long> responseCodes = new HashMap<>();
+        private Map<String, Long> transactionTypes = new HashMap<>();
+        private LatencyHistogram.Snapshot histogram;
+
+        public WorkerReport() {
+        }
+
+        WorkerReport(int workerIndex, String host, LoadWindow total, long dropped, long elapsedMillis,
+                     Map<String, Long> responseCodes, Map<String, Long> transactionTypes) {
+            this.workerIndex = workerIndex;
+            this.host = host;
+            this.completed = total.getCompleted();
+            this.approved = total.getApproved();
+            this.errors = total.getErrors();
+            this.timeouts = total.getTimeouts();
+            this.dropped = dropped;
+            this.elapsedMillis = elapsedMillis;
+            this.responseCodes = new HashMap<>(responseCodes);
+            this.transactionTypes = new HashMap<>(transactionTypes);
+            this.histogram = total.getHistogram().toSnapshot();
+        }
+
+        public int getWorkerIndex() {
+            return workerIndex;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getApproved() {
+            return approved;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public Map<String, Long> getResponseCodes() {
+            return responseCodes;
+        }
+
+        public Map<String, Long> getTransactionTypes() {
+            return transactionTypes;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return LatencyHistogram.fromSnapshot(histogram);
+        }
+    }
+}
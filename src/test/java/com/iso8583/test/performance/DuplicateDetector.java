@@ -0,0 +1,416 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.config.ConfigurationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Detector de STAN / RRN duplicados en vivo, para corridas de millones de transacciones
+ *
+ * - STAN (campo 11): un bitmap de 1.000.000 bits por terminal, en páginas de
+ *   2 KB que se reservan al primer STAN que cae en ellas. Marcar un STAN es
+ *   un OR atómico sobre una palabra (sin locks); si el bit ya estaba, es
+ *   duplicado. La vuelta del STAN se detecta por la secuencia: un STAN más
+ *   de medio espacio por debajo del mayor del ciclo abre un ciclo nuevo
+ *   (repetir ahí es legítimo), aunque en el anterior hayan faltado STANs.
+ *   Las respuestas atrasadas del ciclo anterior (más de medio espacio por
+ *   encima) se chequean contra el bitmap de ese ciclo, que se conserva.
+ * - RRN (campo 37): set abierto de longs en 64 segmentos con lock propio.
+ *   Un RRN numérico se guarda tal cual (exacto); uno alfanumérico como hash
+ *   de 64 bits. Entre 8 y 16 bytes por RRN según la ocupación, contra ~100
+ *   de un HashSet&lt;String&gt;.
+ *
+ * Se llama desde los hilos que reciben las respuestas; cada duplicado se
+ * loguea al momento (los primeros {@link #LOGGED_DUPLICATES}) y queda en las
+ * últimas {@link #RECENT_DUPLICATES} muestras del resumen.
+ *
+ *   performance.duplicates.enabled=false
+ */
+public class DuplicateDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateDetector.class);
+
+    static final int STAN_SPACE = 1_000_000;
+    private static final int HALF_STAN_SPACE = STAN_SPACE / 2;
+    private static final int PAGE_BITS = 16_384;
+    private static final int PAGE_WORDS = PAGE_BITS / 64;
+    private static final int PAGES = (STAN_SPACE + PAGE_BITS - 1) / PAGE_BITS;
+    private static final int RRN_SEGMENTS = 64;
+    private static final int LOGGED_DUPLICATES = 20;
+    private static final int RECENT_DUPLICATES = 50;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Map<String, TerminalStans> stansByTerminal = new ConcurrentHashMap<>();
+    private final RrnSegment[] rrnSegments = new RrnSegment[RRN_SEGMENTS];
+
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder duplicateStans = new LongAdder();
+    private final LongAdder duplicateRrns = new LongAdder();
+    private final LongAdder invalidStans = new LongAdder();
+    private final LongAdder stanWraps = new LongAdder();
+    private final AtomicInteger logged = new AtomicInteger();
+    private final Deque<String> recent = new ArrayDeque<>();
+    private final ReentrantLock recentLock = new ReentrantLock();
+
+    public DuplicateDetector() {
+        for (int i = 0; i < RRN_SEGMENTS; i++) {
+            rrnSegments[i] = new RrnSegment();
+        }
+    }
+
+    /**
+     * Crea el detector si performance.duplicates.enabled=true; null si no
+     */
+    public static DuplicateDetector fromConfig(ConfigurationManager config) {
+        return config.getBooleanProperty("performance.duplicates.enabled", false) ? new DuplicateDetector() : null;
+    }
+
+    /**
+     * Registra una respuesta; STAN y RRN pueden venir null (errores, timeouts)
+     *
+     * @return true si el STAN o el RRN ya se habían visto
+     */
+    public boolean record(String terminalId, String stan, String rrn) {
+        checked.increment();
+        boolean duplicate = false;
+        if (stan != null) {
+            int value = parseStan(stan);
+            if (value < 0) {
+                invalidStans.increment();
+                report("STAN inválido", terminalId, stan);
+            } else if (!stansByTerminal.computeIfAbsent(terminalId == null ? "-" : terminalId,
+                    terminal -> new TerminalStans()).add(value)) {
+                duplicateStans.increment();
+                report("STAN duplicado", terminalId, stan);
+                duplicate = true;
+            }
+        }
+        if (rrn != null && !rrn.isBlank()) {
+            long key = rrnKey(rrn.trim());
+            if (!rrnSegments[segmentOf(key)].add(key)) {
+                duplicateRrns.increment();
+                report("RRN duplicado", terminalId, rrn);
+                duplicate = true;
+            }
+        }
+        return duplicate;
+    }
+
+    private void report(String problem, String terminalId, String value) {
+        String sample = problem + " " + value + " (terminal " + terminalId + ")";
+        if (logged.incrementAndGet() <= LOGGED_DUPLICATES) {
+            logger.warn("🔁 {}", sample);
+        }
+        recentLock.lock();
+        try {
+            if (recent.size() == RECENT_DUPLICATES) {
+                recent.removeFirst();
+            }
+            recent.addLast(sample);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    /**
+     * STAN de 1 a 6 dígitos, o -1 si no es numérico
+     */
+    private static int parseStan(String stan) {
+        int length = stan.length();
+        if (length == 0 || length > 6) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = stan.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * RRN numérico (hasta 18 dígitos) exacto; alfanumérico como hash con el bit alto
+     * prendido para no chocar con los numéricos. Nunca devuelve 0 (celda vacía).
+     */
+    static long rrnKey(String rrn) {
+        int length = rrn.length();
+        if (length <= 18) {
+            long value = 0;
+            int i = 0;
+            while (i < length) {
+                char c = rrn.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                i++;
+            }
+            if (i == length) {
+                return value + 1;
+            }
+        }
+        // FNV-1a de 64 bits
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : rrn.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash | Long.MIN_VALUE;
+    }
+
+    private static int segmentOf(long key) {
+        long mixed = mix(key);
+        return (int) (mixed >>> 58);
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // ============================================================================
+    // RESULTADO
+    // ============================================================================
+
+    public long getDuplicateStans() {
+        return duplicateStans.sum();
+    }
+
+    public long getDuplicateRrns() {
+        return duplicateRrns.sum();
+    }
+
+    public long getDuplicates() {
+        return getDuplicateStans() + getDuplicateRrns();
+    }
+
+    /**
+     * STANs vacíos, no numéricos o de más de 6 dígitos (no entran al bitmap)
+     */
+    public long getInvalidStans() {
+        return invalidStans.sum();
+    }
+
+    public long getStanWraps() {
+        return stanWraps.sum();
+    }
+
+    public List<String> getRecentDuplicates() {
+        recentLock.lock();
+        try {
+            return new ArrayList<>(recent);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    /**
+     * Memoria reservada por bitmaps y sets (aproximada)
+     */
+    public long getFootprintBytes() {
+        long bytes = 0;
+        for (TerminalStans terminal : stansByTerminal.values()) {
+            bytes += terminal.footprintBytes();
+        }
+        for (RrnSegment segment : rrnSegments) {
+            bytes += segment.footprintBytes();
+        }
+        return bytes;
+    }
+
+    public String toSummary() {
+        long rrns = 0;
+        for (RrnSegment segment : rrnSegments) {
+            rrns += segment.size();
+        }
+        StringBuilder summary = new StringBuilder();
+        summary.append("🔁 DUPLICATE STAN / RRN\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Responses checked:       %9d\n", checked.sum()));
+        summary.append(String.format("Terminals / RRNs:        %9d / %d\n", stansByTerminal.size(), rrns));
+        summary.append(String.format("Duplicate STAN / RRN:    %9d / %d\n", getDuplicateStans(), getDuplicateRrns()));
+        if (invalidStans.sum() > 0 || stanWraps.sum() > 0) {
+            summary.append(String.format("Invalid STAN / wraps:    %9d / %d\n", invalidStans.sum(), stanWraps.sum()));
+        }
+        summary.append(String.format("Memory:                  %9.1f MB\n", getFootprintBytes() / (1024.0 * 1024.0)));
+        getRecentDuplicates().stream().limit(10).forEach(sample -> summary.append("  ").append(sample).append('\n'));
+        return summary.toString();
+    }
+
+    // ============================================================================
+    // ESTRUCTURAS
+    // ============================================================================
+
+    /**
+     * Bitmaps de STANs de una terminal: el ciclo en curso y el anterior
+     */
+    private final class TerminalStans {
+        private volatile Cycle current = new Cycle(-1);
+        private volatile Cycle previous;
+
+        /**
+         * @return false si el STAN ya estaba en su ciclo
+         */
+        boolean add(int stan) {
+            Cycle cycle = current;
+            int highest = cycle.highest.get();
+            if (highest >= 0 && stan + HALF_STAN_SPACE < highest) {
+                cycle = wrap(cycle, stan);
+            } else if (highest >= 0 && stan > highest + HALF_STAN_SPACE) {
+                // Respuesta atrasada del ciclo anterior
+                cycle = previousCycle();
+            } else {
+                cycle.highest.accumulateAndGet(stan, Math::max);
+            }
+            return cycle.add(stan);
+        }
+
+        private synchronized Cycle wrap(Cycle seen, int stan) {
+            if (current == seen) {
+                previous = seen;
+                current = new Cycle(stan);
+                stanWraps.increment();
+            }
+            return current;
+        }
+
+        private synchronized Cycle previousCycle() {
+            if (previous == null) {
+                // Arrancamos a mitad de un ciclo que no vimos empezar
+                previous = new Cycle(STAN_SPACE - 1);
+            }
+            return previous;
+        }
+
+        long footprintBytes() {
+            Cycle older = previous;
+            return current.footprintBytes() + (older == null ? 0 : older.footprintBytes());
+        }
+    }
+
+    /**
+     * Un ciclo 000000-999999: bitmap paginado y el mayor STAN visto
+     */
+    private static final class Cycle {
+        private final AtomicReferenceArray<long[]> pages = new AtomicReferenceArray<>(PAGES);
+        private final AtomicInteger highest;
+
+        Cycle(int highest) {
+            this.highest = new AtomicInteger(highest);
+        }
+
+        boolean add(int stan) {
+            int pageIndex = stan / PAGE_BITS;
+            long[] page = pages.get(pageIndex);
+            if (page == null) {
+                pages.compareAndSet(pageIndex, null, new long[PAGE_WORDS]);
+                page = pages.get(pageIndex);
+            }
+            int bit = stan % PAGE_BITS;
+            long mask = 1L << bit;
+            long previous = (long) WORDS.getAndBitwiseOr(page, bit >>> 6, mask);
+            return (previous & mask) == 0;
+        }
+
+        long footprintBytes() {
+            long bytes = 0;
+            for (int i = 0; i < PAGES; i++) {
+                if (pages.get(i) != null) {
+                    bytes += PAGE_WORDS * 8L;
+                }
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Set abierto (sondeo lineal) de claves long != 0, que crece al 70% de ocupación
+     */
+    private static final class RrnSegment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] table = new long[1024];
+        private int size;
+
+        boolean add(long key) {
+            lock.lock();
+            try {
+                if (size + 1 > table.length * 7L / 10) {
+                    resize();
+                }
+                if (!insert(table, key)) {
+                    return false;
+                }
+                size++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static boolean insert(long[] table, long key) {
+            int mask = table.length - 1;
+            int index = (int) mix(key) & mask;
+            while (true) {
+                long current = table[index];
+                if (current == 0) {
+                    table[index] = key;
+                    return true;
+                }
+                if (current == key) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private void resize() {
+            long[] grown = new long[table.length * 2];
+            for (long key : table) {
+                if (key != 0) {
+                    insert(grown, key);
+                }
+            }
+            table = grown;
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long footprintBytes() {
+            lock.lock();
+            try {
+                return table.length * 8L;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.iso8583.test.performance;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Detector de duplicados: STAN por terminal, vuelta del STAN, inválidos y RRN
+ */
+class DuplicateDetectorTest {
+
+    private static String stan(int value) {
+        return String.format("%06d", value);
+    }
+
+    @Test
+    void detectaStanRepetidoEnLaMismaTerminal() {
+        DuplicateDetector detector = new DuplicateDetector();
+
+        assertThat(detector.record("T1", "000123", null)).isFalse();
+        assertThat(detector.record("T2", "000123", null)).as("otra terminal").isFalse();
+        assertThat(detector.record("T1", "123", null)).as("mismo valor sin ceros").isTrue();
+
+        assertThat(detector.getDuplicateStans()).isEqualTo(1);
+        assertThat(detector.getRecentDuplicates()).singleElement().asString().contains("STAN duplicado 123", "T1");
+    }
+
+    @Test
+    void laVueltaDelStanNoEsDuplicadoAunqueFaltenStans() {
+        DuplicateDetector detector = new DuplicateDetector();
+        for (int value = 1; value < DuplicateDetector.STAN_SPACE; value++) {
+            if (value % 1_000 != 0) {
+                detector.record("T1", stan(value), null);
+            }
+        }
+
+        for (int value = 1; value <= 10; value++) {
+            assertThat(detector.record("T1", stan(value), null)).as("STAN %d tras la vuelta", value).isFalse();
+        }
+        assertThat(detector.getStanWraps()).isEqualTo(1);
+        assertThat(detector.record("T1", stan(5), null)).as("repetido en el ciclo nuevo").isTrue();
+    }
+
+    @Test
+    void respuestaAtrasadaDelCicloAnteriorSeChequeaContraEseCiclo() {
+        DuplicateDetector detector = new DuplicateDetector();
+        detector.record("T1", stan(999_990), null);
+        detector.record("T1", stan(999_998), null);
+        detector.record("T1", stan(2), null);
+
+        assertThat(detector.record("T1", stan(999_999), null)).as("atrasada, nueva").isFalse();
+        assertThat(detector.record("T1", stan(999_998), null)).as("atrasada, repetida").isTrue();
+        assertThat(detector.record("T1", stan(999_999), null)).isTrue();
+        assertThat(detector.getStanWraps()).isEqualTo(1);
+    }
+
+    @Test
+    void cuentaLosStansInvalidos() {
+        DuplicateDetector detector = new DuplicateDetector();
+
+        detector.record("T1", "", null);
+        detector.record("T1", "12A456", null);
+        detector.record("T1", "1234567", null);
+        detector.record("T1", null, null);
+
+        assertThat(detector.getInvalidStans()).isEqualTo(3);
+        assertThat(detector.getDuplicateStans()).isZero();
+        assertThat(detector.getRecentDuplicates()).hasSize(3).allMatch(sample -> sample.startsWith("STAN inválido"));
+    }
+
+    @Test
+    void rrnNumericoExactoYAlfanumerico() {
+        DuplicateDetector detector = new DuplicateDetector();
+
+        assertThat(detector.record(null, null, "000000000001")).isFalse();
+        assertThat(detector.record(null, null, "1")).as("mismo número").isTrue();
+        assertThat(detector.record(null, null, "000000000000")).as("cero no es celda vacía").isFalse();
+        assertThat(detector.record(null, null, "ABC123")).isFalse();
+        assertThat(detector.record(null, null, " ABC123 ")).isTrue();
+        assertThat(DuplicateDetector.rrnKey("ABC123")).isNegative();
+
+        assertThat(detector.getDuplicateRrns()).isEqualTo(2);
+    }
+
+    @Test
+    void rrnsDistintosEnParaleloNoDanFalsosPositivos() {
+        DuplicateDetector detector = new DuplicateDetector();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                executor.execute(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        detector.record("T" + thread, stan(i + 1), String.format("%012d", thread * 1_000_000L + i));
+                    }
+                });
+            }
+        }
+
+        assertThat(detector.getDuplicates()).isZero();
+        assertThat(detector.record("T0", null, String.format("%012d", 7_000_123L))).isTrue();
+    }
+}
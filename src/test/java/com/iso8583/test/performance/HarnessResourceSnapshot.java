@@ -0,0 +1,83 @@
+package com.iso8583.test.performance;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Foto de los recursos de la JVM del harness (heap, GC, hilos)
+ * Usada por el modo soak para detectar fugas del lado cliente
+ */
+public class HarnessResourceSnapshot {
+
+    private final long timestampMillis;
+    private final long heapUsedBytes;
+    private final long heapCommittedBytes;
+    private final long nonHeapUsedBytes;
+    private final long gcCount;
+    private final long gcTimeMillis;
+    private final int threadCount;
+
+    private HarnessResourceSnapshot(long timestampMillis, long heapUsedBytes, long heapCommittedBytes,
+                                    long nonHeapUsedBytes, long gcCount, long gcTimeMillis, int threadCount) {
+        this.timestampMillis = timestampMillis;
+        this.heapUsedBytes = heapUsedBytes;
+        this.heapCommittedBytes = heapCommittedBytes;
+        this.nonHeapUsedBytes = nonHeapUsedBytes;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.threadCount = threadCount;
+    }
+
+    public static HarnessResourceSnapshot capture() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+
+        return new HarnessResourceSnapshot(
+                System.currentTimeMillis(),
+                memory.getHeapMemoryUsage().getUsed(),
+                memory.getHeapMemoryUsage().getCommitted(),
+                memory.getNonHeapMemoryUsage().getUsed(),
+                gcCount,
+                gcTime,
+                ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+
+    public long getHeapUsedMb() {
+        return heapUsedBytes / (1024 * 1024);
+    }
+
+    public long getHeapCommittedBytes() {
+        return heapCommittedBytes;
+    }
+
+    public long getNonHeapUsedBytes() {
+        return nonHeapUsedBytes;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+}
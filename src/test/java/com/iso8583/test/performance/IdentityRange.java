@@ -0,0 +1,142 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.models.TransactionRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Rango de terminales y tarjetas asignado a un worker de carga
+ *
+ * Los rangos de distintos workers no se solapan, así dos JVMs nunca usan la
+ * misma terminal (STAN/RRN por terminal) ni la misma tarjeta al mismo tiempo.
+ * Las tarjetas son las del {@link CardGenerator} de configuración (mismo BIN
+ * y largo que el PAN de configuración): la tarjeta i del rango es la
+ * tarjeta i del generador, la misma que graba {@code --generate-cards}.
+ *
+ * Con {@code performance.cards.file} (generado con {@link CardGenerator}) las
+ * tarjetas salen de ese archivo: cada worker recorre su tramo
+ * [cardStart, cardStart + cardCount) del mapeo, sin compartir nada con los demás.
+ */
+public final class IdentityRange {
+
+    private static final int TERMINAL_ID_LENGTH = 8;
+
+    private final int terminalStart;
+    private final int terminalCount;
+    private final long cardStart;
+    private final long cardCount;
+
+    public IdentityRange(int terminalStart, int terminalCount, long cardStart, long cardCount) {
+        if (terminalCount <= 0 || cardCount <= 0) {
+            throw new IllegalArgumentException("El rango debe tener al menos una terminal y una tarjeta");
+        }
+        this.terminalStart = terminalStart;
+        this.terminalCount = terminalCount;
+        this.cardStart = cardStart;
+        this.cardCount = cardCount;
+    }
+
+    /**
+     * Divide el rango en {@code parts} sub-rangos contiguos y disjuntos
+     */
+    public List<IdentityRange> split(int parts) {
+        if (parts > terminalCount || parts > cardCount) {
+            throw new IllegalArgumentException(String.format(
+                    "No alcanzan las identidades para %d workers (terminales: %d, tarjetas: %d)",
+                    parts, terminalCount, cardCount));
+        }
+        List<IdentityRange> ranges = new ArrayList<>(parts);
+        for (int i = 0; i < parts; i++) {
+            int tFrom = terminalStart + (int) ((long) terminalCount * i / parts);
+            int tTo = terminalStart + (int) ((long) terminalCount * (i + 1) / parts);
+            long cFrom = cardStart + cardCount * i / parts;
+            long cTo = cardStart + cardCount * (i + 1) / parts;
+            ranges.add(new IdentityRange(tFrom, tTo - tFrom, cFrom, cTo - cFrom));
+        }
+        return ranges;
+    }
+
+    /**
+     * Envuelve un workload para que cada transacción use una terminal y una
+     * tarjeta al azar dentro de este rango
+     */
+    public Supplier<TransactionRequest> decorate(Supplier<TransactionRequest> workload, ConfigurationManager config) {
+        String terminalPrefix = config.getProperty("performance.distributed.terminal-prefix", "LT");
+        String cardFile = config.getProperty("performance.cards.file", "");
+        if (!cardFile.isBlank()) {
+            Supplier<TransactionRequest> withCards = openCardFile(Path.of(cardFile.trim()))
+                    .decorate(workload, cardStart, cardCount);
+            return () -> {
+                TransactionRequest request = withCards.get();
+                request.setTerminalId(terminalId(terminalPrefix,
+                        terminalStart + ThreadLocalRandom.current().nextInt(terminalCount)));
+                return request;
+            };
+        }
+        CardGenerator cards = CardGenerator.fromConfig(config);
+        if (cardStart + cardCount > cards.capacity()) {
+            throw new IllegalArgumentException(String.format(
+                    "Rango de tarjetas [%d..%d) fuera de la capacidad del BIN (%d)",
+                    cardStart, cardStart + cardCount, cards.capacity()));
+        }
+
+        return () -> {
+            TransactionRequest request = workload.get();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long card = cardStart + random.nextLong(cardCount);
+
+            request.setTerminalId(terminalId(terminalPrefix, terminalStart + random.nextInt(terminalCount)));
+            request.setPan(cards.pan(card));
+            if (request.getTrack2() != null) {
+                request.setTrack2(cards.track2(card));
+            }
+            return request;
+        };
+    }
+
+    private static CardFile openCardFile(Path path) {
+        try {
+            return CardFile.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo de tarjetas " + path, e);
+        }
+    }
+
+    static String terminalId(String prefix, int index) {
+        int digits = TERMINAL_ID_LENGTH - prefix.length();
+        String number = String.format("%0" + digits + "d", index);
+        if (number.length() > digits) {
+            throw new IllegalArgumentException("Índice de terminal fuera de rango: " + index);
+        }
+        return prefix + number;
+    }
+
+    public int getTerminalStart() {
+        return terminalStart;
+    }
+
+    public int getTerminalCount() {
+        return terminalCount;
+    }
+
+    public long getCardStart() {
+        return cardStart;
+    }
+
+    public long getCardCount() {
+        return cardCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("terminales [%d..%d), tarjetas [%d..%d)",
+                terminalStart, terminalStart + terminalCount, cardStart, cardStart + cardCount);
+    }
+}
@@ -0,0 +1,526 @@
+package com.iso8583.test.performance;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Conciliación post-corrida del {@link TransactionJournal} contra los totales
+ * de liquidación (estilo 0500) del autorizador
+ *
+ * El journal se recorre con un fork-join: el archivo se parte por rangos de
+ * bytes alineados a fin de línea, cada hoja parsea su rango y arma totales
+ * parciales por código de proceso + moneda + terminal, y los parciales se
+ * combinan al volver.
+ *
+ * Lo que el autorizador debería haber liquidado por grupo:
+ *
+ *   originales = aprobadas + reversadas (un timeout reversado con 00 sí se aplicó)
+ *   monto      = monto de las aprobadas + monto de las reversadas
+ *   (los reversos huérfanos no cuentan: no hay original que liquidar)
+ *   reversos   = reversos confirmados (39=00)
+ *
+ * Desvíos que se marcan:
+ *
+ *   LOST_APPROVAL          el journal tiene más aprobaciones que la liquidación
+ *   UNEXPECTED_SETTLEMENT  la liquidación tiene más (timeouts aplicados sin reversar...)
+ *   AMOUNT_MISMATCH        mismas cantidades, distinto monto
+ *   REVERSAL_MISMATCH      distinta cantidad de reversos
+ *   DUPLICATE              el mismo RRN (o terminal + STAN) en más de un original
+ *   ORPHAN_REVERSAL        reverso cuyo RRN original no está en el journal
+ *
+ * Export de liquidación (CSV; '#' comenta, la cabecera es opcional):
+ *
+ *   processingCode,currencyCode,terminalId,count,amount[,reversalCount,reversalAmount]
+ *   000000,068,TERM0001,1520,15200000,12,120000
+ */
+public final class JournalReconciler {
+
+    private static final Gson gson = new Gson();
+
+    // Hojas de ~8 MB: suficientes para repartir entre los cores sin tareas diminutas
+    private static final long SPLIT_THRESHOLD = 8L * 1024 * 1024;
+    private static final int MAX_LISTED_MISMATCHES = 20;
+
+    private JournalReconciler() {
+    }
+
+    /**
+     * @param settlement export de liquidación, o null para revisar solo duplicados y reversos huérfanos
+     */
+    public static Report reconcile(Path journal, Path settlement) throws IOException {
+        long start = System.nanoTime();
+        Totals totals = scan(journal);
+        Map<String, Settled> settled = settlement != null ? readSettlement(settlement) : null;
+
+        List<Mismatch> mismatches = new ArrayList<>();
+        totals.originalIds.forEach((id, count) -> {
+            if (count > 1) {
+                mismatches.add(new Mismatch(Kind.DUPLICATE, id, count + " originales con el mismo id"));
+            }
+        });
+        Set<String> originalRrns = totals.originalRrns();
+        for (String[] reversal : totals.reversals) {
+            if (reversal[0] == null || !originalRrns.contains(reversal[0])) {
+                mismatches.add(new Mismatch(Kind.ORPHAN_REVERSAL, reversal[1], "RRN original " + reversal[0]));
+                if (reversal[3] != null) {
+                    // Sin original no hay nada que el autorizador haya aplicado y liquidado
+                    GroupTotals group = totals.groups.get(reversal[2]);
+                    group.orphanCount++;
+                    group.orphanAmount += Long.parseLong(reversal[3]);
+                }
+            }
+        }
+        if (settled != null) {
+            compare(totals.groups, settled, mismatches);
+        }
+        return new Report(journal, settlement, totals, mismatches, System.nanoTime() - start);
+    }
+
+    // ============================================================================
+    // FORK-JOIN SOBRE EL JOURNAL
+    // ============================================================================
+
+    static Totals scan(Path journal) throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            return ForkJoinPool.commonPool().invoke(new ScanTask(channel, 0, channel.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        // ForkJoinTask es Serializable, pero la tarea no sale nunca del pool de este proceso
+        private final transient FileChannel channel;
+        private final long start;
+        private final long end;
+
+        private ScanTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Totals compute() {
+            try {
+                if (end - start > SPLIT_THRESHOLD) {
+                    long split = nextLineStart(start + (end - start) / 2);
+                    if (split < end) {
+                        ScanTask right = new ScanTask(channel, split, end);
+                        right.fork();
+                        Totals left = new ScanTask(channel, start, split).compute();
+                        return left.merge(right.join());
+                    }
+                }
+                return parse(read(start, end));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Posición siguiente al primer '\n' desde {@code position} (o end si no hay)
+         */
+        private long nextLineStart(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while (position < end) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return end;
+        }
+
+        private byte[] read(long from, long to) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+            long position = from;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+            return buffer.array();
+        }
+
+        private static Totals parse(byte[] bytes) {
+            Totals totals = new Totals();
+            int lineStart = 0;
+            for (int i = 0; i <= bytes.length; i++) {
+                if (i == bytes.length || bytes[i] == '\n') {
+                    if (i > lineStart) {
+                        totals.add(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Totales (parciales o finales) de un recorrido del journal
+     */
+    static final class Totals {
+        private final Map<String, GroupTotals> groups = new HashMap<>();
+        // id de cada original (RRN, o terminal/STAN sin RRN) → apariciones
+        private final Map<String, Integer> originalIds = new HashMap<>();
+        // {RRN original, id del reverso, grupo, monto si fue confirmado (o null)}
+        private final List<String[]> reversals = new ArrayList<>();
+        private long lines;
+        private long malformed;
+
+        void add(String line) {
+            if (line.isBlank()) {
+                return;
+            }
+            lines++;
+            TransactionJournal.Entry entry;
+            try {
+                entry = gson.fromJson(line, TransactionJournal.Entry.class);
+            } catch (JsonSyntaxException e) {
+                malformed++;
+                return;
+            }
+            if (entry == null) {
+                malformed++;
+                return;
+            }
+
+            GroupTotals group = groups.computeIfAbsent(groupKey(entry), key -> new GroupTotals());
+            long amount = parseAmount(entry.getAmount());
+            if (entry.isReversal()) {
+                reversals.add(new String[]{entry.getOriginalRrn(), "RRN " + entry.getRrn(), groupKey(entry),
+                        entry.isApproved() ? String.valueOf(amount) : null});
+                if (entry.isApproved()) {
+                    group.reversedCount++;
+                    group.reversedAmount += amount;
+                }
+                return;
+            }
+
+            group.transactions++;
+            if (entry.isApproved()) {
+                group.approvedCount++;
+                group.approvedAmount += amount;
+            } else if ("TIMEOUT".equals(entry.getErrorType())) {
+                group.timeouts++;
+            }
+            String id = entry.getRrn() != null ? "RRN " + entry.getRrn()
+                    : entry.getStan() != null ? "TID/STAN " + entry.getTerminalId() + "/" + entry.getStan()
+                    : null;
+            if (id != null) {
+                originalIds.merge(id, 1, Integer::sum);
+            }
+        }
+
+        Totals merge(Totals other) {
+            other.groups.forEach((key, totals) -> groups.merge(key, totals, GroupTotals::plus));
+            other.originalIds.forEach((id, count) -> originalIds.merge(id, count, Integer::sum));
+            reversals.addAll(other.reversals);
+            lines += other.lines;
+            malformed += other.malformed;
+            return this;
+        }
+
+        Set<String> originalRrns() {
+            Set<String> rrns = new HashSet<>();
+            for (String id : originalIds.keySet()) {
+                if (id.startsWith("RRN ")) {
+                    rrns.add(id.substring(4));
+                }
+            }
+            return rrns;
+        }
+    }
+
+    private static String groupKey(TransactionJournal.Entry entry) {
+        return groupKey(entry.getProcessingCode(), entry.getCurrencyCode(), entry.getTerminalId());
+    }
+
+    private static String groupKey(String processingCode, String currencyCode, String terminalId) {
+        return nullToDash(processingCode) + "|" + nullToDash(currencyCode) + "|" + nullToDash(terminalId);
+    }
+
+    private static String nullToDash(String value) {
+        return value == null || value.isBlank() ? "-" : value.trim();
+    }
+
+    private static long parseAmount(String amount) {
+        if (amount == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(amount.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // ============================================================================
+    // LIQUIDACIÓN
+    // ============================================================================
+
+    static Map<String, Settled> readSettlement(Path settlement) throws IOException {
+        Map<String, Settled> settled = new HashMap<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(settlement, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.startsWith("processingCode")) {
+                continue;
+            }
+            String[] columns = trimmed.split(",", -1);
+            if (columns.length != 5 && columns.length != 7) {
+                throw new IllegalArgumentException("Liquidación " + settlement + ":" + lineNumber
+                        + ": se esperaban 5 o 7 columnas: " + trimmed);
+            }
+            try {
+                Settled row = new Settled();
+                row.count = Long.parseLong(columns[3].trim());
+                row.amount = Long.parseLong(columns[4].trim());
+                if (columns.length == 7) {
+                    row.reversalCount = Long.parseLong(columns[5].trim());
+                    row.reversalAmount = Long.parseLong(columns[6].trim());
+                }
+                settled.merge(groupKey(columns[0], columns[1], columns[2]), row, Settled::plus);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Liquidación " + settlement + ":" + lineNumber
+                        + ": número inválido: " + trimmed);
+            }
+        }
+        return settled;
+    }
+
+    private static void compare(Map<String, GroupTotals> groups, Map<String, Settled> settled,
+                                List<Mismatch> mismatches) {
+        Set<String> keys = new TreeSet<>(groups.keySet());
+        keys.addAll(settled.keySet());
+        for (String key : keys) {
+            GroupTotals journal = groups.getOrDefault(key, new GroupTotals());
+            Settled authorizer = settled.getOrDefault(key, new Settled());
+            long expectedCount = journal.approvedCount + journal.reversedCount - journal.orphanCount;
+            long expectedAmount = journal.approvedAmount + journal.reversedAmount - journal.orphanAmount;
+
+            if (expectedCount > authorizer.count) {
+                mismatches.add(new Mismatch(Kind.LOST_APPROVAL, key, String.format(
+                        "journal %d / liquidado %d", expectedCount, authorizer.count)));
+            } else if (expectedCount < authorizer.count) {
+                mismatches.add(new Mismatch(Kind.UNEXPECTED_SETTLEMENT, key, String.format(
+                        "journal %d / liquidado %d", expectedCount, authorizer.count)));
+            } else if (expectedAmount != authorizer.amount) {
+                mismatches.add(new Mismatch(Kind.AMOUNT_MISMATCH, key, String.format(
+                        "journal %d / liquidado %d", expectedAmount, authorizer.amount)));
+            }
+            if (authorizer.reversalCount != null && journal.reversedCount != authorizer.reversalCount) {
+                mismatches.add(new Mismatch(Kind.REVERSAL_MISMATCH, key, String.format(
+                        "journal %d / liquidado %d", journal.reversedCount, authorizer.reversalCount)));
+            }
+        }
+    }
+
+    // ============================================================================
+    // RESULTADO
+    // ============================================================================
+
+    public enum Kind {
+        LOST_APPROVAL,
+        UNEXPECTED_SETTLEMENT,
+        AMOUNT_MISMATCH,
+        REVERSAL_MISMATCH,
+        DUPLICATE,
+        ORPHAN_REVERSAL
+    }
+
+    public static final class Mismatch {
+        private final Kind kind;
+        private final String key;
+        private final String detail;
+
+        private Mismatch(Kind kind, String key, String detail) {
+            this.kind = kind;
+            this.key = key;
+            this.detail = detail;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    /**
+     * Totales del journal para un código de proceso + moneda + terminal
+     */
+    public static final class GroupTotals {
+        private long transactions;
+        private long approvedCount;
+        private long approvedAmount;
+        private long timeouts;
+        private long reversedCount;
+        private long reversedAmount;
+        // Reversos confirmados sin original en el journal (se marcan en la conciliación)
+        private long orphanCount;
+        private long orphanAmount;
+
+        private GroupTotals plus(GroupTotals other) {
+            transactions += other.transactions;
+            approvedCount += other.approvedCount;
+            approvedAmount += other.approvedAmount;
+            timeouts += other.timeouts;
+            reversedCount += other.reversedCount;
+            reversedAmount += other.reversedAmount;
+            return this;
+        }
+
+        public long getApprovedCount() {
+            return approvedCount;
+        }
+
+        public long getApprovedAmount() {
+            return approvedAmount;
+        }
+
+        public long getReversedCount() {
+            return reversedCount;
+        }
+    }
+
+    private static final class Settled {
+        private long count;
+        private long amount;
+        private Long reversalCount;
+        private long reversalAmount;
+
+        private Settled plus(Settled other) {
+            count += other.count;
+            amount += other.amount;
+            if (other.reversalCount != null) {
+                reversalCount = (reversalCount == null ? 0 : reversalCount) + other.reversalCount;
+                reversalAmount += other.reversalAmount;
+            }
+            return this;
+        }
+    }
+
+    public static final class Report {
+        private final Path journal;
+        private final Path settlement;
+        private final Map<String, GroupTotals> groups;
+        private final List<Mismatch> mismatches;
+        private final long lines;
+        private final long malformed;
+        private final long elapsedNanos;
+
+        private Report(Path journal, Path settlement, Totals totals, List<Mismatch> mismatches, long elapsedNanos) {
+            this.journal = journal;
+            this.settlement = settlement;
+            this.groups = new TreeMap<>(totals.groups);
+            this.mismatches = mismatches;
+            this.lines = totals.lines;
+            this.malformed = totals.malformed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public boolean isBalanced() {
+            return mismatches.isEmpty();
+        }
+
+        /**
+         * Totales por "códigoProceso|moneda|terminal"
+         */
+        public Map<String, GroupTotals> getGroups() {
+            return groups;
+        }
+
+        public List<Mismatch> getMismatches() {
+            return mismatches;
+        }
+
+        public String toSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append("🧾 RECONCILIATION\n");
+            summary.append("─────────────────────────────────────────────────────\n");
+            summary.append(String.format("Journal:                 %s (%d lines, %d malformed, %d ms)\n",
+                    journal, lines, malformed, elapsedNanos / 1_000_000));
+            summary.append(String.format("Settlement:              %s\n",
+                    settlement != null ? settlement : "(none: duplicates and orphan reversals only)"));
+
+            summary.append(rollup("Processing code", 0));
+            summary.append(rollup("Currency", 1));
+            summary.append(String.format("%-26s %8s %8s %14s %8s %8s\n",
+                    "Proc|Cur|Terminal", "Txns", "Approved", "Amount", "Timeouts", "Reversed"));
+            int shown = 0;
+            for (Map.Entry<String, GroupTotals> entry : groups.entrySet()) {
+                if (shown++ == 30) {
+                    summary.append(String.format("  ... %d groups more\n", groups.size() - 30));
+                    break;
+                }
+                GroupTotals totals = entry.getValue();
+                summary.append(String.format("%-26s %8d %8d %14d %8d %8d\n", entry.getKey(), totals.transactions,
+                        totals.approvedCount, totals.approvedAmount, totals.timeouts, totals.reversedCount));
+            }
+
+            if (mismatches.isEmpty()) {
+                summary.append("Result:                  ✅ BALANCED\n");
+            } else {
+                Map<Kind, Integer> byKind = new TreeMap<>();
+                mismatches.forEach(mismatch -> byKind.merge(mismatch.kind, 1, Integer::sum));
+                summary.append(String.format("Result:                  ❌ %d mismatches %s\n", mismatches.size(), byKind));
+                mismatches.stream().limit(MAX_LISTED_MISMATCHES).forEach(mismatch -> summary.append(
+                        String.format("  %-22s %-26s %s\n", mismatch.kind, mismatch.key, mismatch.detail)));
+            }
+            return summary.toString();
+        }
+
+        private String rollup(String label, int keyPart) {
+            Map<String, long[]> totals = new TreeMap<>();
+            groups.forEach((key, group) -> {
+                long[] sums = totals.computeIfAbsent(key.split("\\|")[keyPart], k -> new long[2]);
+                sums[0] += group.approvedCount;
+                sums[1] += group.approvedAmount;
+            });
+            StringBuilder rollup = new StringBuilder();
+            totals.forEach((value, sums) -> rollup.append(String.format("%-16s %-8s approved %9d amount %d\n",
+                    label, value, sums[0], sums[1])));
+            return rollup.toString();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.iso8583.test.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Executor ordenado por clave: en serie por terminal (o cuenta), en paralelo entre claves
+ *
+ * La clave (terminalId, cuenta) se hashea a uno de {@code lanes} carriles.
+ * Cada carril es una cola FIFO que ejecuta de a una tarea, así una
+ * autorización y su completion, o un depósito y la consulta de saldo de la
+ * misma cuenta, salen en el orden en que se enviaron, sin lock global.
+ *
+ * Un carril con trabajo se agenda como una tarea en el executor y corre hasta
+ * {@link #TASKS_PER_TURN} tareas por turno; si le queda cola vuelve a
+ * agendarse, así un carril cargado no acapara un hilo. Por defecto los turnos
+ * corren en virtual threads, cuyo scheduler es un ForkJoinPool con work
+ * stealing: los carriles se reparten entre carriers libres y una tarea
+ * bloqueada en HTTP libera su carrier. Para trabajo solo de CPU se puede
+ * pasar un ForkJoinPool propio.
+ *
+ * Dos claves en el mismo carril también quedan en serie entre sí: con muchas
+ * más lanes que tareas concurrentes las colisiones son raras. Con
+ * {@link #perKey()} no hay colisiones: cada clave tiene su propio carril,
+ * que se crea con la primera tarea y se descarta cuando queda vacío (la
+ * memoria va con las claves activas, no con las vistas).
+ */
+public class KeyedOrderedExecutor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyedOrderedExecutor.class);
+
+    static final int TASKS_PER_TURN = 64;
+    private static final int TOP_LANES = 5;
+
+    private final Lane[] lanes;
+    private final int mask;
+    // Modo por clave (lanes == null): carriles vivos por clave exacta
+    private final ConcurrentHashMap<String, Lane> lanesByKey;
+    private final LongAdder lanesCreated = new LongAdder();
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition idle = idleLock.newCondition();
+    private volatile boolean closed;
+
+    /**
+     * Carriles sobre virtual threads (redondeado a potencia de 2)
+     */
+    public KeyedOrderedExecutor(int lanes) {
+        this(lanes, null);
+    }
+
+    /**
+     * Carriles sobre el executor indicado (null = virtual threads, que se cierran con {@link #close()})
+     */
+    public KeyedOrderedExecutor(int lanes, Executor executor) {
+        if (lanes <= 0) {
+            throw new IllegalArgumentException("Se necesita al menos un carril: " + lanes);
+        }
+        int size = lanes == 1 ? 1 : Integer.highestOneBit(lanes - 1) << 1;
+        this.lanes = new Lane[size];
+        for (int i = 0; i < size; i++) {
+            this.lanes[i] = new Lane(i);
+        }
+        this.mask = size - 1;
+        this.lanesByKey = null;
+        this.ownedExecutor = executor == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.executor = executor == null ? ownedExecutor : executor;
+    }
+
+    private KeyedOrderedExecutor(Executor executor) {
+        this.lanes = null;
+        this.mask = 0;
+        this.lanesByKey = new ConcurrentHashMap<>();
+        this.ownedExecutor = executor == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.executor = executor == null ? ownedExecutor : executor;
+    }
+
+    /**
+     * Un carril por clave exacta sobre virtual threads: claves distintas nunca se esperan
+     */
+    public static KeyedOrderedExecutor perKey() {
+        return new KeyedOrderedExecutor(null);
+    }
+
+    // ============================================================================
+    // ENVÍO
+    // ============================================================================
+
+    /**
+     * Encola {@code task} detrás de lo pendiente de la misma clave
+     *
+     * El future se completa con el resultado o la excepción de la tarea; una
+     * tarea que falla no frena al resto de su carril.
+     */
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> task) {
+        if (closed) {
+            throw new RejectedExecutionException("Executor ordenado cerrado");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable wrapped = () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                failed.increment();
+                future.completeExceptionally(e);
+            }
+        };
+        pending.incrementAndGet();
+        submitted.increment();
+        if (lanesByKey == null) {
+            Lane lane = lanes[laneOf(key)];
+            lane.add(wrapped);
+            lane.schedule();
+        } else {
+            // Dentro del compute: el carril no puede retirarse entre buscarlo y encolar
+            Lane lane = lanesByKey.compute(key == null ? "" : key, (k, current) -> {
+                Lane target = current;
+                if (target == null) {
+                    target = new Lane(k);
+                    lanesCreated.increment();
+                }
+                target.add(wrapped);
+                return target;
+            });
+            lane.schedule();
+        }
+        return future;
+    }
+
+    public CompletableFuture<Void> execute(String key, Runnable task) {
+        return submit(key, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    int laneOf(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // El hashCode de terminalIds parecidos difiere en los bits bajos: se mezclan los altos
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+
+    /**
+     * Espera a que no quede nada encolado ni corriendo
+     *
+     * @return false si venció el plazo
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        idleLock.lock();
+        try {
+            while (pending.get() > 0) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = idle.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    /**
+     * Deja de aceptar tareas, espera las pendientes y cierra los virtual threads propios
+     */
+    @Override
+    public void close() {
+        closed = true;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                awaitIdle(Duration.ofNanos(Long.MAX_VALUE));
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+        logger.debug("🛤️ Executor ordenado cerrado: {} tareas en {} carriles", getSubmitted(),
+                lanes != null ? lanes.length : lanesCreated.sum());
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void onTaskDone() {
+        if (pending.decrementAndGet() == 0) {
+            idleLock.lock();
+            try {
+                idle.signalAll();
+            } finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    // ============================================================================
+    // CARRIL
+    // ============================================================================
+
+    /**
+     * Cola FIFO de un carril; {@code scheduled} garantiza un solo turno a la vez
+     */
+    private final class Lane {
+        private final int index;
+        private final String key;
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final LongAdder executed = new LongAdder();
+
+        private Lane(int index) {
+            this.index = index;
+            this.key = null;
+        }
+
+        private Lane(String key) {
+            this.index = -1;
+            this.key = key;
+        }
+
+        void add(Runnable task) {
+            queue.add(task);
+            maxDepth.accumulate(depth.incrementAndGet());
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::runTurn);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        private void runTurn() {
+            turns.increment();
+            for (int i = 0; i < TASKS_PER_TURN; i++) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    break;
+                }
+                depth.decrementAndGet();
+                boolean retired = false;
+                try {
+                    task.run();
+                } finally {
+                    executed.increment();
+                    // Antes de contar la tarea como hecha: awaitIdle ya no ve carriles vacíos
+                    retired = key != null && queue.isEmpty() && retireIfEmpty();
+                    onTaskDone();
+                }
+                if (retired) {
+                    return;
+                }
+            }
+            scheduled.set(false);
+            // Una tarea pudo llegar entre el último poll y soltar el turno
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Saca el carril del mapa si no le queda nada; un submit concurrente de la
+         * misma clave espera al compute y, si llega después, crea un carril nuevo
+         */
+        private boolean retireIfEmpty() {
+            AtomicBoolean retired = new AtomicBoolean();
+            lanesByKey.computeIfPresent(key, (k, current) -> {
+                if (current == this && queue.isEmpty()) {
+                    retired.set(true);
+                    return null;
+                }
+                return current;
+            });
+            return retired.get();
+        }
+    }
+
+    // ============================================================================
+    // MÉTRICAS
+    // ============================================================================
+
+    /**
+     * Carriles fijos, o en modo por clave los que tienen trabajo ahora
+     */
+    public int getLaneCount() {
+        return lanes != null ? lanes.length : lanesByKey.size();
+    }
+
+    public long getPending() {
+        return pending.get();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("🛤️ KEYED ORDERED EXECUTOR\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        if (lanes == null) {
+            summary.append(String.format("Lanes per key (created): %9d (%d)\n", lanesByKey.size(), lanesCreated.sum()));
+        } else {
+            long used = Arrays.stream(lanes).filter(lane -> lane.executed.sum() > 0).count();
+            summary.append(String.format("Lanes (used):            %9d (%d)\n", lanes.length, used));
+        }
+        summary.append(String.format("Submitted / failed:      %9d / %d\n", getSubmitted(), getFailed()));
+        summary.append(String.format("Turns / pending:         %9d / %d\n", turns.sum(), getPending()));
+        summary.append(String.format("Max lane depth:          %9d\n", getMaxDepth()));
+        if (lanes == null) {
+            return summary.toString();
+        }
+        summary.append("Busiest lanes:\n");
+        IntStream.range(0, lanes.length)
+                .mapToObj(i -> lanes[i])
+                .filter(lane -> lane.executed.sum() > 0)
+                .sorted(Comparator.comparingLong((Lane lane) -> lane.executed.sum()).reversed())
+                .limit(TOP_LANES)
+                .forEach(lane -> summary.append(String.format("  lane %5d  tasks %9d\n",
+                        lane.index, lane.executed.sum())));
+        return summary.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KeyedOrderedExecutor[lanes=%s, pending=%d]",
+                lanes != null ? String.valueOf(lanes.length) : "per-key", getPending());
+    }
+}
@@ -0,0 +1,116 @@
+package com.iso8583.test.performance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Executor ordenado: orden por clave, paralelismo entre claves, fallas y carriles por clave
+ */
+class KeyedOrderedExecutorTest {
+
+    @Test
+    void respetaElOrdenDeCadaClave() throws Exception {
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        try (KeyedOrderedExecutor executor = KeyedOrderedExecutor.perKey()) {
+            for (int i = 0; i < 2_000; i++) {
+                String key = "T" + (i % 37);
+                int sequence = i;
+                executor.execute(key, () -> seen.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(sequence));
+            }
+            assertThat(executor.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        }
+
+        assertThat(seen).hasSize(37);
+        seen.values().forEach(sequences -> assertThat(sequences).isSorted());
+    }
+
+    @Test
+    void porClaveUnaClaveTrabadaNoFrenaALasDemas() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (KeyedOrderedExecutor executor = KeyedOrderedExecutor.perKey()) {
+            executor.execute("A", () -> await(release));
+
+            CompletableFuture<String> other = executor.submit("B", () -> "B");
+
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("B");
+            release.countDown();
+        }
+    }
+
+    @Test
+    void conCarrilesHasheadosDosClavesDelMismoCarrilVanEnSerie() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (KeyedOrderedExecutor executor = new KeyedOrderedExecutor(1)) {
+            executor.execute("A", () -> await(release));
+
+            CompletableFuture<String> other = executor.submit("B", () -> "B");
+
+            Thread.sleep(100);
+            assertThat(other).isNotDone();
+            release.countDown();
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("B");
+        }
+    }
+
+    @Test
+    void unaTareaQueFallaNoFrenaSuCarril() throws Exception {
+        List<String> ran = new ArrayList<>();
+        try (KeyedOrderedExecutor executor = KeyedOrderedExecutor.perKey()) {
+            CompletableFuture<Object> failing = executor.submit("A", () -> {
+                throw new IllegalStateException("falla");
+            });
+            CompletableFuture<Void> next = executor.execute("A", () -> ran.add("siguiente"));
+
+            next.get(5, TimeUnit.SECONDS);
+            assertThatThrownBy(failing::get).isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(executor.getFailed()).isEqualTo(1);
+        }
+        assertThat(ran).containsExactly("siguiente");
+    }
+
+    @Test
+    void losCarrilesPorClaveSeDescartanAlQuedarVacios() throws Exception {
+        try (KeyedOrderedExecutor executor = KeyedOrderedExecutor.perKey()) {
+            for (int i = 0; i < 10_000; i++) {
+                executor.execute("T" + i, () -> { });
+            }
+            assertThat(executor.awaitIdle(Duration.ofSeconds(10))).isTrue();
+
+            assertThat(executor.getLaneCount()).isZero();
+            assertThat(executor.getSubmitted()).isEqualTo(10_000);
+            assertThat(executor.toSummary()).contains("(10000)");
+        }
+    }
+
+    @Test
+    void rechazaTareasDespuesDeCerrar() {
+        KeyedOrderedExecutor executor = new KeyedOrderedExecutor(8);
+        executor.close();
+
+        assertThatThrownBy(() -> executor.execute("A", () -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
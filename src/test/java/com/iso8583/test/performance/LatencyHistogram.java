@@ -0,0 +1,226 @@
+package com.iso8583.test.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias de memoria fija para pruebas de carga
+ *
+ * Buckets log-lineales en microsegundos (error relativo &lt; 3%): el tamaño
+ * no depende de cuántas transacciones se registren, por eso sirve tanto
+ * para ventanas cortas como para corridas de horas.
+ *
+ * ✅ Thread-safe sin locks (AtomicLongArray)
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    // Valor máximo registrable: ~12 días en microsegundos
+    private static final long MAX_TRACKABLE_MICROS = (1L << 40) - 1;
+    private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    private final AtomicLong minMicros = new AtomicLong(Long.MAX_VALUE);
+
+    // ============================================================================
+    // REGISTRO
+    // ============================================================================
+
+    public void recordNanos(long nanos) {
+        recordMicros(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void recordMillis(long millis) {
+        recordMicros(TimeUnit.MILLISECONDS.toMicros(millis));
+    }
+
+    public void recordMicros(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_TRACKABLE_MICROS));
+
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+        minMicros.accumulateAndGet(value, Math::min);
+    }
+
+    /**
+     * Suma los conteos de otro histograma (ventanas, workers, procesos)
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalMicros.addAndGet(other.totalMicros.get());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+        minMicros.accumulateAndGet(other.minMicros.get(), Math::min);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+        minMicros.set(Long.MAX_VALUE);
+    }
+
+    // ============================================================================
+    // CONSULTA
+    // ============================================================================
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public long getMinMicros() {
+        return totalCount.get() == 0 ? 0 : minMicros.get();
+    }
+
+    public double getMeanMicros() {
+        long count = totalCount.get();
+        return count == 0 ? 0.0 : (double) totalMicros.get() / count;
+    }
+
+    /**
+     * Valor (límite superior del bucket) bajo el cual cae el percentil indicado
+     *
+     * @param percentile valor entre 0 y 100
+     */
+    public long getValueAtPercentileMicros(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil((percentile / 100.0) * count));
+        long accumulated = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += counts.get(i);
+            if (accumulated >= target) {
+                return Math.min(bucketUpperBound(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    public long getValueAtPercentileMillis(double percentile) {
+        return TimeUnit.MICROSECONDS.toMillis(getValueAtPercentileMicros(percentile));
+    }
+
+    /**
+     * Copia independiente del estado actual
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    // ============================================================================
+    // SNAPSHOT (TRANSPORTE ENTRE PROCESOS)
+    // ============================================================================
+
+    /**
+     * Exporta solo los buckets con conteo (el histograma suele ser muy disperso)
+     */
+    public Snapshot toSnapshot() {
+        List<Integer> indexes = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                indexes.add(i);
+                values.add(count);
+            }
+        }
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.buckets = indexes.stream().mapToInt(Integer::intValue).toArray();
+        snapshot.counts = values.stream().mapToLong(Long::longValue).toArray();
+        snapshot.totalCount = totalCount.get();
+        snapshot.totalMicros = totalMicros.get();
+        snapshot.minMicros = getMinMicros();
+        snapshot.maxMicros = maxMicros.get();
+        return snapshot;
+    }
+
+    public static LatencyHistogram fromSnapshot(Snapshot snapshot) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (snapshot == null || snapshot.totalCount == 0) {
+            return histogram;
+        }
+        if (snapshot.buckets.length != snapshot.counts.length) {
+            throw new IllegalArgumentException("Snapshot de histograma inconsistente");
+        }
+        for (int i = 0; i < snapshot.buckets.length; i++) {
+            int bucket = snapshot.buckets[i];
+            if (bucket < 0 || bucket >= BUCKET_COUNT) {
+                throw new IllegalArgumentException("Bucket fuera de rango: " + bucket);
+            }
+            histogram.counts.addAndGet(bucket, snapshot.counts[i]);
+        }
+        histogram.totalCount.set(snapshot.totalCount);
+        histogram.totalMicros.set(snapshot.totalMicros);
+        histogram.minMicros.set(snapshot.minMicros);
+        histogram.maxMicros.set(snapshot.maxMicros);
+        return histogram;
+    }
+
+    /**
+     * Forma serializable (Gson) del histograma
+     */
+    public static class Snapshot {
+        private int[] buckets = new int[0];
+        private long[] counts = new long[0];
+        private long totalCount;
+        private long totalMicros;
+        private long minMicros;
+        private long maxMicros;
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+    }
+
+    // ============================================================================
+    // CÁLCULO DE BUCKETS
+    // ============================================================================
+
+    private static int bucketIndex(long value) {
+        if (value < 2L * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int top = (int) (value >>> shift);
+        return shift * SUB_BUCKET_COUNT + top;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long top = SUB_BUCKET_COUNT + (index % SUB_BUCKET_COUNT);
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,115 @@
+package com.iso8583.test.performance;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Histograma log-lineal: exactitud de percentiles, merge y snapshot
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void histogramaVacioDevuelveCeros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMinMicros()).isZero();
+        assertThat(histogram.getMaxMicros()).isZero();
+        assertThat(histogram.getMeanMicros()).isZero();
+        assertThat(histogram.getValueAtPercentileMicros(99)).isZero();
+    }
+
+    @Test
+    void valoresChicosSonExactos() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 0; micros < 64; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        assertThat(histogram.getValueAtPercentileMicros(50)).isEqualTo(31);
+        assertThat(histogram.getValueAtPercentileMicros(100)).isEqualTo(63);
+        assertThat(histogram.getMinMicros()).isZero();
+    }
+
+    @Test
+    void percentilesDentroDelErrorRelativo() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        for (double percentile : new double[]{50, 90, 95, 99, 99.9}) {
+            double expected = percentile * 1_000;
+            assertThat((double) histogram.getValueAtPercentileMicros(percentile))
+                    .as("p%s", percentile)
+                    .isCloseTo(expected, within(expected * 0.03));
+        }
+        assertThat(histogram.getValueAtPercentileMicros(100)).isEqualTo(100_000);
+        assertThat(histogram.getMeanMicros()).isCloseTo(50_000.5, within(0.01));
+    }
+
+    @Test
+    void valoresFueraDeRangoSeRecortan() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(-5);
+        histogram.recordMicros(Long.MAX_VALUE);
+
+        assertThat(histogram.getMinMicros()).isZero();
+        assertThat(histogram.getMaxMicros()).isEqualTo((1L << 40) - 1);
+        assertThat(histogram.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void addSumaConteosYExtremos() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 900; i++) {
+            fast.recordMillis(10);
+        }
+        for (int i = 0; i < 100; i++) {
+            slow.recordMillis(500);
+        }
+
+        LatencyHistogram merged = fast.copy();
+        merged.add(slow);
+
+        assertThat(merged.getCount()).isEqualTo(1_000);
+        assertThat(merged.getValueAtPercentileMillis(50)).isEqualTo(10);
+        assertThat(merged.getValueAtPercentileMillis(95)).isEqualTo(500);
+        assertThat(merged.getMinMicros()).isEqualTo(10_000);
+        assertThat(fast.getCount()).as("copy no comparte estado").isEqualTo(900);
+    }
+
+    @Test
+    void snapshotSobreviveAJson() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 50_000; micros += 7) {
+            histogram.recordMicros(micros);
+        }
+
+        Gson gson = new Gson();
+        LatencyHistogram restored = LatencyHistogram.fromSnapshot(
+                gson.fromJson(gson.toJson(histogram.toSnapshot()), LatencyHistogram.Snapshot.class));
+
+        assertThat(restored.getCount()).isEqualTo(histogram.getCount());
+        assertThat(restored.getMinMicros()).isEqualTo(histogram.getMinMicros());
+        assertThat(restored.getMaxMicros()).isEqualTo(histogram.getMaxMicros());
+        for (double percentile : new double[]{50, 99, 99.99}) {
+            assertThat(restored.getValueAtPercentileMicros(percentile))
+                    .isEqualTo(histogram.getValueAtPercentileMicros(percentile));
+        }
+    }
+
+    @Test
+    void snapshotInconsistenteSeRechaza() {
+        LatencyHistogram.Snapshot snapshot = new Gson().fromJson(
+                "{\"buckets\":[1,2],\"counts\":[5],\"totalCount\":5}", LatencyHistogram.Snapshot.class);
+
+        assertThatThrownBy(() -> LatencyHistogram.fromSnapshot(snapshot))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
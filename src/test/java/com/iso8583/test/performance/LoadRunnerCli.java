@@ -0,0 +1,845 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.client.ISO8583ApiClient;
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.config.IdentityLeasePool;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.services.ConnectionService;
+import com.iso8583.test.services.ReversalManager;
+import com.iso8583.test.services.StoreAndForwardQueue;
+import com.iso8583.test.services.TransactionService;
+import com.iso8583.test.mock.MockAuthorizerServer;
+import com.iso8583.test.stub.EmbeddedSimulatorStub;
+import com.iso8583.test.utils.TestCoverageReporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Punto de entrada standalone para disparar una carga desde la terminal,
+ * sin Surefire ni el motor de Cucumber.
+ *
+ * Reutiliza ConfigurationManager, ISO8583ApiClient y TransactionService
+ * (en modo carga) sobre el scheduler de modelo abierto.
+ *
+ * Uso:
+ *   mvn -Pload-runner test-compile exec:java \
+ *       -Dexec.args="--workload PURCHASE:70,BALANCE_INQUIRY:30 --rate 50 --duration 5m \
+ *                    --base-url http://simulador:8081 --journal target/load/journal.jsonl"
+ *
+ * Captura y replay (ver {@link TrafficReplayer}):
+ *   --capture target/load/day.capture.jsonl   (captura el tráfico de esta corrida)
+ *   --replay target/load/day.capture.jsonl --speed 5x
+ *
+ * Carga distribuida (ver {@link DistributedLoadCoordinator}):
+ *   coordinador: --workers 4 [--remote-workers 2 --coordinator-port 7600] + las opciones de siempre
+ *   worker remoto: --worker host-coordinador:7600
+ *
+ * Simulador embebido (ver {@link EmbeddedSimulatorStub}), ej. para medir el batching de /process:
+ *   --stub 0 --set client.batching.enabled=true
+ * o para ver cómo aguantan timeouts, reintentos y reconexión bajo fallas programadas:
+ *   --stub 0 --set simulator.stub.fault.schedule=0s:none,30s:degraded,60s:storm-91,90s:none
+ * o para verificar conservación de fondos con miles de movimientos concurrentes:
+ *   --stub 0 --workload DEPOSIT:20,TRANSFER:40,PURCHASE:30,BALANCE_INQUIRY:10 \
+ *            --set simulator.stub.ledger.enabled=true
+ *
+ * Autorizador mock del canal nativo (ver {@link MockAuthorizerServer}), para apuntar
+ * el canal TCP del simulador en modo REAL a un autorizador en proceso:
+ *   --mock-authorizer 9000 --set mock.authorizer.response-codes=00:95,51:5
+ *
+ * Flota de terminales virtuales (ver {@link VirtualTerminalFleet}): la misma tasa repartida en
+ * miles de terminales, cada una con su STAN, tarjetas y keep-alive:
+ *   --terminals 5000 --rate 200 --duration 10m --set performance.terminals.keep-alive-seconds=30
+ *
+ * Orden causal por terminal o por cuenta con la carga en paralelo (ver {@link KeyedOrderedExecutor}),
+ * un carril por clave; solo en el modelo abierto (la flota de --terminals ya ordena por terminal)
+ * y con un workload de una sola clave todo corre en serie (se avisa al arrancar).
+ * Ej. depósitos seguidos de consultas de saldo sobre el ledger del stub:
+ *   --stub 0 --order-by account --workload DEPOSIT:50,BALANCE_INQUIRY:50 --set simulator.stub.ledger.enabled=true
+ *
+ * Tarjetas Luhn-válidas pre-generadas (ver {@link CardGenerator}): se graban una vez a un
+ * archivo mapeado y la carga (local o distribuida, cada worker en su tramo) las lee de ahí:
+ *   --generate-cards 1000000 --cards target/load/cards.dat
+ *   --cards target/load/cards.dat + las opciones de siempre
+ *
+ * Conciliación del journal contra el export de liquidación del autorizador
+ * (ver {@link JournalReconciler}), después de la corrida o sobre un journal ya grabado:
+ *   --journal target/load/journal.jsonl --settlement settlement.csv + las opciones de siempre
+ *   --reconcile target/load/journal.jsonl --settlement settlement.csv
+ *
+ * Códigos de salida: 0 OK, 1 argumentos inválidos, 2 tasa de error sobre --max-error-rate,
+ * 3 el ledger del simulador embebido no conserva los fondos, 4 la conciliación tiene desvíos
+ */
+public final class LoadRunnerCli {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_USAGE = 1;
+    static final int EXIT_THRESHOLD = 2;
+    static final int EXIT_LEDGER = 3;
+    static final int EXIT_RECONCILE = 4;
+
+    // Transacciones del workload que se miran para avisar que --order-by tiene una sola clave
+    private static final int ORDERING_KEY_SAMPLE = 256;
+
+    private static final String USAGE = String.join("\n",
+            "Uso: LoadRunnerCli --workload <TIPO[:peso],...> --rate <tps> --duration <90s|5m|1h> [opciones]",
+            "",
+            "  --workload <spec>        Tipos de transacción, ej. PURCHASE o PURCHASE:70,BALANCE_INQUIRY:30",
+            "  --rate <tps>             Tasa de llegadas (modelo abierto)",
+            "  --duration <d>           Duración: segundos o con sufijo s/m/h",
+            "  --base-url <url[,url]>   URL(s) del simulador (por defecto simulator.base-url)",
+            "  --journal <archivo>      Journal JSON Lines de cada transacción",
+            "  --max-in-flight <n>      Máximo de transacciones en vuelo (por defecto 500)",
+            "  --report-every <s>       Segundos entre reportes de progreso (por defecto 10, 0 = nunca)",
+            "  --max-error-rate <pct>   Sale con código 2 si la tasa de error supera este porcentaje",
+            "  --set <clave=valor>      Override de cualquier propiedad de configuración (repetible)",
+            "  --capture <archivo>      Captura cada request enviado (para replay)",
+            "  --stub <puerto>          Levanta el simulador embebido (0 = puerto libre) y apunta la carga a él",
+            "  --mock-authorizer <p>    Levanta el autorizador ISO8583 mock (canal nativo TCP) en ese puerto",
+            "  --settlement <archivo>   Export de liquidación (CSV) para conciliar el journal al terminar",
+            "  --terminals <n>          Reparte la tasa en n terminales virtuales (STAN, tarjetas y echo propios)",
+            "  --order-by <clave>       terminal o account: en serie por clave, en paralelo entre claves (no con --terminals)",
+            "  --cards <archivo>        Toma PAN y track 2 del archivo de tarjetas pre-generado (también con --terminals)",
+            "",
+            "Conciliación (en lugar de --workload/--rate/--duration):",
+            "  --reconcile <journal>    Concilia un journal ya grabado (con --settlement, o solo duplicados/huérfanos)",
+            "",
+            "Generación de tarjetas (en lugar de --workload/--rate/--duration):",
+            "  --generate-cards <n>     Graba n tarjetas en el archivo de --cards (performance.cards.*) y sale",
+            "",
+            "Replay (en lugar de --workload/--rate/--duration):",
+            "  --replay <archivo>       Re-envía una captura respetando el orden por terminal",
+            "  --speed <v>              1x (original), 2x, 5x, max o compress:500ms (por defecto 1x)",
+            "",
+            "Carga distribuida:",
+            "  --workers <n>            JVMs worker a arrancar en este host (modo coordinador)",
+            "  --remote-workers <n>     Workers adicionales que se conectan desde otros hosts",
+            "  --coordinator-port <p>   Puerto del coordinador (por defecto uno libre)",
+            "  --worker <host:puerto>   Modo worker: se registra con el coordinador y ejecuta su parte",
+            "  --help                   Muestra esta ayuda");
+
+    private LoadRunnerCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if (options.help) {
+            System.out.println(USAGE);
+            return EXIT_OK;
+        }
+
+        EmbeddedSimulatorStub stub = null;
+        if (options.stubPort != null) {
+            try {
+                stub = new EmbeddedSimulatorStub(options.stubPort, new ConfigurationManager(options.overrides)).start();
+            } catch (IOException e) {
+                System.err.println("❌ No se pudo levantar el simulador embebido: " + e.getMessage());
+                return EXIT_USAGE;
+            }
+            options.overrides.setProperty("simulator.base-url", stub.getBaseUrl());
+            options.overrides.setProperty("simulator.base-urls", stub.getBaseUrl());
+        }
+
+        MockAuthorizerServer mockAuthorizer = null;
+        if (options.mockAuthorizerPort != null) {
+            options.overrides.setProperty("mock.authorizer.port", String.valueOf(options.mockAuthorizerPort));
+            try {
+                mockAuthorizer = MockAuthorizerServer.fromConfig(new ConfigurationManager(options.overrides));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("❌ No se pudo levantar el autorizador mock: " + e.getMessage());
+                if (stub != null) {
+                    stub.stop();
+                }
+                return EXIT_USAGE;
+            }
+        }
+
+        try {
+            int exitCode = dispatch(options);
+            if (stub != null && stub.getLedger() != null && !stub.getLedger().verify().isConsistent()) {
+                System.err.println("❌ El ledger del simulador embebido no conserva los fondos");
+                return EXIT_LEDGER;
+            }
+            return exitCode;
+        } finally {
+            if (stub != null) {
+                System.out.println(stub.toSummary());
+                stub.stop();
+            }
+            if (mockAuthorizer != null) {
+                System.out.println(mockAuthorizer.toSummary());
+                try {
+                    mockAuthorizer.close();
+                } catch (IOException e) {
+                    System.err.println("⚠️ Error cerrando el autorizador mock: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static int dispatch(Options options) {
+        if (options.workerOf != null) {
+            return runWorker(options);
+        }
+        if (options.replayFile != null) {
+            return runReplay(options);
+        }
+        if (options.reconcileFile != null) {
+            return runReconcile(options.reconcileFile, options.settlementFile);
+        }
+        if (options.generateCards > 0) {
+            return runGenerateCards(options);
+        }
+        if (options.localWorkers > 0 || options.remoteWorkers > 0) {
+            return runCoordinator(options);
+        }
+        return runLocal(options);
+    }
+
+    private static int runLocal(Options options) {
+        ConfigurationManager config = new ConfigurationManager(options.overrides);
+        ISO8583ApiClient apiClient = new ISO8583ApiClient(config);
+        TransactionService transactionService = new TransactionService(apiClient);
+        transactionService.setLoadMode(true);
+        DuplicateDetector duplicates = DuplicateDetector.fromConfig(config);
+        transactionService.setDuplicateDetector(duplicates);
+
+        Supplier<TransactionRequest> workload;
+        try {
+            workload = Workloads.mix(config, options.workload);
+            String cardFile = config.getProperty("performance.cards.file", "");
+            if (!cardFile.isBlank()) {
+                CardFile cards = CardFile.open(Path.of(cardFile.trim()));
+                workload = cards.decorate(workload, 0, cards.size());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            return EXIT_USAGE;
+        }
+
+        ConnectionService connectionService = new ConnectionService(config);
+        connectionService.ensureConnection();
+        if (!connectionService.isConnected()) {
+            System.err.println("⚠️ No se pudo conectar a " + config.getBaseUrl() + " - se continúa igual");
+        }
+
+        VirtualTerminalFleet fleet = null;
+        if (options.terminals > 0) {
+            try {
+                fleet = VirtualTerminalFleet.builder(config)
+                        .terminalCount(options.terminals)
+                        .transactionService(transactionService)
+                        .workload(workload)
+                        .rateTps(options.rateTps)
+                        .build();
+            } catch (IllegalArgumentException | UncheckedIOException e) {
+                System.err.println("❌ " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+
+        // Con test.data.identities.enabled cada transacción en vuelo toma una tarjeta + cuentas exclusivas
+        IdentityLeasePool identities = IdentityLeasePool.fromConfig(config);
+        if (identities != null) {
+            if (fleet != null) {
+                // Las terminales virtuales ya usan tarjetas propias (CardGenerator / --cards), no las del pool
+                System.err.println("❌ test.data.identities no se combina con --terminals: la flota tiene tarjetas propias");
+                return EXIT_USAGE;
+            }
+            if (!config.getProperty("performance.cards.file", "").isBlank()) {
+                // El lease pisaría el PAN del archivo: dos fuentes de tarjetas, una sola gana en silencio
+                System.err.println("❌ test.data.identities no se combina con --cards: elegir una sola fuente de tarjetas");
+                return EXIT_USAGE;
+            }
+            if (identities.size() < options.maxInFlight) {
+                System.err.printf("⚠️ %d identidades para --max-in-flight %d: la concurrencia queda limitada "
+                        + "al tamaño del pool (la espera por identidad cuenta como latencia)%n",
+                        identities.size(), options.maxInFlight);
+            }
+        }
+
+        KeyedOrderedExecutor ordered = null;
+        if (options.orderBy != null) {
+            if (!"terminal".equals(options.orderBy) && !"account".equals(options.orderBy)) {
+                System.err.println("❌ --order-by debe ser terminal o account: " + options.orderBy);
+                return EXIT_USAGE;
+            }
+            if (fleet != null) {
+                // Cada terminal virtual ya envía en serie desde su hilo; el orden por cuenta no aplica ahí
+                System.err.println("❌ --order-by no se combina con --terminals: la flota ya ordena por terminal");
+                return EXIT_USAGE;
+            }
+            warnIfSingleOrderingKey(options.orderBy, workload);
+            ordered = KeyedOrderedExecutor.perKey();
+        }
+
+        LoadWindow total;
+        long dropped;
+        VirtualTerminalFleet.FleetResult fleetResult;
+        TransactionJournal journal = null;
+        TrafficCapture capture = null;
+        ReversalManager reversals = ReversalManager.fromConfig(config, apiClient);
+        transactionService.setReversalManager(reversals);
+        StoreAndForwardQueue storeAndForward = StoreAndForwardQueue.fromConfig(config, apiClient, connectionService);
+        transactionService.setStoreAndForward(storeAndForward);
+        if (reversals != null) {
+            reversals.setStoreAndForward(storeAndForward);
+        }
+        try {
+            if (options.journal != null) {
+                journal = new TransactionJournal(options.journal);
+                if (reversals != null) {
+                    reversals.setJournal(journal);
+                }
+            }
+            if (options.captureFile != null) {
+                capture = new TrafficCapture(options.captureFile);
+                transactionService.setTrafficCapture(capture);
+            }
+            RunOutcome outcome = execute(options, transactionService, workload, journal, fleet, ordered, identities);
+            total = outcome.total;
+            dropped = outcome.dropped;
+            fleetResult = outcome.fleetResult;
+        } catch (IOException e) {
+            System.err.println("❌ No se pudo abrir el journal o la captura: " + e.getMessage());
+            return EXIT_USAGE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("❌ Carga interrumpida");
+            return EXIT_USAGE;
+        } finally {
+            if (ordered != null) {
+                ordered.close();
+            }
+            if (reversals != null) {
+                // Antes de los resúmenes: los reversos pendientes terminan de salir
+                reversals.close();
+            }
+            if (storeAndForward != null) {
+                storeAndForward.close();
+            }
+            // Los /process pendientes del micro-batcher salen antes del resumen
+            apiClient.close();
+            if (capture != null) {
+                try {
+                    capture.close();
+                } catch (IOException e) {
+                    System.err.println("⚠️ Error cerrando la captura: " + e.getMessage());
+                }
+            }
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("⚠️ Error cerrando el journal: " + e.getMessage());
+                }
+            }
+        }
+
+        System.out.println(summary(options, config, total, dropped, journal));
+        if (fleetResult != null) {
+            System.out.println(fleetResult.toSummary());
+        }
+        if (ordered != null) {
+            System.out.println(ordered.toSummary());
+        }
+        if (identities != null) {
+            System.out.println(identities.toSummary());
+        }
+        System.out.println(apiClient.getRetryPolicy().toSummary());
+        if (apiClient.getLoadBalancer().getNodes().size() > 1) {
+            System.out.println(apiClient.getLoadBalancer().toSummary());
+        }
+        if (apiClient.getThrottling().isEnabled()) {
+            System.out.println(apiClient.getThrottling().toSummary());
+        }
+        if (apiClient.getCircuitBreakers().isEnabled()) {
+            System.out.println(apiClient.getCircuitBreakers().toSummary());
+        }
+        if (apiClient.getBalanceInquiryHedging().isEnabled()) {
+            System.out.println(apiClient.getBalanceInquiryHedging().toSummary());
+        }
+        if (apiClient.isBatchingEnabled()) {
+            System.out.println(apiClient.getProcessBatcher().toSummary());
+        }
+        if (apiClient.getRecordReplay().getStore() != null) {
+            System.out.println(apiClient.getRecordReplay().getStore().toSummary());
+        }
+        if (duplicates != null) {
+            System.out.println(duplicates.toSummary());
+        }
+        if (reversals != null) {
+            System.out.println(reversals.toSummary());
+        }
+        if (storeAndForward != null) {
+            System.out.println(storeAndForward.toSummary());
+        }
+
+        if (options.maxErrorRatePercent != null && total.getErrorRate() * 100 > options.maxErrorRatePercent) {
+            System.err.printf("❌ Tasa de error %.2f%% supera el máximo %.2f%%%n",
+                    total.getErrorRate() * 100, options.maxErrorRatePercent);
+            return EXIT_THRESHOLD;
+        }
+        if (options.settlementFile != null && options.journal != null) {
+            return runReconcile(options.journal, options.settlementFile);
+        }
+        return EXIT_OK;
+    }
+
+    // ============================================================================
+    // CONCILIACIÓN
+    // ============================================================================
+
+    private static int runReconcile(Path journal, Path settlement) {
+        JournalReconciler.Report report;
+        try {
+            report = JournalReconciler.reconcile(journal, settlement);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("❌ Conciliación falló: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        System.out.println(report.toSummary());
+        return report.isBalanced() ? EXIT_OK : EXIT_RECONCILE;
+    }
+
+    // ============================================================================
+    // TARJETAS
+    // ============================================================================
+
+    private static int runGenerateCards(Options options) {
+        ConfigurationManager config = new ConfigurationManager(options.overrides);
+        String cardFile = config.getProperty("performance.cards.file", "");
+        if (cardFile.isBlank()) {
+            System.err.println("❌ --generate-cards necesita --cards <archivo>");
+            return EXIT_USAGE;
+        }
+        try {
+            CardGenerator generator = CardGenerator.fromConfig(config);
+            Path file = Path.of(cardFile.trim());
+            generator.pregenerate(file, options.generateCards);
+            System.out.printf("💳 %d tarjetas en %s (primera %s)%n",
+                    options.generateCards, file, generator.track2(0));
+            return EXIT_OK;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("❌ Generación de tarjetas falló: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+    }
+
+    // ============================================================================
+    // REPLAY
+    // ============================================================================
+
+    private static int runReplay(Options options) {
+        ConfigurationManager config = new ConfigurationManager(options.overrides);
+        ISO8583ApiClient apiClient = new ISO8583ApiClient(config);
+        TransactionService transactionService = new TransactionService(apiClient);
+        transactionService.setLoadMode(true);
+        new ConnectionService(config).ensureConnection();
+
+        TrafficReplayer.ReplayResult result;
+        try (apiClient) {
+            TrafficReplayer replayer = new TrafficReplayer(transactionService,
+                    ReplayTiming.parse(options.replaySpeed),
+                    config.getIntProperty("performance.replay.max-outstanding", options.maxInFlight),
+                    Duration.ofMillis(config.getLongProperty("performance.replay.reorder-window-millis",
+                            config.getTimeout())));
+            result = replayer.replay(options.replayFile);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("❌ Replay falló: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+
+        System.out.println(result.toSummary());
+
+        if (options.maxErrorRatePercent != null && result.getErrorRate() * 100 > options.maxErrorRatePercent) {
+            System.err.printf("❌ Tasa de error %.2f%% supera el máximo %.2f%%%n",
+                    result.getErrorRate() * 100, options.maxErrorRatePercent);
+            return EXIT_THRESHOLD;
+        }
+        return EXIT_OK;
+    }
+
+    // ============================================================================
+    // MODO DISTRIBUIDO
+    // ============================================================================
+
+    private static int runWorker(Options options) {
+        int colon = options.workerOf.lastIndexOf(':');
+        try {
+            new DistributedLoadWorker(options.workerOf.substring(0, colon),
+                    Integer.parseInt(options.workerOf.substring(colon + 1)), options.overrides).run();
+            return EXIT_OK;
+        } catch (Exception e) {
+            System.err.println("❌ Worker falló: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+    }
+
+    private static int runCoordinator(Options options) {
+        ConfigurationManager config = new ConfigurationManager(options.overrides);
+        Map<String, String> workerOverrides = new HashMap<>();
+        options.overrides.forEach((k, v) -> workerOverrides.put(String.valueOf(k), String.valueOf(v)));
+
+        DistributedLoadCoordinator.DistributedLoadResult result;
+        try {
+            result = DistributedLoadCoordinator.builder()
+                    .localWorkers(options.localWorkers)
+                    .remoteWorkers(options.remoteWorkers)
+                    .port(options.coordinatorPort)
+                    .workload(options.workload)
+                    .totalTps(options.rateTps)
+                    .duration(options.duration)
+                    .maxInFlightPerWorker(options.maxInFlight)
+                    .identities(new IdentityRange(0,
+                            config.getIntProperty("performance.distributed.terminal-count", 1000), 0,
+                            config.getLongProperty("performance.distributed.card-count", 100_000)))
+                    .registrationTimeout(Duration.ofSeconds(
+                            config.getLongProperty("performance.distributed.registration-timeout-seconds", 60)))
+                    .overrides(workerOverrides)
+                    .build()
+                    .run();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Carga distribuida falló: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+
+        System.out.println(result.toSummary());
+
+        // Un solo dashboard para toda la flota
+        result.publishToCoverageReport("Distributed Load");
+        TestCoverageReporter.generateDashboard();
+
+        if (options.maxErrorRatePercent != null && result.getErrorRate() * 100 > options.maxErrorRatePercent) {
+            System.err.printf("❌ Tasa de error %.2f%% supera el máximo %.2f%%%n",
+                    result.getErrorRate() * 100, options.maxErrorRatePercent);
+            return EXIT_THRESHOLD;
+        }
+        return EXIT_OK;
+    }
+
+    // ============================================================================
+    // EJECUCIÓN
+    // ============================================================================
+
+    private static RunOutcome execute(Options options, TransactionService transactionService,
+                                      Supplier<TransactionRequest> workload, TransactionJournal journal,
+                                      VirtualTerminalFleet fleet, KeyedOrderedExecutor ordered,
+                                      IdentityLeasePool identities) throws InterruptedException {
+        LoadWindow total = new LoadWindow();
+        AtomicReference<LoadWindow> progress = new AtomicReference<>(new LoadWindow());
+        OpenModelScheduler scheduler = new OpenModelScheduler(options.maxInFlight);
+        IntSupplier inFlight = fleet != null ? fleet::getInFlight : scheduler::getInFlight;
+        VirtualTerminalFleet.ResponseListener record = (request, response, latency) -> {
+            total.record(response, latency);
+            progress.get().record(response, latency);
+            if (journal != null) {
+                journal.record(request, response, latency);
+            }
+        };
+
+        ScheduledExecutorService reporter = null;
+        if (options.reportEverySeconds > 0) {
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "load-cli-progress");
+                t.setDaemon(true);
+                return t;
+            });
+            long startNanos = total.getStartNanos();
+            reporter.scheduleAtFixedRate(() -> {
+                LoadWindow closed = progress.getAndSet(new LoadWindow());
+                long now = System.nanoTime();
+                System.out.printf("⏱️ %5ds | %7.1f TPS | p99 %5d ms | errores %5.2f%% | en vuelo %d%n",
+                        TimeUnit.NANOSECONDS.toSeconds(now - startNanos),
+                        closed.getThroughput(now),
+                        closed.getHistogram().getValueAtPercentileMillis(99),
+                        closed.getErrorRate() * 100,
+                        inFlight.getAsInt());
+            }, options.reportEverySeconds, options.reportEverySeconds, TimeUnit.SECONDS);
+        }
+
+        try {
+            if (fleet != null) {
+                // Cada terminal envía desde su hilo virtual; aquí solo se acumula
+                fleet.setListener(record);
+                return new RunOutcome(total, 0, fleet.run(options.duration));
+            }
+            scheduler.run(options.duration, OpenModelScheduler.RateProfile.constant(options.rateTps), () -> {
+                // Latencia desde la llegada: la espera por identidad o por carril es parte de lo que ve el usuario
+                long sendStart = System.nanoTime();
+                TransactionRequest request = workload.get();
+                IdentityLeasePool.Lease lease = null;
+                if (identities != null) {
+                    try {
+                        // Exclusiva mientras la transacción está en vuelo: nadie más mueve esa tarjeta ni esas cuentas
+                        lease = identities.lease();
+                        lease.applyTo(request);
+                    } catch (Exception e) {
+                        // Sin identidad libre: se cuenta como error, no se envía con una tarjeta compartida
+                        record.onResponse(request, null, System.nanoTime() - sendStart);
+                        return;
+                    }
+                }
+                Runnable send = () -> {
+                    TransactionResponse response = null;
+                    try {
+                        response = transactionService.sendTransaction(request);
+                    } catch (Exception e) {
+                        // la respuesta queda en null y se cuenta como error
+                    }
+                    record.onResponse(request, response, System.nanoTime() - sendStart);
+                };
+                try {
+                    if (ordered == null) {
+                        send.run();
+                    } else {
+                        // Sigue contando como en vuelo mientras espera su turno en el carril
+                        ordered.execute(orderingKey(options.orderBy, request), send).join();
+                    }
+                } finally {
+                    if (lease != null) {
+                        lease.close();
+                    }
+                }
+            });
+        } finally {
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+        }
+
+        return new RunOutcome(total, scheduler.getDropped(), null);
+    }
+
+    /**
+     * Avisa si una muestra del workload cae toda en la misma clave: la corrida quedaría en un solo carril, en serie
+     */
+    private static void warnIfSingleOrderingKey(String orderBy, Supplier<TransactionRequest> workload) {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < ORDERING_KEY_SAMPLE && keys.size() < 2; i++) {
+            keys.add(String.valueOf(orderingKey(orderBy, workload.get())));
+        }
+        if (keys.size() == 1) {
+            System.err.printf("⚠️ --order-by %s: %d transacciones del workload con la misma clave (%s) - "
+                            + "la carga corre en un solo carril, en serie%n",
+                    orderBy, ORDERING_KEY_SAMPLE, keys.iterator().next());
+        }
+    }
+
+    /**
+     * Cuenta (o, sin cuenta, el PAN) para --order-by account; terminalId para --order-by terminal
+     */
+    private static String orderingKey(String orderBy, TransactionRequest request) {
+        if ("account".equals(orderBy)) {
+            return request.getAccount() != null ? request.getAccount() : request.getPan();
+        }
+        return request.getTerminalId();
+    }
+
+    private static String summary(Options options, ConfigurationManager config, LoadWindow total,
+                                  long dropped, TransactionJournal journal) {
+        LatencyHistogram histogram = total.getHistogram();
+        StringBuilder summary = new StringBuilder();
+        summary.append("\n🚀 LOAD RUNNER\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Target:                 %s\n", config.getBaseUrl()));
+        summary.append(String.format("Workload:               %s\n", options.workload));
+        summary.append(String.format("Target rate / duration: %9.1f TPS / %ds\n", options.rateTps, options.duration.toSeconds()));
+        summary.append(String.format("Completed:              %9d (%.1f TPS)\n",
+                total.getCompleted(), total.getThroughput(System.nanoTime())));
+        summary.append(String.format("Approved:               %9d\n", total.getApproved()));
+        summary.append(String.format("Errors / timeouts:      %9d / %d (%.2f%%)\n",
+                total.getErrors(), total.getTimeouts(), total.getErrorRate() * 100));
+        summary.append(String.format("Dropped (max in-flight):%9d\n", dropped));
+        summary.append(String.format("P50 / P95 / P99 / Max:  %6d / %d / %d / %d ms\n",
+                histogram.getValueAtPercentileMillis(50),
+                histogram.getValueAtPercentileMillis(95),
+                histogram.getValueAtPercentileMillis(99),
+                TimeUnit.MICROSECONDS.toMillis(histogram.getMaxMicros())));
+        if (journal != null) {
+            summary.append(String.format("Journal:                %s (%d líneas)\n",
+                    journal.getPath(), journal.getWritten()));
+        }
+        return summary.toString();
+    }
+
+    private static final class RunOutcome {
+        private final LoadWindow total;
+        private final long dropped;
+        private final VirtualTerminalFleet.FleetResult fleetResult;
+
+        private RunOutcome(LoadWindow total, long dropped, VirtualTerminalFleet.FleetResult fleetResult) {
+            this.total = total;
+            this.dropped = dropped;
+            this.fleetResult = fleetResult;
+        }
+    }
+
+    // ============================================================================
+    // ARGUMENTOS
+    // ============================================================================
+
+    static final class Options {
+        private String workload;
+        private double rateTps;
+        private Duration duration;
+        private Path journal;
+        private int maxInFlight = 500;
+        private int reportEverySeconds = 10;
+        private Double maxErrorRatePercent;
+        private boolean help;
+        private String workerOf;
+        private Path captureFile;
+        private Path replayFile;
+        private Path reconcileFile;
+        private Path settlementFile;
+        private String replaySpeed = "1x";
+        private int localWorkers;
+        private int remoteWorkers;
+        private int coordinatorPort;
+        private Integer stubPort;
+        private Integer mockAuthorizerPort;
+        private int terminals;
+        private String orderBy;
+        private long generateCards;
+        private final Properties overrides = new Properties();
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--help".equals(arg) || "-h".equals(arg)) {
+                    options.help = true;
+                    return options;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Falta el valor de " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--workload" -> options.workload = value;
+                    case "--rate" -> options.rateTps = parseDouble(arg, value);
+                    case "--duration" -> options.duration = parseDuration(value);
+                    case "--base-url" -> {
+                        // Varias URLs separadas por coma → balanceo entre simuladores
+                        options.overrides.setProperty("simulator.base-url", value.split(",")[0].trim());
+                        options.overrides.setProperty("simulator.base-urls", value);
+                    }
+                    case "--journal" -> options.journal = Path.of(value);
+                    case "--max-in-flight" -> options.maxInFlight = (int) parseDouble(arg, value);
+                    case "--report-every" -> options.reportEverySeconds = (int) parseDouble(arg, value);
+                    case "--max-error-rate" -> options.maxErrorRatePercent = parseDouble(arg, value);
+                    case "--worker" -> options.workerOf = value;
+                    case "--capture" -> options.captureFile = Path.of(value);
+                    case "--replay" -> options.replayFile = Path.of(value);
+                    case "--speed" -> options.replaySpeed = value;
+                    case "--reconcile" -> options.reconcileFile = Path.of(value);
+                    case "--settlement" -> options.settlementFile = Path.of(value);
+                    case "--workers" -> options.localWorkers = (int) parseDouble(arg, value);
+                    case "--remote-workers" -> options.remoteWorkers = (int) parseDouble(arg, value);
+                    case "--coordinator-port" -> options.coordinatorPort = (int) parseDouble(arg, value);
+                    case "--terminals" -> options.terminals = (int) parseDouble(arg, value);
+                    case "--order-by" -> options.orderBy = value;
+                    case "--cards" -> options.overrides.setProperty("performance.cards.file", value);
+                    case "--generate-cards" -> options.generateCards = (long) parseDouble(arg, value);
+                    case "--stub" -> options.stubPort = (int) parseDouble(arg, value);
+                    case "--mock-authorizer" -> options.mockAuthorizerPort = (int) parseDouble(arg, value);
+                    case "--set" -> {
+                        int eq = value.indexOf('=');
+                        if (eq <= 0) {
+                            throw new IllegalArgumentException("--set espera clave=valor: " + value);
+                        }
+                        options.overrides.setProperty(value.substring(0, eq).trim(), value.substring(eq + 1).trim());
+                    }
+                    default -> throw new IllegalArgumentException("Argumento desconocido: " + arg);
+                }
+            }
+
+            if (options.workerOf != null) {
+                if (options.workerOf.lastIndexOf(':') <= 0) {
+                    throw new IllegalArgumentException("--worker espera host:puerto: " + options.workerOf);
+                }
+                // El worker recibe workload, tasa y duración del coordinador
+                return options;
+            }
+            if (options.replayFile != null) {
+                // La captura define el workload y el timing
+                return options;
+            }
+            if (options.reconcileFile != null || options.generateCards > 0) {
+                return options;
+            }
+            if (options.workload == null || options.workload.isBlank()) {
+                throw new IllegalArgumentException("--workload es obligatorio");
+            }
+            if (options.rateTps <= 0) {
+                throw new IllegalArgumentException("--rate debe ser mayor a 0");
+            }
+            if (options.duration == null || options.duration.isZero() || options.duration.isNegative()) {
+                throw new IllegalArgumentException("--duration es obligatorio y debe ser mayor a 0");
+            }
+            if (options.maxInFlight <= 0) {
+                throw new IllegalArgumentException("--max-in-flight debe ser mayor a 0");
+            }
+            return options;
+        }
+
+        private static double parseDouble(String arg, String value) {
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor numérico inválido para " + arg + ": " + value);
+            }
+        }
+
+        static Duration parseDuration(String value) {
+            String trimmed = value.trim().toLowerCase();
+            try {
+                if (trimmed.endsWith("ms")) {
+                    return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+                }
+                char unit = trimmed.charAt(trimmed.length() - 1);
+                String number = Character.isDigit(unit) ? trimmed : trimmed.substring(0, trimmed.length() - 1);
+                long amount = Long.parseLong(number);
+                return switch (unit) {
+                    case 'h' -> Duration.ofHours(amount);
+                    case 'm' -> Duration.ofMinutes(amount);
+                    case 's' -> Duration.ofSeconds(amount);
+                    default -> {
+                        if (!Character.isDigit(unit)) {
+                            throw new IllegalArgumentException("Unidad de duración inválida: " + value);
+                        }
+                        yield Duration.ofSeconds(amount);
+                    }
+                };
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Duración inválida: " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.models.TransactionResponse;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas acumuladas durante una ventana de tiempo de una prueba de carga
+ *
+ * Los workers registran aquí cada transacción; el scheduler de ventanas
+ * reemplaza la instancia al cerrar la ventana y la lee sin bloquear a nadie.
+ */
+public class LoadWindow {
+
+    private final long startNanos;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder approved = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public LoadWindow() {
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Registra una transacción completada (aprobada, declinada o con error)
+     */
+    public void record(TransactionResponse response, long latencyNanos) {
+        histogram.recordNanos(latencyNanos);
+        completed.increment();
+
+        if (response == null) {
+            errors.increment();
+        } else if (response.isTimeout()) {
+            timeouts.increment();
+        } else if (response.getErrorType() != null) {
+            errors.increment();
+        } else if (response.isApproved()) {
+            approved.increment();
+        }
+    }
+
+    /**
+     * Registra una transacción que terminó en excepción antes de tener respuesta
+     */
+    public void recordFailure(long latencyNanos) {
+        histogram.recordNanos(latencyNanos);
+        completed.increment();
+        errors.increment();
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getApproved() {
+        return approved.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Proporción de errores + timeouts sobre las completadas
+     */
+    public double getErrorRate() {
+        long total = getCompleted();
+        return total == 0 ? 0.0 : (double) (getErrors() + getTimeouts()) / total;
+    }
+
+    /**
+     * TPS observado desde la apertura de la ventana hasta {@code endNanos}
+     */
+    public double getThroughput(long endNanos) {
+        double seconds = (endNanos - startNanos) / 1_000_000_000.0;
+        return seconds <= 0 ? 0.0 : getCompleted() / seconds;
+    }
+}
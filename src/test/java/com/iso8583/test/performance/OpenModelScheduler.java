@@ -0,0 +1,122 @@
+package com.iso8583.test.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scheduler de modelo abierto: dispara transacciones a la tasa indicada
+ * por un {@link RateProfile}, sin esperar a que terminen las anteriores.
+ *
+ * A diferencia del modelo cerrado (N usuarios en loop), un autorizador lento
+ * no frena la llegada de transacciones, igual que en producción. Para no
+ * acumular hilos sin límite, las llegadas que exceden {@code maxInFlight}
+ * se descartan y se cuentan como {@code dropped}.
+ */
+public class OpenModelScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenModelScheduler.class);
+
+    // Con tasa 0 se revisa el perfil cada 10ms
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+
+    /**
+     * Tasa objetivo (TPS) en función del tiempo transcurrido desde el inicio
+     */
+    @FunctionalInterface
+    public interface RateProfile {
+        double tpsAt(long elapsedNanos);
+
+        static RateProfile constant(double tps) {
+            return elapsedNanos -> tps;
+        }
+    }
+
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean stopRequested = false;
+
+    public OpenModelScheduler(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Dispara {@code task} según el perfil durante {@code duration} y espera
+     * a que terminen las transacciones en vuelo.
+     */
+    public void run(Duration duration, RateProfile profile, Runnable task) {
+        logger.info("🚀 Scheduler de modelo abierto - Duración: {}s, máx. en vuelo: {}",
+                duration.toSeconds(), maxInFlight);
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long nextArrival = start;
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!stopRequested && nextArrival < end) {
+                double tps = profile.tpsAt(nextArrival - start);
+                if (tps <= 0) {
+                    nextArrival += IDLE_PARK_NANOS;
+                    parkUntil(nextArrival);
+                    continue;
+                }
+
+                parkUntil(nextArrival);
+
+                if (inFlight.tryAcquire()) {
+                    dispatched.increment();
+                    workers.submit(() -> {
+                        try {
+                            task.run();
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } else {
+                    dropped.increment();
+                }
+
+                nextArrival += (long) (1_000_000_000L / tps);
+            }
+            logger.info("⏳ Fin de llegadas - esperando {} transacciones en vuelo", getInFlight());
+        }
+
+        logger.info("🏁 Scheduler finalizado - Disparadas: {}, descartadas: {}", getDispatched(), getDropped());
+    }
+
+    /**
+     * Detiene las llegadas; {@link #run} retorna cuando terminan las que están en vuelo
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+}
@@ -0,0 +1,99 @@
+package com.iso8583.test.performance;
+
+import java.time.Duration;
+
+/**
+ * Política de tiempos del replay: cuándo re-enviar cada transacción capturada
+ *
+ * - {@code 1x}: timing original
+ * - {@code 2x}, {@code 5x}, ...: mismo patrón, N veces más rápido
+ * - {@code max}: sin esperas (limitado solo por maxOutstanding y el orden por terminal)
+ * - {@code compress:500ms}: timing original pero los huecos de inactividad
+ *   mayores a 500ms se recortan a 500ms (una jornada sin las madrugadas)
+ *
+ * Es stateful (acumula el offset destino); una instancia por corrida.
+ */
+public final class ReplayTiming {
+
+    private final String description;
+    private final double speedFactor;
+    private final long maxGapNanos;
+    private final boolean unthrottled;
+
+    private long lastCapturedNanos = -1;
+    private long lastTargetNanos = 0;
+
+    private ReplayTiming(String description, double speedFactor, long maxGapNanos, boolean unthrottled) {
+        this.description = description;
+        this.speedFactor = speedFactor;
+        this.maxGapNanos = maxGapNanos;
+        this.unthrottled = unthrottled;
+    }
+
+    public static ReplayTiming original() {
+        return speed(1.0);
+    }
+
+    public static ReplayTiming speed(double factor) {
+        if (factor <= 0) {
+            throw new IllegalArgumentException("El factor de velocidad debe ser mayor a 0: " + factor);
+        }
+        return new ReplayTiming(String.format("%.1fx", factor), factor, Long.MAX_VALUE, false);
+    }
+
+    public static ReplayTiming max() {
+        return new ReplayTiming("max", 1.0, 0, true);
+    }
+
+    public static ReplayTiming compressed(Duration maxGap) {
+        return new ReplayTiming("compress:" + maxGap.toMillis() + "ms", 1.0, maxGap.toNanos(), false);
+    }
+
+    /**
+     * Interpreta {@code 1x}, {@code 2.5x}, {@code max} o {@code compress:500ms}
+     */
+    public static ReplayTiming parse(String spec) {
+        String value = spec.trim().toLowerCase();
+        if ("max".equals(value)) {
+            return max();
+        }
+        if (value.startsWith("compress:")) {
+            return compressed(LoadRunnerCli.Options.parseDuration(value.substring("compress:".length())));
+        }
+        if (value.endsWith("x")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return speed(Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Velocidad de replay inválida: " + spec);
+        }
+    }
+
+    /**
+     * Offset (desde el inicio del replay) en el que se debe re-enviar una
+     * transacción capturada en {@code capturedNanos}. Se llama en orden.
+     */
+    long targetOffsetNanos(long capturedNanos) {
+        if (unthrottled) {
+            return 0;
+        }
+        if (lastCapturedNanos < 0) {
+            lastCapturedNanos = capturedNanos;
+            return 0;
+        }
+        long gap = Math.max(0, capturedNanos - lastCapturedNanos);
+        lastCapturedNanos = capturedNanos;
+        lastTargetNanos += (long) (Math.min(gap, maxGapNanos) / speedFactor);
+        return lastTargetNanos;
+    }
+
+    public boolean isUnthrottled() {
+        return unthrottled;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,549 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.services.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Modo soak: carga a tasa constante durante horas (8-24h) para encontrar
+ * fugas en el canal TCP y el keep-alive del simulador.
+ *
+ * Memoria constante sin importar la duración:
+ * - No guarda objetos por transacción, solo histogramas por ventana
+ * - Historial de ventanas y alertas en colas acotadas
+ *
+ * Compara cada ventana contra una ventana base (después del warm-up) y
+ * marca deriva de latencia, aumento de errores y crecimiento de heap/hilos
+ * del harness cuando persisten {@code consecutiveWindows} ventanas seguidas.
+ */
+public class SoakTestRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoakTestRunner.class);
+
+    private final TransactionService transactionService;
+    private final Supplier<TransactionRequest> workload;
+    private final double rateTps;
+    private final Duration windowSize;
+    private final int maxInFlight;
+    private final int warmupWindows;
+    private final int historyWindows;
+    private final int maxAlerts;
+    private final int consecutiveWindows;
+    private final double p99DriftRatio;
+    private final double errorRateCreep;
+    private final double heapGrowthRatio;
+    private final int threadGrowth;
+
+    // Estado de la corrida (acotado)
+    private final AtomicReference<LoadWindow> currentWindow = new AtomicReference<>(new LoadWindow());
+    private final LatencyHistogram overallHistogram = new LatencyHistogram();
+    private final Deque<SoakWindowSummary> history = new ArrayDeque<>();
+    private final Deque<SoakAlert> alerts = new ArrayDeque<>();
+    private final Map<String, Long> alertCountsByType = new HashMap<>();
+    private long totalAlerts;
+    private long totalCompleted;
+    private long totalErrors;
+    private long totalTimeouts;
+    private int windowIndex;
+    private SoakWindowSummary baseline;
+    private int latencyDriftStreak;
+    private int errorCreepStreak;
+    private int heapGrowthStreak;
+    private int threadGrowthStreak;
+
+    private SoakTestRunner(Builder builder) {
+        this.transactionService = builder.transactionService;
+        this.workload = builder.workload;
+        this.rateTps = builder.rateTps;
+        this.windowSize = builder.windowSize;
+        this.maxInFlight = builder.maxInFlight;
+        this.warmupWindows = builder.warmupWindows;
+        this.historyWindows = builder.historyWindows;
+        this.maxAlerts = builder.maxAlerts;
+        this.consecutiveWindows = builder.consecutiveWindows;
+        this.p99DriftRatio = builder.p99DriftRatio;
+        this.errorRateCreep = builder.errorRateCreep;
+        this.heapGrowthRatio = builder.heapGrowthRatio;
+        this.threadGrowth = builder.threadGrowth;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Ejecuta la prueba soak durante {@code duration}
+     */
+    public SoakResult run(Duration duration) {
+        logger.info("🔁 Iniciando soak - {} TPS durante {}, ventana: {}s, warm-up: {} ventanas",
+                rateTps, duration, windowSize.toSeconds(), warmupWindows);
+
+        Instant startedAt = Instant.now();
+        HarnessResourceSnapshot startResources = HarnessResourceSnapshot.capture();
+        OpenModelScheduler scheduler = new OpenModelScheduler(maxInFlight);
+
+        ScheduledExecutorService windowScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "soak-window");
+            t.setDaemon(true);
+            return t;
+        });
+        windowScheduler.scheduleAtFixedRate(() -> closeWindow(scheduler.getDropped()),
+                windowSize.toMillis(), windowSize.toMillis(), TimeUnit.MILLISECONDS);
+
+        try {
+            scheduler.run(duration, OpenModelScheduler.RateProfile.constant(rateTps), this::sendOne);
+        } finally {
+            windowScheduler.shutdownNow();
+        }
+
+        // Cerrar la ventana parcial final para no perder sus transacciones
+        closeWindow(scheduler.getDropped());
+
+        synchronized (this) {
+            SoakResult result = new SoakResult(startedAt, Instant.now(), rateTps,
+                    overallHistogram.copy(), totalCompleted, totalErrors, totalTimeouts,
+                    scheduler.getDropped(), startResources, HarnessResourceSnapshot.capture(),
+                    baseline, new ArrayList<>(history), new ArrayList<>(alerts),
+                    new HashMap<>(alertCountsByType), totalAlerts);
+
+            logger.info("🏁 Soak finalizado - Completadas: {}, alertas: {}, p99 global: {}ms",
+                    totalCompleted, totalAlerts, overallHistogram.getValueAtPercentileMillis(99));
+            return result;
+        }
+    }
+
+    private void sendOne() {
+        long start = System.nanoTime();
+        try {
+            TransactionResponse response = transactionService.sendTransaction(workload.get());
+            currentWindow.get().record(response, System.nanoTime() - start);
+        } catch (Exception e) {
+            logger.debug("❌ Error en transacción soak: {}", e.getMessage());
+            currentWindow.get().recordFailure(System.nanoTime() - start);
+        }
+    }
+
+    // ============================================================================
+    // CIERRE DE VENTANA Y DETECCIÓN DE DERIVA
+    // ============================================================================
+
+    private synchronized void closeWindow(long droppedSoFar) {
+        LoadWindow closed = currentWindow.getAndSet(new LoadWindow());
+        long now = System.nanoTime();
+        HarnessResourceSnapshot resources = HarnessResourceSnapshot.capture();
+
+        overallHistogram.add(closed.getHistogram());
+        totalCompleted += closed.getCompleted();
+        totalErrors += closed.getErrors();
+        totalTimeouts += closed.getTimeouts();
+
+        SoakWindowSummary summary = new SoakWindowSummary(windowIndex++, closed, now, droppedSoFar, resources);
+
+        history.addLast(summary);
+        while (history.size() > historyWindows) {
+            history.removeFirst();
+        }
+
+        if (baseline == null) {
+            if (summary.getIndex() >= warmupWindows && summary.getCompleted() > 0) {
+                baseline = summary;
+                logger.info("📏 Ventana base fijada (#{}) - p99: {}ms, error rate: {}%, heap: {}MB, hilos: {}",
+                        summary.getIndex(), summary.getP99Millis(),
+                        String.format("%.2f", summary.getErrorRate() * 100),
+                        summary.getHeapUsedMb(), summary.getThreadCount());
+            }
+        } else {
+            detectDrift(summary);
+        }
+
+        logger.info("📊 Soak ventana {} - TPS: {}, p99: {}ms, errores: {}%, heap: {}MB, hilos: {}, GC: {}",
+                summary.getIndex(), String.format("%.1f", summary.getTps()), summary.getP99Millis(),
+                String.format("%.2f", summary.getErrorRate() * 100), summary.getHeapUsedMb(),
+                summary.getThreadCount(), summary.getGcCount());
+    }
+
+    private void detectDrift(SoakWindowSummary window) {
+        long p99Limit = (long) Math.ceil(Math.max(1, baseline.getP99Millis()) * p99DriftRatio);
+        latencyDriftStreak = window.getP99Millis() > p99Limit ? latencyDriftStreak + 1 : 0;
+        if (latencyDriftStreak == consecutiveWindows) {
+            raise(window, "LATENCY_DRIFT", String.format("p99 %dms > %dms (base %dms x %.2f)",
+                    window.getP99Millis(), p99Limit, baseline.getP99Millis(), p99DriftRatio));
+        }
+
+        double errorLimit = baseline.getErrorRate() + errorRateCreep;
+        errorCreepStreak = window.getErrorRate() > errorLimit ? errorCreepStreak + 1 : 0;
+        if (errorCreepStreak == consecutiveWindows) {
+            raise(window, "ERROR_RATE_CREEP", String.format("error rate %.2f%% > %.2f%%",
+                    window.getErrorRate() * 100, errorLimit * 100));
+        }
+
+        long heapLimit = (long) (baseline.getHeapUsedBytes() * heapGrowthRatio);
+        heapGrowthStreak = window.getHeapUsedBytes() > heapLimit ? heapGrowthStreak + 1 : 0;
+        if (heapGrowthStreak == consecutiveWindows) {
+            raise(window, "HEAP_GROWTH", String.format("heap %dMB > %dMB (base %dMB)",
+                    window.getHeapUsedMb(), heapLimit / (1024 * 1024), baseline.getHeapUsedMb()));
+        }
+
+        int threadLimit = baseline.getThreadCount() + threadGrowth;
+        threadGrowthStreak = window.getThreadCount() > threadLimit ? threadGrowthStreak + 1 : 0;
+        if (threadGrowthStreak == consecutiveWindows) {
+            raise(window, "THREAD_GROWTH", String.format("hilos %d > %d (base %d)",
+                    window.getThreadCount(), threadLimit, baseline.getThreadCount()));
+        }
+    }
+
+    private void raise(SoakWindowSummary window, String type, String detail) {
+        totalAlerts++;
+        alertCountsByType.merge(type, 1L, Long::sum);
+        alerts.addLast(new SoakAlert(window.getIndex(), type, detail));
+        while (alerts.size() > maxAlerts) {
+            alerts.removeFirst();
+        }
+        logger.warn("⚠️ Soak alerta {} en ventana {}: {}", type, window.getIndex(), detail);
+    }
+
+    // ============================================================================
+    // BUILDER
+    // ============================================================================
+
+    public static class Builder {
+        private TransactionService transactionService;
+        private Supplier<TransactionRequest> workload;
+        private double rateTps = 20;
+        private Duration windowSize = Duration.ofMinutes(1);
+        private int maxInFlight = 200;
+        private int warmupWindows = 2;
+        private int historyWindows = 120;
+        private int maxAlerts = 100;
+        private int consecutiveWindows = 3;
+        private double p99DriftRatio = 1.5;
+        private double errorRateCreep = 0.02;
+        private double heapGrowthRatio = 2.0;
+        private int threadGrowth = 50;
+
+        private Builder() {
+        }
+
+        public Builder transactionService(TransactionService transactionService) {
+            this.transactionService = transactionService;
+            return this;
+        }
+
+        public Builder workload(Supplier<TransactionRequest> workload) {
+            this.workload = workload;
+            return this;
+        }
+
+        public Builder rateTps(double rateTps) {
+            this.rateTps = rateTps;
+            return this;
+        }
+
+        public Builder windowSize(Duration windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public Builder warmupWindows(int warmupWindows) {
+            this.warmupWindows = warmupWindows;
+            return this;
+        }
+
+        public Builder historyWindows(int historyWindows) {
+            this.historyWindows = historyWindows;
+            return this;
+        }
+
+        public Builder maxAlerts(int maxAlerts) {
+            this.maxAlerts = maxAlerts;
+            return this;
+        }
+
+        public Builder consecutiveWindows(int consecutiveWindows) {
+            this.consecutiveWindows = consecutiveWindows;
+            return this;
+        }
+
+        public Builder p99DriftRatio(double p99DriftRatio) {
+            this.p99DriftRatio = p99DriftRatio;
+            return this;
+        }
+
+        public Builder errorRateCreep(double errorRateCreep) {
+            this.errorRateCreep = errorRateCreep;
+            return this;
+        }
+
+        public Builder heapGrowthRatio(double heapGrowthRatio) {
+            this.heapGrowthRatio = heapGrowthRatio;
+            return this;
+        }
+
+        public Builder threadGrowth(int threadGrowth) {
+            this.threadGrowth = threadGrowth;
+            return this;
+        }
+
+        public SoakTestRunner build() {
+            if (transactionService == null || workload == null) {
+                throw new IllegalStateException("transactionService y workload son obligatorios");
+            }
+            if (rateTps <= 0) {
+                throw new IllegalArgumentException("rateTps debe ser mayor a 0: " + rateTps);
+            }
+            return new SoakTestRunner(this);
+        }
+    }
+
+    // ============================================================================
+    // RESULTADOS
+    // ============================================================================
+
+    public static class SoakWindowSummary {
+        private final int index;
+        private final double tps;
+        private final long p50Millis;
+        private final long p99Millis;
+        private final long maxMillis;
+        private final long completed;
+        private final double errorRate;
+        private final long droppedSoFar;
+        private final long heapUsedBytes;
+        private final long gcCount;
+        private final long gcTimeMillis;
+        private final int threadCount;
+
+        SoakWindowSummary(int index, LoadWindow window, long endNanos, long droppedSoFar,
+                          HarnessResourceSnapshot resources) {
+            this.index = index;
+            this.tps = window.getThroughput(endNanos);
+            this.p50Millis = window.getHistogram().getValueAtPercentileMillis(50);
+            this.p99Millis = window.getHistogram().getValueAtPercentileMillis(99);
+            this.maxMillis = TimeUnit.MICROSECONDS.toMillis(window.getHistogram().getMaxMicros());
+            this.completed = window.getCompleted();
+            this.errorRate = window.getErrorRate();
+            this.droppedSoFar = droppedSoFar;
+            this.heapUsedBytes = resources.getHeapUsedBytes();
+            this.gcCount = resources.getGcCount();
+            this.gcTimeMillis = resources.getGcTimeMillis();
+            this.threadCount = resources.getThreadCount();
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public double getTps() {
+            return tps;
+        }
+
+        public long getP50Millis() {
+            return p50Millis;
+        }
+
+        public long getP99Millis() {
+            return p99Millis;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public long getDroppedSoFar() {
+            return droppedSoFar;
+        }
+
+        public long getHeapUsedBytes() {
+            return heapUsedBytes;
+        }
+
+        public long getHeapUsedMb() {
+            return heapUsedBytes / (1024 * 1024);
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcTimeMillis() {
+            return gcTimeMillis;
+        }
+
+        public int getThreadCount() {
+            return threadCount;
+        }
+    }
+
+    public static class SoakAlert {
+        private final int windowIndex;
+        private final String type;
+        private final String detail;
+
+        public SoakAlert(int windowIndex, String type, String detail) {
+            this.windowIndex = windowIndex;
+            this.type = type;
+            this.detail = detail;
+        }
+
+        public int getWindowIndex() {
+            return windowIndex;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    public static class SoakResult {
+        private final Instant startedAt;
+        private final Instant finishedAt;
+        private final double rateTps;
+        private final LatencyHistogram overallHistogram;
+        private final long completed;
+        private final long errors;
+        private final long timeouts;
+        private final long dropped;
+        private final HarnessResourceSnapshot startResources;
+        private final HarnessResourceSnapshot endResources;
+        private final SoakWindowSummary baseline;
+        private final List<SoakWindowSummary> recentWindows;
+        private final List<SoakAlert> recentAlerts;
+        private final Map<String, Long> alertCountsByType;
+        private final long totalAlerts;
+
+        SoakResult(Instant startedAt, Instant finishedAt, double rateTps, LatencyHistogram overallHistogram,
+                   long completed, long errors, long timeouts, long dropped,
+                   HarnessResourceSnapshot startResources, HarnessResourceSnapshot endResources,
+                   SoakWindowSummary baseline, List<SoakWindowSummary> recentWindows,
+                   List<SoakAlert> recentAlerts, Map<String, Long> alertCountsByType, long totalAlerts) {
+            this.startedAt = startedAt;
+            this.finishedAt = finishedAt;
+            this.rateTps = rateTps;
+            this.overallHistogram = overallHistogram;
+            this.completed = completed;
+            this.errors = errors;
+            this.timeouts = timeouts;
+            this.dropped = dropped;
+            this.startResources = startResources;
+            this.endResources = endResources;
+            this.baseline = baseline;
+            this.recentWindows = recentWindows;
+            this.recentAlerts = recentAlerts;
+            this.alertCountsByType = alertCountsByType;
+            this.totalAlerts = totalAlerts;
+        }
+
+        public LatencyHistogram getOverallHistogram() {
+            return overallHistogram;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public SoakWindowSummary getBaseline() {
+            return baseline;
+        }
+
+        public List<SoakWindowSummary> getRecentWindows() {
+            return recentWindows;
+        }
+
+        public List<SoakAlert> getRecentAlerts() {
+            return recentAlerts;
+        }
+
+        public long getTotalAlerts() {
+            return totalAlerts;
+        }
+
+        public Map<String, Long> getAlertCountsByType() {
+            return alertCountsByType;
+        }
+
+        public boolean hasAlerts(String type) {
+            return alertCountsByType.getOrDefault(type, 0L) > 0;
+        }
+
+        public double getErrorRate() {
+            return completed == 0 ? 0.0 : (double) (errors + timeouts) / completed;
+        }
+
+        public String toSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append("🔁 SOAK TEST\n");
+            summary.append("─────────────────────────────────────────────────────\n");
+            summary.append(String.format("Period:                 %s → %s\n", startedAt, finishedAt));
+            summary.append(String.format("Target rate:            %9.1f TPS\n", rateTps));
+            summary.append(String.format("Completed:              %9d\n", completed));
+            summary.append(String.format("Errors / timeouts:      %9d / %d (%.2f%%)\n",
+                    errors, timeouts, getErrorRate() * 100));
+            summary.append(String.format("Dropped (max in-flight):%9d\n", dropped));
+            summary.append(String.format("P50 / P99 / Max:        %6d / %d / %d ms\n",
+                    overallHistogram.getValueAtPercentileMillis(50),
+                    overallHistogram.getValueAtPercentileMillis(99),
+                    TimeUnit.MICROSECONDS.toMillis(overallHistogram.getMaxMicros())));
+            summary.append(String.format("Heap start → end:       %6d → %d MB\n",
+                    startResources.getHeapUsedMb(), endResources.getHeapUsedMb()));
+            summary.append(String.format("Threads start → end:    %6d → %d\n",
+                    startResources.getThreadCount(), endResources.getThreadCount()));
+            summary.append(String.format("GC count / time:        %6d / %d ms\n",
+                    endResources.getGcCount() - startResources.getGcCount(),
+                    endResources.getGcTimeMillis() - startResources.getGcTimeMillis()));
+            if (baseline != null) {
+                summary.append(String.format("Baseline window #%d:     p99 %dms, errors %.2f%%\n",
+                        baseline.getIndex(), baseline.getP99Millis(), baseline.getErrorRate() * 100));
+            }
+            summary.append(String.format("\n⚠️ ALERTS (total: %d) %s\n", totalAlerts, alertCountsByType));
+            for (SoakAlert alert : recentAlerts) {
+                summary.append(String.format("  [#%d] %-18s %s\n", alert.getWindowIndex(), alert.getType(), alert.getDetail()));
+            }
+            return summary.toString();
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.services.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta un {@link SpikeProfile} con el scheduler de modelo abierto y mide
+ * el tiempo de recuperación después de cada pico: cuánto tardan el p99 y la
+ * tasa de error en volver a los valores del periodo base.
+ *
+ * Una ventana se considera "recuperada" cuando su p99 no supera
+ * {@code base p99 x p99Tolerance} y su tasa de error no supera
+ * {@code base + errorRateTolerance}, durante {@code stableWindows} ventanas seguidas.
+ *
+ * El primer pico tiene que dejar al menos {@link #MIN_BASELINE_WINDOWS} ventanas
+ * de periodo base (la primera se descarta por arranque); si igual no queda
+ * ninguna ventana base con tráfico, el resultado se marca sin base y ningún
+ * pico cuenta como recuperado.
+ */
+public class SpikeLoadRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpikeLoadRunner.class);
+
+    static final int MIN_BASELINE_WINDOWS = 2;
+
+    private final TransactionService transactionService;
+    private final Supplier<TransactionRequest> workload;
+    private final SpikeProfile profile;
+    private final Duration windowSize;
+    private final int maxInFlight;
+    private final double p99Tolerance;
+    private final double errorRateTolerance;
+    private final int stableWindows;
+
+    public SpikeLoadRunner(TransactionService transactionService, Supplier<TransactionRequest> workload,
+                           SpikeProfile profile, Duration windowSize, int maxInFlight,
+                           double p99Tolerance, double errorRateTolerance, int stableWindows) {
+        this.transactionService = transactionService;
+        this.workload = workload;
+        this.profile = profile;
+        this.windowSize = windowSize;
+        this.maxInFlight = maxInFlight;
+        this.p99Tolerance = p99Tolerance;
+        this.errorRateTolerance = errorRateTolerance;
+        this.stableWindows = Math.max(1, stableWindows);
+    }
+
+    public SpikeLoadResult run(Duration duration) {
+        Duration minBaseline = windowSize.multipliedBy(MIN_BASELINE_WINDOWS);
+        if (!profile.getEvents().isEmpty() && profile.getFirstSpikeStart().compareTo(minBaseline) < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "El primer pico (%ss) no deja periodo base: se necesitan al menos %ss (%d ventanas de %ss)",
+                    profile.getFirstSpikeStart().toSeconds(), minBaseline.toSeconds(),
+                    MIN_BASELINE_WINDOWS, windowSize.toSeconds()));
+        }
+        logger.info("⚡ Iniciando carga con picos - base: {} TPS, picos: {}, duración: {}s",
+                profile.getBaselineTps(), profile.getEvents().size(), duration.toSeconds());
+
+        AtomicReference<LoadWindow> currentWindow = new AtomicReference<>(new LoadWindow());
+        List<TimedWindow> windows = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+
+        ScheduledExecutorService windowScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "spike-window");
+            t.setDaemon(true);
+            return t;
+        });
+        windowScheduler.scheduleAtFixedRate(() -> {
+            LoadWindow closed = currentWindow.getAndSet(new LoadWindow());
+            long now = System.nanoTime();
+            windows.add(new TimedWindow(
+                    Duration.ofNanos(closed.getStartNanos() - start),
+                    Duration.ofNanos(now - start),
+                    profile.tpsAt(closed.getStartNanos() - start),
+                    closed.getThroughput(now),
+                    closed.getHistogram().getValueAtPercentileMillis(99),
+                    closed.getErrorRate(),
+                    closed.getCompleted()));
+        }, windowSize.toMillis(), windowSize.toMillis(), TimeUnit.MILLISECONDS);
+
+        OpenModelScheduler scheduler = new OpenModelScheduler(maxInFlight);
+        try {
+            scheduler.run(duration, profile, () -> {
+                long sendStart = System.nanoTime();
+                try {
+                    TransactionResponse response = transactionService.sendTransaction(workload.get());
+                    currentWindow.get().record(response, System.nanoTime() - sendStart);
+                } catch (Exception e) {
+                    currentWindow.get().recordFailure(System.nanoTime() - sendStart);
+                }
+            });
+        } finally {
+            windowScheduler.shutdownNow();
+        }
+
+        List<TimedWindow> snapshot;
+        synchronized (windows) {
+            snapshot = new ArrayList<>(windows);
+        }
+
+        SpikeLoadResult result = analyze(snapshot, scheduler.getDropped());
+        logger.info("🏁 Carga con picos finalizada - picos recuperados: {}/{}",
+                result.getRecoveredCount(), result.getRecoveries().size());
+        return result;
+    }
+
+    // ============================================================================
+    // ANÁLISIS DE RECUPERACIÓN
+    // ============================================================================
+
+    private SpikeLoadResult analyze(List<TimedWindow> windows, long dropped) {
+        Duration baselineEnd = profile.getFirstSpikeStart();
+
+        // Periodo base: ventanas completas antes del primer pico (sin la primera, de arranque)
+        BaselineStats baseline = new BaselineStats();
+        for (int i = 1; i < windows.size(); i++) {
+            TimedWindow w = windows.get(i);
+            if (w.getEnd().compareTo(baselineEnd) <= 0 && w.getCompleted() > 0) {
+                baseline.add(w);
+            }
+        }
+
+        boolean baselineMissing = baseline.isEmpty() && !profile.getEvents().isEmpty();
+        if (baselineMissing) {
+            logger.warn("⚠️ Sin ventanas de periodo base antes del primer pico: no se puede medir la recuperación");
+        }
+
+        long p99Limit = (long) Math.ceil(Math.max(1, baseline.getMaxP99()) * p99Tolerance);
+        double errorLimit = baseline.getMeanErrorRate() + errorRateTolerance;
+
+        List<SpikeRecovery> recoveries = new ArrayList<>();
+        List<SpikeProfile.SpikeEvent> events = profile.getEvents();
+
+        for (int e = 0; e < events.size(); e++) {
+            SpikeProfile.SpikeEvent event = events.get(e);
+            Duration nextSpike = e + 1 < events.size() ? events.get(e + 1).getStart() : null;
+
+            long peakP99 = 0;
+            double peakErrorRate = 0;
+            Duration recoveredAt = null;
+            int stableStreak = 0;
+            Duration streakStart = null;
+
+            for (TimedWindow w : windows) {
+                boolean duringSpike = w.getEnd().compareTo(event.getStart()) > 0
+                        && w.getStart().compareTo(event.getEnd()) < 0;
+                boolean afterSpike = w.getStart().compareTo(event.getEnd()) >= 0
+                        && (nextSpike == null || w.getStart().compareTo(nextSpike) < 0);
+
+                if (duringSpike || afterSpike) {
+                    peakP99 = Math.max(peakP99, w.getP99Millis());
+                    peakErrorRate = Math.max(peakErrorRate, w.getErrorRate());
+                }
+
+                if (afterSpike && recoveredAt == null) {
+                    boolean healthy = w.getCompleted() > 0
+                            && w.getP99Millis() <= p99Limit
+                            && w.getErrorRate() <= errorLimit;
+                    if (healthy && !baselineMissing) {
+                        if (stableStreak == 0) {
+                            streakStart = w.getStart();
+                        }
+                        stableStreak++;
+                        if (stableStreak >= stableWindows) {
+                            recoveredAt = streakStart;
+                        }
+                    } else {
+                        stableStreak = 0;
+                    }
+                }
+            }
+
+            Duration recoveryTime = recoveredAt != null ? recoveredAt.minus(event.getEnd()) : null;
+            if (recoveryTime != null && recoveryTime.isNegative()) {
+                recoveryTime = Duration.ZERO;
+            }
+            recoveries.add(new SpikeRecovery(event, peakP99, peakErrorRate, recoveryTime));
+
+            logger.info("⚡ Pico #{} ({}x en {}s): p99 pico {}ms, errores pico {}%, recuperación: {}",
+                    e, event.getMultiplier(), event.getStart().toSeconds(), peakP99,
+                    String.format("%.2f", peakErrorRate * 100),
+                    recoveryTime != null ? recoveryTime.toMillis() + "ms" : "NO RECUPERADO");
+        }
+
+        return new SpikeLoadResult(profile, baseline.getMaxP99(), baseline.getMeanErrorRate(),
+                p99Limit, errorLimit, windows, recoveries, dropped, baselineMissing);
+    }
+
+    /**
+     * Acumulador del periodo base
+     */
+    private static class BaselineStats {
+        private long maxP99;
+        private double errorRateSum;
+        private int count;
+
+        void add(TimedWindow window) {
+            maxP99 = Math.max(maxP99, window.getP99Millis());
+            errorRateSum += window.getErrorRate();
+            count++;
+        }
+
+        long getMaxP99() {
+            return maxP99;
+        }
+
+        double getMeanErrorRate() {
+            return count == 0 ? 0.0 : errorRateSum / count;
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+    }
+
+    // ============================================================================
+    // RESULTADOS
+    // ============================================================================
+
+    public static class TimedWindow {
+        private final Duration start;
+        private final Duration end;
+        private final double targetTps;
+        private final double tps;
+        private final long p99Millis;
+        private final double errorRate;
+        private final long completed;
+
+        public TimedWindow(Duration start, Duration end, double targetTps, double tps,
+                           long p99Millis, double errorRate, long completed) {
+            this.start = start;
+            this.end = end;
+            this.targetTps = targetTps;
+            this.tps = tps;
+            this.p99Millis = p99Millis;
+            this.errorRate = errorRate;
+            this.completed = completed;
+        }
+
+        public Duration getStart() {
+            return start;
+        }
+
+        public Duration getEnd() {
+            return end;
+        }
+
+        public double getTargetTps() {
+            return targetTps;
+        }
+
+        public double getTps() {
+            return tps;
+        }
+
+        public long getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+    }
+
+    public static class SpikeRecovery {
+        private final SpikeProfile.SpikeEvent event;
+        private final long peakP99Millis;
+        private final double peakErrorRate;
+        private final Duration recoveryTime;
+
+        public SpikeRecovery(SpikeProfile.SpikeEvent event, long peakP99Millis, double peakErrorRate,
+                             Duration recoveryTime) {
+            this.event = event;
+            this.peakP99Millis = peakP99Millis;
+            this.peakErrorRate = peakErrorRate;
+            this.recoveryTime = recoveryTime;
+        }
+
+        public SpikeProfile.SpikeEvent getEvent() {
+            return event;
+        }
+
+        public long getPeakP99Millis() {
+            return peakP99Millis;
+        }
+
+        public double getPeakErrorRate() {
+            return peakErrorRate;
+        }
+
+        /**
+         * @return null si no se recuperó antes del siguiente pico o del fin de la corrida
+         */
+        public Duration getRecoveryTime() {
+            return recoveryTime;
+        }
+
+        public boolean isRecovered() {
+            return recoveryTime != null;
+        }
+    }
+
+    public static class SpikeLoadResult {
+        private final SpikeProfile profile;
+        private final long baselineP99Millis;
+        private final double baselineErrorRate;
+        private final long p99Limit;
+        private final double errorRateLimit;
+        private final List<TimedWindow> windows;
+        private final List<SpikeRecovery> recoveries;
+        private final long dropped;
+        private final boolean baselineMissing;
+
+        public SpikeLoadResult(SpikeProfile profile, long baselineP99Millis, double baselineErrorRate,
+                               long p99Limit, double errorRateLimit, List<TimedWindow> windows,
+                               List<SpikeRecovery> recoveries, long dropped, boolean baselineMissing) {
+            this.profile = profile;
+            this.baselineP99Millis = baselineP99Millis;
+            this.baselineErrorRate = baselineErrorRate;
+            this.p99Limit = p99Limit;
+            this.errorRateLimit = errorRateLimit;
+            this.windows = windows;
+            this.recoveries = recoveries;
+            this.dropped = dropped;
+            this.baselineMissing = baselineMissing;
+        }
+
+        public long getBaselineP99Millis() {
+            return baselineP99Millis;
+        }
+
+        public double getBaselineErrorRate() {
+            return baselineErrorRate;
+        }
+
+        public List<TimedWindow> getWindows() {
+            return windows;
+        }
+
+        public List<SpikeRecovery> getRecoveries() {
+            return recoveries;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * true si no hubo ventanas base con tráfico: los umbrales de recuperación no significan nada
+         */
+        public boolean isBaselineMissing() {
+            return baselineMissing;
+        }
+
+        public long getRecoveredCount() {
+            return recoveries.stream().filter(SpikeRecovery::isRecovered).count();
+        }
+
+        public boolean allRecovered() {
+            return !baselineMissing && getRecoveredCount() == recoveries.size();
+        }
+
+        /**
+         * Peor tiempo de recuperación entre los picos recuperados
+         */
+        public Duration getMaxRecoveryTime() {
+            return recoveries.stream()
+                    .filter(SpikeRecovery::isRecovered)
+                    .map(SpikeRecovery::getRecoveryTime)
+                    .max(Duration::compareTo)
+                    .orElse(Duration.ZERO);
+        }
+
+        public String toSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append("⚡ SPIKE / BURST LOAD\n");
+            summary.append("─────────────────────────────────────────────────────\n");
+            summary.append(String.format("Baseline rate:          %9.1f TPS\n", profile.getBaselineTps()));
+            if (baselineMissing) {
+                summary.append("Baseline p99 / errors:  MISSING (no baseline windows)\n");
+            } else {
+                summary.append(String.format("Baseline p99 / errors:  %6d ms / %.2f%%\n",
+                        baselineP99Millis, baselineErrorRate * 100));
+            }
+            summary.append(String.format("Recovery thresholds:    p99 <= %dms, errors <= %.2f%%\n",
+                    p99Limit, errorRateLimit * 100));
+            summary.append(String.format("Dropped (max in-flight):%9d\n", dropped));
+            summary.append(String.format("Recovered spikes:       %6d / %d\n", getRecoveredCount(), recoveries.size()));
+            summary.append("\n#   start   dur    x   peak p99  peak err   recovery\n");
+            for (int i = 0; i < recoveries.size(); i++) {
+                SpikeRecovery r = recoveries.get(i);
+                summary.append(String.format("%-3d %5ds %4ds %4.1f %8dms %8.2f%%   %s\n",
+                        i, r.getEvent().getStart().toSeconds(), r.getEvent().getDuration().toSeconds(),
+                        r.getEvent().getMultiplier(), r.getPeakP99Millis(), r.getPeakErrorRate() * 100,
+                        r.isRecovered() ? r.getRecoveryTime().toMillis() + "ms" : "NOT RECOVERED"));
+            }
+            return summary.toString();
+        }
+    }
+}
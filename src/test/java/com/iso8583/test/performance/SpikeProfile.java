@@ -0,0 +1,116 @@
+package com.iso8583.test.performance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Perfil de tráfico con picos sobre una tasa base (pagos de quincena, feriados)
+ *
+ * Ejemplos:
+ * - {@code SpikeProfile.baseline(20).spike(Duration.ofMinutes(2), Duration.ofSeconds(30), 10)}
+ *   → 20 TPS con un pico de 200 TPS durante 30s al minuto 2
+ * - {@code SpikeProfile.baseline(20).periodicBursts(Duration.ofMinutes(1), Duration.ofSeconds(5), 3, total)}
+ *   → ráfagas de 60 TPS de 5s cada minuto
+ */
+public class SpikeProfile implements OpenModelScheduler.RateProfile {
+
+    private final double baselineTps;
+    private final List<SpikeEvent> events = new ArrayList<>();
+
+    private SpikeProfile(double baselineTps) {
+        if (baselineTps <= 0) {
+            throw new IllegalArgumentException("La tasa base debe ser mayor a 0: " + baselineTps);
+        }
+        this.baselineTps = baselineTps;
+    }
+
+    public static SpikeProfile baseline(double baselineTps) {
+        return new SpikeProfile(baselineTps);
+    }
+
+    /**
+     * Agrega un pico de {@code multiplier} veces la tasa base
+     */
+    public SpikeProfile spike(Duration start, Duration duration, double multiplier) {
+        events.add(new SpikeEvent(start, duration, multiplier));
+        events.sort(Comparator.comparing(SpikeEvent::getStart));
+        return this;
+    }
+
+    /**
+     * Agrega ráfagas periódicas desde {@code period} hasta {@code until}
+     */
+    public SpikeProfile periodicBursts(Duration period, Duration burstDuration, double multiplier, Duration until) {
+        if (burstDuration.compareTo(period) >= 0) {
+            throw new IllegalArgumentException("La ráfaga debe ser más corta que el período");
+        }
+        for (Duration start = period; start.plus(burstDuration).compareTo(until) <= 0; start = start.plus(period)) {
+            spike(start, burstDuration, multiplier);
+        }
+        return this;
+    }
+
+    @Override
+    public double tpsAt(long elapsedNanos) {
+        double multiplier = 1.0;
+        for (SpikeEvent event : events) {
+            if (event.isActiveAt(elapsedNanos)) {
+                multiplier = Math.max(multiplier, event.getMultiplier());
+            }
+        }
+        return baselineTps * multiplier;
+    }
+
+    public double getBaselineTps() {
+        return baselineTps;
+    }
+
+    public List<SpikeEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Momento en que empieza el primer pico (fin del periodo base limpio)
+     */
+    public Duration getFirstSpikeStart() {
+        return events.isEmpty() ? Duration.ZERO : events.get(0).getStart();
+    }
+
+    public static class SpikeEvent {
+        private final Duration start;
+        private final Duration duration;
+        private final double multiplier;
+
+        public SpikeEvent(Duration start, Duration duration, double multiplier) {
+            if (multiplier <= 0) {
+                throw new IllegalArgumentException("El multiplicador debe ser mayor a 0: " + multiplier);
+            }
+            this.start = start;
+            this.duration = duration;
+            this.multiplier = multiplier;
+        }
+
+        boolean isActiveAt(long elapsedNanos) {
+            return elapsedNanos >= start.toNanos() && elapsedNanos < getEnd().toNanos();
+        }
+
+        public Duration getStart() {
+            return start;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public Duration getEnd() {
+            return start.plus(duration);
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+    }
+}
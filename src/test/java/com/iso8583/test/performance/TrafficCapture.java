@@ -0,0 +1,171 @@
+package com.iso8583.test.performance;
+
+import com.google.gson.Gson;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Captura de tráfico para replay: cada {@link TransactionRequest} enviado,
+ * con el instante de envío y el resultado, en formato JSON Lines.
+ *
+ * A diferencia del {@link TransactionJournal} guarda el request completo
+ * (PAN sin enmascarar incluido) para poder re-enviarlo tal cual: usar solo
+ * con tarjetas de prueba.
+ *
+ * Las líneas se escriben al completar la transacción, así que el archivo
+ * puede venir desordenado hasta en un timeout; el {@link TrafficReplayer}
+ * lo reordena con una ventana de ese tamaño.
+ */
+public class TrafficCapture implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficCapture.class);
+
+    private static final Gson gson = new Gson();
+
+    private final Path path;
+    private final BufferedWriter writer;
+    private final long originNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder captured = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+    private volatile boolean closed = false;
+
+    public TrafficCapture(Path path) throws IOException {
+        this.path = path;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        this.originNanos = System.nanoTime();
+        logger.info("🎙️ Captura de tráfico activa: {}", path.toAbsolutePath());
+    }
+
+    /**
+     * Registra una transacción enviada en {@code sendStartNanos} (System.nanoTime)
+     */
+    public void record(TransactionRequest request, TransactionResponse response, long sendStartNanos, long latencyNanos) {
+        if (closed) {
+            return;
+        }
+        String line = gson.toJson(CapturedTransaction.of(request, response,
+                sendStartNanos - originNanos, latencyNanos));
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            writer.write(line);
+            writer.newLine();
+            captured.increment();
+        } catch (IOException e) {
+            writeErrors.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCaptured() {
+        return captured.sum();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+        if (writeErrors.sum() > 0) {
+            logger.warn("⚠️ Captura cerrada con {} errores de escritura", writeErrors.sum());
+        }
+        logger.info("🎙️ Captura cerrada - {} transacciones en {}", getCaptured(), path);
+    }
+
+    // ============================================================================
+    // REGISTRO CAPTURADO
+    // ============================================================================
+
+    /**
+     * Una transacción capturada: request completo + resultado original
+     */
+    public static class CapturedTransaction {
+        private long offsetMicros;
+        private long epochMillis;
+        private TransactionRequest request;
+        private String responseCode;
+        private String errorType;
+        private long latencyMicros;
+
+        static CapturedTransaction of(TransactionRequest request, TransactionResponse response,
+                                      long offsetNanos, long latencyNanos) {
+            CapturedTransaction captured = new CapturedTransaction();
+            captured.offsetMicros = offsetNanos / 1_000;
+            captured.epochMillis = System.currentTimeMillis() - latencyNanos / 1_000_000;
+            captured.request = request;
+            captured.latencyMicros = latencyNanos / 1_000;
+            if (response != null) {
+                captured.responseCode = response.getResponseCode();
+                captured.errorType = response.getErrorType();
+            } else {
+                captured.errorType = "EXCEPTION";
+            }
+            return captured;
+        }
+
+        static CapturedTransaction parse(String line) {
+            return gson.fromJson(line, CapturedTransaction.class);
+        }
+
+        /**
+         * Clave de orden: las transacciones de una misma terminal se re-envían en orden
+         */
+        public String getOrderingKey() {
+            return request != null && request.getTerminalId() != null ? request.getTerminalId() : "";
+        }
+
+        public long getOffsetMicros() {
+            return offsetMicros;
+        }
+
+        public long getEpochMillis() {
+            return epochMillis;
+        }
+
+        public TransactionRequest getRequest() {
+            return request;
+        }
+
+        public String getResponseCode() {
+            return responseCode;
+        }
+
+        public String getErrorType() {
+            return errorType;
+        }
+
+        public long getLatencyMicros() {
+            return latencyMicros;
+        }
+    }
+}
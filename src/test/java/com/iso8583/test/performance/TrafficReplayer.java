@@ -0,0 +1,288 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.services.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-envía un archivo de {@link TrafficCapture} contra el simulador
+ *
+ * - Un solo hilo lee el archivo en streaming (no se carga completo en memoria)
+ *   y lo reordena por offset con una ventana acotada.
+ * - Cada transacción va al carril de su terminal en un
+ *   {@link KeyedOrderedExecutor#perKey()}: un carril por terminal exacta,
+ *   así terminales distintas nunca se esperan entre sí y una misma terminal
+ *   respeta el orden capturado.
+ * - {@code maxOutstanding} acota lo pendiente (en vuelo + esperando su
+ *   turno en la terminal) para que {@code max} no llene la memoria.
+ */
+public class TrafficReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficReplayer.class);
+
+    private final TransactionService transactionService;
+    private final ReplayTiming timing;
+    private final int maxOutstanding;
+    private final Duration reorderWindow;
+
+    public TrafficReplayer(TransactionService transactionService, ReplayTiming timing,
+                           int maxOutstanding, Duration reorderWindow) {
+        this.transactionService = transactionService;
+        this.timing = timing;
+        this.maxOutstanding = maxOutstanding;
+        this.reorderWindow = reorderWindow;
+    }
+
+    public ReplayResult replay(Path captureFile) throws IOException {
+        logger.info("⏯️ Replay de {} - velocidad: {}, máx. pendientes: {}", captureFile, timing, maxOutstanding);
+
+        Semaphore outstanding = new Semaphore(maxOutstanding);
+        PriorityQueue<TrafficCapture.CapturedTransaction> reorderBuffer =
+                new PriorityQueue<>(Comparator.comparingLong(TrafficCapture.CapturedTransaction::getOffsetMicros));
+        ReplayStats stats = new ReplayStats();
+        long reorderWindowMicros = TimeUnit.NANOSECONDS.toMicros(reorderWindow.toNanos());
+        long start = System.nanoTime();
+
+        try (KeyedOrderedExecutor terminals = KeyedOrderedExecutor.perKey();
+             BufferedReader reader = Files.newBufferedReader(captureFile, StandardCharsets.UTF_8)) {
+
+            long maxOffsetRead = Long.MIN_VALUE;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                TrafficCapture.CapturedTransaction captured;
+                try {
+                    captured = TrafficCapture.CapturedTransaction.parse(line);
+                } catch (RuntimeException e) {
+                    stats.malformed.increment();
+                    continue;
+                }
+                if (captured == null || captured.getRequest() == null) {
+                    stats.malformed.increment();
+                    continue;
+                }
+                reorderBuffer.add(captured);
+                maxOffsetRead = Math.max(maxOffsetRead, captured.getOffsetMicros());
+
+                // Solo sale del buffer lo que ya no puede ser precedido por una línea posterior
+                while (!reorderBuffer.isEmpty()
+                        && reorderBuffer.peek().getOffsetMicros() <= maxOffsetRead - reorderWindowMicros) {
+                    dispatch(reorderBuffer.poll(), start, outstanding, terminals, stats);
+                }
+            }
+            while (!reorderBuffer.isEmpty()) {
+                dispatch(reorderBuffer.poll(), start, outstanding, terminals, stats);
+            }
+
+            logger.info("⏳ Archivo leído - esperando {} transacciones pendientes",
+                    maxOutstanding - outstanding.availablePermits());
+            // Al cerrar, el executor espera a que se vacíen todos los carriles
+        }
+
+        ReplayResult result = new ReplayResult(timing.toString(), stats, System.nanoTime() - start);
+        logger.info("🏁 Replay finalizado - {} transacciones, {} TPS (capturado: {} TPS)",
+                result.getReplayed(), String.format("%.1f", result.getReplayTps()),
+                String.format("%.1f", result.getCapturedTps()));
+        return result;
+    }
+
+    private void dispatch(TrafficCapture.CapturedTransaction captured, long start, Semaphore outstanding,
+                          KeyedOrderedExecutor terminals, ReplayStats stats) {
+        stats.onDispatch(captured);
+
+        long intendedNanos = start + timing.targetOffsetNanos(TimeUnit.MICROSECONDS.toNanos(captured.getOffsetMicros()));
+        parkUntil(intendedNanos);
+
+        outstanding.acquireUninterruptibly();
+
+        // El carril de la terminal sigue aunque una transacción anterior haya fallado
+        terminals.execute(captured.getOrderingKey(), () -> {
+            try {
+                stats.scheduleLag.recordNanos(Math.max(0, System.nanoTime() - intendedNanos));
+                long sendStart = System.nanoTime();
+                TransactionResponse response = null;
+                TransactionRequest request = captured.getRequest();
+                // RRN y fecha/hora de transmisión son de cada envío: el replay no repite los capturados
+                request.setRetrievalReferenceNumber(null);
+                request.setTransmissionDateTime(null);
+                try {
+                    response = transactionService.sendTransaction(request);
+                } catch (Exception e) {
+                    // se cuenta como error
+                }
+                stats.onCompleted(captured, response, System.nanoTime() - sendStart);
+            } finally {
+                outstanding.release();
+            }
+        });
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    // ============================================================================
+    // ESTADÍSTICAS
+    // ============================================================================
+
+    private static final class ReplayStats {
+        private final LoadWindow total = new LoadWindow();
+        private final LatencyHistogram scheduleLag = new LatencyHistogram();
+        private final LongAdder matchedOutcome = new LongAdder();
+        private final LongAdder divergedOutcome = new LongAdder();
+        private final LongAdder malformed = new LongAdder();
+        private long dispatched;
+        private long firstCapturedMicros = -1;
+        private long lastCapturedMicros;
+
+        // Solo lo llama el hilo lector
+        private void onDispatch(TrafficCapture.CapturedTransaction captured) {
+            dispatched++;
+            if (firstCapturedMicros < 0) {
+                firstCapturedMicros = captured.getOffsetMicros();
+            }
+            lastCapturedMicros = Math.max(lastCapturedMicros, captured.getOffsetMicros());
+        }
+
+        private void onCompleted(TrafficCapture.CapturedTransaction captured, TransactionResponse response,
+                                 long latencyNanos) {
+            total.record(response, latencyNanos);
+            String replayedCode = response != null ? response.getResponseCode() : null;
+            if (Objects.equals(captured.getResponseCode(), replayedCode)) {
+                matchedOutcome.increment();
+            } else {
+                divergedOutcome.increment();
+            }
+        }
+    }
+
+    // ============================================================================
+    // RESULTADO
+    // ============================================================================
+
+    public static class ReplayResult {
+        private final String timing;
+        private final long replayed;
+        private final long completed;
+        private final long approved;
+        private final long errors;
+        private final long timeouts;
+        private final long matchedOutcome;
+        private final long divergedOutcome;
+        private final long malformed;
+        private final long capturedSpanMicros;
+        private final long replaySpanNanos;
+        private final LatencyHistogram latencies;
+        private final LatencyHistogram scheduleLag;
+
+        private ReplayResult(String timing, ReplayStats stats, long replaySpanNanos) {
+            this.timing = timing;
+            this.replayed = stats.dispatched;
+            this.completed = stats.total.getCompleted();
+            this.approved = stats.total.getApproved();
+            this.errors = stats.total.getErrors();
+            this.timeouts = stats.total.getTimeouts();
+            this.matchedOutcome = stats.matchedOutcome.sum();
+            this.divergedOutcome = stats.divergedOutcome.sum();
+            this.malformed = stats.malformed.sum();
+            this.capturedSpanMicros = stats.firstCapturedMicros < 0 ? 0
+                    : stats.lastCapturedMicros - stats.firstCapturedMicros;
+            this.replaySpanNanos = replaySpanNanos;
+            this.latencies = stats.total.getHistogram();
+            this.scheduleLag = stats.scheduleLag;
+        }
+
+        public long getReplayed() {
+            return replayed;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getApproved() {
+            return approved;
+        }
+
+        public double getErrorRate() {
+            return completed == 0 ? 0.0 : (double) (errors + timeouts) / completed;
+        }
+
+        public long getMatchedOutcome() {
+            return matchedOutcome;
+        }
+
+        public long getDivergedOutcome() {
+            return divergedOutcome;
+        }
+
+        public long getMalformed() {
+            return malformed;
+        }
+
+        public double getCapturedTps() {
+            return capturedSpanMicros == 0 ? 0.0 : replayed * 1_000_000.0 / capturedSpanMicros;
+        }
+
+        public double getReplayTps() {
+            return replaySpanNanos == 0 ? 0.0 : completed * 1_000_000_000.0 / replaySpanNanos;
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        /**
+         * Atraso entre el instante programado y el envío real (cola de la terminal o del executor)
+         */
+        public LatencyHistogram getScheduleLag() {
+            return scheduleLag;
+        }
+
+        public String toSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append("⏯️ TRAFFIC REPLAY\n");
+            summary.append("─────────────────────────────────────────────────────\n");
+            summary.append(String.format("Timing:                 %s\n", timing));
+            summary.append(String.format("Replayed / completed:   %9d / %d (malformed lines: %d)\n",
+                    replayed, completed, malformed));
+            summary.append(String.format("Captured span / TPS:    %9ds / %.1f\n",
+                    capturedSpanMicros / 1_000_000, getCapturedTps()));
+            summary.append(String.format("Replay span / TPS:      %9ds / %.1f\n",
+                    TimeUnit.NANOSECONDS.toSeconds(replaySpanNanos), getReplayTps()));
+            summary.append(String.format("Approved:               %9d\n", approved));
+            summary.append(String.format("Errors / timeouts:      %9d / %d (%.2f%%)\n",
+                    errors, timeouts, getErrorRate() * 100));
+            summary.append(String.format("Same / different code:  %9d / %d\n", matchedOutcome, divergedOutcome));
+            summary.append(String.format("P50 / P99 / Max:        %6d / %d / %d ms\n",
+                    latencies.getValueAtPercentileMillis(50),
+                    latencies.getValueAtPercentileMillis(99),
+                    TimeUnit.MICROSECONDS.toMillis(latencies.getMaxMicros())));
+            summary.append(String.format("Schedule lag P99 / Max: %6d / %d ms\n",
+                    scheduleLag.getValueAtPercentileMillis(99),
+                    TimeUnit.MICROSECONDS.toMillis(scheduleLag.getMaxMicros())));
+            return summary.toString();
+        }
+    }
+}
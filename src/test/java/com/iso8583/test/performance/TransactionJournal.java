@@ -0,0 +1,261 @@
+package com.iso8583.test.performance;
+
+import com.google.gson.Gson;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Journal de transacciones en formato JSON Lines (una transacción por línea)
+ *
+ * Lo escriben los modos de carga fuera de Cucumber (CLI) para poder analizar
+ * la corrida después ({@link JournalReconciler}). Los reversos automáticos
+ * quedan como líneas 0400 con el RRN del original. Usa ReentrantLock y no synchronized para no fijar
+ * (pin) los virtual threads del scheduler mientras se escribe a disco.
+ */
+public class TransactionJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionJournal.class);
+
+    private static final Gson gson = new Gson();
+
+    private final Path path;
+    private final BufferedWriter writer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    public TransactionJournal(Path path) throws IOException {
+        this.path = path;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        logger.info("📒 Journal de transacciones: {}", path.toAbsolutePath());
+    }
+
+    /**
+     * Registra una transacción; {@code response} puede ser null si hubo excepción
+     */
+    public void record(TransactionRequest request, TransactionResponse response, long latencyNanos) {
+        write(gson.toJson(Entry.of(request, response, latencyNanos)));
+    }
+
+    /**
+     * Registra el resultado final de un reverso 0400 de {@code original}
+     *
+     * @param responseCode último 39 recibido (00 reversado, 25 original no encontrado), o null
+     */
+    public void recordReversal(TransactionRequest original, String stan, String rrn, String originalRrn,
+                               String responseCode, long latencyNanos) {
+        write(gson.toJson(Entry.reversalOf(original, stan, rrn, originalRrn, responseCode, latencyNanos)));
+    }
+
+    private void write(String line) {
+        lock.lock();
+        try {
+            writer.write(line);
+            writer.newLine();
+            written.increment();
+        } catch (IOException e) {
+            writeErrors.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getWriteErrors() {
+        return writeErrors.sum();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+        if (getWriteErrors() > 0) {
+            logger.warn("⚠️ Journal cerrado con {} errores de escritura", getWriteErrors());
+        }
+        logger.info("📒 Journal cerrado - {} transacciones en {}", getWritten(), path);
+    }
+
+    // ============================================================================
+    // ENTRADA DEL JOURNAL
+    // ============================================================================
+
+    /**
+     * Una línea del journal (el PAN se guarda enmascarado)
+     *
+     * Journals viejos no traen mti: se leen como 0200.
+     */
+    public static class Entry {
+        private long timestampMillis;
+        private String mti;
+        private String transactionType;
+        private String processingCode;
+        private String currencyCode;
+        private String terminalId;
+        private String maskedPan;
+        private String account;
+        private String amount;
+        private String stan;
+        private String rrn;
+        private String originalRrn;
+        private String responseCode;
+        private String errorType;
+        private boolean approved;
+        private long latencyMicros;
+
+        static Entry of(TransactionRequest request, TransactionResponse response, long latencyNanos) {
+            Entry entry = new Entry();
+            entry.mti = "0200";
+            entry.timestampMillis = System.currentTimeMillis();
+            entry.latencyMicros = latencyNanos / 1_000;
+            entry.copyRequest(request);
+            if (request != null) {
+                // Los que salieron en el request; un timeout no trae otros
+                entry.stan = request.getStan();
+                entry.rrn = request.getRetrievalReferenceNumber();
+            }
+            if (response != null) {
+                if (response.getStan() != null) {
+                    entry.stan = response.getStan();
+                }
+                if (response.getRrn() != null) {
+                    entry.rrn = response.getRrn();
+                }
+                entry.responseCode = response.getResponseCode();
+                entry.errorType = response.getErrorType();
+                entry.approved = response.isApproved();
+            } else {
+                entry.errorType = "EXCEPTION";
+            }
+            return entry;
+        }
+
+        static Entry reversalOf(TransactionRequest original, String stan, String rrn, String originalRrn,
+                                String responseCode, long latencyNanos) {
+            Entry entry = new Entry();
+            entry.mti = "0400";
+            entry.timestampMillis = System.currentTimeMillis();
+            entry.latencyMicros = latencyNanos / 1_000;
+            entry.copyRequest(original);
+            entry.stan = stan;
+            entry.rrn = rrn;
+            entry.originalRrn = originalRrn;
+            entry.responseCode = responseCode;
+            entry.approved = "00".equals(responseCode);
+            return entry;
+        }
+
+        private void copyRequest(TransactionRequest request) {
+            if (request == null) {
+                return;
+            }
+            transactionType = request.getTransactionType() != null ? request.getTransactionType().getCode() : null;
+            processingCode = request.getProcessingCode();
+            currencyCode = request.getCurrencyCode();
+            terminalId = request.getTerminalId();
+            maskedPan = maskPan(request.getPan());
+            account = request.getAccount();
+            amount = request.getAmount();
+        }
+
+        private static String maskPan(String pan) {
+            if (pan == null || pan.length() < 10) {
+                return pan;
+            }
+            return pan.substring(0, 6) + "*".repeat(pan.length() - 10) + pan.substring(pan.length() - 4);
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public String getMti() {
+            return mti == null ? "0200" : mti;
+        }
+
+        public boolean isReversal() {
+            return getMti().startsWith("04");
+        }
+
+        public String getTransactionType() {
+            return transactionType;
+        }
+
+        public String getProcessingCode() {
+            return processingCode;
+        }
+
+        public String getCurrencyCode() {
+            return currencyCode;
+        }
+
+        public String getTerminalId() {
+            return terminalId;
+        }
+
+        public String getMaskedPan() {
+            return maskedPan;
+        }
+
+        public String getAccount() {
+            return account;
+        }
+
+        public String getAmount() {
+            return amount;
+        }
+
+        public String getStan() {
+            return stan;
+        }
+
+        public String getRrn() {
+            return rrn;
+        }
+
+        public String getOriginalRrn() {
+            return originalRrn;
+        }
+
+        public String getResponseCode() {
+            return responseCode;
+        }
+
+        public String getErrorType() {
+            return errorType;
+        }
+
+        public boolean isApproved() {
+            return approved;
+        }
+
+        public long getLatencyMicros() {
+            return latencyMicros;
+        }
+    }
+}
@@ -0,0 +1,572 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.services.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Flota de terminales virtuales (ATM / POS), cada una con su propia sesión
+ *
+ * Cada terminal tiene su terminalId (campo 41), cardAcceptorId (campo 42),
+ * secuencia de STAN (campo 11, 000001-999999 y vuelta, la misma que usan
+ * los reversos de {@link TransactionService}), cadencia de echo
+ * 0800 y un pool de tarjetas propio, disjunto del de las demás. Corre en su
+ * propio hilo virtual con una sola transacción en curso, como una terminal
+ * real: miles de terminales cuestan miles de hilos virtuales, no de plataforma.
+ *
+ * Las llegadas de cada terminal son Poisson con media flota / tasa total, así
+ * la suma de la flota es la tasa pedida. Si la terminal sigue ocupada cuando
+ * le toca la siguiente, esa llegada se pierde (una terminal no encola) y se
+ * cuenta como atrasada. Cualquier mensaje reinicia el keep-alive; el echo
+ * sale solo si la terminal estuvo ociosa todo el intervalo.
+ *
+ *   performance.terminals.count=1000
+ *   performance.terminals.id-format=AT%04dLP
+ *   performance.terminals.acceptor-format=409911%09d
+ *   performance.terminals.cards-per-terminal=20
+ *   performance.terminals.keep-alive-seconds=60
+ */
+public class VirtualTerminalFleet {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualTerminalFleet.class);
+
+    private static final int TERMINAL_ID_LENGTH = 8;
+    private static final int ACCEPTOR_ID_LENGTH = 15;
+    private static final int TOP_TERMINALS = 5;
+
+    private final TransactionService transactionService;
+    private final Supplier<TransactionRequest> workload;
+    private final List<VirtualTerminal> terminals;
+    private final double rateTps;
+    private final long meanIntervalNanos;
+    private final long keepAliveNanos;
+    private volatile ResponseListener listener;
+    private LoadWindow total;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private VirtualTerminalFleet(Builder builder) {
+        this.transactionService = builder.transactionService;
+        this.workload = builder.workload;
+        this.rateTps = builder.rateTps;
+        this.meanIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * builder.terminalCount / builder.rateTps);
+        this.keepAliveNanos = builder.keepAlive.toNanos();
+
+        this.terminals = new ArrayList<>(builder.terminalCount);
+        for (int i = 0; i < builder.terminalCount; i++) {
+            int number = builder.firstTerminal + i;
+            String[] track2s = new String[builder.cardsPerTerminal];
+            for (int c = 0; c < track2s.length; c++) {
+                long card = (long) number * builder.cardsPerTerminal + c;
+                track2s[c] = builder.cardFile != null ? builder.cardFile.track2(card) : builder.generator.track2(card);
+            }
+            terminals.add(new VirtualTerminal(
+                    format(builder.idFormat, number, TERMINAL_ID_LENGTH, "terminalId"),
+                    format(builder.acceptorFormat, number, ACCEPTOR_ID_LENGTH, "cardAcceptorId"),
+                    track2s));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder con la flota de performance.terminals.* y las tarjetas de performance.cards.* (el archivo
+     * de performance.cards.file si está, si no el {@link CardGenerator} de configuración)
+     */
+    public static Builder builder(ConfigurationManager config) {
+        String cardFile = config.getProperty("performance.cards.file", "");
+        return new Builder()
+                .terminalCount(config.getIntProperty("performance.terminals.count", 1000))
+                .idFormat(config.getProperty("performance.terminals.id-format", "AT%04dLP"))
+                .acceptorFormat(config.getProperty("performance.terminals.acceptor-format", "409911%09d"))
+                .cardsPerTerminal(config.getIntProperty("performance.terminals.cards-per-terminal", 20))
+                .keepAlive(Duration.ofSeconds(config.getLongProperty("performance.terminals.keep-alive-seconds", 60)))
+                .cards(CardGenerator.fromConfig(config))
+                .cardFile(cardFile.isBlank() ? null : openCardFile(Path.of(cardFile.trim())));
+    }
+
+    private static CardFile openCardFile(Path path) {
+        try {
+            return CardFile.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo de tarjetas " + path, e);
+        }
+    }
+
+    private static String format(String pattern, int number, int length, String field) {
+        String value = String.format(pattern, number);
+        if (value.length() != length) {
+            throw new IllegalArgumentException(String.format(
+                    "%s '%s' de la terminal %d debe tener %d caracteres (formato %s)",
+                    field, value, number, length, pattern));
+        }
+        return value;
+    }
+
+    // ============================================================================
+    // EJECUCIÓN
+    // ============================================================================
+
+    /**
+     * Corre la flota durante {@code duration}; al volver, todas las terminales terminaron su última transacción
+     */
+    public FleetResult run(Duration duration) throws InterruptedException {
+        Instant startedAt = Instant.now();
+        total = new LoadWindow();
+        long startNanos = total.getStartNanos();
+        long endNanos = startNanos + duration.toNanos();
+
+        logger.info("🏧 Flota de {} terminales virtuales a {} TPS durante {}s (keep-alive {}s)",
+                terminals.size(), rateTps, duration.toSeconds(), TimeUnit.NANOSECONDS.toSeconds(keepAliveNanos));
+
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("vterm-", 0).factory())) {
+            for (VirtualTerminal terminal : terminals) {
+                executor.execute(() -> runTerminal(terminal, startNanos, endNanos));
+            }
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("Flota de terminales interrumpida");
+        }
+
+        FleetResult result = new FleetResult(startedAt, Instant.now(), rateTps, terminals.size(),
+                total, System.nanoTime(), List.copyOf(terminals));
+        logger.info("🏧 Flota terminada: {} transacciones, {} echos", total.getCompleted(), result.getEchoes());
+        return result;
+    }
+
+    private void runTerminal(VirtualTerminal terminal, long startNanos, long endNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // La primera llegada y el primer echo también son aleatorios: la flota no arranca en fila
+        long nextArrival = startNanos + exponential(random);
+        long nextEcho = keepAliveNanos > 0 ? startNanos + 1 + random.nextLong(keepAliveNanos) : Long.MAX_VALUE;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean echo = keepAliveNanos > 0 && nextEcho - nextArrival < 0;
+            long wake = echo ? nextEcho : nextArrival;
+            if (wake - endNanos >= 0) {
+                return;
+            }
+            parkUntil(wake);
+
+            if (echo) {
+                terminal.echo(transactionService);
+            } else {
+                transact(terminal);
+                long now = System.nanoTime();
+                nextArrival += exponential(random);
+                while (nextArrival - now < 0) {
+                    // Llegadas que cayeron mientras la terminal estaba ocupada
+                    terminal.late++;
+                    nextArrival += exponential(random);
+                }
+            }
+            if (keepAliveNanos > 0) {
+                nextEcho = System.nanoTime() + keepAliveNanos;
+            }
+        }
+    }
+
+    private void transact(VirtualTerminal terminal) {
+        TransactionRequest request = terminal.prepare(workload.get(), transactionService);
+        inFlight.incrementAndGet();
+        long sendStart = System.nanoTime();
+        TransactionResponse response = null;
+        try {
+            response = transactionService.sendTransaction(request);
+        } catch (Exception e) {
+            // la respuesta queda en null y se cuenta como error
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        long latency = System.nanoTime() - sendStart;
+        total.record(response, latency);
+        terminal.recordResult(response, latency);
+        ResponseListener current = listener;
+        if (current != null) {
+            current.onResponse(request, response, latency);
+        }
+    }
+
+    private long exponential(ThreadLocalRandom random) {
+        return (long) (-Math.log(1.0 - random.nextDouble()) * meanIntervalNanos);
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Recibe cada transacción además de las métricas propias de la flota (null para ninguno)
+     */
+    public void setListener(ResponseListener listener) {
+        this.listener = listener;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public List<VirtualTerminal> getTerminals() {
+        return terminals;
+    }
+
+    /**
+     * Recibe cada transacción de la flota (journal, progreso), desde el hilo de la terminal
+     */
+    @FunctionalInterface
+    public interface ResponseListener {
+        void onResponse(TransactionRequest request, TransactionResponse response, long latencyNanos);
+    }
+
+    // ============================================================================
+    // TERMINAL
+    // ============================================================================
+
+    /**
+     * Estado de sesión de una terminal; solo lo toca su hilo virtual mientras la flota corre
+     */
+    public static final class VirtualTerminal {
+        private final String terminalId;
+        private final String cardAcceptorId;
+        private final String[] track2s;
+        private int nextCard;
+        private long transactions;
+        private long errors;
+        private long echoes;
+        private long failedEchoes;
+        private long late;
+        private long maxLatencyNanos;
+
+        private VirtualTerminal(String terminalId, String cardAcceptorId, String[] track2s) {
+            this.terminalId = terminalId;
+            this.cardAcceptorId = cardAcceptorId;
+            this.track2s = track2s;
+        }
+
+        private TransactionRequest prepare(TransactionRequest request, TransactionService transactionService) {
+            String track2 = track2s[nextCard];
+            nextCard = (nextCard + 1) % track2s.length;
+
+            request.setTerminalId(terminalId);
+            request.setCardAcceptorId(cardAcceptorId);
+            request.setStan(transactionService.nextStan(terminalId));
+            request.setPan(track2.substring(0, track2.indexOf(CardGenerator.TRACK2_SEPARATOR)));
+            if (request.getTrack2() != null) {
+                request.setTrack2(track2);
+            }
+            return request;
+        }
+
+        private void echo(TransactionService transactionService) {
+            echoes++;
+            if (!transactionService.sendEcho(terminalId, transactionService.nextStan(terminalId))) {
+                failedEchoes++;
+            }
+        }
+
+        private void recordResult(TransactionResponse response, long latencyNanos) {
+            transactions++;
+            // Mismo criterio que LoadWindow: un declinado no es error
+            if (response == null || response.isTimeout() || response.getErrorType() != null) {
+                errors++;
+            }
+            maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+        }
+
+        public String getTerminalId() {
+            return terminalId;
+        }
+
+        public String getCardAcceptorId() {
+            return cardAcceptorId;
+        }
+
+        public int getCardCount() {
+            return track2s.length;
+        }
+
+        public long getTransactions() {
+            return transactions;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getEchoes() {
+            return echoes;
+        }
+
+        public long getFailedEchoes() {
+            return failedEchoes;
+        }
+
+        public long getLate() {
+            return late;
+        }
+
+        public long getMaxLatencyMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos);
+        }
+    }
+
+    // ============================================================================
+    // BUILDER
+    // ============================================================================
+
+    public static class Builder {
+        private TransactionService transactionService;
+        private Supplier<TransactionRequest> workload;
+        private double rateTps = 50;
+        private int terminalCount = 1000;
+        private int firstTerminal = 1;
+        private String idFormat = "AT%04dLP";
+        private String acceptorFormat = "409911%09d";
+        private int cardsPerTerminal = 20;
+        private CardGenerator generator;
+        private CardFile cardFile;
+        private Duration keepAlive = Duration.ofSeconds(60);
+
+        private Builder() {
+        }
+
+        public Builder transactionService(TransactionService transactionService) {
+            this.transactionService = transactionService;
+            return this;
+        }
+
+        public Builder workload(Supplier<TransactionRequest> workload) {
+            this.workload = workload;
+            return this;
+        }
+
+        /**
+         * Tasa total de la flota; cada terminal genera rateTps / terminalCount
+         */
+        public Builder rateTps(double rateTps) {
+            this.rateTps = rateTps;
+            return this;
+        }
+
+        public Builder terminalCount(int terminalCount) {
+            this.terminalCount = terminalCount;
+            return this;
+        }
+
+        /**
+         * Número de la primera terminal (por defecto 1: AT0001LP)
+         */
+        public Builder firstTerminal(int firstTerminal) {
+            this.firstTerminal = firstTerminal;
+            return this;
+        }
+
+        /**
+         * Formato del terminalId a partir del número de terminal, 8 caracteres (ej. ATM%03dLP)
+         */
+        public Builder idFormat(String idFormat) {
+            this.idFormat = idFormat;
+            return this;
+        }
+
+        /**
+         * Formato del cardAcceptorId a partir del número de terminal, 15 caracteres
+         */
+        public Builder acceptorFormat(String acceptorFormat) {
+            this.acceptorFormat = acceptorFormat;
+            return this;
+        }
+
+        public Builder cardsPerTerminal(int cardsPerTerminal) {
+            this.cardsPerTerminal = cardsPerTerminal;
+            return this;
+        }
+
+        /**
+         * Generador de las tarjetas: la terminal n usa las tarjetas [n·cardsPerTerminal, (n+1)·cardsPerTerminal)
+         */
+        public Builder cards(CardGenerator generator) {
+            this.generator = generator;
+            return this;
+        }
+
+        /**
+         * Archivo de tarjetas pre-generadas (--cards); si está, manda sobre el generador
+         */
+        public Builder cardFile(CardFile cardFile) {
+            this.cardFile = cardFile;
+            return this;
+        }
+
+        /**
+         * Intervalo ocioso tras el cual la terminal envía un echo 0800 (cero = sin keep-alive)
+         */
+        public Builder keepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        public VirtualTerminalFleet build() {
+            if (transactionService == null || workload == null) {
+                throw new IllegalStateException("transactionService y workload son obligatorios");
+            }
+            if (generator == null && cardFile == null) {
+                throw new IllegalStateException("Faltan las tarjetas de la flota (cards o cardFile)");
+            }
+            if (terminalCount <= 0 || cardsPerTerminal <= 0 || firstTerminal < 0) {
+                throw new IllegalArgumentException("La flota necesita al menos una terminal con una tarjeta");
+            }
+            long cardsNeeded = ((long) firstTerminal + terminalCount) * cardsPerTerminal;
+            long cardsAvailable = cardFile != null ? cardFile.size() : generator.capacity();
+            if (cardsNeeded > cardsAvailable) {
+                throw new IllegalArgumentException(String.format(
+                        "La flota necesita %d tarjetas (%d terminales desde la %d, %d por terminal) y %s tiene %d",
+                        cardsNeeded, terminalCount, firstTerminal, cardsPerTerminal,
+                        cardFile != null ? cardFile.getPath() : "el BIN", cardsAvailable));
+            }
+            if (rateTps <= 0) {
+                throw new IllegalArgumentException("La tasa de la flota debe ser positiva: " + rateTps);
+            }
+            if (keepAlive == null || keepAlive.isNegative()) {
+                throw new IllegalArgumentException("keep-alive inválido: " + keepAlive);
+            }
+            return new VirtualTerminalFleet(this);
+        }
+    }
+
+    // ============================================================================
+    // RESULTADO
+    // ============================================================================
+
+    public static class FleetResult {
+        private final Instant startedAt;
+        private final Instant finishedAt;
+        private final double rateTps;
+        private final int terminalCount;
+        private final LoadWindow total;
+        private final long endNanos;
+        private final List<VirtualTerminal> terminals;
+
+        FleetResult(Instant startedAt, Instant finishedAt, double rateTps, int terminalCount,
+                    LoadWindow total, long endNanos, List<VirtualTerminal> terminals) {
+            this.startedAt = startedAt;
+            this.finishedAt = finishedAt;
+            this.rateTps = rateTps;
+            this.terminalCount = terminalCount;
+            this.total = total;
+            this.endNanos = endNanos;
+            this.terminals = terminals;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        public int getTerminalCount() {
+            return terminalCount;
+        }
+
+        public LoadWindow getTotal() {
+            return total;
+        }
+
+        public List<VirtualTerminal> getTerminals() {
+            return terminals;
+        }
+
+        public long getCompleted() {
+            return total.getCompleted();
+        }
+
+        public double getErrorRate() {
+            return total.getErrorRate();
+        }
+
+        public double getThroughput() {
+            return total.getThroughput(endNanos);
+        }
+
+        /**
+         * Terminales que no completaron ni una transacción
+         */
+        public long getIdleTerminals() {
+            return terminals.stream().filter(terminal -> terminal.getTransactions() == 0).count();
+        }
+
+        public long getEchoes() {
+            return terminals.stream().mapToLong(VirtualTerminal::getEchoes).sum();
+        }
+
+        public long getFailedEchoes() {
+            return terminals.stream().mapToLong(VirtualTerminal::getFailedEchoes).sum();
+        }
+
+        public long getLate() {
+            return terminals.stream().mapToLong(VirtualTerminal::getLate).sum();
+        }
+
+        public String toSummary() {
+            LatencyHistogram histogram = total.getHistogram();
+            long[] perTerminal = terminals.stream().mapToLong(VirtualTerminal::getTransactions).sorted().toArray();
+
+            StringBuilder summary = new StringBuilder();
+            summary.append("🏧 VIRTUAL TERMINAL FLEET\n");
+            summary.append("─────────────────────────────────────────────────────\n");
+            summary.append(String.format("Terminals:               %9d (%d idle)\n", terminalCount, getIdleTerminals()));
+            summary.append(String.format("Target rate / duration:  %9.1f TPS / %ds\n",
+                    rateTps, Duration.between(startedAt, finishedAt).toSeconds()));
+            summary.append(String.format("Completed:               %9d (%.1f TPS)\n", getCompleted(), getThroughput()));
+            summary.append(String.format("Approved:                %9d\n", total.getApproved()));
+            summary.append(String.format("Errors / timeouts:       %9d / %d (%.2f%%)\n",
+                    total.getErrors(), total.getTimeouts(), getErrorRate() * 100));
+            summary.append(String.format("Late arrivals (busy):    %9d\n", getLate()));
+            summary.append(String.format("Echo 0800 / failed:      %9d / %d\n", getEchoes(), getFailedEchoes()));
+            if (perTerminal.length > 0) {
+                summary.append(String.format("Tx/terminal min/p50/max: %9d / %d / %d\n",
+                        perTerminal[0], perTerminal[perTerminal.length / 2], perTerminal[perTerminal.length - 1]));
+            }
+            summary.append(String.format("P50 / P95 / P99 / Max:   %6d / %d / %d / %d ms\n",
+                    histogram.getValueAtPercentileMillis(50),
+                    histogram.getValueAtPercentileMillis(95),
+                    histogram.getValueAtPercentileMillis(99),
+                    TimeUnit.MICROSECONDS.toMillis(histogram.getMaxMicros())));
+            summary.append("Slowest terminals:\n");
+            terminals.stream()
+                    .filter(terminal -> terminal.getTransactions() > 0)
+                    .sorted(Comparator.comparingLong(VirtualTerminal::getMaxLatencyMillis).reversed())
+                    .limit(TOP_TERMINALS)
+                    .forEach(terminal -> summary.append(String.format("  %s  max %6d ms  tx %6d  errors %d\n",
+                            terminal.getTerminalId(), terminal.getMaxLatencyMillis(),
+                            terminal.getTransactions(), terminal.getErrors())));
+            return summary.toString();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.iso8583.test.performance;
+
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Fábricas de workloads para los modos de carga
+ * Un workload es simplemente un {@code Supplier<TransactionRequest>}
+ */
+public final class Workloads {
+
+    private Workloads() {
+    }
+
+    /**
+     * Workload de un solo tipo con los datos de prueba por defecto de la configuración
+     */
+    public static Supplier<TransactionRequest> fromConfig(ConfigurationManager config, TransactionType type) {
+        return () -> TransactionRequest.builder()
+                .transactionType(type)
+                .pan(config.getValidPan())
+                .track2(config.getValidTrack2())
+                .terminalId(config.getDefaultTerminalId())
+                .cardAcceptorId(config.getDefaultCardAcceptorId())
+                .account(config.getDefaultAccount())
+                .amount(config.getDefaultAmount())
+                .currencyCode(config.getCurrencyCode())
+                .applyDefaults()
+                .build();
+    }
+
+    /**
+     * Workload mixto a partir de una especificación tipo
+     * {@code "PURCHASE:70,BALANCE_INQUIRY:30"} (pesos relativos; sin peso = 1)
+     */
+    public static Supplier<TransactionRequest> mix(ConfigurationManager config, String spec) {
+        List<Supplier<TransactionRequest>> suppliers = new ArrayList<>();
+        List<Integer> cumulativeWeights = new ArrayList<>();
+        int total = 0;
+
+        for (String part : spec.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] typeAndWeight = trimmed.split(":");
+            int weight = typeAndWeight.length > 1 ? Integer.parseInt(typeAndWeight[1].trim()) : 1;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Peso inválido en el workload: " + trimmed);
+            }
+            total += weight;
+            suppliers.add(fromConfig(config, TransactionType.fromCode(typeAndWeight[0].trim())));
+            cumulativeWeights.add(total);
+        }
+
+        if (suppliers.isEmpty()) {
+            throw new IllegalArgumentException("Workload vacío: " + spec);
+        }
+        if (suppliers.size() == 1) {
+            return suppliers.get(0);
+        }
+
+        int totalWeight = total;
+        return () -> {
+            int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (int i = 0; i < suppliers.size(); i++) {
+                if (pick < cumulativeWeights.get(i)) {
+                    return suppliers.get(i).get();
+                }
+            }
+            return suppliers.get(suppliers.size() - 1).get();
+        };
+    }
+}
@@ -14,6 +14,8 @@ import static io.cucumber.junit.platform.engine.Constants.*;
  * - purchase.feature
  * - transfer.feature
  * - authorization.feature
+ *
+ * Excluye performance.feature (@Performance), que tiene su propio runner
  */
 @Suite
 @IncludeEngines("cucumber")
@@ -28,7 +30,7 @@ import static io.cucumber.junit.platform.engine.Constants.*;
         @ConfigurationParameter(key = GLUE_PROPERTY_NAME,
                 value = "com.iso8583.test.steps,com.iso8583.test.hooks,com.iso8583.test.config,com.iso8583.test.services,com.iso8583.test.client"),
         @ConfigurationParameter(key = FILTER_TAGS_PROPERTY_NAME,
-                value = "not @Skip"),
+                value = "not @Skip and not @Performance"),
         @ConfigurationParameter(key = PLUGIN_PUBLISH_QUIET_PROPERTY_NAME,
                 value = "true"),
         @ConfigurationParameter(key = EXECUTION_DRY_RUN_PROPERTY_NAME,
@@ -38,7 +40,7 @@ public class AllTestsRunner {
     // El runner está vacío - la configuración se hace mediante anotaciones
     /**
      * Este runner ejecuta TODOS los escenarios de TODOS los features
-     * exceptuando los marcados con @Skip
+     * exceptuando los marcados con @Skip o @Performance
      *
      * Para ejecutar:
      * mvn test -Dtest=AllTestsRunner
@@ -0,0 +1,51 @@
+package com.iso8583.test.runners;
+
+import org.junit.platform.suite.api.*;
+
+import static io.cucumber.junit.platform.engine.Constants.*;
+
+/**
+ * Cucumber JUnit Platform Runner para Performance Tests
+ * VERSIÓN SIN SPRING BOOT
+ */
+@Suite
+@IncludeEngines("cucumber")
+@SelectClasspathResource("features/performance.feature")
+@ConfigurationParameters({
+        @ConfigurationParameter(key = PLUGIN_PROPERTY_NAME,
+                value = "pretty," +
+                        "html:target/cucumber-reports/performance.html," +
+                        "json:target/cucumber-reports/performance.json," +
+                        "junit:target/cucumber-reports/performance.xml," +
+                        "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm"),
+        @ConfigurationParameter(key = GLUE_PROPERTY_NAME,
+                value = "com.iso8583.test.steps,com.iso8583.test.hooks,com.iso8583.test.config,com.iso8583.test.services,com.iso8583.test.client"),
+        @ConfigurationParameter(key = FILTER_TAGS_PROPERTY_NAME,
+                value = "@Performance and not @Skip and not @Soak"),
+        @ConfigurationParameter(key = PLUGIN_PUBLISH_QUIET_PROPERTY_NAME,
+                value = "true"),
+        @ConfigurationParameter(key = EXECUTION_DRY_RUN_PROPERTY_NAME,
+                value = "false")
+})
+public class PerformanceRunner {
+    // El runner está vacío - la configuración se hace mediante anotaciones
+    /**
+     * Este runner ejecuta todos los escenarios del feature performance.feature
+     * que tengan el tag @Performance y no tengan @Skip ni @Soak
+     *
+     * No corre con el build por defecto (ni en AllTestsRunner): las cargas
+     * duran minutos y necesitan el simulador dedicado.
+     *
+     * Para ejecutar:
+     * mvn test -Pperformance
+     *
+     * El soak de horas corre aparte con su propio runner (ver {@link SoakRunner}):
+     * mvn test -Psoak
+     *
+     * Para ejecutar solo la carga adaptativa (AIMD):
+     * mvn test -Pperformance -Dcucumber.filter.tags="@Adaptive"
+     *
+     * Para generar reporte Allure después:
+     * mvn allure:serve
+     */
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.iso8583.test.runners;
+
+import org.junit.platform.suite.api.*;
+
+import static io.cucumber.junit.platform.engine.Constants.*;
+
+/**
+ * Cucumber JUnit Platform Runner para el Soak Test (escenario @Soak de performance.feature)
+ * VERSIÓN SIN SPRING BOOT
+ */
+@Suite
+@IncludeEngines("cucumber")
+@SelectClasspathResource("features/performance.feature")
+@ConfigurationParameters({
+        @ConfigurationParameter(key = PLUGIN_PROPERTY_NAME,
+                value = "pretty," +
+                        "html:target/cucumber-reports/soak.html," +
+                        "json:target/cucumber-reports/soak.json," +
+                        "junit:target/cucumber-reports/soak.xml," +
+                        "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm"),
+        @ConfigurationParameter(key = GLUE_PROPERTY_NAME,
+                value = "com.iso8583.test.steps,com.iso8583.test.hooks,com.iso8583.test.config,com.iso8583.test.services,com.iso8583.test.client"),
+        @ConfigurationParameter(key = FILTER_TAGS_PROPERTY_NAME,
+                value = "@Soak and not @Skip"),
+        @ConfigurationParameter(key = PLUGIN_PUBLISH_QUIET_PROPERTY_NAME,
+                value = "true"),
+        @ConfigurationParameter(key = EXECUTION_DRY_RUN_PROPERTY_NAME,
+                value = "false")
+})
+public class SoakRunner {
+    // El runner está vacío - la configuración se hace mediante anotaciones
+    /**
+     * Este runner ejecuta solo el escenario @Soak de performance.feature
+     *
+     * Queda fuera de -Pperformance y del build por defecto: corre durante
+     * horas contra el simulador dedicado.
+     *
+     * Para ejecutar:
+     * mvn test -Psoak
+     */
+}
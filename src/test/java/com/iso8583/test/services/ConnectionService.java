@@ -1,11 +1,14 @@
 package com.iso8583.test.services;
 
+import com.iso8583.test.client.DeadlineFilter;
+import com.iso8583.test.client.RecordReplayFilter;
 import com.iso8583.test.config.ConfigurationManager;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,6 +21,9 @@ public class ConnectionService {
     private String simulatorMode;
     private boolean connected;
     private boolean noResponseMode;
+    private final DeadlineFilter deadlineFilter;
+    private final RecordReplayFilter recordReplayFilter;
+    private final List<String> additionalBaseUrls;
     private static final Logger logger = LoggerFactory.getLogger(ConnectionService.class);
 
     /**
@@ -28,6 +34,11 @@ public class ConnectionService {
         this.simulatorMode = "REAL";
         this.connected = false;
         this.noResponseMode = false;
+        this.deadlineFilter = new DeadlineFilter(configManager.getTimeout());
+        this.recordReplayFilter = RecordReplayFilter.fromConfig(configManager);
+        this.additionalBaseUrls = configManager.getBaseUrls().stream()
+                .filter(url -> !url.equals(baseUrl))
+                .toList();
 
         System.out.println("✅ ConnectionService inicializado - URL: " + baseUrl);
     }
@@ -48,6 +59,8 @@ public class ConnectionService {
             Response response = RestAssured
                     .given()
                     .baseUri(baseUrl)
+                    .filter(recordReplayFilter)
+                    .filter(deadlineFilter)
                     .post("/api/v1/connection/connect")
                     .then()
                     .extract()
@@ -74,6 +87,8 @@ public class ConnectionService {
                 logger.info("   Simulador: {}", simulatorType);
                 logger.info("   TCP requerido: {}", tcpRequired);
 
+                connectAdditionalNodes();
+
                 // ✅ Esperar que la conexión se estabilice
                 Thread.sleep(500);
 
@@ -88,6 +103,34 @@ public class ConnectionService {
         }
     }
 
+    /**
+     * Con varios simuladores (simulator.base-urls) cada uno abre su propio
+     * canal con el autorizador; el estado y el modo se siguen leyendo del principal
+     */
+    private void connectAdditionalNodes() {
+        for (String url : additionalBaseUrls) {
+            try {
+                Response response = RestAssured
+                        .given()
+                        .baseUri(url)
+                        .filter(recordReplayFilter)
+                        .filter(deadlineFilter)
+                        .post("/api/v1/connection/connect")
+                        .then()
+                        .extract()
+                        .response();
+
+                if (response.getStatusCode() == 200) {
+                    logger.info("✅ Simulador adicional conectado: {}", url);
+                } else {
+                    logger.warn("⚠️ Simulador adicional {} respondió {} al conectar", url, response.getStatusCode());
+                }
+            } catch (Exception e) {
+                logger.warn("⚠️ No se pudo conectar el simulador adicional {}: {}", url, e.getMessage());
+            }
+        }
+    }
+
     public void disconnect() {
         if (!connected) {
             logger.info("🔌 Ya desconectado del simulador");
@@ -100,6 +143,8 @@ public class ConnectionService {
             Response response = RestAssured
                     .given()
                     .baseUri(baseUrl)
+                    .filter(recordReplayFilter)
+                    .filter(deadlineFilter)
                     .post("/api/v1/connection/disconnect")
                     .then()
                     .extract()
@@ -139,6 +184,8 @@ public class ConnectionService {
             Response response = RestAssured
                     .given()
                     .baseUri(baseUrl)
+                    .filter(recordReplayFilter)
+                    .filter(deadlineFilter)
                     .get("/actuator/health")
                     .then()
                     .extract()
@@ -179,6 +226,8 @@ public class ConnectionService {
             Response response = RestAssured
                     .given()
                     .baseUri(baseUrl)
+                    .filter(recordReplayFilter)
+                    .filter(deadlineFilter)
                     .post("/api/v1/simulator/mode/{mode}", mode.toLowerCase())
                     .then()
                     .extract()
@@ -207,6 +256,8 @@ public class ConnectionService {
             Response response = RestAssured
                     .given()
                     .baseUri(baseUrl)
+                    .filter(recordReplayFilter)
+                    .filter(deadlineFilter)
                     .get("/api/v1/connection/status")
                     .then()
                     .extract()
@@ -261,6 +312,8 @@ public class ConnectionService {
             Response response = RestAssured
                     .given()
                     .baseUri(baseUrl)
+                    .filter(recordReplayFilter)
+                    .filter(deadlineFilter)
                     .queryParam("noResponse", noResponse)
                     .post("/api/v1/config/no-response")
                     .then()
@@ -0,0 +1,482 @@
+package com.iso8583.test.services;
+
+import com.iso8583.test.client.ISO8583ApiClient;
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.models.TransactionType;
+import com.iso8583.test.performance.LatencyHistogram;
+import com.iso8583.test.performance.TransactionJournal;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Reversos automáticos (0400) de transacciones financieras que vencieron por timeout
+ *
+ * Una transacción sin respuesta pudo haber sido aplicada por el autorizador;
+ * sin reverso, una corrida de carga le deja el estado sucio. El
+ * {@link TransactionService} avisa cada timeout con {@link #onTimeout} (no
+ * bloquea: solo indexa y encola) y un pool de virtual threads envía el 0400
+ * con reintentos y backoff exponencial hasta que el autorizador lo confirma
+ * (39=00). Un 39=25 (original no encontrado) es definitivo pero no cuenta
+ * como éxito: lo que el autorizador haya aplicado sigue sin reversar.
+ *
+ * Un reverso que agota los intentos pasa, si hay {@link StoreAndForwardQueue},
+ * como advice 0420 persistido: el autorizador se entera aunque sea tarde.
+ *
+ * Para que el reverso apunte al original, {@link #assignIdentifiers} le da
+ * STAN, RRN y fecha/hora de transmisión antes del envío; el 0400 lleva su
+ * propio STAN (de la misma secuencia por terminal que el original, ver
+ * {@link TerminalStanSequences}), el RRN del original y los datos originales (campo 90: MTI,
+ * STAN y fecha/hora del original). Cada original pendiente queda en un
+ * índice acotado por terminal + STAN y por RRN. Con el índice lleno el
+ * reverso se descarta y se cuenta como overflow.
+ *
+ *   reversal.enabled=false
+ *   reversal.transaction-types=PURCHASE,CASH_ADVANCE
+ *   reversal.path=/api/v1/transactions/reversal
+ *   reversal.workers=4
+ *   reversal.max-pending=10000
+ *   reversal.max-attempts=5
+ *   reversal.retry-delay-millis=500
+ *   reversal.max-retry-delay-millis=10000
+ *   reversal.drain-timeout-millis=30000
+ */
+public class ReversalManager implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReversalManager.class);
+
+    // ISO 8583:1993 - 4021: timeout esperando la respuesta
+    private static final String TIMEOUT_REASON_CODE = "4021";
+
+    // Campo 7 y datos originales del campo 90: MMddHHmmss en UTC
+    private static final DateTimeFormatter TRANSMISSION_FORMAT =
+            DateTimeFormatter.ofPattern("MMddHHmmss").withZone(ZoneOffset.UTC);
+
+    // Campo 90 - adquirente y reenviador originales (11 + 11): el harness no los conoce
+    private static final String UNKNOWN_INSTITUTIONS = "0".repeat(22);
+
+    private final ISO8583ApiClient apiClient;
+    private final Set<TransactionType> reversibleTypes;
+    private final int maxPending;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final long maxRetryDelayMillis;
+    private final long drainTimeoutMillis;
+    private final int workerCount;
+
+    private final Map<String, PendingReversal> byStan = new ConcurrentHashMap<>();
+    private final Map<String, PendingReversal> byRrn = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final DelayQueue<PendingReversal> queue = new DelayQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile TerminalStanSequences stans = new TerminalStanSequences();
+    private final AtomicLong rrnSequence = new AtomicLong();
+    private final long rrnPrefix;
+    private volatile boolean closed = false;
+    private volatile StoreAndForwardQueue storeAndForward;
+    private volatile TransactionJournal journal;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder reversed = new LongAdder();
+    private final LongAdder originalNotFound = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder handedOff = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+    private final LatencyHistogram reversalLatency = new LatencyHistogram();
+
+    public ReversalManager(ConfigurationManager config, ISO8583ApiClient apiClient) {
+        this.apiClient = apiClient;
+        this.reversibleTypes = parseTypes(config.getProperty("reversal.transaction-types", "PURCHASE,CASH_ADVANCE"));
+        this.maxPending = Math.max(1, config.getIntProperty("reversal.max-pending", 10_000));
+        this.maxAttempts = Math.max(1, config.getIntProperty("reversal.max-attempts", 5));
+        this.retryDelayMillis = Math.max(1, config.getLongProperty("reversal.retry-delay-millis", 500));
+        this.maxRetryDelayMillis = Math.max(retryDelayMillis, config.getLongProperty("reversal.max-retry-delay-millis", 10_000));
+        this.drainTimeoutMillis = config.getLongProperty("reversal.drain-timeout-millis", 30_000);
+        // RRN = 4 dígitos de esta corrida + secuencia: no choca con el de una corrida anterior
+        this.rrnPrefix = ThreadLocalRandom.current().nextLong(10_000) * 100_000_000L;
+
+        this.workerCount = Math.max(1, config.getIntProperty("reversal.workers", 4));
+    }
+
+    /**
+     * Arranca los workers; hasta entonces los reversos solo se encolan
+     */
+    public synchronized ReversalManager start() {
+        if (!workers.isEmpty()) {
+            return this;
+        }
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("reversal-" + i).start(this::work));
+        }
+        logger.info("↩️ Reversos automáticos activos para {} ({} workers, máx. {} pendientes)",
+                reversibleTypes, workerCount, maxPending);
+        return this;
+    }
+
+    /**
+     * Crea y arranca el manager si reversal.enabled=true; null si no
+     */
+    public static ReversalManager fromConfig(ConfigurationManager config, ISO8583ApiClient apiClient) {
+        return config.getBooleanProperty("reversal.enabled", false) ? new ReversalManager(config, apiClient).start() : null;
+    }
+
+    private static Set<TransactionType> parseTypes(String spec) {
+        Set<TransactionType> types = EnumSet.noneOf(TransactionType.class);
+        Arrays.stream(spec.split(","))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .forEach(type -> types.add(TransactionType.fromCode(type)));
+        return types;
+    }
+
+    // ============================================================================
+    // IDENTIFICADORES DEL ORIGINAL (antes del envío)
+    // ============================================================================
+
+    /**
+     * Completa STAN, RRN y fecha/hora de transmisión que el request no traiga
+     *
+     * Se aplica a todos los requests, no solo a los reversibles: así los STAN
+     * de la terminal salen de una sola secuencia y no se mezclan con los que
+     * asignaría el simulador.
+     */
+    public void assignIdentifiers(TransactionRequest request) {
+        if (request.getStan() == null) {
+            request.setStan(stans.next(request.getTerminalId()));
+        }
+        if (request.getRetrievalReferenceNumber() == null) {
+            request.setRetrievalReferenceNumber(String.format("%012d",
+                    rrnPrefix + rrnSequence.incrementAndGet() % 100_000_000L));
+        }
+        if (request.getTransmissionDateTime() == null) {
+            request.setTransmissionDateTime(TRANSMISSION_FORMAT.format(Instant.now()));
+        }
+    }
+
+    /**
+     * Secuencias de STAN por terminal compartidas con quien envía los originales (las del TransactionService)
+     */
+    public void setStanSequences(TerminalStanSequences stans) {
+        this.stans = stans;
+    }
+
+    // ============================================================================
+    // ENCOLADO (camino de envío: no bloquea)
+    // ============================================================================
+
+    /**
+     * Registra un timeout; si el tipo es reversible encola su 0400
+     *
+     * @param originalBody body que se envió (se reutiliza para el reverso)
+     * @return el reverso pendiente, o null si no aplica, el original no tiene
+     *         identificadores (no pasó por {@link #assignIdentifiers}) o el índice está lleno
+     */
+    public PendingReversal onTimeout(TransactionRequest request, Map<String, Object> originalBody) {
+        if (closed || request.getTransactionType() == null || !reversibleTypes.contains(request.getTransactionType())) {
+            return null;
+        }
+        if (request.getStan() == null || request.getRetrievalReferenceNumber() == null) {
+            logger.warn("⚠️ Timeout de {} sin STAN/RRN asignado: no se puede reversar", request.getTransactionType());
+            return null;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            overflow.increment();
+            logger.warn("⚠️ Índice de reversos lleno ({}): {} sin reversar", maxPending, request.getTransactionType());
+            return null;
+        }
+
+        // El 0400 sale de la misma terminal: su STAN sigue la secuencia de esa terminal
+        String stan = stans.next(request.getTerminalId());
+        PendingReversal reversal = new PendingReversal(stan, request, buildReversalBody(originalBody, request, stan));
+
+        PendingReversal previous = byStan.put(reversal.stanKey, reversal);
+        if (previous != null) {
+            // El STAN de la terminal dio la vuelta con un reverso de hace un millón de envíos todavía pendiente
+            byRrn.remove(previous.rrn, previous);
+        }
+        byRrn.put(reversal.rrn, reversal);
+        enqueued.increment();
+        queue.add(reversal);
+        return reversal;
+    }
+
+    private static Map<String, Object> buildReversalBody(Map<String, Object> originalBody, TransactionRequest original,
+                                                         String stan) {
+        String originalMti = original.getMti() != null ? original.getMti() : "0200";
+        Map<String, Object> body = new HashMap<>(originalBody);
+        body.put("mti", "0400");
+        body.put("transactionType", original.getTransactionType().name());
+        body.put("originalTransactionType", original.getTransactionType().name());
+        body.put("stan", stan);
+        body.put("transmissionDateTime", TRANSMISSION_FORMAT.format(Instant.now()));
+        // Campo 37: el reverso viaja con el RRN del original
+        body.put("retrievalReferenceNumber", original.getRetrievalReferenceNumber());
+        body.put("originalMti", originalMti);
+        body.put("originalStan", original.getStan());
+        body.put("originalTransmissionDateTime", original.getTransmissionDateTime());
+        body.put("originalRrn", original.getRetrievalReferenceNumber());
+        body.put("originalDataElements", originalMti + original.getStan()
+                + original.getTransmissionDateTime() + UNKNOWN_INSTITUTIONS);
+        body.put("messageReasonCode", TIMEOUT_REASON_CODE);
+        return body;
+    }
+
+    /**
+     * Cola a la que pasan como 0420 los reversos que agotan los intentos (null: se cuentan como fallidos)
+     */
+    public void setStoreAndForward(StoreAndForwardQueue storeAndForward) {
+        this.storeAndForward = storeAndForward;
+    }
+
+    /**
+     * Journal donde queda el resultado final de cada reverso (null: no se registra)
+     */
+    public void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Reverso pendiente del original con ese STAN en esa terminal
+     */
+    public PendingReversal findByStan(String terminalId, String originalStan) {
+        return byStan.get(stanKey(terminalId, originalStan));
+    }
+
+    public PendingReversal findByRrn(String rrn) {
+        return byRrn.get(rrn);
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    // ============================================================================
+    // ENVÍO ASÍNCRONO
+    // ============================================================================
+
+    private void work() {
+        while (true) {
+            PendingReversal reversal;
+            try {
+                reversal = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            attempt(reversal);
+        }
+    }
+
+    private void attempt(PendingReversal reversal) {
+        reversal.attempts++;
+        String responseCode = null;
+        try {
+            Response response = apiClient.sendReversal(reversal.body);
+            if (response.getStatusCode() / 100 == 2) {
+                responseCode = response.as(TransactionResponse.class).getResponseCode();
+            }
+        } catch (Exception e) {
+            logger.debug("↩️ Reverso {} (intento {}) falló: {}", reversal.stan, reversal.attempts, e.getMessage());
+        }
+
+        if ("00".equals(responseCode)) {
+            reversed.increment();
+            reversalLatency.recordNanos(System.nanoTime() - reversal.createdNanos);
+            complete(reversal, responseCode);
+        } else if ("25".equals(responseCode)) {
+            // Definitivo (reintentar no lo encuentra), pero lo que se haya aplicado queda sin reversar
+            originalNotFound.increment();
+            logger.warn("⚠️ Reverso {} de {}: el autorizador no encuentra el original (STAN {}, RRN {})",
+                    reversal.stan, reversal.type, reversal.original.getStan(), reversal.rrn);
+            complete(reversal, responseCode);
+        } else if (reversal.attempts >= maxAttempts) {
+            if (handOff(reversal)) {
+                handedOff.increment();
+                logger.info("📮 Reverso {} de {} pasa a advice 0420 tras {} intentos",
+                        reversal.stan, reversal.type, reversal.attempts);
+            } else {
+                failed.increment();
+                logger.warn("❌ Reverso {} de {} sin confirmar tras {} intentos (último 39={})",
+                        reversal.stan, reversal.type, reversal.attempts, responseCode);
+            }
+            complete(reversal, responseCode);
+        } else {
+            retries.increment();
+            long backoff = Math.min(maxRetryDelayMillis, retryDelayMillis << Math.min(20, reversal.attempts - 1));
+            // Jitter ±50%: los reversos de una misma ráfaga de timeouts no reintentan juntos
+            long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff + 1);
+            reversal.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            queue.add(reversal);
+        }
+    }
+
+    private boolean handOff(PendingReversal reversal) {
+        StoreAndForwardQueue queue = storeAndForward;
+        if (queue == null) {
+            return false;
+        }
+        Map<String, Object> advice = new HashMap<>(reversal.body);
+        advice.put("mti", "0420");
+        return queue.enqueue(advice);
+    }
+
+    private void complete(PendingReversal reversal, String responseCode) {
+        TransactionJournal target = journal;
+        if (target != null) {
+            // El 0400 lleva el RRN del original: el mismo que quedó en la línea del timeout
+            target.recordReversal(reversal.original, reversal.stan, reversal.rrn, reversal.rrn,
+                    responseCode, System.nanoTime() - reversal.createdNanos);
+        }
+        byStan.remove(reversal.stanKey, reversal);
+        byRrn.remove(reversal.rrn, reversal);
+        pending.decrementAndGet();
+    }
+
+    /**
+     * Deja de aceptar timeouts y espera (hasta drain-timeout-millis) a que se resuelvan los pendientes
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        while (pending.get() > 0 && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.forEach(Thread::interrupt);
+        if (pending.get() > 0) {
+            logger.warn("⚠️ {} reversos quedaron sin enviar al cerrar", pending.get());
+        }
+    }
+
+    // ============================================================================
+    // MÉTRICAS
+    // ============================================================================
+
+    /**
+     * Reversos confirmados sobre los resueltos; los 39=25 y los fallidos cuentan como no reversados
+     */
+    public double getSuccessRate() {
+        long done = reversed.sum() + originalNotFound.sum() + failed.sum();
+        return done == 0 ? 0.0 : (double) reversed.sum() / done;
+    }
+
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("↩️ AUTOMATIC REVERSALS (0400)\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Types:                   %s\n", reversibleTypes.stream()
+                .map(type -> type.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", "))));
+        summary.append(String.format("Enqueued / pending:      %9d / %d\n", enqueued.sum(), pending.get()));
+        summary.append(String.format("Reversed:                %9d\n", reversed.sum()));
+        summary.append(String.format("Not found (unreversed):  %9d\n", originalNotFound.sum()));
+        summary.append(String.format("Failed / overflow:       %9d / %d\n", failed.sum(), overflow.sum()));
+        if (handedOff.sum() > 0) {
+            summary.append(String.format("Handed off as 0420:      %9d\n", handedOff.sum()));
+        }
+        summary.append(String.format("Retries:                 %9d\n", retries.sum()));
+        summary.append(String.format("Success rate:            %8.1f%%\n", getSuccessRate() * 100));
+        if (reversalLatency.getCount() > 0) {
+            summary.append(String.format("Latency p50 / p99 / max: %6d / %d / %d ms\n",
+                    reversalLatency.getValueAtPercentileMillis(50),
+                    reversalLatency.getValueAtPercentileMillis(99),
+                    TimeUnit.MICROSECONDS.toMillis(reversalLatency.getMaxMicros())));
+        }
+        return summary.toString();
+    }
+
+    private static String stanKey(String terminalId, String stan) {
+        return terminalId + "/" + stan;
+    }
+
+    /**
+     * Original pendiente de reverso (en el índice y en la cola de envío)
+     */
+    public static final class PendingReversal implements Delayed {
+        private final String stan;
+        private final String rrn;
+        private final String stanKey;
+        private final TransactionType type;
+        private final TransactionRequest original;
+        private final Map<String, Object> body;
+        private final long createdNanos = System.nanoTime();
+        private volatile long dueNanos = createdNanos;
+        private volatile int attempts;
+
+        private PendingReversal(String stan, TransactionRequest original, Map<String, Object> body) {
+            this.stan = stan;
+            this.rrn = original.getRetrievalReferenceNumber();
+            this.stanKey = stanKey(original.getTerminalId(), original.getStan());
+            this.type = original.getTransactionType();
+            this.original = original;
+            this.body = body;
+        }
+
+        /**
+         * STAN del propio 0400
+         */
+        public String getStan() {
+            return stan;
+        }
+
+        public String getOriginalStan() {
+            return original.getStan();
+        }
+
+        /**
+         * RRN del original (el 0400 viaja con el mismo)
+         */
+        public String getRrn() {
+            return rrn;
+        }
+
+        public TransactionType getType() {
+            return type;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.iso8583.test.services;
+
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reversos: el 0400 toma su STAN de la secuencia de la terminal del original
+ */
+class ReversalManagerTest {
+
+    private static ReversalManager manager(TerminalStanSequences stans) {
+        Properties overrides = new Properties();
+        overrides.setProperty("reversal.transaction-types", "PURCHASE");
+        // Sin start(): los reversos quedan encolados, no se envían
+        ReversalManager manager = new ReversalManager(new ConfigurationManager(overrides), null);
+        manager.setStanSequences(stans);
+        return manager;
+    }
+
+    private static TransactionRequest purchase(String terminalId) {
+        TransactionRequest request = new TransactionRequest();
+        request.setTransactionType(TransactionType.PURCHASE);
+        request.setTerminalId(terminalId);
+        return request;
+    }
+
+    @Test
+    void elStanDelReversoSigueLaSecuenciaDeSuTerminal() {
+        TerminalStanSequences stans = new TerminalStanSequences();
+        ReversalManager manager = manager(stans);
+        TransactionRequest original = purchase("T1");
+        manager.assignIdentifiers(original);
+        int originalStan = Integer.parseInt(original.getStan());
+
+        ReversalManager.PendingReversal reversal = manager.onTimeout(original, new HashMap<>());
+
+        assertThat(Integer.parseInt(reversal.getStan())).isEqualTo(originalStan % TerminalStanSequences.MAX_STAN + 1);
+        assertThat(reversal.getOriginalStan()).isEqualTo(original.getStan());
+        assertThat(Integer.parseInt(stans.next("T1")))
+                .as("la terminal no reusa el STAN del reverso")
+                .isEqualTo((originalStan + 1) % TerminalStanSequences.MAX_STAN + 1);
+        assertThat(manager.findByStan("T1", original.getStan())).isSameAs(reversal);
+    }
+
+    @Test
+    void cadaTerminalTieneSuSecuencia() {
+        TerminalStanSequences stans = new TerminalStanSequences();
+        int first = Integer.parseInt(stans.next("T1"));
+        stans.next("T2");
+        stans.next("T2");
+
+        assertThat(Integer.parseInt(stans.next("T1"))).isEqualTo(first % TerminalStanSequences.MAX_STAN + 1);
+        assertThat(stans.getTerminalCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,740 @@
+package com.iso8583.test.services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.iso8583.test.client.ISO8583ApiClient;
+import com.iso8583.test.config.ConfigurationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Cola store-and-forward persistente para advices (0220 / 0420)
+ *
+ * Un advice informa algo que ya pasó (completion, reverso no confirmado) y
+ * tiene que llegar aunque el enlace esté caído. {@link #enqueue} lo agrega a
+ * un segmento append-only en disco antes de aceptarlo y un drainer en
+ * segundo plano lo entrega:
+ *
+ *   segment-000000000001.log   un registro JSON por línea (seq + body)
+ *   checkpoint                 "segmento offset" del primer registro sin entregar
+ *
+ * El drainer lee lotes desde el checkpoint, los envía en paralelo y avanza el
+ * checkpoint (rename atómico) hasta el último registro resuelto sin huecos;
+ * los segmentos ya entregados se borran. Si un envío falla por el enlace
+ * (I/O, 5xx, 408 o 429) se detiene y sondea a {@link ConnectionService}
+ * hasta que el canal vuelve a estar conectado, y ahí vacía el backlog a
+ * máxima velocidad. Un 4xx es un rechazo definitivo: reintentarlo no lo
+ * arregla y frenaría toda la cola, así que el advice pasa a
+ * {@code dead-letter.jsonl} (seq, status y body) y la cola sigue.
+ *
+ * Entrega at-least-once: lo que se reenvía (reintento, o backlog recuperado
+ * de una corrida anterior) sale como repetición (0221 / 0421). Con
+ * max-backlog advices sin entregar, {@link #enqueue} espera hasta
+ * enqueue-timeout-millis y después rechaza.
+ *
+ *   store-and-forward.enabled=false
+ *   store-and-forward.dir=target/store-and-forward
+ *   store-and-forward.path=/api/v1/transactions/advice
+ *   store-and-forward.segment-max-bytes=16777216
+ *   store-and-forward.batch-size=64
+ *   store-and-forward.max-backlog=100000
+ *   store-and-forward.enqueue-timeout-millis=1000
+ *   store-and-forward.probe-interval-millis=1000
+ *   store-and-forward.drain-timeout-millis=30000
+ *   store-and-forward.fsync=true
+ */
+public class StoreAndForwardQueue implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreAndForwardQueue.class);
+
+    private static final Gson gson = new Gson();
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int READ_CHUNK = 64 * 1024;
+    private static final int RECOVERY_BATCH = 4096;
+
+    private final Path directory;
+    private final ISO8583ApiClient apiClient;
+    private final ConnectionService connectionService;
+    private final long segmentMaxBytes;
+    private final int batchSize;
+    private final long maxBacklog;
+    private final long enqueueTimeoutNanos;
+    private final long probeIntervalMillis;
+    private final long drainTimeoutMillis;
+    private final boolean fsync;
+
+    // Escritura: segmento activo, secuencia y backlog (protegidos por lock)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    private FileChannel activeChannel;
+    private long activeSegment;
+    private long activeSize;
+    private long lastSeq;
+    private long backlog;
+
+    // Lectura: solo la toca el drainer
+    private long readSegment;
+    private long readOffset;
+    private volatile long checkpointSegment;
+    private final long recoveredUpToSeq;
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Object deadLetterLock = new Object();
+    private Thread drainer;
+    private volatile boolean closed = false;
+    private volatile boolean stopped = false;
+    private volatile boolean linkDown = false;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder repeats = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder corrupt = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder linkDownPauses = new LongAdder();
+
+    // Vaciado en curso tras reconectar (o del backlog recuperado) y el último completo
+    private long flushStartNanos;
+    private long flushStartDelivered;
+    private volatile long lastFlushCount;
+    private volatile double lastFlushRate;
+
+    public StoreAndForwardQueue(ConfigurationManager config, ISO8583ApiClient apiClient,
+                                ConnectionService connectionService) throws IOException {
+        this.directory = Path.of(config.getProperty("store-and-forward.dir", "target/store-and-forward"));
+        this.apiClient = apiClient;
+        this.connectionService = connectionService;
+        this.segmentMaxBytes = Math.max(4096, config.getLongProperty("store-and-forward.segment-max-bytes", 16L * 1024 * 1024));
+        this.batchSize = Math.max(1, config.getIntProperty("store-and-forward.batch-size", 64));
+        this.maxBacklog = Math.max(1, config.getLongProperty("store-and-forward.max-backlog", 100_000));
+        this.enqueueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0, config.getLongProperty("store-and-forward.enqueue-timeout-millis", 1000)));
+        this.probeIntervalMillis = Math.max(10, config.getLongProperty("store-and-forward.probe-interval-millis", 1000));
+        this.drainTimeoutMillis = config.getLongProperty("store-and-forward.drain-timeout-millis", 30_000);
+        this.fsync = config.getBooleanProperty("store-and-forward.fsync", true);
+
+        recover();
+        this.recoveredUpToSeq = lastSeq;
+    }
+
+    /**
+     * Arranca el drainer; hasta entonces los advices solo se persisten
+     */
+    public StoreAndForwardQueue start() {
+        lock.lock();
+        try {
+            if (drainer != null) {
+                return this;
+            }
+            if (backlog > 0) {
+                logger.info("📮 Store-and-forward: {} advices pendientes de una corrida anterior", backlog);
+                startFlush();
+            }
+            drainer = Thread.ofVirtual().name("store-and-forward-drainer").start(this::drain);
+        } finally {
+            lock.unlock();
+        }
+        logger.info("📮 Store-and-forward activo en {} (lotes de {}, máx. {} pendientes)",
+                directory, batchSize, maxBacklog);
+        return this;
+    }
+
+    /**
+     * Crea y arranca la cola si store-and-forward.enabled=true; null si no (o si no se pudo abrir el directorio)
+     */
+    public static StoreAndForwardQueue fromConfig(ConfigurationManager config, ISO8583ApiClient apiClient,
+                                                  ConnectionService connectionService) {
+        if (!config.getBooleanProperty("store-and-forward.enabled", false)) {
+            return null;
+        }
+        try {
+            return new StoreAndForwardQueue(config, apiClient, connectionService).start();
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("❌ No se pudo abrir la cola store-and-forward: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // ============================================================================
+    // RECUPERACIÓN
+    // ============================================================================
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        long[] checkpoint = readCheckpoint();
+
+        if (segments.isEmpty()) {
+            activeSegment = 1;
+            readSegment = 1;
+        } else {
+            readSegment = segments.get(0);
+            if (checkpoint != null && segments.contains(checkpoint[0])) {
+                readSegment = checkpoint[0];
+                readOffset = checkpoint[1];
+            }
+            for (long segment : segments) {
+                if (segment < readSegment) {
+                    Files.deleteIfExists(segmentPath(segment));
+                }
+            }
+            activeSegment = segments.get(segments.size() - 1);
+            countBacklog();
+        }
+        checkpointSegment = readSegment;
+        activeChannel = FileChannel.open(segmentPath(activeSegment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (activeSize > activeChannel.size()) {
+            // Checkpoint más adelante que el segmento (se perdió su cola): se retoma desde el final real
+            activeSize = activeChannel.size();
+            readOffset = Math.min(readOffset, activeSize);
+        }
+        // Una línea a medias al final (corte abrupto) se descarta: el advice nunca se aceptó
+        if (activeChannel.size() > activeSize) {
+            logger.warn("⚠️ Segmento {} con {} bytes truncados al final", activeSegment, activeChannel.size() - activeSize);
+            activeChannel.truncate(activeSize);
+        }
+    }
+
+    /**
+     * Recorre desde el checkpoint: backlog, última secuencia y tamaño válido del segmento activo
+     */
+    private void countBacklog() throws IOException {
+        for (long segment = readSegment; segment <= activeSegment; segment++) {
+            long offset = segment == readSegment ? readOffset : 0;
+            List<AdviceRecord> records;
+            do {
+                records = readRecords(segment, offset, Long.MAX_VALUE, RECOVERY_BATCH);
+                for (AdviceRecord record : records) {
+                    backlog++;
+                    lastSeq = Math.max(lastSeq, record.seq);
+                    offset = record.endOffset;
+                }
+            } while (records.size() == RECOVERY_BATCH);
+            activeSize = offset;
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        Path file = directory.resolve("checkpoint");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String[] parts = Files.readString(file, StandardCharsets.UTF_8).trim().split(" ");
+        try {
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Checkpoint ilegible en {}: se reentrega desde el primer segmento", directory);
+            return null;
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    // ============================================================================
+    // ENCOLADO
+    // ============================================================================
+
+    /**
+     * Persiste un advice para su entrega
+     *
+     * @param advice body con mti 0220 o 0420
+     * @return false si la cola está cerrada o siguió llena durante enqueue-timeout-millis
+     */
+    public boolean enqueue(Map<String, Object> advice) {
+        String mti = String.valueOf(advice.get("mti"));
+        if (!mti.startsWith("022") && !mti.startsWith("042")) {
+            throw new IllegalArgumentException("No es un advice (0220/0420): mti=" + mti);
+        }
+        if (closed) {
+            rejected.increment();
+            return false;
+        }
+        // El body se serializa fuera del lock; adentro solo se le antepone la secuencia
+        String body = gson.toJson(advice);
+        long deadline = System.nanoTime() + enqueueTimeoutNanos;
+        lock.lock();
+        try {
+            while (backlog >= maxBacklog) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejected.increment();
+                    logger.warn("⚠️ Store-and-forward lleno ({} pendientes): advice {} rechazado", backlog, mti);
+                    return false;
+                }
+                notFull.awaitNanos(remaining);
+            }
+            long seq = lastSeq + 1;
+            byte[] line = ("{\"seq\":" + seq + ",\"body\":" + body + "}\n").getBytes(StandardCharsets.UTF_8);
+            if (activeSize > 0 && activeSize + line.length > segmentMaxBytes) {
+                roll();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            long position = activeSize;
+            while (buffer.hasRemaining()) {
+                position += activeChannel.write(buffer, position);
+            }
+            if (fsync) {
+                activeChannel.force(false);
+            }
+            lastSeq = seq;
+            activeSize = position;
+            backlog++;
+            enqueued.increment();
+            notEmpty.signal();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo persistir el advice en " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        activeChannel.force(false);
+        activeChannel.close();
+        activeSegment++;
+        activeChannel = FileChannel.open(segmentPath(activeSegment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeSize = 0;
+    }
+
+    public long getBacklog() {
+        lock.lock();
+        try {
+            return backlog;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ============================================================================
+    // DRAINER
+    // ============================================================================
+
+    private void drain() {
+        List<AdviceRecord> window = new ArrayList<>();
+        while (!stopped) {
+            try {
+                if (window.isEmpty()) {
+                    window = nextBatch();
+                    continue;
+                }
+                send(window);
+                int prefix = 0;
+                while (prefix < window.size() && window.get(prefix).resolved) {
+                    prefix++;
+                }
+                if (prefix > 0) {
+                    commit(window.get(prefix - 1), prefix);
+                    window = new ArrayList<>(window.subList(prefix, window.size()));
+                }
+                if (!window.isEmpty()) {
+                    awaitLink();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                logger.error("❌ Store-and-forward: error de disco en {}: {}", directory, e.getMessage());
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Siguiente lote desde la posición de lectura; vacío si todavía no hay nada para entregar
+     */
+    private List<AdviceRecord> nextBatch() throws IOException, InterruptedException {
+        long limit;
+        lock.lock();
+        try {
+            if (readSegment == activeSegment) {
+                if (readOffset >= activeSize) {
+                    notEmpty.await(100, TimeUnit.MILLISECONDS);
+                    return List.of();
+                }
+                limit = activeSize;
+            } else {
+                limit = Long.MAX_VALUE;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        List<AdviceRecord> records = readRecords(readSegment, readOffset, limit, batchSize);
+        if (records.isEmpty()) {
+            // Segmento sellado y leído completo: el siguiente arranca en 0
+            readSegment++;
+            readOffset = 0;
+            return records;
+        }
+        readOffset = records.get(records.size() - 1).endOffset;
+        return records;
+    }
+
+    private void send(List<AdviceRecord> window) throws InterruptedException {
+        List<Callable<Void>> tasks = new ArrayList<>(window.size());
+        for (AdviceRecord record : window) {
+            if (!record.resolved) {
+                tasks.add(() -> {
+                    deliver(record);
+                    return null;
+                });
+            }
+        }
+        batches.increment();
+        senders.invokeAll(tasks);
+    }
+
+    private void deliver(AdviceRecord record) {
+        if (record.body == null) {
+            // Línea ilegible: no hay nada que reenviar, se saltea
+            record.resolved = true;
+            return;
+        }
+        boolean repeat = record.attempts > 0 || record.seq <= recoveredUpToSeq;
+        record.attempts++;
+        int status;
+        try {
+            status = apiClient.sendAdvice(repeat ? asRepeat(record.body) : record.body).getStatusCode();
+        } catch (Exception e) {
+            logger.debug("📮 Advice {} no entregado: {}", record.seq, e.getMessage());
+            sendFailures.increment();
+            return;
+        }
+        if (status / 100 == 2) {
+            record.resolved = true;
+            delivered.increment();
+            if (repeat) {
+                repeats.increment();
+            }
+        } else if (isPermanentRejection(status)) {
+            deadLetter(record, status);
+        } else {
+            logger.debug("📮 Advice {} rechazado con HTTP {}: se reintenta", record.seq, status);
+            sendFailures.increment();
+        }
+    }
+
+    /**
+     * 4xx salvo 408 (timeout) y 429 (throttling), que son del enlace y se reintentan
+     */
+    private static boolean isPermanentRejection(int status) {
+        return status / 100 == 4 && status != 408 && status != 429;
+    }
+
+    private void deadLetter(AdviceRecord record, int status) {
+        byte[] line = ("{\"seq\":" + record.seq + ",\"status\":" + status + ",\"body\":" + gson.toJson(record.body) + "}\n")
+                .getBytes(StandardCharsets.UTF_8);
+        try {
+            synchronized (deadLetterLock) {
+                Files.write(directory.resolve("dead-letter.jsonl"), line,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            // Sin dead-letter no se puede soltar: queda pendiente y se reintenta
+            logger.error("❌ No se pudo guardar el advice {} en dead-letter: {}", record.seq, e.getMessage());
+            sendFailures.increment();
+            return;
+        }
+        record.resolved = true;
+        deadLettered.increment();
+        logger.warn("☠️ Advice {} ({}) rechazado con HTTP {}: pasa a dead-letter",
+                record.seq, record.body.get("mti"), status);
+    }
+
+    private static Map<String, Object> asRepeat(Map<String, Object> body) {
+        Map<String, Object> repeat = new HashMap<>(body);
+        String mti = String.valueOf(body.get("mti"));
+        repeat.put("mti", mti.substring(0, 3) + "1");
+        return repeat;
+    }
+
+    /**
+     * Avanza el checkpoint hasta después de {@code last} y borra los segmentos ya entregados
+     */
+    private void commit(AdviceRecord last, int count) throws IOException {
+        Path checkpoint = directory.resolve("checkpoint");
+        Path temp = directory.resolve("checkpoint.tmp");
+        byte[] content = (last.segment + " " + last.endOffset + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(content));
+            if (fsync) {
+                channel.force(false);
+            }
+        }
+        Files.move(temp, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (long segment = checkpointSegment; segment < last.segment; segment++) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+        checkpointSegment = last.segment;
+
+        long remaining;
+        lock.lock();
+        try {
+            backlog -= count;
+            remaining = backlog;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (remaining == 0 && flushStartNanos != 0) {
+            long flushed = delivered.sum() - flushStartDelivered;
+            double seconds = (System.nanoTime() - flushStartNanos) / 1e9;
+            lastFlushCount = flushed;
+            lastFlushRate = seconds > 0 ? flushed / seconds : 0;
+            flushStartNanos = 0;
+            logger.info("📮 Backlog vaciado: {} advices a {} advices/s", flushed, String.format("%.0f", lastFlushRate));
+        }
+    }
+
+    /**
+     * Espera a que {@link ConnectionService} reporte el canal conectado
+     */
+    private void awaitLink() throws InterruptedException {
+        if (!linkDown) {
+            linkDown = true;
+            linkDownPauses.increment();
+            logger.warn("🔌 Store-and-forward en pausa: enlace caído, {} advices pendientes", getBacklog());
+        }
+        while (!stopped) {
+            Thread.sleep(probeIntervalMillis);
+            if (isLinkUp()) {
+                break;
+            }
+        }
+        if (!stopped) {
+            linkDown = false;
+            logger.info("🔌 Enlace restablecido: vaciando {} advices", getBacklog());
+            startFlush();
+        }
+    }
+
+    private boolean isLinkUp() {
+        if (connectionService == null) {
+            // Sin estado del canal: se reintenta en cada sondeo
+            return true;
+        }
+        Map<String, Object> status = connectionService.getConnectionStatus();
+        return Boolean.TRUE.equals(status.get("connected")) && Boolean.TRUE.equals(status.get("channelConnected"));
+    }
+
+    private void startFlush() {
+        flushStartNanos = System.nanoTime();
+        flushStartDelivered = delivered.sum();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(probeIntervalMillis);
+        } catch (InterruptedException e) {
+            stopped = true;
+        }
+    }
+
+    // ============================================================================
+    // LECTURA DE SEGMENTOS
+    // ============================================================================
+
+    /**
+     * Hasta {@code maxRecords} registros completos del segmento entre offset y limit
+     */
+    private List<AdviceRecord> readRecords(long segment, long offset, long limit, int maxRecords) throws IOException {
+        List<AdviceRecord> records = new ArrayList<>();
+        Path path = segmentPath(segment);
+        if (!Files.exists(path)) {
+            return records;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long end = Math.min(limit, channel.size());
+            ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = offset;
+            while (position < end && records.size() < maxRecords) {
+                buffer.clear().limit((int) Math.min(READ_CHUNK, end - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read && records.size() < maxRecords; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '\n') {
+                        records.add(parse(line.toByteArray(), segment, position + i + 1));
+                        line.reset();
+                    } else {
+                        line.write(b);
+                    }
+                }
+                position += read;
+            }
+        }
+        return records;
+    }
+
+    private AdviceRecord parse(byte[] line, long segment, long endOffset) {
+        try {
+            StoredAdvice stored = gson.fromJson(new String(line, StandardCharsets.UTF_8), StoredAdvice.class);
+            return new AdviceRecord(stored.seq, stored.body, segment, endOffset);
+        } catch (JsonSyntaxException e) {
+            corrupt.increment();
+            logger.warn("⚠️ Registro ilegible en el segmento {} (termina en {})", segment, endOffset);
+            return new AdviceRecord(0, null, segment, endOffset);
+        }
+    }
+
+    // ============================================================================
+    // CIERRE Y MÉTRICAS
+    // ============================================================================
+
+    /**
+     * Deja de aceptar advices y espera (hasta drain-timeout-millis) a que se entregue el backlog;
+     * lo que quede sigue en disco para la próxima corrida
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        while (getBacklog() > 0 && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        stopped = true;
+        Thread running;
+        lock.lock();
+        try {
+            running = drainer;
+        } finally {
+            lock.unlock();
+        }
+        if (running != null) {
+            running.interrupt();
+            try {
+                running.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        senders.shutdownNow();
+        lock.lock();
+        try {
+            activeChannel.close();
+        } catch (IOException e) {
+            logger.warn("⚠️ Error cerrando el segmento activo: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        if (getBacklog() > 0) {
+            logger.warn("⚠️ {} advices quedan en {} para la próxima corrida", getBacklog(), directory);
+        }
+    }
+
+    public String toSummary() {
+        long segments;
+        lock.lock();
+        try {
+            segments = activeSegment - checkpointSegment + 1;
+        } finally {
+            lock.unlock();
+        }
+        StringBuilder summary = new StringBuilder();
+        summary.append("📮 STORE-AND-FORWARD (0220 / 0420)\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("Directory / segments:    %s / %d\n", directory, segments));
+        summary.append(String.format("Enqueued / delivered:    %9d / %d\n", enqueued.sum(), delivered.sum()));
+        summary.append(String.format("Backlog / rejected:      %9d / %d\n", getBacklog(), rejected.sum()));
+        summary.append(String.format("Repeats (xx21):          %9d\n", repeats.sum()));
+        summary.append(String.format("Batches / send failures: %9d / %d\n", batches.sum(), sendFailures.sum()));
+        if (deadLettered.sum() > 0) {
+            summary.append(String.format("Dead-lettered (4xx):     %9d -> %s\n", deadLettered.sum(),
+                    directory.resolve("dead-letter.jsonl")));
+        }
+        summary.append(String.format("Link-down pauses:        %9d%s\n", linkDownPauses.sum(), linkDown ? " (down now)" : ""));
+        if (corrupt.sum() > 0) {
+            summary.append(String.format("Corrupt records skipped: %9d\n", corrupt.sum()));
+        }
+        if (lastFlushCount > 0) {
+            summary.append(String.format("Last flush:              %9d advices at %.0f/s\n", lastFlushCount, lastFlushRate));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Línea del segmento tal cual se serializa
+     */
+    private static final class StoredAdvice {
+        private long seq;
+        private Map<String, Object> body;
+    }
+
+    /**
+     * Registro leído por el drainer (posición en disco y estado de entrega)
+     */
+    private static final class AdviceRecord {
+        private final long seq;
+        private final Map<String, Object> body;
+        private final long segment;
+        private final long endOffset;
+        // Entregado, salteado o en dead-letter: el checkpoint puede pasarlo
+        private volatile boolean resolved;
+        private volatile int attempts;
+
+        private AdviceRecord(long seq, Map<String, Object> body, long segment, long endOffset) {
+            this.seq = seq;
+            this.body = body;
+            this.segment = segment;
+            this.endOffset = endOffset;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.iso8583.test.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secuencias de STAN (campo 11) por terminal, 000001-999999 y vuelta
+ *
+ * Una sola fuente para todo lo que sale de una terminal: financieras, echos
+ * 0800 y los reversos 0400 del {@link ReversalManager}. Así el STAN de un
+ * reverso no repite uno que la terminal ya usó o está por usar. Cada terminal
+ * arranca en un punto al azar: corridas seguidas no reusan los mismos STAN.
+ */
+public class TerminalStanSequences {
+
+    static final int MAX_STAN = 999_999;
+
+    private final Map<String, AtomicInteger> sequences = new ConcurrentHashMap<>();
+
+    /**
+     * Siguiente STAN de la terminal (terminal null = la del simulador por defecto)
+     */
+    public String next(String terminalId) {
+        AtomicInteger sequence = sequences.computeIfAbsent(terminalId != null ? terminalId : "",
+                key -> new AtomicInteger(ThreadLocalRandom.current().nextInt(MAX_STAN)));
+        // STAN 000000 no es válido
+        return String.format("%06d", sequence.updateAndGet(stan -> stan % MAX_STAN + 1));
+    }
+
+    public int getTerminalCount() {
+        return sequences.size();
+    }
+}
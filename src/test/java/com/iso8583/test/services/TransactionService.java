@@ -1,14 +1,22 @@
 package com.iso8583.test.services;
 
+import com.iso8583.test.client.CircuitOpenException;
+import com.iso8583.test.client.ClientThrottledException;
+import com.iso8583.test.client.Deadline;
+import com.iso8583.test.client.DeadlineExceededException;
 import com.iso8583.test.client.ISO8583ApiClient;
+import com.iso8583.test.client.RetryPolicy;
 import com.iso8583.test.config.TestContext;
 import com.iso8583.test.models.TransactionRequest;
 import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.performance.DuplicateDetector;
+import com.iso8583.test.performance.TrafficCapture;
 import com.iso8583.test.utils.AllureReportHelper;
 import io.restassured.response.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InterruptedIOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,10 +27,29 @@ import java.util.Map;
 public class TransactionService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
+    private static final String ECHO_NETWORK_MANAGEMENT_CODE = "301";
 
     private final ISO8583ApiClient apiClient;
     private TestContext testContext;
 
+    // Modo carga: sin adjuntos de Allure ni warnings por transacción
+    private boolean loadMode = false;
+
+    // Captura opcional de tráfico para replay (null = desactivada)
+    private volatile TrafficCapture trafficCapture;
+
+    // Detección en vivo de STAN/RRN repetidos (null = desactivada)
+    private volatile DuplicateDetector duplicateDetector;
+
+    // Reversos automáticos de timeouts financieros (null = desactivados)
+    private volatile ReversalManager reversalManager;
+
+    // Cola persistente de advices 0220/0420 (null = se envían directo)
+    private volatile StoreAndForwardQueue storeAndForward;
+
+    // STAN por terminal: originales, echos y reversos de una terminal salen de la misma secuencia
+    private final TerminalStanSequences stans = new TerminalStanSequences();
+
     // Constructor sin TestContext
     public TransactionService(ISO8583ApiClient apiClient) {
         this.apiClient = apiClient;
@@ -45,51 +72,212 @@ public class TransactionService {
         logger.debug("🔗 TestContext vinculado a TransactionService");
     }
 
+    /**
+     * Activa el modo carga para instancias usadas por los runners de performance
+     * (miles de transacciones por escenario, sin TestContext)
+     */
+    public void setLoadMode(boolean loadMode) {
+        this.loadMode = loadMode;
+        logger.debug("⚙️ Modo carga: {}", loadMode);
+    }
+
+    public boolean isLoadMode() {
+        return loadMode;
+    }
+
+    /**
+     * Activa la captura de cada transacción enviada (null para desactivar)
+     */
+    public void setTrafficCapture(TrafficCapture trafficCapture) {
+        this.trafficCapture = trafficCapture;
+    }
+
+    /**
+     * Activa la detección de STAN/RRN duplicados en cada respuesta (null para desactivar)
+     */
+    public void setDuplicateDetector(DuplicateDetector duplicateDetector) {
+        this.duplicateDetector = duplicateDetector;
+    }
+
+    public DuplicateDetector getDuplicateDetector() {
+        return duplicateDetector;
+    }
+
+    /**
+     * Activa los reversos automáticos de timeouts (null para desactivar)
+     */
+    public void setReversalManager(ReversalManager reversalManager) {
+        if (reversalManager != null) {
+            reversalManager.setStanSequences(stans);
+        }
+        this.reversalManager = reversalManager;
+    }
+
+    public ReversalManager getReversalManager() {
+        return reversalManager;
+    }
+
+    /**
+     * Cola store-and-forward de la corrida, por donde el ReversalManager entrega sus advices 0420 (null sin cola)
+     */
+    public void setStoreAndForward(StoreAndForwardQueue storeAndForward) {
+        this.storeAndForward = storeAndForward;
+    }
+
+    public StoreAndForwardQueue getStoreAndForward() {
+        return storeAndForward;
+    }
+
+    /**
+     * Siguiente STAN de la terminal, de la misma secuencia que usan sus reversos
+     */
+    public String nextStan(String terminalId) {
+        return stans.next(terminalId);
+    }
+
+    /**
+     * Envía el echo de keep-alive (0800, código de gestión 301) de una terminal
+     *
+     * @return true si el simulador respondió 2xx
+     */
+    public boolean sendEcho(String terminalId, String stan) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("mti", "0800");
+        body.put("networkManagementCode", ECHO_NETWORK_MANAGEMENT_CODE);
+        addIfNotNull(body, "terminalId", terminalId);
+        addIfNotNull(body, "stan", stan);
+        try {
+            return apiClient.sendEcho(body).getStatusCode() / 100 == 2;
+        } catch (Exception e) {
+            logger.debug("📡 Echo de {} sin respuesta: {}", terminalId, e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Envía una transacción según su tipo
      * ✅ CORREGIDO: Captura respuestas completas con todos los campos ISO8583
      */
     public TransactionResponse sendTransaction(TransactionRequest request) {
+        // Un solo presupuesto para validación, conexión, envío y parseo
+        Deadline deadline = Deadline.after(apiClient.getTimeoutMillis());
         validateRequest(request);
 
+        // Con reversos activos el original sale con STAN/RRN propios: el 0400 tiene que poder nombrarlo
+        ReversalManager reversals = reversalManager;
+        if (reversals != null) {
+            reversals.assignIdentifiers(request);
+        }
+
+        long sendStart = System.nanoTime();
+        TransactionResponse response = deadline.run(() -> send(request, deadline));
+
+        TrafficCapture capture = trafficCapture;
+        if (capture != null) {
+            capture.record(request, response, sendStart, System.nanoTime() - sendStart);
+        }
+
+        DuplicateDetector duplicates = duplicateDetector;
+        if (duplicates != null) {
+            duplicates.record(request.getTerminalId(), response.getStan(), response.getRrn());
+        }
+
+        // Fuera del deadline: solo encola, el 0400 sale en otro hilo
+        if (reversals != null && response.isTimeout()) {
+            reversals.onTimeout(request, buildRequestBody(request));
+        }
+        return response;
+    }
+
+    private TransactionResponse send(TransactionRequest request, Deadline deadline) {
+
         logger.info("📤 Enviando transacción: {}", request.getTransactionType());
         logger.debug("   PAN: {}, Amount: {}", request.getMaskedPan(), request.getAmount());
 
         try {
+            deadline.check("verificación de conexión");
+
             // Verificar conexión antes de enviar
             if (testContext != null) {
                 testContext.ensureConnection();
-            } else {
+            } else if (!loadMode) {
                 logger.warn("⚠️ TestContext no disponible - no se puede verificar conexión");
             }
 
+            deadline.check("envío");
+
+            // Modo carga con batching: va por /process/batch y no hay Response individual de RestAssured
+            if (loadMode && apiClient.isBatchingEnabled()) {
+                TransactionResponse batched = apiClient.sendTransactionBatched(
+                        buildProcessBody(request), deadline.remainingMillis());
+                if (batched.getHttpStatusCode() == null) {
+                    batched.setHttpStatusCode(200);
+                }
+                return batched;
+            }
+
             // 1. Enviar por tipo y obtener Response de RestAssured
             Response restAssuredResponse = sendByType(request);
 
             logger.info("📥 Respuesta recibida - HTTP Status: {}", restAssuredResponse.getStatusCode());
 
+            // Una respuesta fuera de plazo cuenta como timeout aunque haya llegado
+            deadline.check("parseo de la respuesta");
+
             // 2. Parsear Response a TransactionResponse
             TransactionResponse transactionResponse = parseResponse(restAssuredResponse, request);
 
             // ✅ FIX 3: Adjuntar respuesta COMPLETA a Allure (con todos los campos ISO8583)
-            adjuntarResponseCompletaAAllure(transactionResponse, restAssuredResponse);
+            if (!loadMode) {
+                adjuntarResponseCompletaAAllure(transactionResponse, restAssuredResponse);
+            }
 
             // 3. Sincronizar ambas responses en el contexto
             if (testContext != null) {
                 logger.debug("🔗 Sincronizando responses en TestContext...");
                 testContext.setResponses(transactionResponse, restAssuredResponse);
                 logger.debug("✅ Ambas responses sincronizadas en contexto");
-            } else {
+            } else if (!loadMode) {
                 logger.warn("⚠️ TestContext no disponible - No se sincronizaron responses");
             }
 
             return transactionResponse;
 
+        } catch (DeadlineExceededException e) {
+            logger.warn("⏱️ {}", e.getMessage());
+            return createTimeoutResponse(e.getMessage());
+
+        } catch (ClientThrottledException e) {
+            // No salió del cliente: no es un error del simulador ni de conexión
+            logger.warn("🚦 {}", e.getMessage());
+            TransactionResponse throttled = createErrorResponse(e.getMessage());
+            throttled.setErrorType("THROTTLED");
+            throttled.setHttpStatusCode(429);
+            return throttled;
+
+        } catch (CircuitOpenException e) {
+            // Falla rápido: sin stack trace ni reconexión mientras el circuito esté abierto
+            logger.debug("🔴 {}", e.getMessage());
+            TransactionResponse circuitOpen = createErrorResponse(e.getMessage());
+            circuitOpen.setErrorType("CIRCUIT_OPEN");
+            circuitOpen.setHttpStatusCode(503);
+            return circuitOpen;
+
         } catch (Exception e) {
-            logger.error("❌ Error enviando transacción: {}", e.getMessage(), e);
+            if (isTimeout(e)) {
+                logger.warn("⏱️ Timeout de socket ({} ms de presupuesto): {}", deadline.getBudgetMillis(), e.getMessage());
+                return createTimeoutResponse(e.getMessage());
+            }
+
+            if (loadMode) {
+                // Con el enlace caído esto se repite miles de veces: sin stack trace
+                logger.warn("❌ Error enviando transacción: {}", e.getMessage());
+            } else {
+                logger.error("❌ Error enviando transacción: {}", e.getMessage(), e);
+            }
 
-            // Intentar reconectar en caso de error
-            if (testContext != null && e.getMessage().contains("conexión")) {
+            // Reintentos agotados sobre un fallo de conexión: intentar reconectar
+            if (testContext != null && RetryPolicy.isConnectionFailure(e)) {
                 logger.info("🔄 Intentando reconectar después del error...");
                 testContext.getConnectionService().verifyAndReconnect();
             }
@@ -247,6 +435,40 @@ public class TransactionService {
         return errorResponse;
     }
 
+    /**
+     * Crea una respuesta de timeout (68 - respuesta recibida fuera de tiempo)
+     */
+    private TransactionResponse createTimeoutResponse(String errorMessage) {
+        TransactionResponse timeoutResponse = new TransactionResponse();
+        timeoutResponse.setSuccessful(false);
+        timeoutResponse.setResponseCode("68");
+        timeoutResponse.setResponseMessage(errorMessage);
+        timeoutResponse.setErrorType("TIMEOUT");
+        timeoutResponse.setHttpStatusCode(504);
+        return timeoutResponse;
+    }
+
+    /**
+     * Connect/read timeout del cliente HTTP en cualquier punto de la cadena de causas
+     */
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedIOException || cause instanceof DeadlineExceededException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Body del endpoint genérico /process: el tipo viaja en el propio body
+     */
+    private Map<String, Object> buildProcessBody(TransactionRequest request) {
+        Map<String, Object> body = buildRequestBody(request);
+        body.put("transactionType", request.getTransactionType().name());
+        return body;
+    }
+
     /**
      * Construye el body del request como Map para envío JSON
      */
@@ -257,6 +479,9 @@ public class TransactionService {
         addIfNotNull(body, "track2", request.getTrack2());
         addIfNotNull(body, "amount", request.getAmount());
         addIfNotNull(body, "terminalId", request.getTerminalId());
+        addIfNotNull(body, "stan", request.getStan());
+        addIfNotNull(body, "transmissionDateTime", request.getTransmissionDateTime());
+        addIfNotNull(body, "retrievalReferenceNumber", request.getRetrievalReferenceNumber());
         addIfNotNull(body, "cardAcceptorId", request.getCardAcceptorId());
         addIfNotNull(body, "cardAcceptorName", request.getCardAcceptorName());
         addIfNotNull(body, "currencyCode", request.getCurrencyCode());
@@ -0,0 +1,550 @@
+package com.iso8583.test.steps;
+
+import com.iso8583.test.client.EndpointCircuitBreakers;
+import com.iso8583.test.client.EndpointThrottling;
+import com.iso8583.test.client.HedgingPolicy;
+import com.iso8583.test.client.ISO8583ApiClient;
+import com.iso8583.test.client.RetryPolicy;
+import com.iso8583.test.client.SimulatorLoadBalancer;
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.config.TestContext;
+import com.iso8583.test.config.TestContextFactory;
+import com.iso8583.test.models.TransactionRequest;
+import com.iso8583.test.models.TransactionType;
+import com.iso8583.test.performance.AdaptiveConcurrencyController;
+import com.iso8583.test.performance.AdaptiveLoadRunner;
+import com.iso8583.test.performance.DistributedLoadCoordinator;
+import com.iso8583.test.performance.IdentityRange;
+import com.iso8583.test.performance.OpenModelScheduler;
+import com.iso8583.test.performance.ReplayTiming;
+import com.iso8583.test.performance.SoakTestRunner;
+import com.iso8583.test.performance.SpikeLoadRunner;
+import com.iso8583.test.performance.SpikeProfile;
+import com.iso8583.test.performance.TrafficCapture;
+import com.iso8583.test.performance.TrafficReplayer;
+import com.iso8583.test.performance.VirtualTerminalFleet;
+import com.iso8583.test.performance.Workloads;
+import com.iso8583.test.services.TransactionService;
+import io.cucumber.java.After;
+import io.cucumber.java.es.*;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Step;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Step Definitions para pruebas de carga/performance
+ *
+ * Usan un TransactionService propio en modo carga (sin TestContext) para que
+ * las transacciones concurrentes no pisen el estado del escenario.
+ */
+public class PerformanceSteps {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceSteps.class);
+
+    private final TestContext context;
+    private final ConfigurationManager config;
+    private final TransactionService loadTransactionService;
+
+    private AdaptiveLoadRunner.AdaptiveLoadResult adaptiveResult;
+    private SoakTestRunner.SoakResult soakResult;
+    private SpikeLoadRunner.SpikeLoadResult spikeResult;
+    private DistributedLoadCoordinator.DistributedLoadResult distributedResult;
+    private TrafficReplayer.ReplayResult replayResult;
+    private VirtualTerminalFleet.FleetResult fleetResult;
+
+    // Perfil de picos en construcción (las ráfagas se expanden al conocer la duración)
+    private SpikeProfile spikeProfile;
+    private final List<int[]> pendingBursts = new ArrayList<>();
+
+    public PerformanceSteps() {
+        TestContextFactory factory = TestContextFactory.getInstance();
+        this.context = factory.getTestContext();
+        this.config = factory.getConfigurationManager();
+        this.loadTransactionService = new TransactionService(factory.getApiClient());
+        this.loadTransactionService.setLoadMode(true);
+        this.loadTransactionService.setTrafficCapture(factory.getTrafficCapture());
+    }
+
+    // ============================================================================
+    // HOOKS
+    // ============================================================================
+
+    @After("@Performance")
+    public void adjuntarMetricasDeThrottling() {
+        EndpointThrottling throttling = TestContextFactory.getInstance().getApiClient().getThrottling();
+        if (throttling.isEnabled()) {
+            Allure.addAttachment("🚦 Client Throttling", "text/plain", throttling.toSummary(), ".txt");
+        }
+    }
+
+    @After("@Performance")
+    public void adjuntarEstadoDeCircuitBreakers() {
+        EndpointCircuitBreakers circuitBreakers = TestContextFactory.getInstance().getApiClient().getCircuitBreakers();
+        if (circuitBreakers.isEnabled()) {
+            Allure.addAttachment("🔌 Circuit Breakers", "text/plain", circuitBreakers.toSummary(), ".txt");
+        }
+    }
+
+    @After("@Performance")
+    public void adjuntarEstadoDeBalanceo() {
+        SimulatorLoadBalancer loadBalancer = TestContextFactory.getInstance().getApiClient().getLoadBalancer();
+        if (loadBalancer.getNodes().size() > 1) {
+            Allure.addAttachment("⚖️ Simulator Load Balancing", "text/plain", loadBalancer.toSummary(), ".txt");
+        }
+    }
+
+    @After("@Performance")
+    public void adjuntarMetricasDeReintentos() {
+        RetryPolicy retryPolicy = TestContextFactory.getInstance().getApiClient().getRetryPolicy();
+        if (retryPolicy.getRetries() > 0) {
+            Allure.addAttachment("🔁 Retries", "text/plain", retryPolicy.toSummary(), ".txt");
+        }
+    }
+
+    @After("@Performance")
+    public void adjuntarMetricasDeBatching() {
+        ISO8583ApiClient apiClient = TestContextFactory.getInstance().getApiClient();
+        if (apiClient.isBatchingEnabled()) {
+            Allure.addAttachment("📦 Micro-batching", "text/plain", apiClient.getProcessBatcher().toSummary(), ".txt");
+        }
+    }
+
+    @After("@Performance")
+    public void adjuntarMetricasDeHedging() {
+        HedgingPolicy hedging = TestContextFactory.getInstance().getApiClient().getBalanceInquiryHedging();
+        if (hedging.isEnabled()) {
+            Allure.addAttachment("🪞 Hedged Requests", "text/plain", hedging.toSummary(), ".txt");
+        }
+    }
+
+    // ============================================================================
+    // WHEN STEPS - CARGA ADAPTATIVA (AIMD)
+    // ============================================================================
+
+    @Cuando("ejecuto una carga adaptativa de {string} durante {int} segundos")
+    @Step("Carga adaptativa AIMD de {transactionType} durante {seconds}s")
+    public void ejecutarCargaAdaptativa(String transactionType, int seconds) throws InterruptedException {
+        TransactionType type = TransactionType.fromCode(transactionType);
+        logger.info("📈 Ejecutando carga adaptativa: {} durante {}s", type, seconds);
+
+        context.ensureConnection();
+
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(
+                config.getMaxResponseTime(),
+                config.getIntProperty("performance.adaptive.initial-limit", config.getConcurrentUsers()),
+                config.getIntProperty("performance.adaptive.min-limit", 1),
+                config.getIntProperty("performance.adaptive.max-limit", 500),
+                config.getIntProperty("performance.adaptive.additive-increase", 1),
+                config.getDoubleProperty("performance.adaptive.decrease-factor", 0.5));
+
+        AdaptiveLoadRunner runner = new AdaptiveLoadRunner(
+                loadTransactionService,
+                Workloads.fromConfig(config, type),
+                controller,
+                Duration.ofMillis(config.getLongProperty("performance.adaptive.window-millis", 1000)));
+
+        adaptiveResult = runner.run(Duration.ofSeconds(seconds));
+
+        Allure.addAttachment("📈 Adaptive Load (AIMD)", "text/plain", adaptiveResult.toSummary(), ".txt");
+    }
+
+    // ============================================================================
+    // THEN STEPS - VALIDACIONES DE CARGA ADAPTATIVA
+    // ============================================================================
+
+    @Entonces("el TPS sostenible debe ser mayor a {int}")
+    @Step("Validar TPS sostenible > {minTps}")
+    public void validarTpsSostenible(int minTps) {
+        assertThat(adaptiveResult)
+                .as("Debe ejecutarse una carga adaptativa primero")
+                .isNotNull();
+
+        assertThat(adaptiveResult.getSustainableTps())
+                .as("TPS sostenible dentro del SLA de %dms", config.getMaxResponseTime())
+                .isGreaterThan((double) minTps);
+
+        logger.info("✅ TPS sostenible: {} (mínimo: {})",
+                String.format("%.1f", adaptiveResult.getSustainableTps()), minTps);
+    }
+
+    @Y("la carga adaptativa debe tener ventanas dentro del SLA")
+    @Step("Validar ventanas dentro del SLA")
+    public void validarVentanasDentroDelSla() {
+        assertThat(adaptiveResult)
+                .as("Debe ejecutarse una carga adaptativa primero")
+                .isNotNull();
+
+        assertThat(adaptiveResult.getWindows().size() - adaptiveResult.getBreachCount())
+                .as("Ventanas que cumplieron el SLA")
+                .isGreaterThan(0L);
+
+        logger.info("✅ {} de {} ventanas dentro del SLA",
+                adaptiveResult.getWindows().size() - adaptiveResult.getBreachCount(),
+                adaptiveResult.getWindows().size());
+    }
+
+    // ============================================================================
+    // WHEN STEPS - SOAK
+    // ============================================================================
+
+    @Cuando("ejecuto una prueba soak de {string} durante {int} minutos")
+    @Step("Prueba soak de {transactionType} durante {minutes} minutos")
+    public void ejecutarPruebaSoak(String transactionType, int minutes) {
+        TransactionType type = TransactionType.fromCode(transactionType);
+        logger.info("🔁 Ejecutando prueba soak: {} durante {} minutos", type, minutes);
+
+        context.ensureConnection();
+
+        int keepAliveMinutes = config.getIntProperty("performance.soak.keep-alive-minutes", 1);
+        if (keepAliveMinutes > 0) {
+            TestContextFactory.getInstance().getApiClient().configureKeepAlive(keepAliveMinutes);
+        }
+
+        SoakTestRunner runner = SoakTestRunner.builder()
+                .transactionService(loadTransactionService)
+                .workload(Workloads.fromConfig(config, type))
+                .rateTps(config.getDoubleProperty("performance.soak.rate-tps", 20))
+                .windowSize(Duration.ofSeconds(config.getLongProperty("performance.soak.window-seconds", 60)))
+                .maxInFlight(config.getIntProperty("performance.soak.max-in-flight", 200))
+                .warmupWindows(config.getIntProperty("performance.soak.warmup-windows", 2))
+                .historyWindows(config.getIntProperty("performance.soak.history-windows", 120))
+                .consecutiveWindows(config.getIntProperty("performance.soak.consecutive-windows", 3))
+                .p99DriftRatio(config.getDoubleProperty("performance.soak.p99-drift-ratio", 1.5))
+                .errorRateCreep(config.getDoubleProperty("performance.soak.error-rate-creep", 0.02))
+                .build();
+
+        soakResult = runner.run(Duration.ofMinutes(minutes));
+
+        Allure.addAttachment("🔁 Soak Test", "text/plain", soakResult.toSummary(), ".txt");
+    }
+
+    // ============================================================================
+    // THEN STEPS - VALIDACIONES DE SOAK
+    // ============================================================================
+
+    @Entonces("la prueba soak no debe detectar alertas de tipo {string}")
+    @Step("Validar soak sin alertas {alertType}")
+    public void validarSoakSinAlertas(String alertType) {
+        assertThat(soakResult)
+                .as("Debe ejecutarse una prueba soak primero")
+                .isNotNull();
+
+        assertThat(soakResult.hasAlerts(alertType))
+                .as("Alertas %s durante el soak", alertType)
+                .isFalse();
+
+        logger.info("✅ Soak sin alertas {}", alertType);
+    }
+
+    @Y("la tasa de error del soak debe ser menor a {double} por ciento")
+    @Step("Validar tasa de error del soak < {maxPercent}%")
+    public void validarTasaErrorSoak(double maxPercent) {
+        assertThat(soakResult)
+                .as("Debe ejecutarse una prueba soak primero")
+                .isNotNull();
+
+        assertThat(soakResult.getErrorRate() * 100)
+                .as("Tasa de error del soak")
+                .isLessThan(maxPercent);
+
+        logger.info("✅ Tasa de error del soak: {}%", String.format("%.2f", soakResult.getErrorRate() * 100));
+    }
+
+    // ============================================================================
+    // GIVEN/WHEN STEPS - PICOS Y RÁFAGAS
+    // ============================================================================
+
+    @Dado("un perfil de tráfico base de {int} TPS")
+    @Step("Perfil de tráfico base: {baselineTps} TPS")
+    public void configurarPerfilBase(int baselineTps) {
+        spikeProfile = SpikeProfile.baseline(baselineTps);
+        pendingBursts.clear();
+        logger.info("📶 Perfil base: {} TPS", baselineTps);
+    }
+
+    @Y("un pico de {int}x a los {int} segundos durante {int} segundos")
+    @Step("Pico de {multiplier}x en {startSeconds}s durante {durationSeconds}s")
+    public void agregarPico(int multiplier, int startSeconds, int durationSeconds) {
+        requireSpikeProfile().spike(Duration.ofSeconds(startSeconds), Duration.ofSeconds(durationSeconds), multiplier);
+        logger.info("⚡ Pico agregado: {}x en {}s durante {}s", multiplier, startSeconds, durationSeconds);
+    }
+
+    @Y("ráfagas de {int}x de {int} segundos cada {int} segundos")
+    @Step("Ráfagas de {multiplier}x de {burstSeconds}s cada {periodSeconds}s")
+    public void agregarRafagas(int multiplier, int burstSeconds, int periodSeconds) {
+        requireSpikeProfile();
+        pendingBursts.add(new int[]{multiplier, burstSeconds, periodSeconds});
+        logger.info("💥 Ráfagas: {}x de {}s cada {}s", multiplier, burstSeconds, periodSeconds);
+    }
+
+    @Cuando("ejecuto la carga con picos de {string} durante {int} segundos")
+    @Step("Carga con picos de {transactionType} durante {seconds}s")
+    public void ejecutarCargaConPicos(String transactionType, int seconds) {
+        TransactionType type = TransactionType.fromCode(transactionType);
+        Duration duration = Duration.ofSeconds(seconds);
+        SpikeProfile profile = requireSpikeProfile();
+
+        for (int[] burst : pendingBursts) {
+            profile.periodicBursts(Duration.ofSeconds(burst[2]), Duration.ofSeconds(burst[1]), burst[0], duration);
+        }
+        pendingBursts.clear();
+
+        context.ensureConnection();
+
+        SpikeLoadRunner runner = new SpikeLoadRunner(
+                loadTransactionService,
+                Workloads.fromConfig(config, type),
+                profile,
+                Duration.ofMillis(config.getLongProperty("performance.spike.window-millis", 1000)),
+                config.getIntProperty("performance.spike.max-in-flight", 1000),
+                config.getDoubleProperty("performance.spike.p99-tolerance", 1.2),
+                config.getDoubleProperty("performance.spike.error-rate-tolerance", 0.01),
+                config.getIntProperty("performance.spike.stable-windows", 3));
+
+        spikeResult = runner.run(duration);
+
+        Allure.addAttachment("⚡ Spike / Burst Load", "text/plain", spikeResult.toSummary(), ".txt");
+    }
+
+    // ============================================================================
+    // THEN STEPS - VALIDACIONES DE PICOS
+    // ============================================================================
+
+    @Entonces("todos los picos deben recuperarse en menos de {int} segundos")
+    @Step("Validar recuperación de picos < {maxSeconds}s")
+    public void validarRecuperacionPicos(int maxSeconds) {
+        assertThat(spikeResult)
+                .as("Debe ejecutarse una carga con picos primero")
+                .isNotNull();
+
+        assertThat(spikeResult.isBaselineMissing())
+                .as("Debe haber ventanas de periodo base antes del primer pico")
+                .isFalse();
+
+        assertThat(spikeResult.allRecovered())
+                .as("Picos recuperados: %d de %d", spikeResult.getRecoveredCount(), spikeResult.getRecoveries().size())
+                .isTrue();
+
+        assertThat(spikeResult.getMaxRecoveryTime().toSeconds())
+                .as("Peor tiempo de recuperación")
+                .isLessThan((long) maxSeconds);
+
+        logger.info("✅ {} picos recuperados - peor recuperación: {}ms",
+                spikeResult.getRecoveredCount(), spikeResult.getMaxRecoveryTime().toMillis());
+    }
+
+    // ============================================================================
+    // WHEN STEPS - CARGA DISTRIBUIDA
+    // ============================================================================
+
+    @Cuando("ejecuto una carga distribuida de {string} a {int} TPS con {int} workers durante {int} segundos")
+    @Step("Carga distribuida de {workload} a {tps} TPS con {workers} workers durante {seconds}s")
+    public void ejecutarCargaDistribuida(String workload, int tps, int workers, int seconds) throws Exception {
+        logger.info("🛰️ Ejecutando carga distribuida: {} a {} TPS con {} workers", workload, tps, workers);
+
+        distributedResult = DistributedLoadCoordinator.builder()
+                .localWorkers(workers)
+                .remoteWorkers(config.getIntProperty("performance.distributed.remote-workers", 0))
+                .port(config.getIntProperty("performance.distributed.port", 0))
+                .workload(workload)
+                .totalTps(tps)
+                .duration(Duration.ofSeconds(seconds))
+                .maxInFlightPerWorker(config.getIntProperty("performance.distributed.max-in-flight", 500))
+                .identities(new IdentityRange(0,
+                        config.getIntProperty("performance.distributed.terminal-count", 1000), 0,
+                        config.getLongProperty("performance.distributed.card-count", 100_000)))
+                .registrationTimeout(Duration.ofSeconds(
+                        config.getLongProperty("performance.distributed.registration-timeout-seconds", 60)))
+                .overrides(Map.of("simulator.base-url", config.getBaseUrl()))
+                .build()
+                .run();
+
+        // El dashboard de cobertura (Hooks @AfterAll) incluye a toda la flota
+        distributedResult.publishToCoverageReport("PERFORMANCE");
+
+        Allure.addAttachment("🛰️ Distributed Load", "text/plain", distributedResult.toSummary(), ".txt");
+    }
+
+    // ============================================================================
+    // THEN STEPS - VALIDACIONES DE CARGA DISTRIBUIDA
+    // ============================================================================
+
+    @Entonces("todos los workers deben reportar resultados")
+    @Step("Validar que todos los workers reportaron")
+    public void validarWorkersReportaron() {
+        assertThat(distributedResult)
+                .as("Debe ejecutarse una carga distribuida primero")
+                .isNotNull();
+
+        assertThat(distributedResult.getReportedWorkers())
+                .as("Workers que devolvieron resultado")
+                .isEqualTo(distributedResult.getExpectedWorkers());
+
+        logger.info("✅ {} workers reportaron - {} transacciones",
+                distributedResult.getReportedWorkers(), distributedResult.getCompleted());
+    }
+
+    @Y("la tasa de error distribuida debe ser menor a {double} por ciento")
+    @Step("Validar tasa de error distribuida < {maxPercent}%")
+    public void validarTasaErrorDistribuida(double maxPercent) {
+        assertThat(distributedResult)
+                .as("Debe ejecutarse una carga distribuida primero")
+                .isNotNull();
+
+        assertThat(distributedResult.getErrorRate() * 100)
+                .as("Tasa de error de la flota")
+                .isLessThan(maxPercent);
+    }
+
+    // ============================================================================
+    // WHEN STEPS - REPLAY DE TRÁFICO
+    // ============================================================================
+
+    @Dado("una captura de tráfico de {string} a {int} TPS durante {int} segundos en {string}")
+    @Step("Capturar {workload} a {tps} TPS durante {seconds}s en {captureFile}")
+    public void capturarTrafico(String workload, int tps, int seconds, String captureFile) throws Exception {
+        logger.info("🎙️ Capturando tráfico: {} a {} TPS durante {}s en {}", workload, tps, seconds, captureFile);
+
+        context.ensureConnection();
+
+        Supplier<TransactionRequest> requests = Workloads.mix(config, workload);
+        OpenModelScheduler scheduler = new OpenModelScheduler(
+                config.getIntProperty("performance.replay.max-outstanding", 2000));
+        try (TrafficCapture capture = new TrafficCapture(Path.of(captureFile))) {
+            loadTransactionService.setTrafficCapture(capture);
+            scheduler.run(Duration.ofSeconds(seconds), OpenModelScheduler.RateProfile.constant(tps), () -> {
+                try {
+                    loadTransactionService.sendTransaction(requests.get());
+                } catch (Exception e) {
+                    // La captura registra el error; el replay lo vuelve a intentar igual
+                }
+            });
+        } finally {
+            loadTransactionService.setTrafficCapture(null);
+        }
+    }
+
+    @Cuando("ejecuto el replay de la captura {string} a velocidad {string}")
+    @Step("Replay de {captureFile} a velocidad {speed}")
+    public void ejecutarReplay(String captureFile, String speed) throws Exception {
+        logger.info("⏯️ Ejecutando replay: {} a {}", captureFile, speed);
+
+        context.ensureConnection();
+
+        TrafficReplayer replayer = new TrafficReplayer(
+                loadTransactionService,
+                ReplayTiming.parse(speed),
+                config.getIntProperty("performance.replay.max-outstanding", 2000),
+                Duration.ofMillis(config.getLongProperty("performance.replay.reorder-window-millis", config.getTimeout())));
+
+        replayResult = replayer.replay(Path.of(captureFile));
+
+        Allure.addAttachment("⏯️ Traffic Replay", "text/plain", replayResult.toSummary(), ".txt");
+    }
+
+    // ============================================================================
+    // THEN STEPS - VALIDACIONES DE REPLAY
+    // ============================================================================
+
+    @Entonces("el replay debe sostener al menos {int} TPS")
+    @Step("Validar TPS del replay >= {minTps}")
+    public void validarTpsReplay(int minTps) {
+        assertThat(replayResult)
+                .as("Debe ejecutarse un replay primero")
+                .isNotNull();
+
+        assertThat(replayResult.getReplayed())
+                .as("Transacciones re-enviadas")
+                .isGreaterThan(0L);
+
+        assertThat(replayResult.getReplayTps())
+                .as("TPS alcanzado en el replay")
+                .isGreaterThanOrEqualTo((double) minTps);
+
+        logger.info("✅ Replay: {} TPS (capturado: {} TPS)",
+                String.format("%.1f", replayResult.getReplayTps()),
+                String.format("%.1f", replayResult.getCapturedTps()));
+    }
+
+    @Y("la tasa de error del replay debe ser menor a {double} por ciento")
+    @Step("Validar tasa de error del replay < {maxPercent}%")
+    public void validarTasaErrorReplay(double maxPercent) {
+        assertThat(replayResult)
+                .as("Debe ejecutarse un replay primero")
+                .isNotNull();
+
+        assertThat(replayResult.getErrorRate() * 100)
+                .as("Tasa de error del replay")
+                .isLessThan(maxPercent);
+    }
+
+    // ============================================================================
+    // WHEN STEPS - FLOTA DE TERMINALES VIRTUALES
+    // ============================================================================
+
+    @Cuando("ejecuto una flota de {int} terminales virtuales con {string} a {int} TPS durante {int} segundos")
+    @Step("Flota de {terminals} terminales virtuales con {workload} a {tps} TPS durante {seconds}s")
+    public void ejecutarFlotaDeTerminales(int terminals, String workload, int tps, int seconds) throws Exception {
+        logger.info("🏧 Ejecutando flota de {} terminales: {} a {} TPS", terminals, workload, tps);
+
+        context.ensureConnection();
+
+        fleetResult = VirtualTerminalFleet.builder(config)
+                .terminalCount(terminals)
+                .transactionService(loadTransactionService)
+                .workload(Workloads.mix(config, workload))
+                .rateTps(tps)
+                .build()
+                .run(Duration.ofSeconds(seconds));
+
+        Allure.addAttachment("🏧 Virtual Terminal Fleet", "text/plain", fleetResult.toSummary(), ".txt");
+    }
+
+    // ============================================================================
+    // THEN STEPS - VALIDACIONES DE LA FLOTA
+    // ============================================================================
+
+    @Entonces("todas las terminales virtuales deben haber transaccionado")
+    @Step("Validar que ninguna terminal quedó sin transacciones")
+    public void validarTerminalesTransaccionaron() {
+        assertThat(fleetResult)
+                .as("Debe ejecutarse una flota de terminales primero")
+                .isNotNull();
+
+        assertThat(fleetResult.getIdleTerminals())
+                .as("Terminales sin ninguna transacción")
+                .isZero();
+
+        logger.info("✅ {} terminales - {} transacciones, {} echos",
+                fleetResult.getTerminalCount(), fleetResult.getCompleted(), fleetResult.getEchoes());
+    }
+
+    @Y("la tasa de error de la flota debe ser menor a {double} por ciento")
+    @Step("Validar tasa de error de la flota < {maxPercent}%")
+    public void validarTasaErrorFlota(double maxPercent) {
+        assertThat(fleetResult)
+                .as("Debe ejecutarse una flota de terminales primero")
+                .isNotNull();
+
+        assertThat(fleetResult.getErrorRate() * 100)
+                .as("Tasa de error de la flota de terminales")
+                .isLessThan(maxPercent);
+    }
+
+    private SpikeProfile requireSpikeProfile() {
+        if (spikeProfile == null) {
+            throw new IllegalStateException("Primero configure el perfil base: 'un perfil de tráfico base de N TPS'");
+        }
+        return spikeProfile;
+    }
+}
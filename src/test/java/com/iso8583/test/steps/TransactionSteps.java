@@ -1,10 +1,12 @@
 package com.iso8583.test.steps;
 
+import com.iso8583.test.config.IdentityLeasePool;
 import com.iso8583.test.config.TestContext;
 import com.iso8583.test.config.TestContextFactory;
 import com.iso8583.test.models.TransactionRequest;
 import com.iso8583.test.models.TransactionResponse;
 import com.iso8583.test.models.TransactionType;
+import com.iso8583.test.performance.DuplicateDetector;
 import com.iso8583.test.utils.AllureReportHelper;
 import io.cucumber.java.es.*;
 import io.qameta.allure.Allure;
@@ -61,6 +63,10 @@ public class TransactionSteps {
     @Y("con PAN {string}")
     @Step("Configurar PAN: {pan}")
     public void configurarPan(String pan) {
+        IdentityLeasePool.Lease lease = context.getIdentityLease();
+        if (lease != null) {
+            pan = lease.substitutePan(pan);
+        }
         String maskedPan = maskPan(pan);
         logger.info("💳 Configurando PAN: {}", maskedPan);
 
@@ -74,6 +80,10 @@ public class TransactionSteps {
     @Step("Configurar Track2")
     public void configurarTrack2(String track2) {
         logger.info("💳 Configurando Track2");
+        IdentityLeasePool.Lease lease = context.getIdentityLease();
+        if (lease != null) {
+            track2 = lease.substituteTrack2(track2);
+        }
         context.getRequestBuilder().track2(track2);
 
         String maskedTrack2 = maskTrack2(track2);
@@ -105,6 +115,10 @@ public class TransactionSteps {
     @Y("la cuenta destino es {string}")     // Agregado
     @Step("Configurar cuenta: {account}")
     public void configurarCuenta(String account) {
+        IdentityLeasePool.Lease lease = context.getIdentityLease();
+        if (lease != null) {
+            account = lease.substituteAccount(account);
+        }
         logger.info("💰 Configurando cuenta: {}", account);
         context.getRequestBuilder().account(account);
         Allure.addAttachment("Account", account);
@@ -130,6 +144,10 @@ public class TransactionSteps {
     @Y("con cuenta destino {string}")
     @Step("Configurar cuenta destino: {targetAccount}")
     public void configurarCuentaDestino(String targetAccount) {
+        IdentityLeasePool.Lease lease = context.getIdentityLease();
+        if (lease != null) {
+            targetAccount = lease.substituteTargetAccount(targetAccount);
+        }
         logger.info("🎯 Configurando cuenta destino: {}", targetAccount);
         context.getRequestBuilder().targetAccount(targetAccount);
         Allure.addAttachment("Target Account", targetAccount);
@@ -361,17 +379,29 @@ public class TransactionSteps {
     public void validarSTANsUnicos() {
         var responses = context.getMultipleResponses();
 
-        var stans = responses.stream()
-                .map(TransactionResponse::getStan)
-                .collect(java.util.stream.Collectors.toSet());
+        // Bitmap por STAN en lugar de un Set<String>: el mismo chequeo sirve para 10 o para 1M respuestas
+        DuplicateDetector detector = new DuplicateDetector();
+        long missing = 0;
+        for (TransactionResponse response : responses) {
+            if (response.getStan() == null) {
+                missing++;
+            }
+            detector.record(null, response.getStan(), null);
+        }
 
-        assertThat(stans)
-                .as("Todos los STANs deben ser únicos")
-                .hasSize(responses.size());
+        assertThat(missing)
+                .as("Respuestas sin STAN")
+                .isZero();
+        assertThat(detector.getInvalidStans())
+                .as("STANs vacíos, no numéricos o de más de 6 dígitos: %s", detector.getRecentDuplicates())
+                .isZero();
+        assertThat(detector.getDuplicateStans())
+                .as("Todos los STANs deben ser únicos: %s", detector.getRecentDuplicates())
+                .isZero();
 
-        logger.info("✅ {} STANs únicos verificados", stans.size());
+        logger.info("✅ {} STANs únicos verificados", responses.size());
 
-        Allure.addAttachment("STANs Únicos", String.join(", ", stans));
+        Allure.addAttachment("STANs Únicos", detector.toSummary());
     }
 
     @Y("el tiempo promedio de respuesta debe ser menor a {int} milisegundos")
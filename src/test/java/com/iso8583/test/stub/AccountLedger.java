@@ -0,0 +1,250 @@
+package com.iso8583.test.stub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Libro de saldos del simulador embebido, para verificar consistencia bajo concurrencia
+ *
+ * Cada cuenta pertenece a un stripe de {@link #STRIPES} locks; una
+ * transferencia toma los dos stripes en orden de índice (sin deadlocks) y
+ * mueve el monto de forma atómica. Los débitos sin fondos se rechazan, así
+ * que un saldo nunca queda negativo.
+ *
+ * Invariante de conservación: suma de saldos = fondos iniciales + créditos
+ * externos (depósitos) - débitos externos (compras, avances, cashback). Las
+ * transferencias no cambian la suma. {@link #verify()} toma todos los stripes
+ * y compara contra los totales que se actualizan dentro de los mismos locks.
+ */
+public class AccountLedger {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final long openingBalance;
+
+    // Totales por stripe, protegidos por el lock del stripe
+    private final long[] openedFunds = new long[STRIPES];
+    private final long[] credited = new long[STRIPES];
+    private final long[] debited = new long[STRIPES];
+    private final long[] movements = new long[STRIPES];
+    private final long[] declined = new long[STRIPES];
+
+    /**
+     * @param openingBalance saldo (unidades menores) con el que se abre una cuenta desconocida
+     */
+    public AccountLedger(long openingBalance) {
+        this.openingBalance = openingBalance;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Abre la cuenta con el saldo de apertura si todavía no existe
+     */
+    public void open(String account) {
+        int stripe = stripeOf(account);
+        locks[stripe].lock();
+        try {
+            account(account, stripe);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    public void credit(String account, long amount) {
+        requirePositive(amount);
+        int stripe = stripeOf(account);
+        locks[stripe].lock();
+        try {
+            account(account, stripe).balance += amount;
+            credited[stripe] += amount;
+            movements[stripe]++;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * @return false (y nada cambia) si no hay fondos suficientes
+     */
+    public boolean debit(String account, long amount) {
+        requirePositive(amount);
+        int stripe = stripeOf(account);
+        locks[stripe].lock();
+        try {
+            Account target = account(account, stripe);
+            if (target.balance < amount) {
+                declined[stripe]++;
+                return false;
+            }
+            target.balance -= amount;
+            debited[stripe] += amount;
+            movements[stripe]++;
+            return true;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * @return false (y nada cambia) si el origen no tiene fondos suficientes
+     */
+    public boolean transfer(String from, String to, long amount) {
+        requirePositive(amount);
+        int fromStripe = stripeOf(from);
+        int toStripe = stripeOf(to);
+        int first = Math.min(fromStripe, toStripe);
+        int second = Math.max(fromStripe, toStripe);
+        locks[first].lock();
+        if (second != first) {
+            locks[second].lock();
+        }
+        try {
+            Account source = account(from, fromStripe);
+            Account target = account(to, toStripe);
+            if (source.balance < amount) {
+                declined[fromStripe]++;
+                return false;
+            }
+            source.balance -= amount;
+            target.balance += amount;
+            movements[fromStripe]++;
+            return true;
+        } finally {
+            if (second != first) {
+                locks[second].unlock();
+            }
+            locks[first].unlock();
+        }
+    }
+
+    public long balance(String account) {
+        int stripe = stripeOf(account);
+        locks[stripe].lock();
+        try {
+            return account(account, stripe).balance;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    private Account account(String account, int stripe) {
+        Account existing = accounts.get(account);
+        if (existing != null) {
+            return existing;
+        }
+        // Solo se crea con el lock del stripe tomado: los fondos de apertura quedan contados una vez
+        Account created = new Account(openingBalance);
+        accounts.put(account, created);
+        openedFunds[stripe] += openingBalance;
+        return created;
+    }
+
+    private static int stripeOf(String account) {
+        int hash = account.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static void requirePositive(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Monto inválido para el ledger: " + amount);
+        }
+    }
+
+    // ============================================================================
+    // VERIFICACIÓN
+    // ============================================================================
+
+    /**
+     * Foto consistente del ledger (toma todos los stripes) y chequeo de conservación
+     */
+    public Check verify() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            Check check = new Check();
+            for (int i = 0; i < STRIPES; i++) {
+                check.openedFunds += openedFunds[i];
+                check.credited += credited[i];
+                check.debited += debited[i];
+                check.movements += movements[i];
+                check.declined += declined[i];
+            }
+            accounts.forEach((account, state) -> {
+                check.balances.put(account, state.balance);
+                check.totalBalance += state.balance;
+                if (state.balance < 0) {
+                    check.negativeAccounts.add(account);
+                }
+            });
+            return check;
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    private static final class Account {
+        private long balance;
+
+        private Account(long balance) {
+            this.balance = balance;
+        }
+    }
+
+    public static class Check {
+        private final Map<String, Long> balances = new TreeMap<>();
+        private final List<String> negativeAccounts = new ArrayList<>();
+        private long totalBalance;
+        private long openedFunds;
+        private long credited;
+        private long debited;
+        private long movements;
+        private long declined;
+
+        public long getExpectedTotal() {
+            return openedFunds + credited - debited;
+        }
+
+        public long getTotalBalance() {
+            return totalBalance;
+        }
+
+        public boolean isConsistent() {
+            return totalBalance == getExpectedTotal() && negativeAccounts.isEmpty();
+        }
+
+        public Map<String, Long> getBalances() {
+            return balances;
+        }
+
+        public String toSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append("📒 STUB LEDGER\n");
+            summary.append("─────────────────────────────────────────────────────\n");
+            summary.append(String.format("Accounts / movements:    %9d / %d (%d declined for funds)\n",
+                    balances.size(), movements, declined));
+            summary.append(String.format("Opening + in - out:      %d + %d - %d = %d\n",
+                    openedFunds, credited, debited, getExpectedTotal()));
+            summary.append(String.format("Sum of balances:         %d\n", totalBalance));
+            if (balances.size() <= 10) {
+                balances.forEach((account, balance) ->
+                        summary.append(String.format("  %-20s %15d\n", account, balance)));
+            }
+            summary.append(isConsistent()
+                    ? "Conservation:            ✅ OK\n"
+                    : String.format("Conservation:            ❌ VIOLATED (diff %d, negative %s)\n",
+                            totalBalance - getExpectedTotal(), negativeAccounts));
+            return summary.toString();
+        }
+    }
+}
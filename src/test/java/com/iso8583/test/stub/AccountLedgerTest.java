@@ -0,0 +1,103 @@
+package com.iso8583.test.stub;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Ledger del stub: apertura, débitos sin fondos, transferencias y conservación bajo concurrencia
+ */
+class AccountLedgerTest {
+
+    @Test
+    void abreCuentasConElSaldoInicial() {
+        AccountLedger ledger = new AccountLedger(1_000);
+
+        ledger.open("A");
+        ledger.open("A");
+
+        assertThat(ledger.balance("A")).isEqualTo(1_000);
+        assertThat(ledger.balance("B")).as("se abre al consultar").isEqualTo(1_000);
+        assertThat(ledger.verify().getExpectedTotal()).isEqualTo(2_000);
+    }
+
+    @Test
+    void rechazaDebitosSinFondosSinTocarElSaldo() {
+        AccountLedger ledger = new AccountLedger(100);
+
+        assertThat(ledger.debit("A", 60)).isTrue();
+        assertThat(ledger.debit("A", 60)).isFalse();
+
+        assertThat(ledger.balance("A")).isEqualTo(40);
+        assertThat(ledger.verify().isConsistent()).isTrue();
+    }
+
+    @Test
+    void transferenciaMueveFondosSinCambiarLaSuma() {
+        AccountLedger ledger = new AccountLedger(100);
+
+        assertThat(ledger.transfer("A", "B", 70)).isTrue();
+        assertThat(ledger.transfer("A", "B", 70)).isFalse();
+        assertThat(ledger.transfer("A", "A", 10)).isTrue();
+
+        AccountLedger.Check check = ledger.verify();
+        assertThat(check.getBalances()).containsEntry("A", 30L).containsEntry("B", 170L);
+        assertThat(check.getTotalBalance()).isEqualTo(check.getExpectedTotal()).isEqualTo(200);
+    }
+
+    @Test
+    void creditosYDebitosExternosEntranEnElEsperado() {
+        AccountLedger ledger = new AccountLedger(0);
+
+        ledger.credit("A", 500);
+        ledger.debit("A", 120);
+
+        AccountLedger.Check check = ledger.verify();
+        assertThat(check.getExpectedTotal()).isEqualTo(380);
+        assertThat(check.isConsistent()).isTrue();
+    }
+
+    @Test
+    void rechazaMontosNoPositivos() {
+        AccountLedger ledger = new AccountLedger(100);
+
+        assertThatThrownBy(() -> ledger.credit("A", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ledger.transfer("A", "B", -5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void conservaLosFondosBajoConcurrencia() {
+        AccountLedger ledger = new AccountLedger(10_000);
+        String[] accounts = new String[200];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = "ACC" + i;
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                executor.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        String from = accounts[random.nextInt(accounts.length)];
+                        String to = accounts[random.nextInt(accounts.length)];
+                        long amount = 1 + random.nextInt(500);
+                        switch (random.nextInt(3)) {
+                            case 0 -> ledger.transfer(from, to, amount);
+                            case 1 -> ledger.credit(from, amount);
+                            default -> ledger.debit(from, amount);
+                        }
+                    }
+                });
+            }
+        }
+
+        AccountLedger.Check check = ledger.verify();
+        assertThat(check.isConsistent()).as(check.toSummary()).isTrue();
+        assertThat(check.getBalances().values()).allMatch(balance -> balance >= 0);
+    }
+}
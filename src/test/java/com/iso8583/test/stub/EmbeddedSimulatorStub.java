@@ -0,0 +1,635 @@
+package com.iso8583.test.stub;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.iso8583.test.config.ConfigurationManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Simulador HTTP embebido para medir el harness sin el simulador real
+ *
+ * Implementa la API REST del simulador (/api/v1/connection/*,
+ * /api/v1/transactions/*) y además el endpoint batch
+ * {@code /api/v1/transactions/process/batch} (arreglo JSON de requests →
+ * arreglo de responses en el mismo orden). Todas las transacciones se
+ * aprueban (39=00).
+ *
+ * Modelo de latencia: {@code round-trip-millis} por request HTTP más
+ * {@code per-transaction-micros} por transacción, así la ganancia del
+ * batching se ve localmente.
+ *
+ *   simulator.stub.round-trip-millis=5
+ *   simulator.stub.per-transaction-micros=200
+ *
+ * Inyección de fallas: los endpoints de transacciones aplican la fase vigente
+ * de un {@link FaultSchedule} (latencia extra, 5xx, cierres sin respuesta,
+ * sockets half-open, bodies por goteo y tormentas de un código de respuesta).
+ * Los "reset" cierran la conexión sin responder: HttpServer no permite un RST
+ * real, el cliente ve el fin de stream.
+ *
+ * Ledger opcional ({@code simulator.stub.ledger.enabled}): con un
+ * {@link AccountLedger} las transacciones mueven saldos de verdad
+ * (DEPOSIT acredita; PURCHASE, CASH_ADVANCE y CASHBACK debitan el monto del
+ * campo 4; TRANSFER mueve de account a targetAccount; BALANCE_INQUIRY
+ * devuelve el saldo) y los débitos sin fondos responden 51. Las cuentas
+ * test.data.account y test.data.account.secondary se abren al arrancar.
+ *
+ * Con ledger, los reversos (04xx) deshacen el movimiento del original que
+ * nombran: terminal + STAN + fecha/hora de transmisión del original (campo 90
+ * o originalStan/originalTransmissionDateTime). Responden 00 si lo reversan
+ * (o ya estaba reversado) y 25 si no lo encuentran; un original que llega
+ * después de su reverso ya no se aplica (39=68). Se recuerdan los últimos
+ * {@code simulator.stub.ledger.reversal-window} movimientos. Cada original
+ * se aplica o reversa bajo uno de {@link #MOVEMENT_STRIPES} locks según su
+ * clave: originales distintos no compiten entre sí y el ledger sigue
+ * repartido en sus propios stripes. Sin ledger los reversos y los advices
+ * 022x solo se acusan.
+ */
+public class EmbeddedSimulatorStub {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedSimulatorStub.class);
+
+    private static final Gson gson = new Gson();
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() { }.getType();
+    private static final Type LIST_TYPE = new TypeToken<List<Map<String, Object>>>() { }.getType();
+
+    private static final String TRANSACTIONS = "/api/v1/transactions/";
+    private static final String BATCH_PATH = TRANSACTIONS + "process/batch";
+    private static final int MOVEMENT_STRIPES = 64;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long roundTripNanos;
+    private final long perTransactionNanos;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile FaultSchedule faultSchedule;
+    private volatile long faultScheduleStartNanos = System.nanoTime();
+    private final AtomicInteger currentPhase = new AtomicInteger(-1);
+    private final AccountLedger ledger;
+    private final String defaultAccount;
+    private final String secondaryAccount;
+    private final int movementWindow;
+    private final Map<String, Movement> movements = new ConcurrentHashMap<>();
+    // Orden de llegada de las claves, para descartar las más viejas fuera de la ventana
+    private final Queue<String> movementOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger rememberedMovements = new AtomicInteger();
+    // ReentrantLock y no synchronized: no fija (pin) los virtual threads del HttpServer
+    private final ReentrantLock[] movementLocks = new ReentrantLock[MOVEMENT_STRIPES];
+
+    private final AtomicLong stan = new AtomicLong();
+    // Secuencial: un RRN al azar repite con ~40% de probabilidad en un millón de transacciones
+    private final AtomicLong rrn = new AtomicLong();
+    private final LongAdder httpRequests = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder halfOpens = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder slowDrips = new LongAdder();
+    private final LongAdder stormResponses = new LongAdder();
+    private final LongAdder injectedLatencyNanos = new LongAdder();
+
+    public EmbeddedSimulatorStub(int port, ConfigurationManager config) throws IOException {
+        this.roundTripNanos = TimeUnit.MILLISECONDS.toNanos(config.getLongProperty("simulator.stub.round-trip-millis", 5));
+        this.perTransactionNanos = TimeUnit.MICROSECONDS.toNanos(
+                config.getLongProperty("simulator.stub.per-transaction-micros", 200));
+        this.faultSchedule = FaultSchedule.fromConfig(config);
+        this.defaultAccount = config.getProperty("test.data.account", config.getDefaultAccount());
+        this.secondaryAccount = config.getProperty("test.data.account.secondary", defaultAccount);
+        this.ledger = config.getBooleanProperty("simulator.stub.ledger.enabled", false)
+                ? new AccountLedger(config.getLongProperty("simulator.stub.ledger.opening-balance", 100_000_000L))
+                : null;
+        if (ledger != null) {
+            ledger.open(defaultAccount);
+            ledger.open(secondaryAccount);
+        }
+        this.movementWindow = Math.max(1, config.getIntProperty("simulator.stub.ledger.reversal-window", 100_000));
+        for (int i = 0; i < MOVEMENT_STRIPES; i++) {
+            movementLocks[i] = new ReentrantLock();
+        }
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public EmbeddedSimulatorStub start() {
+        faultScheduleStartNanos = System.nanoTime();
+        server.start();
+        logger.info("🧪 Simulador embebido escuchando en {}", getBaseUrl());
+        if (faultSchedule != FaultSchedule.NONE) {
+            logger.info("💥 Fallas programadas:\n{}", faultSchedule.describe());
+        }
+        return this;
+    }
+
+    /**
+     * Reemplaza el schedule de fallas; sus offsets cuentan desde ahora
+     */
+    public void setFaultSchedule(FaultSchedule schedule) {
+        this.faultScheduleStartNanos = System.nanoTime();
+        this.faultSchedule = schedule;
+        currentPhase.set(-1);
+    }
+
+    public void stop() {
+        stopped.countDown();
+        server.stop(0);
+        executor.close();
+        logger.info("🧪 Simulador embebido detenido - {} requests HTTP, {} transacciones",
+                httpRequests.sum(), transactions.sum());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    // ============================================================================
+    // RUTEO
+    // ============================================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        httpRequests.increment();
+        String path = exchange.getRequestURI().getPath();
+        try {
+            if (path.equals(BATCH_PATH)) {
+                List<Map<String, Object>> requests = gson.fromJson(readBody(exchange), LIST_TYPE);
+                int size = requests == null ? 0 : requests.size();
+                FaultProfile faults = currentFaults();
+                FaultProfile.Fault fault = faults.pickFault(ThreadLocalRandom.current());
+                if (injectConnectionFault(exchange, faults, fault)) {
+                    return;
+                }
+                simulateLatency(size, faults);
+                batches.increment();
+                respond(exchange, fault, faults, () -> {
+                    List<Map<String, Object>> responses = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        responses.add(authorize(requests.get(i), null, faults));
+                    }
+                    return responses;
+                });
+
+            } else if (path.startsWith(TRANSACTIONS)) {
+                Map<String, Object> request = gson.fromJson(readBody(exchange), MAP_TYPE);
+                FaultProfile faults = currentFaults();
+                FaultProfile.Fault fault = faults.pickFault(ThreadLocalRandom.current());
+                if (injectConnectionFault(exchange, faults, fault)) {
+                    return;
+                }
+                simulateLatency(1, faults);
+                String endpoint = path.substring(TRANSACTIONS.length());
+                respond(exchange, fault, faults, () -> authorize(request, endpoint, faults));
+
+            } else if (path.startsWith("/api/v1/connection/status")) {
+                respond(exchange, 200, Map.of("connected", true, "channelConnected", true));
+
+            } else if (path.startsWith("/api/v1/connection/connect")) {
+                respond(exchange, 200, Map.of("connected", true, "mode", "STUB",
+                        "simulatorType", "EMBEDDED_STUB", "tcpConnectionRequired", false));
+
+            } else if (path.startsWith("/api/v1/") || path.equals("/actuator/health")) {
+                respond(exchange, 200, Map.of("success", true, "status", "UP"));
+
+            } else {
+                respond(exchange, 404, Map.of("error", "Ruta no soportada por el stub: " + path));
+            }
+        } catch (RuntimeException e) {
+            respond(exchange, 400, Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private void simulateLatency(int transactionCount, FaultProfile faults) {
+        transactions.add(transactionCount);
+        long extra = faults.nextLatencyNanos(ThreadLocalRandom.current());
+        injectedLatencyNanos.add(extra);
+        parkUntil(System.nanoTime() + roundTripNanos + perTransactionNanos * transactionCount + extra);
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    // ============================================================================
+    // INYECCIÓN DE FALLAS
+    // ============================================================================
+
+    private FaultProfile currentFaults() {
+        FaultSchedule schedule = faultSchedule;
+        int index = schedule.phaseIndexAt(System.nanoTime() - faultScheduleStartNanos);
+        int previous = currentPhase.get();
+        if (previous != index && currentPhase.compareAndSet(previous, index)) {
+            logger.info("💥 Fase de fallas: {}", schedule.getPhase(index).getProfile().describe());
+        }
+        return schedule.getPhase(index).getProfile();
+    }
+
+    /**
+     * Aplica las fallas que no llegan a responder
+     *
+     * @return true si el request ya quedó resuelto (conexión cerrada)
+     */
+    private boolean injectConnectionFault(HttpExchange exchange, FaultProfile faults, FaultProfile.Fault fault) {
+        if (fault == FaultProfile.Fault.RESET) {
+            resets.increment();
+            exchange.close();
+            return true;
+        }
+        if (fault == FaultProfile.Fault.HALF_OPEN) {
+            halfOpens.increment();
+            try {
+                stopped.await(faults.getHalfOpenHoldNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * El body se arma solo si no es un 5xx: la transacción fallida no mueve el ledger
+     */
+    private void respond(HttpExchange exchange, FaultProfile.Fault fault, FaultProfile faults,
+                         Supplier<Object> body) throws IOException {
+        if (fault == FaultProfile.Fault.HTTP_5XX) {
+            serverErrors.increment();
+            respond(exchange, faults.getHttp5xxStatus(), Map.of("error", "Falla inyectada por el stub"));
+        } else if (fault == FaultProfile.Fault.SLOW_DRIP) {
+            slowDrips.increment();
+            drip(exchange, gson.toJson(body.get()).getBytes(StandardCharsets.UTF_8), faults.getSlowDripBytesPerSecond());
+        } else {
+            respond(exchange, 200, body.get());
+        }
+    }
+
+    /**
+     * Escribe el body en trozos cada 100 ms a la tasa indicada
+     */
+    private void drip(HttpExchange exchange, byte[] bytes, int bytesPerSecond) throws IOException {
+        int chunk = Math.max(1, bytesPerSecond / 10);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int offset = 0; offset < bytes.length && stopped.getCount() > 0; offset += chunk) {
+                out.write(bytes, offset, Math.min(chunk, bytes.length - offset));
+                out.flush();
+                parkUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+    }
+
+    /**
+     * @param endpoint último tramo del path (purchase, balance-inquiry...), o null si el
+     *                 tipo viene en transactionType (process, batch)
+     */
+    private Map<String, Object> authorize(Map<String, Object> request, String endpoint, FaultProfile faults) {
+        Map<String, Object> response = approve(request);
+        String mti = request == null ? "" : String.valueOf(request.get("mti"));
+        if (mti.length() == 4 && (mti.startsWith("04") || mti.startsWith("022"))) {
+            response.put("mti", mti.substring(0, 2) + (char) (mti.charAt(2) + 1) + "0");
+            if (ledger != null && mti.startsWith("04")) {
+                reverse(request, response);
+            }
+            return response;
+        }
+        String stormCode = faults.pickStormCode(ThreadLocalRandom.current());
+        if (stormCode != null) {
+            stormResponses.increment();
+            decline(response, stormCode, "FAULT INJECTION");
+        } else if (ledger != null && request != null) {
+            applyToLedger(request, transactionTypeOf(request, endpoint), response);
+        }
+        return response;
+    }
+
+    // ============================================================================
+    // LEDGER
+    // ============================================================================
+
+    private void applyToLedger(Map<String, Object> request, String type, Map<String, Object> response) {
+        String account = text(request.get("account"), defaultAccount);
+        long amount = parseAmount(request.get("amount"));
+        String key = originalKey(request.get("terminalId"), request.get("stan"), request.get("transmissionDateTime"));
+        boolean funded = true;
+        switch (type) {
+            case "DEPOSIT":
+            case "PURCHASE":
+            case "CASH_ADVANCE":
+            case "CASHBACK":
+            case "TRANSFER":
+                if (amount <= 0) {
+                    break;
+                }
+                String target = type.equals("TRANSFER") ? text(request.get("targetAccount"), secondaryAccount) : null;
+                Movement movement = new Movement(type, account, target, amount);
+                if (key == null) {
+                    funded = movement.apply(ledger);
+                    break;
+                }
+                ReentrantLock lock = movementLock(key);
+                lock.lock();
+                try {
+                    if (movements.get(key) == Movement.REVERSED_BEFORE_ORIGINAL) {
+                        decline(response, "68", "LATE ORIGINAL ALREADY REVERSED");
+                        return;
+                    }
+                    funded = movement.apply(ledger);
+                    if (funded) {
+                        remember(key, movement);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                break;
+            case "BALANCE_INQUIRY":
+                long balance = ledger.balance(account);
+                String currency = text(request.get("currencyCode"), "840");
+                response.put("balance", String.valueOf(balance));
+                fieldsOf(response).put("54", "0002" + currency + (balance < 0 ? "D" : "C")
+                        + String.format("%012d", Math.abs(balance)));
+                break;
+            default:
+                // AUTHORIZATION y tipos desconocidos no mueven saldo
+                break;
+        }
+        if (!funded) {
+            decline(response, "51", "INSUFFICIENT FUNDS");
+        }
+    }
+
+    /**
+     * Deshace el movimiento del original que nombra el reverso
+     */
+    private void reverse(Map<String, Object> request, Map<String, Object> response) {
+        Object originalStan = request.get("originalStan");
+        Object originalDateTime = request.get("originalTransmissionDateTime");
+        String dataElements = text(request.get("originalDataElements"), "");
+        if (dataElements.length() >= 20) {
+            // Campo 90: MTI (4) + STAN (6) + fecha/hora (10) + instituciones
+            originalStan = originalStan != null ? originalStan : dataElements.substring(4, 10);
+            originalDateTime = originalDateTime != null ? originalDateTime : dataElements.substring(10, 20);
+        }
+        String key = originalKey(request.get("terminalId"), originalStan, originalDateTime);
+        if (key == null) {
+            decline(response, "25", "ORIGINAL NOT FOUND");
+            return;
+        }
+        ReentrantLock lock = movementLock(key);
+        lock.lock();
+        try {
+            Movement movement = movements.get(key);
+            if (movement == null) {
+                // El original puede estar todavía en camino: si llega, ya no se aplica
+                remember(key, Movement.REVERSED_BEFORE_ORIGINAL);
+                decline(response, "25", "ORIGINAL NOT FOUND");
+            } else if (movement == Movement.REVERSED_BEFORE_ORIGINAL) {
+                decline(response, "25", "ORIGINAL NOT FOUND");
+            } else if (!movement.reversed) {
+                if (movement.undo(ledger)) {
+                    movement.reversed = true;
+                } else {
+                    decline(response, "51", "INSUFFICIENT FUNDS TO REVERSE");
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ReentrantLock movementLock(String key) {
+        int hash = key.hashCode();
+        return movementLocks[(hash ^ (hash >>> 16)) & (MOVEMENT_STRIPES - 1)];
+    }
+
+    /**
+     * Guarda el movimiento de la clave (con su lock tomado) y descarta el más viejo si se pasa de la ventana
+     */
+    private void remember(String key, Movement movement) {
+        if (movements.put(key, movement) != null) {
+            return;
+        }
+        movementOrder.offer(key);
+        if (rememberedMovements.incrementAndGet() > movementWindow) {
+            // Sin el lock de esa clave: un reverso que llegue después de descartarla responde 25
+            String eldest = movementOrder.poll();
+            if (eldest != null) {
+                movements.remove(eldest);
+                rememberedMovements.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Movimientos recordados para reversar (como mucho simulator.stub.ledger.reversal-window)
+     */
+    int getRememberedMovements() {
+        return movements.size();
+    }
+
+    private static String originalKey(Object terminalId, Object stan, Object transmissionDateTime) {
+        if (stan == null || transmissionDateTime == null) {
+            return null;
+        }
+        return terminalId + "/" + stan + "/" + transmissionDateTime;
+    }
+
+    /**
+     * Movimiento aplicado al ledger, con lo necesario para deshacerlo
+     */
+    private static final class Movement {
+        static final Movement REVERSED_BEFORE_ORIGINAL = new Movement("", "", null, 0);
+
+        final String type;
+        final String account;
+        final String target;
+        final long amount;
+        boolean reversed;
+
+        Movement(String type, String account, String target, long amount) {
+            this.type = type;
+            this.account = account;
+            this.target = target;
+            this.amount = amount;
+        }
+
+        boolean apply(AccountLedger ledger) {
+            switch (type) {
+                case "DEPOSIT":
+                    ledger.credit(account, amount);
+                    return true;
+                case "TRANSFER":
+                    return ledger.transfer(account, target, amount);
+                default:
+                    return ledger.debit(account, amount);
+            }
+        }
+
+        boolean undo(AccountLedger ledger) {
+            switch (type) {
+                case "DEPOSIT":
+                    return ledger.debit(account, amount);
+                case "TRANSFER":
+                    return ledger.transfer(target, account, amount);
+                default:
+                    ledger.credit(account, amount);
+                    return true;
+            }
+        }
+    }
+
+    private static String transactionTypeOf(Map<String, Object> request, String endpoint) {
+        Object declared = request.get("transactionType");
+        if (declared != null) {
+            return declared.toString().toUpperCase();
+        }
+        return endpoint == null ? "" : endpoint.replace('-', '_').toUpperCase();
+    }
+
+    private static long parseAmount(Object amount) {
+        if (amount == null) {
+            return 0;
+        }
+        if (amount instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.parseLong(amount.toString().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String text(Object value, String defaultValue) {
+        return value == null || value.toString().isBlank() ? defaultValue : value.toString();
+    }
+
+    private static void decline(Map<String, Object> response, String responseCode, String message) {
+        response.put("successful", false);
+        response.put("responseCode", responseCode);
+        response.put("responseMessage", message);
+        response.remove("approvalCode");
+        Map<String, String> fields = fieldsOf(response);
+        fields.put("39", responseCode);
+        fields.remove("38");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> fieldsOf(Map<String, Object> response) {
+        return (Map<String, String>) response.get("fields");
+    }
+
+    /**
+     * Ledger del stub, o null si simulator.stub.ledger.enabled=false
+     */
+    public AccountLedger getLedger() {
+        return ledger;
+    }
+
+    private Map<String, Object> approve(Map<String, Object> request) {
+        // El STAN es de la terminal: si el request lo trae, se respeta
+        Object requestedStan = request == null ? null : request.get("stan");
+        String stanValue = requestedStan != null
+                ? String.valueOf(requestedStan)
+                : String.format("%06d", stan.incrementAndGet() % 1_000_000);
+        Object requestedRrn = request == null ? null : request.get("retrievalReferenceNumber");
+        String rrnValue = requestedRrn != null
+                ? String.valueOf(requestedRrn)
+                : String.format("%012d", rrn.incrementAndGet() % 1_000_000_000_000L);
+        String approval = String.format("%06d", ThreadLocalRandom.current().nextInt(1_000_000));
+
+        Map<String, String> fields = new HashMap<>();
+        fields.put("11", stanValue);
+        fields.put("37", rrnValue);
+        fields.put("38", approval);
+        fields.put("39", "00");
+        if (request != null && request.get("terminalId") != null) {
+            fields.put("41", String.valueOf(request.get("terminalId")));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("successful", true);
+        response.put("responseCode", "00");
+        response.put("responseMessage", "APPROVED");
+        response.put("mti", "0210");
+        response.put("stan", stanValue);
+        response.put("retrievalReferenceNumber", rrnValue);
+        response.put("approvalCode", approval);
+        response.put("responseTime", TimeUnit.NANOSECONDS.toMillis(roundTripNanos));
+        response.put("fields", fields);
+        return response;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("🧪 EMBEDDED SIMULATOR STUB\n");
+        summary.append("─────────────────────────────────────────────────────\n");
+        summary.append(String.format("URL:                     %s\n", getBaseUrl()));
+        summary.append(String.format("HTTP requests:           %9d\n", httpRequests.sum()));
+        summary.append(String.format("Transactions / batches:  %9d / %d\n", transactions.sum(), batches.sum()));
+        summary.append(String.format("Latency model:           %d ms/request + %d µs/transaction\n",
+                TimeUnit.NANOSECONDS.toMillis(roundTripNanos), TimeUnit.NANOSECONDS.toMicros(perTransactionNanos)));
+        if (faultSchedule != FaultSchedule.NONE) {
+            summary.append("Fault schedule:\n").append(faultSchedule.describe());
+            summary.append(String.format("5xx / resets / half-open: %8d / %d / %d\n",
+                    serverErrors.sum(), resets.sum(), halfOpens.sum()));
+            summary.append(String.format("Slow drips / storm codes: %8d / %d\n", slowDrips.sum(), stormResponses.sum()));
+            summary.append(String.format("Injected latency:        %9d ms total\n",
+                    TimeUnit.NANOSECONDS.toMillis(injectedLatencyNanos.sum())));
+        }
+        if (ledger != null) {
+            summary.append(ledger.verify().toSummary());
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,188 @@
+package com.iso8583.test.stub;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.iso8583.test.config.ConfigurationManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Stub con ledger: los reversos deshacen el original que nombran, sin serializar originales distintos, y el RRN del request se respeta
+ */
+class EmbeddedSimulatorStubTest {
+
+    private static final Gson gson = new Gson();
+    private static final String ACCOUNT = "REVERSAL-TEST";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private EmbeddedSimulatorStub stub;
+
+    @BeforeEach
+    void arrancarStub() throws IOException {
+        Properties overrides = new Properties();
+        overrides.setProperty("simulator.stub.round-trip-millis", "0");
+        overrides.setProperty("simulator.stub.per-transaction-micros", "0");
+        overrides.setProperty("simulator.stub.fault.schedule", "none");
+        overrides.setProperty("simulator.stub.ledger.enabled", "true");
+        overrides.setProperty("simulator.stub.ledger.opening-balance", "1000");
+        stub = new EmbeddedSimulatorStub(0, new ConfigurationManager(overrides)).start();
+    }
+
+    @AfterEach
+    void detenerStub() {
+        stub.stop();
+    }
+
+    private static Map<String, Object> purchase(String stan, String dateTime) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("terminalId", "TERM0001");
+        body.put("account", ACCOUNT);
+        body.put("amount", "300");
+        body.put("stan", stan);
+        body.put("transmissionDateTime", dateTime);
+        body.put("retrievalReferenceNumber", "000012345678");
+        return body;
+    }
+
+    private static Map<String, Object> reversalOf(Map<String, Object> original) {
+        Map<String, Object> body = new HashMap<>(original);
+        body.put("mti", "0400");
+        body.put("stan", "000999");
+        body.put("originalDataElements", "0200" + original.get("stan") + original.get("transmissionDateTime")
+                + "0".repeat(22));
+        return body;
+    }
+
+    private Map<String, Object> post(String endpoint, Map<String, Object> body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(stub.getBaseUrl() + "/api/v1/transactions/" + endpoint))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(body)))
+                .build();
+        String response = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        return gson.fromJson(response, new TypeToken<Map<String, Object>>() { }.getType());
+    }
+
+    @Test
+    void elReversoDevuelveLoDebitadoUnaSolaVez() throws Exception {
+        Map<String, Object> original = purchase("000001", "1019120000");
+
+        assertThat(post("purchase", original).get("responseCode")).isEqualTo("00");
+        assertThat(stub.getLedger().balance(ACCOUNT)).isEqualTo(700);
+
+        Map<String, Object> reversal = post("reversal", reversalOf(original));
+        assertThat(reversal.get("responseCode")).isEqualTo("00");
+        assertThat(reversal.get("mti")).isEqualTo("0410");
+        assertThat(stub.getLedger().balance(ACCOUNT)).isEqualTo(1000);
+
+        assertThat(post("reversal", reversalOf(original)).get("responseCode")).as("repetido").isEqualTo("00");
+        assertThat(stub.getLedger().balance(ACCOUNT)).isEqualTo(1000);
+        assertThat(stub.getLedger().verify().isConsistent()).isTrue();
+    }
+
+    @Test
+    void reversoSinOriginalRespondeVeinticincoYElOriginalTardioNoSeAplica() throws Exception {
+        Map<String, Object> original = purchase("000002", "1019120001");
+
+        assertThat(post("reversal", reversalOf(original)).get("responseCode")).isEqualTo("25");
+        assertThat(post("purchase", original).get("responseCode")).isEqualTo("68");
+
+        assertThat(stub.getLedger().balance(ACCOUNT)).isEqualTo(1000);
+    }
+
+    @Test
+    void otraFechaHoraEsOtroOriginal() throws Exception {
+        Map<String, Object> original = purchase("000003", "1019120002");
+        post("purchase", original);
+
+        assertThat(post("reversal", reversalOf(purchase("000003", "1019120003"))).get("responseCode"))
+                .isEqualTo("25");
+        assertThat(stub.getLedger().balance(ACCOUNT)).isEqualTo(700);
+    }
+
+    @Test
+    void respetaElStanYElRrnDelRequest() throws Exception {
+        Map<String, Object> response = post("purchase", purchase("000004", "1019120004"));
+
+        assertThat(response.get("stan")).isEqualTo("000004");
+        assertThat(response.get("retrievalReferenceNumber")).isEqualTo("000012345678");
+    }
+
+    @Test
+    void originalesDistintosNoCompitenPorElMismoLock() throws Exception {
+        Map<String, Object> blocked = purchase("000005", "1019120005");
+        String blockedKey = "TERM0001/000005/1019120005";
+        String freeStan = null;
+        for (int stan = 6; freeStan == null; stan++) {
+            String candidate = String.format("%06d", stan);
+            if (stub.movementLock("TERM0001/" + candidate + "/1019120005") != stub.movementLock(blockedKey)) {
+                freeStan = candidate;
+            }
+        }
+
+        Map<String, Object> otherKey = purchase(freeStan, "1019120005");
+        ReentrantLock lock = stub.movementLock(blockedKey);
+        lock.lock();
+        try {
+            CompletableFuture<Map<String, Object>> sameKey = CompletableFuture.supplyAsync(() -> postUnchecked("purchase", blocked));
+            Map<String, Object> other = CompletableFuture.supplyAsync(
+                    () -> postUnchecked("purchase", otherKey)).get(5, TimeUnit.SECONDS);
+
+            assertThat(other.get("responseCode")).as("otra clave no espera").isEqualTo("00");
+            assertThatThrownBy(() -> sameKey.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            lock.unlock();
+            assertThat(sameKey.get(5, TimeUnit.SECONDS).get("responseCode")).isEqualTo("00");
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+        assertThat(stub.getLedger().balance(ACCOUNT)).isEqualTo(400);
+    }
+
+    @Test
+    void originalesYReversosConcurrentesDejanElSaldoIntacto() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int t = 0; t < 16; t++) {
+                int thread = t;
+                executor.execute(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        Map<String, Object> original = purchase(String.format("%06d", 100 + thread * 50 + i), "1019130000");
+                        original.put("amount", "1");
+                        postUnchecked("purchase", original);
+                        postUnchecked("reversal", reversalOf(original));
+                    }
+                });
+            }
+        }
+
+        assertThat(stub.getLedger().balance(ACCOUNT)).isEqualTo(1000);
+        assertThat(stub.getLedger().verify().isConsistent()).isTrue();
+        assertThat(stub.getRememberedMovements()).isEqualTo(800);
+    }
+
+    private Map<String, Object> postUnchecked(String endpoint, Map<String, Object> body) {
+        try {
+            return post(endpoint, body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
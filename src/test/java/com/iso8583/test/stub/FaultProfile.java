@@ -0,0 +1,245 @@
+package com.iso8583.test.stub;
+
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.mock.LatencyDistribution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Perfil declarativo de fallas del simulador embebido
+ *
+ * Se define por nombre bajo {@code simulator.stub.fault.<nombre>.*} (todos
+ * los porcentajes sobre requests HTTP de /api/v1/transactions/*, salvo la
+ * tormenta que es por transacción):
+ *
+ *   latency=pareto:5ms:1.5:2s          latencia agregada a la del stub
+ *   http-5xx-percent=5                 responde http-5xx-status (503) sin body útil
+ *   reset-percent=1                    cierra la conexión sin responder
+ *   half-open-percent=1                no responde y deja el socket abierto half-open-hold-millis
+ *   slow-drip-percent=2                entrega el body a slow-drip-bytes-per-second
+ *   storm-response-code=91             responde este código en storm-percent de las transacciones
+ *   storm-percent=30
+ *
+ * El perfil {@code none} existe siempre y no inyecta nada.
+ */
+public class FaultProfile {
+
+    public static final FaultProfile NONE = new Builder("none").build();
+
+    /**
+     * Falla que le toca a un request HTTP
+     */
+    public enum Fault { NONE, RESET, HALF_OPEN, HTTP_5XX, SLOW_DRIP }
+
+    private final String name;
+    private final LatencyDistribution latency;
+    private final double resetPercent;
+    private final double halfOpenPercent;
+    private final double http5xxPercent;
+    private final double slowDripPercent;
+    private final int http5xxStatus;
+    private final long halfOpenHoldNanos;
+    private final int slowDripBytesPerSecond;
+    private final String stormResponseCode;
+    private final double stormPercent;
+
+    private FaultProfile(Builder builder) {
+        this.name = builder.name;
+        this.latency = builder.latency;
+        this.resetPercent = builder.resetPercent;
+        this.halfOpenPercent = builder.halfOpenPercent;
+        this.http5xxPercent = builder.http5xxPercent;
+        this.slowDripPercent = builder.slowDripPercent;
+        this.http5xxStatus = builder.http5xxStatus;
+        this.halfOpenHoldNanos = builder.halfOpenHoldNanos;
+        this.slowDripBytesPerSecond = builder.slowDripBytesPerSecond;
+        this.stormResponseCode = builder.stormResponseCode;
+        this.stormPercent = builder.stormPercent;
+        double total = resetPercent + halfOpenPercent + http5xxPercent + slowDripPercent;
+        if (total > 100.0) {
+            throw new IllegalArgumentException(String.format(
+                    "Perfil de fallas %s: los porcentajes suman %.1f%% (máximo 100)", name, total));
+        }
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Lee simulator.stub.fault.&lt;nombre&gt;.*; "none" devuelve {@link #NONE}
+     */
+    public static FaultProfile fromConfig(String name, ConfigurationManager config) {
+        if ("none".equals(name)) {
+            return NONE;
+        }
+        String prefix = "simulator.stub.fault." + name + ".";
+        return builder(name)
+                .latency(LatencyDistribution.parse(config.getProperty(prefix + "latency", "none")))
+                .resetPercent(config.getDoubleProperty(prefix + "reset-percent", 0))
+                .halfOpenPercent(config.getDoubleProperty(prefix + "half-open-percent", 0))
+                .halfOpenHoldMillis(config.getLongProperty(prefix + "half-open-hold-millis", 60_000))
+                .http5xxPercent(config.getDoubleProperty(prefix + "http-5xx-percent", 0))
+                .http5xxStatus(config.getIntProperty(prefix + "http-5xx-status", 503))
+                .slowDripPercent(config.getDoubleProperty(prefix + "slow-drip-percent", 0))
+                .slowDripBytesPerSecond(config.getIntProperty(prefix + "slow-drip-bytes-per-second", 200))
+                .storm(config.getProperty(prefix + "storm-response-code", "91"),
+                        config.getDoubleProperty(prefix + "storm-percent", 0))
+                .build();
+    }
+
+    /**
+     * Sortea la falla de un request HTTP (una sola por request)
+     */
+    public Fault pickFault(RandomGenerator random) {
+        double roll = random.nextDouble() * 100.0;
+        if ((roll -= resetPercent) < 0) {
+            return Fault.RESET;
+        }
+        if ((roll -= halfOpenPercent) < 0) {
+            return Fault.HALF_OPEN;
+        }
+        if ((roll -= http5xxPercent) < 0) {
+            return Fault.HTTP_5XX;
+        }
+        if ((roll -= slowDripPercent) < 0) {
+            return Fault.SLOW_DRIP;
+        }
+        return Fault.NONE;
+    }
+
+    /**
+     * Código de la tormenta para esta transacción, o null si responde normal
+     */
+    public String pickStormCode(RandomGenerator random) {
+        return stormPercent > 0 && random.nextDouble() * 100.0 < stormPercent ? stormResponseCode : null;
+    }
+
+    public long nextLatencyNanos(RandomGenerator random) {
+        return latency.nextNanos(random);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getHttp5xxStatus() {
+        return http5xxStatus;
+    }
+
+    public long getHalfOpenHoldNanos() {
+        return halfOpenHoldNanos;
+    }
+
+    public int getSlowDripBytesPerSecond() {
+        return slowDripBytesPerSecond;
+    }
+
+    public String describe() {
+        List<String> parts = new ArrayList<>();
+        if (latency != LatencyDistribution.NONE) {
+            parts.add("+latency " + latency.describe());
+        }
+        if (http5xxPercent > 0) {
+            parts.add(String.format("%s %.1f%%", http5xxStatus, http5xxPercent));
+        }
+        if (resetPercent > 0) {
+            parts.add(String.format("reset %.1f%%", resetPercent));
+        }
+        if (halfOpenPercent > 0) {
+            parts.add(String.format("half-open %.1f%%", halfOpenPercent));
+        }
+        if (slowDripPercent > 0) {
+            parts.add(String.format("slow-drip %.1f%% @%dB/s", slowDripPercent, slowDripBytesPerSecond));
+        }
+        if (stormPercent > 0) {
+            parts.add(String.format("storm 39=%s %.1f%%", stormResponseCode, stormPercent));
+        }
+        return name + (parts.isEmpty() ? "" : " (" + String.join(", ", parts) + ")");
+    }
+
+    // ============================================================================
+    // BUILDER
+    // ============================================================================
+
+    public static class Builder {
+        private final String name;
+        private LatencyDistribution latency = LatencyDistribution.NONE;
+        private double resetPercent;
+        private double halfOpenPercent;
+        private double http5xxPercent;
+        private double slowDripPercent;
+        private int http5xxStatus = 503;
+        private long halfOpenHoldNanos = TimeUnit.SECONDS.toNanos(60);
+        private int slowDripBytesPerSecond = 200;
+        private String stormResponseCode = "91";
+        private double stormPercent;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        public Builder resetPercent(double percent) {
+            this.resetPercent = percent(percent);
+            return this;
+        }
+
+        public Builder halfOpenPercent(double percent) {
+            this.halfOpenPercent = percent(percent);
+            return this;
+        }
+
+        public Builder halfOpenHoldMillis(long millis) {
+            this.halfOpenHoldNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+            return this;
+        }
+
+        public Builder http5xxPercent(double percent) {
+            this.http5xxPercent = percent(percent);
+            return this;
+        }
+
+        public Builder http5xxStatus(int status) {
+            if (status < 500 || status > 599) {
+                throw new IllegalArgumentException("http-5xx-status debe ser 5xx: " + status);
+            }
+            this.http5xxStatus = status;
+            return this;
+        }
+
+        public Builder slowDripPercent(double percent) {
+            this.slowDripPercent = percent(percent);
+            return this;
+        }
+
+        public Builder slowDripBytesPerSecond(int bytesPerSecond) {
+            this.slowDripBytesPerSecond = Math.max(1, bytesPerSecond);
+            return this;
+        }
+
+        public Builder storm(String responseCode, double percent) {
+            if (responseCode == null || responseCode.length() != 2) {
+                throw new IllegalArgumentException("storm-response-code inválido: " + responseCode);
+            }
+            this.stormResponseCode = responseCode;
+            this.stormPercent = percent(percent);
+            return this;
+        }
+
+        public FaultProfile build() {
+            return new FaultProfile(this);
+        }
+
+        private static double percent(double value) {
+            return Math.max(0.0, Math.min(100.0, value));
+        }
+    }
+}
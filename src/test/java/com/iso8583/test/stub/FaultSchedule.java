@@ -0,0 +1,110 @@
+package com.iso8583.test.stub;
+
+import com.iso8583.test.config.ConfigurationManager;
+import com.iso8583.test.mock.LatencyDistribution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Secuencia de perfiles de falla a lo largo de una corrida
+ *
+ * Cada fase arranca a un offset desde que se levantó el stub y dura hasta
+ * la siguiente; la última se mantiene hasta el final:
+ *
+ *   simulator.stub.fault.schedule=0s:none,30s:degraded,60s:storm-91,90s:none
+ *
+ * Un nombre sin offset es un perfil fijo para toda la corrida.
+ */
+public class FaultSchedule {
+
+    public static final FaultSchedule NONE = new FaultSchedule(List.of(new Phase(0, FaultProfile.NONE)));
+
+    private final List<Phase> phases;
+
+    public FaultSchedule(List<Phase> phases) {
+        if (phases.isEmpty()) {
+            throw new IllegalArgumentException("El schedule de fallas no tiene fases");
+        }
+        List<Phase> sorted = new ArrayList<>(phases);
+        sorted.sort((a, b) -> Long.compare(a.offsetNanos, b.offsetNanos));
+        if (sorted.get(0).offsetNanos > 0) {
+            sorted.add(0, new Phase(0, FaultProfile.NONE));
+        }
+        this.phases = Collections.unmodifiableList(sorted);
+    }
+
+    public static FaultSchedule constant(FaultProfile profile) {
+        return new FaultSchedule(List.of(new Phase(0, profile)));
+    }
+
+    public static FaultSchedule fromConfig(ConfigurationManager config) {
+        String spec = config.getProperty("simulator.stub.fault.schedule", "none").trim();
+        if (spec.isEmpty() || spec.equals("none")) {
+            return NONE;
+        }
+        List<Phase> phases = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String item = entry.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            int colon = item.indexOf(':');
+            long offsetNanos = colon < 0 ? 0 : LatencyDistribution.parseDuration(item.substring(0, colon));
+            String name = colon < 0 ? item : item.substring(colon + 1).trim();
+            phases.add(new Phase(offsetNanos, FaultProfile.fromConfig(name, config)));
+        }
+        return new FaultSchedule(phases);
+    }
+
+    /**
+     * Índice de la fase vigente a {@code elapsedNanos} del arranque
+     */
+    public int phaseIndexAt(long elapsedNanos) {
+        int index = 0;
+        for (int i = 1; i < phases.size(); i++) {
+            if (phases.get(i).offsetNanos > elapsedNanos) {
+                break;
+            }
+            index = i;
+        }
+        return index;
+    }
+
+    public Phase getPhase(int index) {
+        return phases.get(index);
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public String describe() {
+        StringBuilder text = new StringBuilder();
+        for (Phase phase : phases) {
+            text.append(String.format("  +%ds  %s\n",
+                    TimeUnit.NANOSECONDS.toSeconds(phase.offsetNanos), phase.profile.describe()));
+        }
+        return text.toString();
+    }
+
+    public static class Phase {
+        private final long offsetNanos;
+        private final FaultProfile profile;
+
+        public Phase(long offsetNanos, FaultProfile profile) {
+            this.offsetNanos = offsetNanos;
+            this.profile = profile;
+        }
+
+        public long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        public FaultProfile getProfile() {
+            return profile;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.iso8583.test.utils;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.iso8583.test.models.TransactionResponse;
+import com.iso8583.test.performance.LatencyHistogram;
 import io.qameta.allure.Allure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,10 +42,15 @@ public class TestCoverageReporter {
     // Almacenamiento de métricas durante la ejecución
     private static final List<TransactionResponse> allResponses = new ArrayList<>();
     private static final Map<String, Integer> scenariosByFeature = new HashMap<>();
-    private static final Map<String, Integer> responseCodeDistribution = new HashMap<>();
-    private static final Map<String, Integer> transactionTypeCount = new HashMap<>();
+    private static final Map<String, Long> responseCodeDistribution = new HashMap<>();
+    private static final Map<String, Long> transactionTypeCount = new HashMap<>();
     private static final List<Long> responseTimes = new ArrayList<>();
 
+    // Resultados agregados de cargas (p. ej. carga distribuida): solo contadores + histograma
+    private static final LatencyHistogram aggregatedLatencies = new LatencyHistogram();
+    private static long aggregatedTransactions = 0;
+    private static long aggregatedSuccessful = 0;
+
     // ============================================================================
     // REGISTRO DE TRANSACCIONES
     // ============================================================================
@@ -66,12 +72,12 @@ public class TestCoverageReporter {
 
             // Contar por código de respuesta
             if (response.getResponseCode() != null) {
-                responseCodeDistribution.merge(response.getResponseCode(), 1, Integer::sum);
+                responseCodeDistribution.merge(response.getResponseCode(), 1L, Long::sum);
             }
 
             // Contar por tipo de transacción
             if (transactionType != null) {
-                transactionTypeCount.merge(transactionType, 1, Integer::sum);
+                transactionTypeCount.merge(transactionType, 1L, Long::sum);
             }
 
             // Registrar tiempo de respuesta
@@ -84,6 +90,29 @@ public class TestCoverageReporter {
                 featureName, transactionType, response.getResponseCode());
     }
 
+    /**
+     * Registra el resultado agregado de una carga (miles de transacciones)
+     * sin guardar cada response: contadores, distribuciones e histograma
+     */
+    public static void recordAggregate(String featureName, long total, long successful,
+                                       Map<String, Long> responseCodes, Map<String, Long> transactionTypes,
+                                       LatencyHistogram latencies) {
+        synchronized (allResponses) {
+            aggregatedTransactions += total;
+            aggregatedSuccessful += successful;
+            scenariosByFeature.merge(featureName, 1, Integer::sum);
+            responseCodes.forEach((code, count) ->
+                    responseCodeDistribution.merge(code, count, Long::sum));
+            transactionTypes.forEach((type, count) ->
+                    transactionTypeCount.merge(type, count, Long::sum));
+            if (latencies != null) {
+                aggregatedLatencies.add(latencies);
+            }
+        }
+
+        logger.info("📊 Resultado agregado registrado: {} - {} transacciones", featureName, total);
+    }
+
     // ============================================================================
     // GENERACIÓN DE REPORTES
     // ============================================================================
@@ -121,10 +150,12 @@ public class TestCoverageReporter {
 
         // Información general
         report.timestamp = LocalDateTime.now().format(formatter);
-        report.totalTransactions = allResponses.size();
-        report.successfulTransactions = countSuccessful();
-        report.failedTransactions = allResponses.size() - countSuccessful();
-        report.successRate = calculateSuccessRate();
+        long total = allResponses.size() + aggregatedTransactions;
+        long successful = countSuccessful() + aggregatedSuccessful;
+        report.totalTransactions = total;
+        report.successfulTransactions = successful;
+        report.failedTransactions = total - successful;
+        report.successRate = calculateSuccessRate(total, successful);
 
         // Cobertura por feature
         report.scenariosByFeature = new HashMap<>(scenariosByFeature);
@@ -148,6 +179,9 @@ public class TestCoverageReporter {
      * Construye métricas de performance
      */
     private static PerformanceMetrics buildPerformanceMetrics() {
+        if (aggregatedLatencies.getCount() > 0) {
+            return buildPerformanceMetricsFromHistogram();
+        }
         if (responseTimes.isEmpty()) {
             return new PerformanceMetrics();
         }
@@ -168,6 +202,25 @@ public class TestCoverageReporter {
         return metrics;
     }
 
+    /**
+     * Métricas de performance cuando hay resultados agregados: se combinan
+     * los tiempos individuales con el histograma de las cargas
+     */
+    private static PerformanceMetrics buildPerformanceMetricsFromHistogram() {
+        LatencyHistogram combined = aggregatedLatencies.copy();
+        responseTimes.forEach(combined::recordMillis);
+
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        metrics.averageResponseTime = (long) (combined.getMeanMicros() / 1000);
+        metrics.minResponseTime = combined.getMinMicros() / 1000;
+        metrics.maxResponseTime = combined.getMaxMicros() / 1000;
+        metrics.medianResponseTime = combined.getValueAtPercentileMillis(50);
+        metrics.p90ResponseTime = combined.getValueAtPercentileMillis(90);
+        metrics.p95ResponseTime = combined.getValueAtPercentileMillis(95);
+        metrics.p99ResponseTime = combined.getValueAtPercentileMillis(99);
+        return metrics;
+    }
+
     /**
      * Construye lista de errores más frecuentes
      */
@@ -234,7 +287,7 @@ public class TestCoverageReporter {
         dashboard.append("📊 RESPONSE CODE DISTRIBUTION\n");
         dashboard.append("─────────────────────────────────────────────────────\n");
         report.responseCodeDistribution.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
                 .forEach(entry -> {
                     String emoji = entry.getKey().equals("00") ? "✅" : "❌";
                     dashboard.append(String.format("%s Code %s: %3d (%5.2f%%)\n",
@@ -311,11 +364,11 @@ public class TestCoverageReporter {
                 .count();
     }
 
-    private static double calculateSuccessRate() {
-        if (allResponses.isEmpty()) {
+    private static double calculateSuccessRate(long total, long successful) {
+        if (total == 0) {
             return 0.0;
         }
-        return (countSuccessful() * 100.0) / allResponses.size();
+        return (successful * 100.0) / total;
     }
 
     private static long calculateAverage(List<Long> values) {
@@ -343,6 +396,9 @@ public class TestCoverageReporter {
             responseCodeDistribution.clear();
             transactionTypeCount.clear();
             responseTimes.clear();
+            aggregatedLatencies.reset();
+            aggregatedTransactions = 0;
+            aggregatedSuccessful = 0;
         }
     }
 
@@ -352,13 +408,13 @@ public class TestCoverageReporter {
 
     public static class CoverageReport {
         public String timestamp;
-        public int totalTransactions;
+        public long totalTransactions;
         public long successfulTransactions;
         public long failedTransactions;
         public double successRate;
         public Map<String, Integer> scenariosByFeature;
-        public Map<String, Integer> responseCodeDistribution;
-        public Map<String, Integer> transactionTypeDistribution;
+        public Map<String, Long> responseCodeDistribution;
+        public Map<String, Long> transactionTypeDistribution;
         public PerformanceMetrics performanceMetrics;
         public List<ErrorSummary> topErrors;
     }
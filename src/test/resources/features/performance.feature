@@ -0,0 +1,58 @@
+# language: es
+@Performance
+Característica: Pruebas de carga (Performance)
+  Como equipo de operaciones
+  Quiero medir la capacidad del autorizador bajo carga concurrente
+  Para conocer el TPS sostenible dentro del SLA
+
+  Antecedentes:
+    Dado que el simulador ISO8583 está disponible en "http://localhost:8081"
+    Y el servicio está en modo "MOCK" conectado al autorizador
+    Y la conexión con el autorizador está establecida
+
+  @Adaptive
+  Escenario: TPS sostenible de consultas de saldo con concurrencia adaptativa
+    Cuando ejecuto una carga adaptativa de "BALANCE_INQUIRY" durante 60 segundos
+    Entonces el TPS sostenible debe ser mayor a 1
+    Y la carga adaptativa debe tener ventanas dentro del SLA
+
+  @Soak
+  Escenario: Soak de consultas de saldo sin deriva de latencia ni fugas
+    Cuando ejecuto una prueba soak de "BALANCE_INQUIRY" durante 480 minutos
+    Entonces la prueba soak no debe detectar alertas de tipo "LATENCY_DRIFT"
+    Y la prueba soak no debe detectar alertas de tipo "ERROR_RATE_CREEP"
+    Y la prueba soak no debe detectar alertas de tipo "THREAD_GROWTH"
+    Y la tasa de error del soak debe ser menor a 1.0 por ciento
+
+  @Spike
+  Escenario: Recuperación después de un pico de quincena de 10x
+    Dado un perfil de tráfico base de 20 TPS
+    Y un pico de 10x a los 60 segundos durante 30 segundos
+    Cuando ejecuto la carga con picos de "PURCHASE" durante 180 segundos
+    Entonces todos los picos deben recuperarse en menos de 30 segundos
+
+  @Spike @Burst
+  Escenario: Ráfagas periódicas sobre tasa constante
+    Dado un perfil de tráfico base de 20 TPS
+    Y ráfagas de 3x de 5 segundos cada 60 segundos
+    Cuando ejecuto la carga con picos de "BALANCE_INQUIRY" durante 300 segundos
+    Entonces todos los picos deben recuperarse en menos de 20 segundos
+
+  @Distributed
+  Escenario: Carga distribuida en varias JVMs con histograma combinado
+    Cuando ejecuto una carga distribuida de "PURCHASE:70,BALANCE_INQUIRY:30" a 200 TPS con 4 workers durante 120 segundos
+    Entonces todos los workers deben reportar resultados
+    Y la tasa de error distribuida debe ser menor a 1.0 por ciento
+
+  @Replay
+  Escenario: Replay de una jornada capturada a 5x
+    Dado una captura de tráfico de "PURCHASE:70,BALANCE_INQUIRY:30" a 20 TPS durante 60 segundos en "target/load/day.capture.jsonl"
+    Cuando ejecuto el replay de la captura "target/load/day.capture.jsonl" a velocidad "5x"
+    Entonces el replay debe sostener al menos 50 TPS
+    Y la tasa de error del replay debe ser menor a 1.0 por ciento
+
+  @VirtualTerminals
+  Escenario: Flota de 2000 terminales virtuales con STAN, tarjetas y keep-alive propios
+    Cuando ejecuto una flota de 2000 terminales virtuales con "PURCHASE:70,BALANCE_INQUIRY:30" a 200 TPS durante 120 segundos
+    Entonces todas las terminales virtuales deben haber transaccionado
+    Y la tasa de error de la flota debe ser menor a 1.0 por ciento